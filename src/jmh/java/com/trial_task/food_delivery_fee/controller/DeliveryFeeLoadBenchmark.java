@@ -0,0 +1,205 @@
+package com.trial_task.food_delivery_fee.controller;
+
+import com.trial_task.food_delivery_fee.DeliveryFeeApplication;
+import com.trial_task.food_delivery_fee.model.WeatherData;
+import com.trial_task.food_delivery_fee.repository.WeatherDataRepository;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Load benchmark of the delivery fee endpoint comparing request handling on virtual threads with the
+ * platform-thread pool of Tomcat.
+ * <p>
+ * For each mode the application is started on a random port and driven by a fixed number of concurrent clients.
+ * The clients ask for historical fees, so every request reaches the repository, which is stalled for a configurable
+ * time to model a slow database or a cold cache.
+ * <p>
+ * Arguments are {@code key=value} pairs: {@code concurrency} (default 1000), {@code warmup} (PT5S),
+ * {@code duration} (PT20S) and {@code stall} (PT0.05S).
+ */
+public final class DeliveryFeeLoadBenchmark {
+
+    private DeliveryFeeLoadBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            options.put(option[0], option[1]);
+        }
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "1000"));
+        Duration warmup = Duration.parse(options.getOrDefault("warmup", "PT5S"));
+        Duration duration = Duration.parse(options.getOrDefault("duration", "PT20S"));
+        Duration stall = Duration.parse(options.getOrDefault("stall", "PT0.05S"));
+
+        List<Result> results = new ArrayList<>();
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            results.add(run(virtualThreads, concurrency, warmup, duration, stall));
+        }
+
+        System.out.printf("%nconcurrency=%d duration=%s stall=%s%n", concurrency, duration, stall);
+        System.out.printf("%-10s %12s %10s %10s %10s %10s %8s%n", "mode", "requests", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (Result result : results) {
+            System.out.printf("%-10s %12d %10.0f %10.1f %10.1f %10.1f %8d%n",
+                    result.mode(), result.requests(), result.throughput(),
+                    result.percentileMillis(0.50), result.percentileMillis(0.99), result.percentileMillis(1.0),
+                    result.errors());
+        }
+    }
+
+    private static Result run(boolean virtualThreads, int concurrency, Duration warmup, Duration duration, Duration stall)
+            throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DeliveryFeeApplication.class)
+                .initializers(applicationContext -> applicationContext.getBeanFactory().addBeanPostProcessor(stalling(stall)))
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:load-" + mode,
+                        "weatherdata.api.url=http://localhost:1/unavailable",
+                        "weatherdata.cron.expression=-",
+                        "weatherdata.retention.cron.expression=-",
+                        "logging.level.root=WARN")
+                .run()) {
+            LocalDateTime observed = LocalDateTime.now().minusDays(30).withNano(0);
+            context.getBean(WeatherDataRepository.class)
+                    .save(new WeatherData("Tallinn-Harku", "26038", 2.1, 3.2, "Overcast", observed));
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port
+                    + "/deliveryFee?city=Tallinn&vehicleType=car&dateTime=" + observed.plusHours(1))).build();
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+
+            drive(mode, client, request, concurrency, warmup);
+            return drive(mode, client, request, concurrency, duration);
+        }
+    }
+
+    private static Result drive(String mode, HttpClient client, HttpRequest request, int concurrency, Duration duration)
+            throws Exception {
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        List<Future<Recording>> clients = new ArrayList<>(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                clients.add(executor.submit(() -> {
+                    Recording recording = new Recording();
+                    while (System.nanoTime() < deadline) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            recording.add(System.nanoTime() - sent, response.statusCode() == 200);
+                        } catch (IOException e) {
+                            recording.add(System.nanoTime() - sent, false);
+                        }
+                    }
+                    return recording;
+                }));
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Recording total = new Recording();
+        for (Future<Recording> future : clients) {
+            total.addAll(future.get());
+        }
+        long[] latencies = Arrays.copyOf(total.latencies, total.size);
+        Arrays.sort(latencies);
+        return new Result(mode, latencies, total.errors, seconds);
+    }
+
+    /**
+     * Slows down the historical weather lookup of the repository by the given stall.
+     */
+    private static BeanPostProcessor stalling(Duration stall) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof WeatherDataRepository repository)) {
+                    return bean;
+                }
+                return Proxy.newProxyInstance(WeatherDataRepository.class.getClassLoader(),
+                        new Class<?>[]{WeatherDataRepository.class},
+                        (proxy, method, methodArgs) -> {
+                            if (method.getName().startsWith("findFirstByStationNameAndObservationTimestampLessThanEqual")) {
+                                Thread.sleep(stall);
+                            }
+                            try {
+                                return method.invoke(repository, methodArgs);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                        });
+            }
+        };
+    }
+
+    /**
+     * Latencies recorded by a single client.
+     */
+    private static final class Recording {
+        private long[] latencies = new long[1024];
+        private int size;
+        private long errors;
+
+        void add(long latencyNanos, boolean ok) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latencyNanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        void addAll(Recording other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.latencies[i], true);
+            }
+            errors += other.errors;
+        }
+    }
+
+    private record Result(String mode, long[] sortedLatencies, long errors, double seconds) {
+
+        long requests() {
+            return sortedLatencies.length;
+        }
+
+        double throughput() {
+            return sortedLatencies.length / seconds;
+        }
+
+        double percentileMillis(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(index, 0)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.trial_task.food_delivery_fee.controller;
+
+import com.trial_task.food_delivery_fee.DeliveryFeeApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures the startup time and memory footprint of the servlet and the reactive stack.
+ * <p>
+ * Every measurement runs in a fresh JVM, which starts the application on a random port, answers one fee request
+ * and reports the time from JVM start until it was ready, the heap and non-heap usage after a full GC,
+ * the resident set size and the live thread count. The median of each value over all runs is printed.
+ * <p>
+ * Arguments are {@code key=value} pairs: {@code runs} (default 3).
+ */
+public final class StackFootprintBenchmark {
+
+    private static final String[] STACKS = {"servlet", "reactive"};
+
+    private StackFootprintBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2 && args[0].equals("child")) {
+            measure(args[1]);
+            return;
+        }
+
+        int runs = 3;
+        for (String arg : args) {
+            if (arg.startsWith("runs=")) {
+                runs = Integer.parseInt(arg.substring("runs=".length()));
+            }
+        }
+
+        System.out.printf("%-10s %12s %12s %14s %10s %8s  %s%n",
+                "stack", "startup ms", "heap MB", "non-heap MB", "RSS MB", "threads", "server");
+        for (String stack : STACKS) {
+            List<long[]> samples = new ArrayList<>();
+            String server = "";
+            for (int i = 0; i < runs; i++) {
+                String[] result = runChild(stack);
+                server = result[6];
+                samples.add(Arrays.stream(result, 1, 6).mapToLong(Long::parseLong).toArray());
+            }
+            System.out.printf("%-10s %12d %12.1f %14.1f %10.1f %8d  %s%n", stack,
+                    median(samples, 0), median(samples, 1) / 1048576.0, median(samples, 2) / 1048576.0,
+                    median(samples, 3) / 1024.0, median(samples, 4), server);
+        }
+    }
+
+    private static String[] runChild(String stack) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                StackFootprintBenchmark.class.getName(), "child", stack)
+                .redirectErrorStream(true)
+                .start();
+
+        String[] result = null;
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                if (line.startsWith("RESULT ")) {
+                    result = line.split(" ");
+                }
+            }
+        }
+        if (process.waitFor() != 0 || result == null) {
+            throw new IllegalStateException("Measurement of the " + stack + " stack failed");
+        }
+        return result;
+    }
+
+    private static void measure(String stack) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DeliveryFeeApplication.class)
+                .run("--server.port=0",
+                        "--spring.main.web-application-type=" + stack,
+                        "--weatherdata.api.url=http://localhost:1/unavailable",
+                        "--weatherdata.cron.expression=-",
+                        "--weatherdata.retention.cron.expression=-",
+                        "--logging.level.root=WARN")) {
+            long startupMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpResponse<Void> response = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/deliveryFee?city=Tallinn&vehicleType=car")).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200 && response.statusCode() != 503) {
+                throw new IllegalStateException("Unexpected status " + response.statusCode());
+            }
+
+            System.gc();
+            long heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+            long nonHeapUsed = ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage().getUsed();
+            int threads = ManagementFactory.getThreadMXBean().getThreadCount();
+            String server = ((WebServerApplicationContext) context).getWebServer().getClass().getSimpleName();
+            System.out.printf("RESULT %d %d %d %d %d %s%n",
+                    startupMillis, heapUsed, nonHeapUsed, residentSetKilobytes(), threads, server);
+        }
+    }
+
+    private static long residentSetKilobytes() throws IOException {
+        Path status = Path.of("/proc/self/status");
+        if (!Files.exists(status)) {
+            return 0;
+        }
+        return Files.readAllLines(status).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                .findFirst()
+                .orElse(0);
+    }
+
+    private static long median(List<long[]> samples, int index) {
+        long[] values = samples.stream().mapToLong(sample -> sample[index]).sorted().toArray();
+        return values[values.length / 2];
+    }
+}
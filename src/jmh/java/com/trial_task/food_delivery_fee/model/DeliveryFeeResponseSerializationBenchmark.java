@@ -0,0 +1,28 @@
+package com.trial_task.food_delivery_fee.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark of building and serializing a delivery fee response to JSON.
+ */
+@State(Scope.Benchmark)
+public class DeliveryFeeResponseSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws JsonProcessingException {
+        DeliveryFee deliveryFee = new DeliveryFee("Tallinn", "bike", 3.0, 0.5, 0.5, 1.0);
+        return objectMapper.writeValueAsBytes(new DeliveryFeeResponse("OK", deliveryFee));
+    }
+}
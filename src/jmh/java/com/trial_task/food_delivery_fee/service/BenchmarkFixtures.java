@@ -0,0 +1,65 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.model.WeatherData;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertyResolver;
+import org.springframework.core.env.PropertySourcesPropertyResolver;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.ResourcePropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Shared inputs for the benchmarks.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Loads the application properties the same way the application does.
+     */
+    static PropertyResolver applicationProperties() {
+        try {
+            MutablePropertySources sources = new MutablePropertySources();
+            sources.addFirst(new ResourcePropertySource("classpath:application.properties"));
+            return new PropertySourcesPropertyResolver(sources);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static FeeRuleTable rules() {
+        return FeeRuleTable.compile(applicationProperties());
+    }
+
+    /**
+     * Weather that triggers every extra fee for bikes without forbidding them.
+     */
+    static WeatherData extraFeeWeather() {
+        return new WeatherData("Tallinn-Harku", "26038", -5.0, 12.0, "Light snow shower", LocalDateTime.now());
+    }
+
+    /**
+     * Weather that forbids bikes.
+     */
+    static WeatherData stormWeather() {
+        return new WeatherData("Tallinn-Harku", "26038", 1.0, 24.0, "Hail", LocalDateTime.now());
+    }
+
+    /**
+     * The recorded observations payload of the weather API.
+     */
+    static String observationsXml() {
+        try (InputStream in = new ClassPathResource("observations.xml").getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
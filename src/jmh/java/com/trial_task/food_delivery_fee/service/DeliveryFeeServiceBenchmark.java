@@ -0,0 +1,65 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.exception.ForbiddenCityException;
+import com.trial_task.food_delivery_fee.exception.ForbiddenVehicleTypeException;
+import com.trial_task.food_delivery_fee.exception.WeatherDataFetchException;
+import com.trial_task.food_delivery_fee.model.DeliveryFee;
+import com.trial_task.food_delivery_fee.model.WeatherData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Benchmark of a full fee calculation with the weather data served by a stub.
+ * <p>
+ * The storm weather forbids bikes, comparing the exception-based rejection with the outcome-based one.
+ */
+@State(Scope.Benchmark)
+public class DeliveryFeeServiceBenchmark {
+
+    @Param({"bike", "car"})
+    public String vehicleType;
+
+    @Param({"extraFee", "storm"})
+    public String weather;
+
+    private DeliveryFeeService deliveryFeeService;
+
+    @Setup
+    public void setUp() {
+        Optional<WeatherData> weatherData = Optional.of("storm".equals(weather)
+                ? BenchmarkFixtures.stormWeather()
+                : BenchmarkFixtures.extraFeeWeather());
+        WeatherDataService stubWeatherDataService = new WeatherDataService(null, null, null) {
+            @Override
+            public Optional<WeatherData> getLatest(String city) {
+                return weatherData;
+            }
+        };
+        FeeRuleService feeRuleService = new FeeRuleService(BenchmarkFixtures.rules());
+        deliveryFeeService = new DeliveryFeeService(stubWeatherDataService, feeRuleService,
+                new FeeMetrics(new SimpleMeterRegistry(), feeRuleService),
+                new WeatherFreshnessPolicy(Duration.ofHours(3), WeatherFreshnessPolicy.StaleAction.SERVE_STALE),
+                new FeeZoneService(FeeZoneIndex.empty()));
+    }
+
+    @Benchmark
+    public DeliveryFee calculateFee() {
+        try {
+            return deliveryFeeService.calculateFee("Tallinn", vehicleType);
+        } catch (ForbiddenVehicleTypeException | ForbiddenCityException | WeatherDataFetchException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public FeeOutcome evaluate() {
+        return deliveryFeeService.evaluate("Tallinn", vehicleType);
+    }
+}
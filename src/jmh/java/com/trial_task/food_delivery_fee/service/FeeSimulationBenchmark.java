@@ -0,0 +1,76 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.exception.InvalidDeliveryVolumesException;
+import com.trial_task.food_delivery_fee.model.WeatherData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmarks of a fee simulation over a year of quarter-hourly weather in every city, with the weather history
+ * served by a stub. Every volume row holds ten deliveries.
+ */
+@State(Scope.Benchmark)
+public class FeeSimulationBenchmark {
+
+    private static final LocalDateTime START = LocalDateTime.of(2023, 1, 1, 0, 0);
+    private static final int MINUTES_PER_YEAR = 365 * 24 * 60;
+
+    @Param({"1000000"})
+    public int rows;
+
+    private FeeSimulationService feeSimulationService;
+    private FeeRuleTable rules;
+    private byte[] csv;
+    private DeliveryVolumes volumes;
+
+    @Setup
+    public void setUp() throws InvalidDeliveryVolumesException {
+        Random random = new Random(42);
+        String[] phenomena = {"", "Light snow shower", "Moderate rain", "Glaze", "Sleet", "Clear"};
+        List<WeatherData> history = new ArrayList<>();
+        for (int minute = 0; minute < MINUTES_PER_YEAR; minute += 15) {
+            history.add(new WeatherData("Tallinn-Harku", "26038", random.nextDouble() * 40 - 20,
+                    random.nextDouble() * 25, phenomena[random.nextInt(phenomena.length)], START.plusMinutes(minute)));
+        }
+        WeatherDataService stubWeatherDataService = new WeatherDataService(null, null, null) {
+            @Override
+            public StationHistory getHistory(String city, LocalDateTime from) {
+                return StationHistory.EMPTY.with(history, Long.MIN_VALUE);
+            }
+        };
+        feeSimulationService = new FeeSimulationService(stubWeatherDataService);
+        rules = BenchmarkFixtures.rules();
+
+        // Rows are grouped by hour like an hourly export of delivery counts
+        String[] cities = {"Tallinn", "Tartu", "Pärnu"};
+        String[] vehicleTypes = {"car", "scooter", "bike"};
+        StringBuilder builder = new StringBuilder("dateTime,city,vehicleType,deliveries\n");
+        for (int row = 0; row < rows; row++) {
+            LocalDateTime hour = START.plusHours((long) row * (MINUTES_PER_YEAR / 60) / rows);
+            builder.append(hour).append(',').append(cities[random.nextInt(cities.length)]).append(',')
+                    .append(vehicleTypes[random.nextInt(vehicleTypes.length)]).append(",10\n");
+        }
+        csv = builder.toString().getBytes(StandardCharsets.UTF_8);
+        volumes = DeliveryVolumes.parse(new ByteArrayInputStream(csv));
+    }
+
+    @Benchmark
+    public DeliveryVolumes parse() throws InvalidDeliveryVolumesException {
+        return DeliveryVolumes.parse(new ByteArrayInputStream(csv));
+    }
+
+    @Benchmark
+    public FeeSimulationReport simulate() {
+        return feeSimulationService.simulate(rules, volumes);
+    }
+}
@@ -0,0 +1,60 @@
+package com.trial_task.food_delivery_fee.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmarks of zone lookups in the {@link FeeZoneIndex} over a grid of hexagonal zones covering Estonia.
+ */
+@State(Scope.Benchmark)
+public class FeeZoneIndexBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int zones;
+
+    private FeeZoneIndex index;
+    private double[][] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        int side = (int) Math.ceil(Math.sqrt(zones));
+        double width = 6.5 / side;
+        double height = 2.2 / side;
+        List<FeeZoneIndex.Zone> zoneList = new ArrayList<>(zones);
+        List<double[][]> rings = new ArrayList<>(zones);
+        for (int i = 0; i < zones; i++) {
+            double longitude = 21.5 + (i % side + 0.5) * width;
+            double latitude = 57.5 + (i / side + 0.5) * height;
+            double[] ring = new double[12];
+            for (int corner = 0; corner < 6; corner++) {
+                double angle = Math.PI / 3 * corner;
+                ring[corner * 2] = longitude + Math.cos(angle) * width / 2;
+                ring[corner * 2 + 1] = latitude + Math.sin(angle) * height / 2;
+            }
+            zoneList.add(new FeeZoneIndex.Zone("zone" + i, "Tallinn", Map.of("car", 4.0)));
+            rings.add(new double[][]{ring});
+        }
+        index = FeeZoneIndex.of(zoneList, rings);
+
+        Random random = new Random(42);
+        queries = new double[1024][];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = new double[]{57.5 + random.nextDouble() * 2.2, 21.5 + random.nextDouble() * 6.5};
+        }
+    }
+
+    @Benchmark
+    public FeeZoneIndex.Zone find() {
+        double[] query = queries[next++ & (queries.length - 1)];
+        return index.find(query[0], query[1]);
+    }
+}
@@ -0,0 +1,52 @@
+package com.trial_task.food_delivery_fee.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmarks of nearest station lookups in the {@link GeoIndex} over stations spread across Estonia.
+ */
+@State(Scope.Benchmark)
+public class GeoIndexBenchmark {
+
+    @Param({"100", "1000"})
+    public int stations;
+
+    private GeoIndex<double[]> index;
+    private double[][] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<double[]> positions = new ArrayList<>(stations);
+        for (int i = 0; i < stations; i++) {
+            positions.add(new double[]{57.5 + random.nextDouble() * 2.2, 21.5 + random.nextDouble() * 6.5});
+        }
+        index = GeoIndex.of(positions, position -> position[0], position -> position[1]);
+
+        queries = new double[1024][];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = new double[]{57.5 + random.nextDouble() * 2.2, 21.5 + random.nextDouble() * 6.5};
+        }
+    }
+
+    @Benchmark
+    public GeoIndex.Neighbour<double[]> nearest() {
+        double[] query = queries[next++ & (queries.length - 1)];
+        return index.nearest(query[0], query[1]);
+    }
+
+    @Benchmark
+    public List<GeoIndex.Neighbour<double[]>> nearestThree() {
+        double[] query = queries[next++ & (queries.length - 1)];
+        return index.nearest(query[0], query[1], 3);
+    }
+}
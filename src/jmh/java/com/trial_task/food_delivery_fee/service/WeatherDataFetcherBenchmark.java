@@ -0,0 +1,47 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.exception.WeatherDataParsingException;
+import com.trial_task.food_delivery_fee.model.WeatherData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.util.ReflectionUtils;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Benchmark of parsing the recorded observations payload of the weather API.
+ */
+@State(Scope.Benchmark)
+public class WeatherDataFetcherBenchmark {
+
+    @Param({"stax", "jaxb"})
+    public String parser;
+
+    private WeatherDataFetcher weatherDataFetcher;
+    private byte[] observationsXml;
+
+    @Setup
+    public void setUp() {
+        weatherDataFetcher = new WeatherDataFetcher();
+        Field cityToStationMap = ReflectionUtils.findField(WeatherDataFetcher.class, "cityToStationMap");
+        ReflectionUtils.makeAccessible(cityToStationMap);
+        ReflectionUtils.setField(cityToStationMap, weatherDataFetcher,
+                Map.of("Tallinn", "Tallinn-Harku", "Tartu", "Tartu-Tõravere", "Pärnu", "Pärnu"));
+        Field parserField = ReflectionUtils.findField(WeatherDataFetcher.class, "parser");
+        ReflectionUtils.makeAccessible(parserField);
+        ReflectionUtils.setField(parserField, weatherDataFetcher, parser);
+        observationsXml = BenchmarkFixtures.observationsXml().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<WeatherData> parseWeatherData() throws WeatherDataParsingException {
+        return weatherDataFetcher.parseWeatherData(new ByteArrayInputStream(observationsXml));
+    }
+}
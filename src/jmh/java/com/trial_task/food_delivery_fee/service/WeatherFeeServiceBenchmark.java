@@ -0,0 +1,43 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.exception.ForbiddenVehicleTypeException;
+import com.trial_task.food_delivery_fee.model.WeatherData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks of the three weather based extra fee calculations.
+ */
+@State(Scope.Benchmark)
+public class WeatherFeeServiceBenchmark {
+
+    @Param({"bike", "car"})
+    public String vehicleType;
+
+    private WeatherFeeService weatherFeeService;
+    private WeatherData weatherData;
+
+    @Setup
+    public void setUp() {
+        weatherFeeService = new WeatherFeeService(new FeeRuleService(BenchmarkFixtures.rules()));
+        weatherData = BenchmarkFixtures.extraFeeWeather();
+    }
+
+    @Benchmark
+    public double airTemperatureExtraFee() {
+        return weatherFeeService.calculateAirTemperatureExtraFee(vehicleType, weatherData);
+    }
+
+    @Benchmark
+    public double windSpeedExtraFee() throws ForbiddenVehicleTypeException {
+        return weatherFeeService.calculateWindSpeedExtraFee(vehicleType, weatherData);
+    }
+
+    @Benchmark
+    public double weatherPhenomenonExtraFee() throws ForbiddenVehicleTypeException {
+        return weatherFeeService.calculateWeatherPhenomenonExtraFee(vehicleType, weatherData);
+    }
+}
@@ -0,0 +1,107 @@
+package com.trial_task.food_delivery_fee.config;
+
+import com.trial_task.food_delivery_fee.controller.AdminOperation;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.reactive.result.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Configuration restricting the endpoints of the {@link AdminOperation} controllers to requests carrying the admin
+ * token as a bearer token.
+ * <p>
+ * The admin endpoints are served on the same port as the delivery fees, so without a token they would let anyone
+ * change the fee rules or load the server. Without a configured token, every admin request is refused.
+ */
+@Configuration
+public class AdminAccessConfig {
+
+    private static final String BEARER = "Bearer ";
+
+    @Value("${admin.token:}")
+    private String adminToken;
+
+    /**
+     * Checks the Authorization header of a request against the admin token in constant time.
+     *
+     * @param authorization The Authorization header, or null if there is none.
+     * @return True if an admin token is configured and the header carries it as a bearer token.
+     */
+    boolean isAuthorized(String authorization) {
+        return !adminToken.isEmpty() && authorization != null
+                && MessageDigest.isEqual((BEARER + adminToken).getBytes(StandardCharsets.UTF_8),
+                authorization.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Checks the admin token before the handler of an admin operation on the servlet stack.
+     */
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class ServletAdminAccessConfig implements WebMvcConfigurer {
+
+        private final AdminAccessConfig adminAccessConfig;
+
+        ServletAdminAccessConfig(AdminAccessConfig adminAccessConfig) {
+            this.adminAccessConfig = adminAccessConfig;
+        }
+
+        @Override
+        public void addInterceptors(InterceptorRegistry registry) {
+            registry.addInterceptor(new HandlerInterceptor() {
+                @Override
+                public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                    if (!(handler instanceof HandlerMethod method)
+                            || !method.getBeanType().isAnnotationPresent(AdminOperation.class)
+                            || adminAccessConfig.isAuthorized(request.getHeader(HttpHeaders.AUTHORIZATION))) {
+                        return true;
+                    }
+                    response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+                    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                    return false;
+                }
+            });
+        }
+    }
+
+    /**
+     * Checks the admin token before the handler of an admin operation on the reactive stack. Web filters run before
+     * the handler is chosen, so the filter looks the handler up itself.
+     */
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class ReactiveAdminAccessConfig {
+
+        @Bean
+        public WebFilter adminAccessWebFilter(AdminAccessConfig adminAccessConfig,
+                                              @Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping) {
+            return (exchange, chain) -> handlerMapping.getHandler(exchange)
+                    .map(handler -> handler instanceof HandlerMethod method
+                            && method.getBeanType().isAnnotationPresent(AdminOperation.class)
+                            && !adminAccessConfig.isAuthorized(exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION)))
+                    .defaultIfEmpty(false)
+                    .flatMap(refused -> {
+                        if (!refused) {
+                            return chain.filter(exchange);
+                        }
+                        exchange.getResponse().getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+                        exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+                        return exchange.getResponse().setComplete();
+                    });
+        }
+    }
+}
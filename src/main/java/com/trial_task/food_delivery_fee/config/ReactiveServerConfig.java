@@ -0,0 +1,27 @@
+package com.trial_task.food_delivery_fee.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the embedded server of the reactive stack.
+ * <p>
+ * Tomcat is on the classpath for the servlet stack and would otherwise be chosen for the reactive stack as well,
+ * so the reactive stack is pinned to Reactor Netty and its event loops.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveServerConfig {
+
+    /**
+     * Creates the Reactor Netty server factory.
+     *
+     * @return The server factory.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,97 @@
+package com.trial_task.food_delivery_fee.config;
+
+import io.netty.channel.ChannelOption;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the HTTP client used to fetch the weather feed.
+ * <p>
+ * Connections are pooled and kept alive between fetches. The clients request gzip or deflate
+ * content encoding and decompress responses transparently. The reactive stack uses a {@link WebClient}
+ * on Reactor Netty with the same settings.
+ */
+@Configuration
+public class WeatherClientConfig {
+
+    /**
+     * Creates the pooled HTTP client with the configured timeouts.
+     *
+     * @param connectTimeout The maximum time to establish a connection.
+     * @param readTimeout    The maximum time to wait for response data.
+     * @param maxConnections The maximum number of pooled connections.
+     * @return The HTTP client.
+     */
+    @Bean
+    public CloseableHttpClient weatherHttpClient(@Value("${weatherdata.http.connectTimeout:PT5S}") Duration connectTimeout,
+                                                 @Value("${weatherdata.http.readTimeout:PT30S}") Duration readTimeout,
+                                                 @Value("${weatherdata.http.maxConnections:4}") int maxConnections) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .build())
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .evictIdleConnections(TimeValue.ofMinutes(1))
+                .build();
+    }
+
+    /**
+     * Creates the RestTemplate used for the weather feed on top of the pooled HTTP client.
+     *
+     * @param weatherHttpClient The pooled HTTP client.
+     * @return The RestTemplate.
+     */
+    @Bean
+    public RestTemplate weatherRestTemplate(CloseableHttpClient weatherHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(weatherHttpClient));
+    }
+
+    /**
+     * Creates the WebClient used for the weather feed on the reactive stack.
+     *
+     * @param builder        The auto-configured WebClient builder.
+     * @param connectTimeout The maximum time to establish a connection.
+     * @param readTimeout    The maximum time to wait for the response.
+     * @param maxConnections The maximum number of pooled connections.
+     * @return The WebClient.
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public WebClient weatherWebClient(WebClient.Builder builder,
+                                      @Value("${weatherdata.http.connectTimeout:PT5S}") Duration connectTimeout,
+                                      @Value("${weatherdata.http.readTimeout:PT30S}") Duration readTimeout,
+                                      @Value("${weatherdata.http.maxConnections:4}") int maxConnections) {
+        HttpClient httpClient = HttpClient.create(ConnectionProvider.create("weather", maxConnections))
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout)
+                .compress(true);
+        return builder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+    }
+}
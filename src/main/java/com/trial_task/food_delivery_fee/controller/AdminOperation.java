@@ -0,0 +1,17 @@
+package com.trial_task.food_delivery_fee.controller;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a controller whose endpoints are admin operations. They are only served to requests carrying the admin token
+ * of the {@code admin.token} property as a bearer token, and answered with 401 Unauthorized otherwise.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface AdminOperation {
+}
@@ -1,48 +1,142 @@
 package com.trial_task.food_delivery_fee.controller;
 
-import com.trial_task.food_delivery_fee.exception.ForbiddenCityException;
-import com.trial_task.food_delivery_fee.exception.ForbiddenVehicleTypeException;
-import com.trial_task.food_delivery_fee.exception.WeatherDataFetchException;
-import com.trial_task.food_delivery_fee.model.DeliveryFee;
+import com.trial_task.food_delivery_fee.model.DeliveryFeeRequest;
 import com.trial_task.food_delivery_fee.model.DeliveryFeeResponse;
+import com.trial_task.food_delivery_fee.model.FeeMatrixCell;
 import com.trial_task.food_delivery_fee.service.DeliveryFeeService;
+import com.trial_task.food_delivery_fee.service.FeeMatrixService;
+import com.trial_task.food_delivery_fee.service.FeeMetrics;
+import com.trial_task.food_delivery_fee.service.FeeOutcome;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
- * Controller for handling delivery fee related requests.
+ * Controller for handling delivery fee related requests on the servlet stack.
  */
 @RestController
 @RequestMapping("/deliveryFee")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class DeliveryFeeController {
-
     private final DeliveryFeeService deliveryFeeService;
+    private final FeeMatrixService feeMatrixService;
+    private final FeeMetrics feeMetrics;
+    private final Flux<Long> heartbeats;
+
+    @Value("${deliveryfee.batch.maxSize:100}")
+    private int maxBatchSize;
 
-    public DeliveryFeeController(DeliveryFeeService deliveryFeeService) {
+    public DeliveryFeeController(DeliveryFeeService deliveryFeeService, FeeMatrixService feeMatrixService,
+                                 FeeMetrics feeMetrics,
+                                 @Value("${deliveryfee.stream.heartbeat:PT15S}") Duration heartbeat) {
         this.deliveryFeeService = deliveryFeeService;
+        this.feeMatrixService = feeMatrixService;
+        this.feeMetrics = feeMetrics;
+        this.heartbeats = Flux.interval(heartbeat, heartbeat).share();
     }
 
     /**
-     * Calculates the delivery fee based on the city and vehicle type.
+     * Calculates the delivery fee based on the city, vehicle type and optionally the time of the delivery.
+     * Fees for the latest weather are served from the precomputed fee matrix when it has an entry for the request.
+     * Every request is timed by city, vehicle type and outcome.
+     * <p>
+     * Successful fees for the latest weather carry an ETag derived from the fee rules and the weather data they
+     * depend on. They may be stored by clients and shared caches, but must be revalidated on every use, as a fee rules
+     * reload can change the fee at any time. A request whose {@code If-None-Match}
+     * matches the current ETag is answered with 304 Not Modified without calculating the fee.
      *
      * @param city        The city where the delivery is to be made.
      * @param vehicleType The type of vehicle used for the delivery.
+     * @param dateTime    The time of the delivery in ISO format, or null for the latest weather.
+     * @param ifNoneMatch The entity tags of the fee the client has cached, if any.
      * @return The calculated delivery fee or an error message if the vehicle type is forbidden or
      * when vehicle type or city is not supported.
      */
     @GetMapping
-    public ResponseEntity<DeliveryFeeResponse> calculateDeliveryFee(@RequestParam String city, @RequestParam String vehicleType) {
-        try {
-            DeliveryFee deliveryFee = deliveryFeeService.calculateFee(city, vehicleType);
-            return ResponseEntity.ok(new DeliveryFeeResponse("OK", deliveryFee));
-        } catch (ForbiddenVehicleTypeException | ForbiddenCityException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new DeliveryFeeResponse("ERROR - " + e.getMessage()));
-        } catch (WeatherDataFetchException e) {
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(new DeliveryFeeResponse("ERROR - " + e.getMessage()));
+    public ResponseEntity<DeliveryFeeResponse> calculateDeliveryFee(
+            @RequestParam String city,
+            @RequestParam String vehicleType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTime,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String entityTag = dateTime == null ? deliveryFeeService.latestInputsVersion(city, vehicleType) : null;
+        if (DeliveryFeeResponses.isNotModified(ifNoneMatch, entityTag)) {
+            return DeliveryFeeResponses.notModified(entityTag);
+        }
+
+        long start = System.nanoTime();
+        FeeOutcome outcome = dateTime == null ? feeMatrixService.lookup(city, vehicleType) : null;
+        if (outcome == null) {
+            outcome = deliveryFeeService.evaluate(city, vehicleType, dateTime);
+        }
+        feeMetrics.recordRequest(city, vehicleType, outcome, System.nanoTime() - start);
+        return DeliveryFeeResponses.toResponseEntity(outcome, entityTag);
+    }
+
+    /**
+     * Calculates the delivery fee at a location based on the weather of the nearest stations and the base fee of the
+     * delivery zone containing the location, or of the nearest supported city outside all zones.
+     *
+     * @param latitude    The latitude of the delivery location in degrees.
+     * @param longitude   The longitude of the delivery location in degrees.
+     * @param vehicleType The type of vehicle used for the delivery.
+     * @return The calculated delivery fee or an error message if the vehicle type is forbidden or
+     * when the vehicle type or location is not supported.
+     */
+    @GetMapping("/location")
+    public ResponseEntity<DeliveryFeeResponse> calculateDeliveryFeeAt(@RequestParam double latitude,
+                                                                      @RequestParam double longitude,
+                                                                      @RequestParam String vehicleType) {
+        long start = System.nanoTime();
+        FeeOutcome outcome = deliveryFeeService.evaluateAt(latitude, longitude, vehicleType);
+        String city = outcome instanceof FeeOutcome.Calculated calculated ? calculated.fee().getCity() : null;
+        feeMetrics.recordRequest(city, vehicleType, outcome, System.nanoTime() - start);
+        return DeliveryFeeResponses.toResponseEntity(outcome);
+    }
+
+    /**
+     * Streams the fee matrix of every city and vehicle type as server-sent events: the full matrix on connect, then
+     * the cells that change with new weather data or fee rules. Idle streams hold no request thread.
+     *
+     * @return The events of the fee matrix.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<List<FeeMatrixCell>>> streamFeeMatrix() {
+        return DeliveryFeeResponses.toEvents(feeMatrixService.updates(), heartbeats);
+    }
+
+    /**
+     * Calculates the delivery fees for a batch of city and vehicle type pairs.
+     *
+     * @param requests The city, vehicle type and optional time of each delivery.
+     * @return A response for each request in request order, each with its own status, or
+     * an error status if the batch exceeds the maximum batch size.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<DeliveryFeeResponse>> calculateDeliveryFees(@RequestBody List<DeliveryFeeRequest> requests) {
+        if (requests.size() > maxBatchSize) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
         }
+
+        List<DeliveryFeeResponse> responses = deliveryFeeService.calculateFees(requests).stream()
+                .map(DeliveryFeeResponses::toResponse)
+                .toList();
+        return ResponseEntity.ok(responses);
     }
 }
@@ -0,0 +1,131 @@
+package com.trial_task.food_delivery_fee.controller;
+
+import com.trial_task.food_delivery_fee.model.DeliveryFeeResponse;
+import com.trial_task.food_delivery_fee.model.FeeMatrixCell;
+import com.trial_task.food_delivery_fee.service.FeeMatrixUpdate;
+import com.trial_task.food_delivery_fee.service.FeeOutcome;
+import com.trial_task.food_delivery_fee.service.RejectionReason;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * Mapping of fee outcomes to responses, shared by the servlet and reactive controllers.
+ */
+final class DeliveryFeeResponses {
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePublic();
+
+    private DeliveryFeeResponses() {
+    }
+
+    /**
+     * Maps a fee outcome to a response with the matching HTTP status.
+     *
+     * @param outcome The outcome of the fee evaluation.
+     * @return The response entity.
+     */
+    static ResponseEntity<DeliveryFeeResponse> toResponseEntity(FeeOutcome outcome) {
+        HttpStatus status = switch (outcome) {
+            case FeeOutcome.Calculated calculated -> HttpStatus.OK;
+            case FeeOutcome.Rejected rejected -> statusOf(rejected.reason());
+        };
+        return ResponseEntity.status(status).body(toResponse(outcome));
+    }
+
+    /**
+     * Maps a fee outcome for the latest weather to a response. A successful fee carries the entity tag of the inputs
+     * it was calculated from and may be stored by clients and shared caches, but must be revalidated on every use, as
+     * a fee rules reload can change the fee at any time.
+     *
+     * @param outcome   The outcome of the fee evaluation.
+     * @param entityTag The version of the inputs of the fee, or null if there is none.
+     * @return The response entity.
+     */
+    static ResponseEntity<DeliveryFeeResponse> toResponseEntity(FeeOutcome outcome, String entityTag) {
+        if (entityTag == null || !(outcome instanceof FeeOutcome.Calculated)) {
+            return toResponseEntity(outcome);
+        }
+        return ResponseEntity.ok()
+                .eTag(entityTag)
+                .cacheControl(REVALIDATE)
+                .body(toResponse(outcome));
+    }
+
+    /**
+     * Tells whether the fee the client has cached is still current, using the weak comparison of entity tags.
+     *
+     * @param ifNoneMatch The comma-separated entity tags of the If-None-Match header, {@code *}, or null.
+     * @param entityTag   The version of the inputs of the current fee without quotes, or null if there is none.
+     * @return True if the request can be answered with {@link #notModified(String)}.
+     */
+    static boolean isNotModified(String ifNoneMatch, String entityTag) {
+        if (ifNoneMatch == null || entityTag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || (tag.length() == entityTag.length() + 2 && tag.startsWith("\"")
+                    && tag.endsWith("\"") && tag.regionMatches(1, entityTag, 0, entityTag.length()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a 304 Not Modified response for a fee the client has cached.
+     *
+     * @param entityTag The version of the inputs of the current fee.
+     * @return The response entity.
+     */
+    static ResponseEntity<DeliveryFeeResponse> notModified(String entityTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(entityTag)
+                .cacheControl(REVALIDATE)
+                .build();
+    }
+
+    static DeliveryFeeResponse toResponse(FeeOutcome outcome) {
+        return switch (outcome) {
+            case FeeOutcome.Calculated calculated -> new DeliveryFeeResponse("OK", calculated.fee(), calculated.stale());
+            case FeeOutcome.Rejected rejected -> new DeliveryFeeResponse("ERROR - " + rejected.message());
+        };
+    }
+
+    /**
+     * Maps the updates of the fee matrix to server-sent events: a {@code matrix} event with every cell, then
+     * {@code changes} events with the changed cells. Comments are sent with every heartbeat, so that idle connections
+     * are kept open by proxies and closed connections are noticed.
+     *
+     * @param updates    The updates of the fee matrix.
+     * @param heartbeats The heartbeat ticks.
+     * @return The events.
+     */
+    static Flux<ServerSentEvent<List<FeeMatrixCell>>> toEvents(Flux<FeeMatrixUpdate> updates, Flux<?> heartbeats) {
+        Flux<ServerSentEvent<List<FeeMatrixCell>>> events = updates.map(update -> ServerSentEvent.builder(update.cells().stream()
+                        .map(cell -> new FeeMatrixCell(cell.city(), cell.vehicleType(), toResponse(cell.outcome())))
+                        .toList())
+                .event(update.full() ? "matrix" : "changes")
+                .build());
+        Flux<ServerSentEvent<List<FeeMatrixCell>>> comments = heartbeats
+                .onBackpressureDrop()
+                .publishOn(Schedulers.boundedElastic(), 1)
+                .map(tick -> ServerSentEvent.<List<FeeMatrixCell>>builder().comment("heartbeat").build());
+        return Flux.merge(events, comments);
+    }
+
+    private static HttpStatus statusOf(RejectionReason reason) {
+        return switch (reason) {
+            case WEATHER_DATA_UNAVAILABLE, WEATHER_DATA_STALE -> HttpStatus.SERVICE_UNAVAILABLE;
+            case INVALID_CITY, INVALID_LOCATION, INVALID_VEHICLE_TYPE, VEHICLE_FORBIDDEN_BY_WEATHER -> HttpStatus.BAD_REQUEST;
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package com.trial_task.food_delivery_fee.controller;
+
+import com.trial_task.food_delivery_fee.exception.InvalidFeeRulesException;
+import com.trial_task.food_delivery_fee.service.FeeRuleService;
+import com.trial_task.food_delivery_fee.service.FeeRuleSetStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Controller for inspecting and reloading the fee rules without a restart.
+ */
+@AdminOperation
+@RestController
+@RequestMapping("/admin/feeRules")
+public class FeeRuleAdminController {
+
+    private final FeeRuleService feeRuleService;
+
+    public FeeRuleAdminController(FeeRuleService feeRuleService) {
+        this.feeRuleService = feeRuleService;
+    }
+
+    /**
+     * Returns the version of the current fee rules and where they were loaded from.
+     *
+     * @return The status of the fee rules.
+     */
+    @GetMapping
+    public ResponseEntity<FeeRuleSetStatus> getStatus() {
+        return ResponseEntity.ok(feeRuleService.getStatus());
+    }
+
+    /**
+     * Reloads the fee rules from the rules file and the application properties.
+     *
+     * @return The status of the fee rules after the reload, or a 400 Bad Request response if the rules are invalid,
+     * in which case the current rules are kept.
+     */
+    @PostMapping("/reload")
+    public ResponseEntity<?> reload() {
+        try {
+            feeRuleService.reload();
+            return ResponseEntity.ok(feeRuleService.getStatus());
+        } catch (InvalidFeeRulesException e) {
+            return ResponseEntity.badRequest().body(Map.of("status", "ERROR - " + e.getMessage()));
+        }
+    }
+}
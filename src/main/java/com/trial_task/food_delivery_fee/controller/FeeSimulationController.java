@@ -0,0 +1,98 @@
+package com.trial_task.food_delivery_fee.controller;
+
+import com.trial_task.food_delivery_fee.exception.DeliveryVolumesTooLargeException;
+import com.trial_task.food_delivery_fee.exception.InvalidDeliveryVolumesException;
+import com.trial_task.food_delivery_fee.exception.InvalidFeeRulesException;
+import com.trial_task.food_delivery_fee.service.DeliveryVolumes;
+import com.trial_task.food_delivery_fee.service.FeeRuleService;
+import com.trial_task.food_delivery_fee.service.FeeRuleTable;
+import com.trial_task.food_delivery_fee.service.FeeSimulationReport;
+import com.trial_task.food_delivery_fee.service.FeeSimulationService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Controller for simulating the revenue impact of candidate fee rules on the servlet stack.
+ */
+@AdminOperation
+@RestController
+@RequestMapping("/admin/feeRules")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class FeeSimulationController {
+
+    private final FeeRuleService feeRuleService;
+    private final FeeSimulationService feeSimulationService;
+
+    @Value("${fee.simulation.maxBodySize:64MB}")
+    private DataSize maxBodySize = DataSize.ofMegabytes(64);
+
+    @Value("${fee.simulation.maxRows:2000000}")
+    private int maxRows = 2_000_000;
+
+    public FeeSimulationController(FeeRuleService feeRuleService, FeeSimulationService feeSimulationService) {
+        this.feeRuleService = feeRuleService;
+        this.feeSimulationService = feeSimulationService;
+    }
+
+    /**
+     * Replays the delivery volumes in the request body against the stored weather history, under both the current
+     * fee rules and a candidate rule set. The candidate rules are the current rules with the {@code fee.*} request
+     * parameters overriding them, e.g. {@code ?fee.windSpeed.maxAllowedWindSpeed=15.0}. The rules are not changed.
+     *
+     * <p>
+     * The body must declare its length, which is limited like the number of rows, so that a single request cannot
+     * exhaust the memory of the server.
+     *
+     * @param parameters The request parameters holding the {@code fee.*} properties of the candidate rules.
+     * @param request    The request, for the length of its body.
+     * @param volumesCsv The delivery volumes as CSV rows of {@code dateTime,city,vehicleType[,deliveries]}.
+     * @return The simulation reports of the current and the candidate rules, a 400 Bad Request response if the
+     * candidate rules or the delivery volumes are invalid, a 411 Length Required response if the body does not
+     * declare its length, or a 413 Payload Too Large response if the body or the number of rows exceeds the limit.
+     */
+    @PostMapping(path = "/simulation", consumes = "text/csv")
+    public ResponseEntity<?> simulate(@RequestParam Map<String, String> parameters, HttpServletRequest request,
+                                      InputStream volumesCsv) {
+        long contentLength = request.getContentLengthLong();
+        if (contentLength < 0) {
+            return ResponseEntity.status(HttpStatus.LENGTH_REQUIRED).build();
+        }
+        if (contentLength > maxBodySize.toBytes()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+
+        Properties overrides = new Properties();
+        parameters.forEach((name, value) -> {
+            if (name.startsWith("fee.")) {
+                overrides.setProperty(name, value);
+            }
+        });
+
+        try {
+            FeeRuleTable candidate = feeRuleService.compileCandidate(overrides);
+            DeliveryVolumes volumes = DeliveryVolumes.parse(volumesCsv, maxRows);
+
+            Map<String, FeeSimulationReport> reports = new LinkedHashMap<>();
+            reports.put("current", feeSimulationService.simulate(feeRuleService.getRules(), volumes));
+            reports.put("candidate", feeSimulationService.simulate(candidate, volumes));
+            return ResponseEntity.ok(reports);
+        } catch (InvalidFeeRulesException | InvalidDeliveryVolumesException e) {
+            return ResponseEntity.badRequest().body(Map.of("status", "ERROR - " + e.getMessage()));
+        } catch (DeliveryVolumesTooLargeException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(Map.of("status", "ERROR - " + e.getMessage()));
+        }
+    }
+}
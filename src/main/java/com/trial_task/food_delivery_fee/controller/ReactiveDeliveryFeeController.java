@@ -0,0 +1,105 @@
+package com.trial_task.food_delivery_fee.controller;
+
+import com.trial_task.food_delivery_fee.model.DeliveryFeeResponse;
+import com.trial_task.food_delivery_fee.model.FeeMatrixCell;
+import com.trial_task.food_delivery_fee.service.DeliveryFeeService;
+import com.trial_task.food_delivery_fee.service.FeeMatrixService;
+import com.trial_task.food_delivery_fee.service.FeeMetrics;
+import com.trial_task.food_delivery_fee.service.FeeOutcome;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Controller for handling delivery fee related requests on the reactive stack.
+ * <p>
+ * Fees for the latest weather are answered from the fee matrix and the in-memory weather snapshot without blocking.
+ * Historical fees may query the database and are evaluated off the event loop.
+ */
+@RestController
+@RequestMapping("/deliveryFee")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveDeliveryFeeController {
+
+    private final DeliveryFeeService deliveryFeeService;
+    private final FeeMatrixService feeMatrixService;
+    private final FeeMetrics feeMetrics;
+    private final Flux<Long> heartbeats;
+
+    public ReactiveDeliveryFeeController(DeliveryFeeService deliveryFeeService, FeeMatrixService feeMatrixService,
+                                         FeeMetrics feeMetrics,
+                                         @Value("${deliveryfee.stream.heartbeat:PT15S}") Duration heartbeat) {
+        this.deliveryFeeService = deliveryFeeService;
+        this.feeMatrixService = feeMatrixService;
+        this.feeMetrics = feeMetrics;
+        this.heartbeats = Flux.interval(heartbeat, heartbeat).share();
+    }
+
+    /**
+     * Calculates the delivery fee based on the city, vehicle type and optionally the time of the delivery.
+     * <p>
+     * Successful fees for the latest weather carry an ETag and must be revalidated on every use, like on the servlet
+     * stack. A request whose {@code If-None-Match} matches the current ETag is answered with 304 Not Modified without
+     * calculating the fee.
+     *
+     * @param city        The city where the delivery is to be made.
+     * @param vehicleType The type of vehicle used for the delivery.
+     * @param dateTime    The time of the delivery in ISO format, or null for the latest weather.
+     * @param ifNoneMatch The entity tags of the fee the client has cached, if any.
+     * @return The calculated delivery fee or an error message if the vehicle type is forbidden or
+     * when vehicle type or city is not supported.
+     */
+    @GetMapping
+    public Mono<ResponseEntity<DeliveryFeeResponse>> calculateDeliveryFee(
+            @RequestParam String city,
+            @RequestParam String vehicleType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTime,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        long start = System.nanoTime();
+        if (dateTime != null) {
+            return Mono.fromCallable(() -> deliveryFeeService.evaluate(city, vehicleType, dateTime))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .doOnNext(outcome -> feeMetrics.recordRequest(city, vehicleType, outcome, System.nanoTime() - start))
+                    .map(DeliveryFeeResponses::toResponseEntity);
+        }
+
+        String entityTag = deliveryFeeService.latestInputsVersion(city, vehicleType);
+        if (DeliveryFeeResponses.isNotModified(ifNoneMatch, entityTag)) {
+            return Mono.just(DeliveryFeeResponses.notModified(entityTag));
+        }
+
+        FeeOutcome outcome = feeMatrixService.lookup(city, vehicleType);
+        if (outcome == null) {
+            outcome = deliveryFeeService.evaluate(city, vehicleType);
+        }
+        feeMetrics.recordRequest(city, vehicleType, outcome, System.nanoTime() - start);
+        return Mono.just(DeliveryFeeResponses.toResponseEntity(outcome, entityTag));
+    }
+
+    /**
+     * Streams the fee matrix of every city and vehicle type as server-sent events: the full matrix on connect, then
+     * the cells that change with new weather data or fee rules.
+     *
+     * @return The events of the fee matrix.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<List<FeeMatrixCell>>> streamFeeMatrix() {
+        return DeliveryFeeResponses.toEvents(feeMatrixService.updates(), heartbeats);
+    }
+}
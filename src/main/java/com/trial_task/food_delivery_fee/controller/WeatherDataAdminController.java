@@ -0,0 +1,33 @@
+package com.trial_task.food_delivery_fee.controller;
+
+import com.trial_task.food_delivery_fee.service.RetentionStatus;
+import com.trial_task.food_delivery_fee.service.WeatherDataRetentionJob;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller for operational insight into the stored weather data.
+ */
+@AdminOperation
+@RestController
+@RequestMapping("/admin/weatherData")
+public class WeatherDataAdminController {
+
+    private final WeatherDataRetentionJob weatherDataRetentionJob;
+
+    public WeatherDataAdminController(WeatherDataRetentionJob weatherDataRetentionJob) {
+        this.weatherDataRetentionJob = weatherDataRetentionJob;
+    }
+
+    /**
+     * Returns the number of stored weather data rows and the outcome of the last retention run.
+     *
+     * @return The retention status.
+     */
+    @GetMapping("/retention")
+    public ResponseEntity<RetentionStatus> getRetentionStatus() {
+        return ResponseEntity.ok(weatherDataRetentionJob.getStatus());
+    }
+}
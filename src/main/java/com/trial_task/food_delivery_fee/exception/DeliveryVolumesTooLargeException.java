@@ -0,0 +1,7 @@
+package com.trial_task.food_delivery_fee.exception;
+
+public class DeliveryVolumesTooLargeException extends Exception {
+    public DeliveryVolumesTooLargeException(String message) {
+        super(message);
+    }
+}
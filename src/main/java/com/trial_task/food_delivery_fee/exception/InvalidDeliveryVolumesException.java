@@ -0,0 +1,7 @@
+package com.trial_task.food_delivery_fee.exception;
+
+public class InvalidDeliveryVolumesException extends Exception {
+    public InvalidDeliveryVolumesException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.trial_task.food_delivery_fee.exception;
+
+public class InvalidFeeRulesException extends Exception {
+    public InvalidFeeRulesException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.trial_task.food_delivery_fee.exception;
+
+public class InvalidFeeZonesException extends Exception {
+    public InvalidFeeZonesException(String message) {
+        super(message);
+    }
+}
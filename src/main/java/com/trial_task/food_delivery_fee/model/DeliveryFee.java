@@ -1,5 +1,9 @@
 package com.trial_task.food_delivery_fee.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Objects;
+
 /**
  * Represents a delivery fee, which is calculated based on various factors.
  */
@@ -11,6 +15,8 @@ public class DeliveryFee {
     private final double windSpeedExtraFee;
     private final double weatherPhenomenonExtraFee;
     private final double totalFee;
+    private final String ruleSetVersion;
+    private final String zone;
 
     /**
      * Constructs a DeliveryFee object with the given parameters.
@@ -23,6 +29,37 @@ public class DeliveryFee {
      * @param weatherPhenomenonExtraFee The extra fee based on weather phenomenon.
      */
     public DeliveryFee(String city, String vehicleType, double regionalBaseFee, double airTemperatureExtraFee, double windSpeedExtraFee, double weatherPhenomenonExtraFee) {
+        this(city, vehicleType, regionalBaseFee, airTemperatureExtraFee, windSpeedExtraFee, weatherPhenomenonExtraFee, null);
+    }
+
+    /**
+     * Constructs a DeliveryFee object calculated with a specific version of the fee rules.
+     *
+     * @param city                      The city where the delivery is to be made.
+     * @param vehicleType               The type of vehicle used for the delivery.
+     * @param regionalBaseFee           The regional base fee for the delivery.
+     * @param airTemperatureExtraFee    The extra fee based on air temperature.
+     * @param windSpeedExtraFee         The extra fee based on wind speed.
+     * @param weatherPhenomenonExtraFee The extra fee based on weather phenomenon.
+     * @param ruleSetVersion            The version of the fee rules the fee was calculated with.
+     */
+    public DeliveryFee(String city, String vehicleType, double regionalBaseFee, double airTemperatureExtraFee, double windSpeedExtraFee, double weatherPhenomenonExtraFee, String ruleSetVersion) {
+        this(city, vehicleType, regionalBaseFee, airTemperatureExtraFee, windSpeedExtraFee, weatherPhenomenonExtraFee, ruleSetVersion, null);
+    }
+
+    /**
+     * Constructs a DeliveryFee object calculated with the base fee of a delivery zone.
+     *
+     * @param city                      The city where the delivery is to be made.
+     * @param vehicleType               The type of vehicle used for the delivery.
+     * @param regionalBaseFee           The base fee of the zone, or of the city if the delivery is in no zone.
+     * @param airTemperatureExtraFee    The extra fee based on air temperature.
+     * @param windSpeedExtraFee         The extra fee based on wind speed.
+     * @param weatherPhenomenonExtraFee The extra fee based on weather phenomenon.
+     * @param ruleSetVersion            The version of the fee rules the fee was calculated with.
+     * @param zone                      The delivery zone, or null if the delivery is in no zone.
+     */
+    public DeliveryFee(String city, String vehicleType, double regionalBaseFee, double airTemperatureExtraFee, double windSpeedExtraFee, double weatherPhenomenonExtraFee, String ruleSetVersion, String zone) {
         this.city = city;
         this.vehicleType = vehicleType;
         this.regionalBaseFee = regionalBaseFee;
@@ -30,6 +67,8 @@ public class DeliveryFee {
         this.windSpeedExtraFee = windSpeedExtraFee;
         this.weatherPhenomenonExtraFee = weatherPhenomenonExtraFee;
         this.totalFee = calculateTotalFee();
+        this.ruleSetVersion = ruleSetVersion;
+        this.zone = zone;
     }
 
     public String getCity() {
@@ -60,10 +99,55 @@ public class DeliveryFee {
         return totalFee;
     }
 
+    /**
+     * Returns the version of the fee rules the fee was calculated with, so that cached fees can be invalidated
+     * when the rules change. Only included in the response when known.
+     *
+     * @return The version of the fee rules, or null if unknown.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getRuleSetVersion() {
+        return ruleSetVersion;
+    }
+
+    /**
+     * Returns the delivery zone whose base fee was applied. Only included in the response for deliveries in a zone.
+     *
+     * @return The name of the zone, or null if the delivery is in no zone.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getZone() {
+        return zone;
+    }
+
     private double calculateTotalFee() {
         return regionalBaseFee + airTemperatureExtraFee + windSpeedExtraFee + weatherPhenomenonExtraFee;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DeliveryFee that)) {
+            return false;
+        }
+        return Double.compare(regionalBaseFee, that.regionalBaseFee) == 0
+                && Double.compare(airTemperatureExtraFee, that.airTemperatureExtraFee) == 0
+                && Double.compare(windSpeedExtraFee, that.windSpeedExtraFee) == 0
+                && Double.compare(weatherPhenomenonExtraFee, that.weatherPhenomenonExtraFee) == 0
+                && Objects.equals(city, that.city)
+                && Objects.equals(vehicleType, that.vehicleType)
+                && Objects.equals(ruleSetVersion, that.ruleSetVersion)
+                && Objects.equals(zone, that.zone);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(city, vehicleType, regionalBaseFee, airTemperatureExtraFee, windSpeedExtraFee,
+                weatherPhenomenonExtraFee, ruleSetVersion, zone);
+    }
+
     @Override
     public String toString() {
         return "DeliveryFee{" +
@@ -74,6 +158,8 @@ public class DeliveryFee {
                 ", windSpeedExtraFee=" + windSpeedExtraFee +
                 ", weatherPhenomenonExtraFee=" + weatherPhenomenonExtraFee +
                 ", totalFee=" + totalFee +
+                ", ruleSetVersion='" + ruleSetVersion + '\'' +
+                ", zone='" + zone + '\'' +
                 '}';
     }
 }
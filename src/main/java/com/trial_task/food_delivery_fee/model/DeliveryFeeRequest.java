@@ -0,0 +1,53 @@
+package com.trial_task.food_delivery_fee.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents a single delivery fee calculation request within a batch.
+ */
+public class DeliveryFeeRequest {
+    private final String city;
+    private final String vehicleType;
+    private final LocalDateTime dateTime;
+
+    /**
+     * Constructs a DeliveryFeeRequest object with the given parameters.
+     *
+     * @param city        The city where the delivery is to be made.
+     * @param vehicleType The type of vehicle used for the delivery.
+     */
+    public DeliveryFeeRequest(String city, String vehicleType) {
+        this(city, vehicleType, null);
+    }
+
+    /**
+     * Constructs a DeliveryFeeRequest object with the given parameters.
+     *
+     * @param city        The city where the delivery is to be made.
+     * @param vehicleType The type of vehicle used for the delivery.
+     * @param dateTime    The time of the delivery, or null for the latest weather.
+     */
+    @JsonCreator
+    public DeliveryFeeRequest(@JsonProperty("city") String city,
+                              @JsonProperty("vehicleType") String vehicleType,
+                              @JsonProperty("dateTime") LocalDateTime dateTime) {
+        this.city = city;
+        this.vehicleType = vehicleType;
+        this.dateTime = dateTime;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getVehicleType() {
+        return vehicleType;
+    }
+
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+}
@@ -1,21 +1,30 @@
 package com.trial_task.food_delivery_fee.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 /**
  * Represents the response for a delivery fee calculation request.
  */
 public class DeliveryFeeResponse {
     private final String status;
     private final DeliveryFee deliveryFee;
+    private final boolean stale;
 
     /**
      * Constructs a DeliveryFeeResponse object with the given status and delivery fee.
      *
      * @param status      The status of the response, indicating success or error.
      * @param deliveryFee The calculated delivery fee, or null if there was an error.
+     * @param stale       Whether the fee is based on out-of-date weather data.
      */
-    public DeliveryFeeResponse(String status, DeliveryFee deliveryFee) {
+    public DeliveryFeeResponse(String status, DeliveryFee deliveryFee, boolean stale) {
         this.status = status;
         this.deliveryFee = deliveryFee;
+        this.stale = stale;
+    }
+
+    public DeliveryFeeResponse(String status, DeliveryFee deliveryFee) {
+        this(status, deliveryFee, false);
     }
 
     public DeliveryFeeResponse(String status) {
@@ -29,4 +38,14 @@ public class DeliveryFeeResponse {
     public DeliveryFee getDeliveryFee() {
         return deliveryFee;
     }
+
+    /**
+     * Tells whether the fee is based on out-of-date weather data. Only included in the response when true.
+     *
+     * @return True if the weather data was older than the maximum age of the city.
+     */
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    public boolean isStale() {
+        return stale;
+    }
 }
@@ -0,0 +1,35 @@
+package com.trial_task.food_delivery_fee.model;
+
+/**
+ * Represents a cell of the fee matrix pushed to stream subscribers: the latest fee of a city and vehicle type.
+ */
+public class FeeMatrixCell {
+    private final String city;
+    private final String vehicleType;
+    private final DeliveryFeeResponse response;
+
+    /**
+     * Constructs a FeeMatrixCell object with the given parameters.
+     *
+     * @param city        The city of the cell.
+     * @param vehicleType The vehicle type of the cell.
+     * @param response    The response a fee request for the city and vehicle type would get.
+     */
+    public FeeMatrixCell(String city, String vehicleType, DeliveryFeeResponse response) {
+        this.city = city;
+        this.vehicleType = vehicleType;
+        this.response = response;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getVehicleType() {
+        return vehicleType;
+    }
+
+    public DeliveryFeeResponse getResponse() {
+        return response;
+    }
+}
@@ -4,6 +4,9 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
@@ -13,11 +16,15 @@ import java.time.LocalDateTime;
  * Represents weather data for a specific station at a specific time.
  */
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(
+        name = "uk_weather_data_station_timestamp",
+        columnNames = {"stationName", "observationTimestamp"}))
 @XmlRootElement(name = "station")
 public class WeatherData {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "weather_data_seq")
+    @SequenceGenerator(name = "weather_data_seq", sequenceName = "weather_data_seq", allocationSize = 50)
     private Long id;
 
     @XmlElement(name = "name")
@@ -35,6 +42,12 @@ public class WeatherData {
     @XmlElement(name = "phenomenon")
     private String weatherPhenomenon;
 
+    @XmlElement(name = "latitude")
+    private Double latitude;
+
+    @XmlElement(name = "longitude")
+    private Double longitude;
+
     private LocalDateTime observationTimestamp;
 
     /**
@@ -66,6 +79,10 @@ public class WeatherData {
         return stationName;
     }
 
+    public String getWMOCode() {
+        return WMOCode;
+    }
+
     public double getAirTemperature() {
         return airTemperature;
     }
@@ -78,6 +95,34 @@ public class WeatherData {
         return weatherPhenomenon;
     }
 
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * Sets the position of the weather station.
+     *
+     * @param latitude  The latitude of the weather station in degrees, or null if it is unknown.
+     * @param longitude The longitude of the weather station in degrees, or null if it is unknown.
+     */
+    public void setPosition(Double latitude, Double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    /**
+     * Tells whether the position of the weather station is known.
+     *
+     * @return True if both the latitude and the longitude are known.
+     */
+    public boolean hasPosition() {
+        return latitude != null && longitude != null;
+    }
+
     public LocalDateTime getObservationTimestamp() {
         return observationTimestamp;
     }
@@ -95,6 +140,8 @@ public class WeatherData {
                 ", airTemperature=" + airTemperature +
                 ", windSpeed=" + windSpeed +
                 ", weatherPhenomenon='" + weatherPhenomenon + '\'' +
+                ", latitude=" + latitude +
+                ", longitude=" + longitude +
                 ", observationTimestamp=" + observationTimestamp +
                 '}';
     }
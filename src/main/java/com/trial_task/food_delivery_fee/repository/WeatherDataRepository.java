@@ -2,8 +2,14 @@ package com.trial_task.food_delivery_fee.repository;
 
 import com.trial_task.food_delivery_fee.model.WeatherData;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -19,4 +25,56 @@ public interface WeatherDataRepository extends JpaRepository<WeatherData, Long>
      * @return The latest weather data for the specified station.
      */
     Optional<WeatherData> findFirstByStationNameOrderByObservationTimestampDesc(String stationName);
+
+    /**
+     * Fetches the weather data of a specific station that was in effect at the given time,
+     * i.e. the latest observation at or before it.
+     *
+     * @param stationName The name of the station.
+     * @param timestamp   The time of interest.
+     * @return The weather data in effect at the given time for the specified station.
+     */
+    Optional<WeatherData> findFirstByStationNameAndObservationTimestampLessThanEqualOrderByObservationTimestampDesc(
+            String stationName, LocalDateTime timestamp);
+
+    /**
+     * Fetches all weather data of a specific station observed at or after the given time, oldest first.
+     *
+     * @param stationName The name of the station.
+     * @param from        The earliest observation time to include.
+     * @return The weather data of the specified station in chronological order.
+     */
+    List<WeatherData> findByStationNameAndObservationTimestampGreaterThanEqualOrderByObservationTimestampAsc(
+            String stationName, LocalDateTime from);
+
+    /**
+     * Deletes all weather data observed before the given time in a single statement.
+     *
+     * @param cutoff The time before which observations are deleted.
+     * @return The number of deleted rows.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from WeatherData w where w.observationTimestamp < :cutoff")
+    int deleteObservedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Reduces the weather data observed before the given time to one row per station per hour,
+     * keeping the latest observation of each hour, in a single statement.
+     *
+     * @param cutoff The time before which observations are downsampled.
+     * @return The number of deleted rows.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            delete from weather_data w
+            where w.observation_timestamp < :cutoff
+              and exists (select 1 from weather_data n
+                          where n.station_name = w.station_name
+                            and date_trunc('HOUR', n.observation_timestamp) = date_trunc('HOUR', w.observation_timestamp)
+                            and (n.observation_timestamp > w.observation_timestamp
+                                 or (n.observation_timestamp = w.observation_timestamp and n.id > w.id)))
+            """, nativeQuery = true)
+    int downsampleHourlyBefore(@Param("cutoff") LocalDateTime cutoff);
 }
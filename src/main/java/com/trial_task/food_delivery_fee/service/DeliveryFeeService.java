@@ -4,39 +4,163 @@ import com.trial_task.food_delivery_fee.exception.ForbiddenCityException;
 import com.trial_task.food_delivery_fee.exception.ForbiddenVehicleTypeException;
 import com.trial_task.food_delivery_fee.exception.WeatherDataFetchException;
 import com.trial_task.food_delivery_fee.model.DeliveryFee;
+import com.trial_task.food_delivery_fee.model.DeliveryFeeRequest;
 import com.trial_task.food_delivery_fee.model.WeatherData;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * Service class for calculating delivery fees.
+ * <p>
+ * Fees are evaluated into a {@link FeeOutcome} without throwing on rejections. The exception-based
+ * {@code calculateFee} methods are kept for callers that prefer exceptions.
+ * <p>
+ * Fees based on the latest weather are subject to the {@link WeatherFreshnessPolicy}: when the latest observation
+ * of a city is older than its maximum age, the fee is flagged as stale, calculated from the fallback station or
+ * rejected. Fees at a given time are not, as the weather in effect at that time is the right data however old it is.
+ * <p>
+ * Fees at a location are calculated with the weather of the stations nearest to the location. The base fee is that of
+ * the delivery zone containing the location, which belongs to a supported city, or else that of the nearest supported
+ * city.
  */
 @Service
 public class DeliveryFeeService {
 
-    @Value("#{${fee.city.base}}")
-    private Map<String, Map<String, Double>> cityBaseFees;
-
     private final WeatherDataService weatherDataService;
-    private final ValidationService validationService;
-    private final WeatherFeeService weatherFeeService;
+    private final FeeRuleService feeRuleService;
+    private final FeeMetrics feeMetrics;
+    private final WeatherFreshnessPolicy freshnessPolicy;
+    private final FeeZoneService feeZoneService;
 
     /**
      * Constructs a DeliveryFeeService object with the given dependencies.
      *
      * @param weatherDataService The service for managing weather data.
-     * @param validationService  The service for validating delivery fee calculations.
-     * @param weatherFeeService  The service for calculating additional fees based on weather conditions.
+     * @param feeRuleService     The service holding the compiled fee rules.
+     * @param feeMetrics         The meters of the fee pipeline.
+     * @param freshnessPolicy    The maximum age of the latest weather data of every city.
+     * @param feeZoneService     The service holding the delivery zones.
      */
     public DeliveryFeeService(WeatherDataService weatherDataService,
-                              ValidationService validationService,
-                              WeatherFeeService weatherFeeService) {
+                              FeeRuleService feeRuleService,
+                              FeeMetrics feeMetrics,
+                              WeatherFreshnessPolicy freshnessPolicy,
+                              FeeZoneService feeZoneService) {
         this.weatherDataService = weatherDataService;
-        this.validationService = validationService;
-        this.weatherFeeService = weatherFeeService;
+        this.feeRuleService = feeRuleService;
+        this.feeMetrics = feeMetrics;
+        this.freshnessPolicy = freshnessPolicy;
+        this.feeZoneService = feeZoneService;
+    }
+
+    /**
+     * Evaluates the delivery fee for a specific city and vehicle type using the latest weather.
+     *
+     * @param city        The city where the delivery is to be made.
+     * @param vehicleType The type of vehicle used for the delivery.
+     * @return The calculated fee or the rejection.
+     */
+    public FeeOutcome evaluate(String city, String vehicleType) {
+        return evaluate(city, vehicleType, weatherDataService::getLatest, true, null);
+    }
+
+    /**
+     * Evaluates the delivery fee for a specific city and vehicle type using the weather in effect at the given time.
+     *
+     * @param city        The city where the delivery is to be made.
+     * @param vehicleType The type of vehicle used for the delivery.
+     * @param dateTime    The time of the delivery, or null for the latest weather.
+     * @return The calculated fee or the rejection.
+     */
+    public FeeOutcome evaluate(String city, String vehicleType, LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return evaluate(city, vehicleType);
+        }
+        return evaluate(city, vehicleType, c -> weatherDataService.getAt(c, dateTime), false, null);
+    }
+
+    /**
+     * Evaluates the delivery fee at a location using the latest weather of the stations nearest to it. The base fee
+     * is that of the delivery zone containing the location, and the other rules and the stale action are those of the
+     * city of the zone. Outside all zones, the nearest supported city applies.
+     *
+     * @param latitude    The latitude of the delivery location in degrees.
+     * @param longitude   The longitude of the delivery location in degrees.
+     * @param vehicleType The type of vehicle used for the delivery.
+     * @return The calculated fee or the rejection.
+     */
+    public FeeOutcome evaluateAt(double latitude, double longitude, String vehicleType) {
+        if (!(Math.abs(latitude) <= 90 && Math.abs(longitude) <= 180)) {
+            return FeeOutcome.invalidLocation(latitude, longitude);
+        }
+
+        Function<String, Optional<WeatherData>> weatherLookup = c -> weatherDataService.getLatestAt(latitude, longitude);
+        FeeZoneIndex.Zone zone = feeZoneService.getZones().find(latitude, longitude);
+        if (zone != null) {
+            return evaluate(zone.city(), vehicleType, weatherLookup, true, zone);
+        }
+
+        Optional<String> city = weatherDataService.getNearestCity(latitude, longitude);
+        if (city.isEmpty()) {
+            return FeeOutcome.invalidLocation(latitude, longitude);
+        }
+        return evaluate(city.get(), vehicleType, weatherLookup, true, null);
+    }
+
+    /**
+     * Returns until when the outcomes evaluated now for the latest weather of a city remain valid. Outcomes based on
+     * fresh data expire when the data goes stale, while outcomes of stale data only change with new weather data.
+     *
+     * @param city The city.
+     * @return The epoch millisecond after which the outcomes of the city have to be evaluated again.
+     */
+    public long freshUntilMillis(String city) {
+        Optional<WeatherData> latest = weatherDataService.getLatest(city);
+        if (latest.isEmpty()) {
+            return Long.MAX_VALUE;
+        }
+        if (freshnessPolicy.isFresh(city, latest.get())) {
+            return freshnessPolicy.freshUntil(city, latest.get()) * 1000;
+        }
+        if (freshnessPolicy.staleAction(city) == WeatherFreshnessPolicy.StaleAction.FALLBACK_STATION) {
+            return weatherDataService.getLatestFromFallback(city)
+                    .filter(fallback -> freshnessPolicy.isFresh(city, fallback))
+                    .map(fallback -> freshnessPolicy.freshUntil(city, fallback) * 1000)
+                    .orElse(Long.MAX_VALUE);
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns a version of everything the latest fee of a city and vehicle type depends on: the fee rules, the latest
+     * weather data and its freshness. It is derived from in-memory state only, so it is much cheaper than the fee
+     * itself, and the fee cannot change while the version stays the same.
+     *
+     * @param city        The city where the delivery is to be made.
+     * @param vehicleType The type of vehicle used for the delivery.
+     * @return The version as a hex string, or null if there is no weather data for the city.
+     */
+    public String latestInputsVersion(String city, String vehicleType) {
+        Optional<WeatherData> latest = weatherDataService.getLatest(city);
+        if (latest.isEmpty()) {
+            return null;
+        }
+
+        String inputs = feeRuleService.getRules().version()
+                + '|' + StationHistory.toEpochSecond(latest.get().getObservationTimestamp())
+                + '|' + freshUntilMillis(city)
+                + '|' + city
+                + '|' + vehicleType;
+        return DigestUtils.md5DigestAsHex(inputs.getBytes(StandardCharsets.UTF_8));
     }
 
     /**
@@ -49,40 +173,157 @@ public class DeliveryFeeService {
      * @throws ForbiddenCityException        If the city is not allowed.
      */
     public DeliveryFee calculateFee(String city, String vehicleType) throws ForbiddenVehicleTypeException, ForbiddenCityException, WeatherDataFetchException {
-        // Validate the city and vehicle type and throw an exception if they are not allowed
-        validationService.validateCityAndVehicleType(city, vehicleType);
+        return feeOrThrow(evaluate(city, vehicleType));
+    }
 
-        // Fetch the latest weather data for the city
-        Optional<WeatherData> weatherData = weatherDataService.getLatest(city);
+    /**
+     * Calculates the delivery fee for a specific city and vehicle type using the weather in effect at the given time.
+     *
+     * @param city        The city where the delivery is to be made.
+     * @param vehicleType The type of vehicle used for the delivery.
+     * @param dateTime    The time of the delivery, or null for the latest weather.
+     * @return The calculated delivery fee.
+     * @throws ForbiddenVehicleTypeException If the vehicle type is not allowed.
+     * @throws ForbiddenCityException        If the city is not allowed.
+     */
+    public DeliveryFee calculateFee(String city, String vehicleType, LocalDateTime dateTime) throws ForbiddenVehicleTypeException, ForbiddenCityException, WeatherDataFetchException {
+        return feeOrThrow(evaluate(city, vehicleType, dateTime));
+    }
+
+    /**
+     * Evaluates the delivery fees for a batch of requests. The weather data of each city and time is looked up only once.
+     * Requests that are null or miss the city or the vehicle type are rejected individually like unknown ones.
+     *
+     * @param requests The city, vehicle type and optional time of each delivery to evaluate the fee for.
+     * @return The outcome of each request, in request order.
+     */
+    public List<FeeOutcome> calculateFees(List<DeliveryFeeRequest> requests) {
+        Map<WeatherKey, Optional<WeatherData>> weatherByKey = new HashMap<>();
+
+        List<FeeOutcome> outcomes = new ArrayList<>(requests.size());
+        for (DeliveryFeeRequest request : requests) {
+            if (request == null || request.getCity() == null) {
+                outcomes.add(FeeOutcome.missingCity());
+                continue;
+            }
+            if (request.getVehicleType() == null) {
+                outcomes.add(FeeOutcome.missingVehicleType());
+                continue;
+            }
+
+            LocalDateTime dateTime = request.getDateTime();
+            Function<String, Optional<WeatherData>> weatherLookup = city -> weatherByKey.computeIfAbsent(
+                    new WeatherKey(city, dateTime),
+                    key -> key.dateTime() == null
+                            ? weatherDataService.getLatest(key.city())
+                            : weatherDataService.getAt(key.city(), key.dateTime()));
+            outcomes.add(evaluate(request.getCity(), request.getVehicleType(), weatherLookup, dateTime == null, null));
+        }
+        return outcomes;
+    }
 
-        // If the weather data for the city is unavailable, throw an exception
+    /**
+     * Evaluates the delivery fee using the given weather data lookup. The time spent in validation, weather lookup
+     * and rule evaluation is recorded separately.
+     *
+     * @param city          The city where the delivery is to be made.
+     * @param vehicleType   The type of vehicle used for the delivery.
+     * @param weatherLookup The lookup of the weather data for a city.
+     * @param latest        Whether the lookup returns the latest weather data, which must not be out of date.
+     * @param zone          The delivery zone whose base fees apply, or null for the base fees of the city.
+     * @return The calculated fee or the rejection.
+     */
+    private FeeOutcome evaluate(String city, String vehicleType, Function<String, Optional<WeatherData>> weatherLookup,
+                                boolean latest, FeeZoneIndex.Zone zone) {
+        long validationStart = System.nanoTime();
+        FeeRuleTable rules = feeRuleService.getRules();
+
+        // Validate the city and vehicle type and reject them if they are not allowed
+        int cityId = rules.cityId(city);
+        int vehicleId = rules.vehicleId(vehicleType);
+        FeeOutcome rejection = null;
+        if (cityId == FeeRuleTable.UNKNOWN_ID) {
+            rejection = FeeOutcome.invalidCity(city);
+        } else if (!rules.isOffered(cityId, vehicleId)) {
+            rejection = FeeOutcome.invalidVehicleType(vehicleType);
+        }
+
+        long lookupStart = System.nanoTime();
+        feeMetrics.recordValidation(lookupStart - validationStart);
+        if (rejection != null) {
+            return rejection;
+        }
+
+        // Fetch the weather data in effect for the city and reject the request if it is unavailable
+        Optional<WeatherData> weatherData = weatherLookup.apply(city);
+        boolean stale = false;
         if (weatherData.isEmpty()) {
-            throw new WeatherDataFetchException("No weather data available for the city: " + city);
+            rejection = FeeOutcome.weatherDataUnavailable(city);
+        } else if (latest && !freshnessPolicy.isFresh(city, weatherData.get())) {
+            // The latest weather data is out of date, so apply the stale action of the city
+            switch (freshnessPolicy.staleAction(city)) {
+                case SERVE_STALE -> stale = true;
+                case FALLBACK_STATION -> weatherData = weatherDataService.getLatestFromFallback(city)
+                        .filter(fallback -> freshnessPolicy.isFresh(city, fallback));
+                case REJECT -> weatherData = Optional.empty();
+            }
+            if (weatherData.isEmpty()) {
+                rejection = FeeOutcome.weatherDataStale(city);
+            }
+        }
+
+        long rulesStart = System.nanoTime();
+        feeMetrics.recordWeatherLookup(rulesStart - lookupStart);
+        if (rejection != null) {
+            return rejection;
         }
 
-        // Calculate the delivery fee based on the provided rules
-        double baseFee = calculateBaseFee(city, vehicleType);
-        double airTemperatureExtraFee = weatherFeeService.calculateAirTemperatureExtraFee(vehicleType, weatherData.get());
-        double windSpeedExtraFee = weatherFeeService.calculateWindSpeedExtraFee(vehicleType, weatherData.get());
-        double weatherPhenomenonExtraFee = weatherFeeService.calculateWeatherPhenomenonExtraFee(vehicleType, weatherData.get());
-
-        return new DeliveryFee(
-                city,
-                vehicleType,
-                baseFee,
-                airTemperatureExtraFee,
-                windSpeedExtraFee,
-                weatherPhenomenonExtraFee);
+        double airTemperature = weatherData.get().getAirTemperature();
+        double windSpeed = weatherData.get().getWindSpeed();
+        int phenomenonClass = rules.classifyPhenomenon(weatherData.get().getWeatherPhenomenon());
+
+        // Check if the weather forbids the vehicle type, otherwise calculate the delivery fee based on the provided rules
+        FeeOutcome outcome;
+        if (rules.isWindSpeedForbidden(vehicleId, windSpeed) || rules.isPhenomenonForbidden(vehicleId, phenomenonClass)) {
+            outcome = FeeOutcome.VEHICLE_FORBIDDEN;
+        } else {
+            double baseFee = rules.baseFee(cityId, vehicleId);
+            outcome = new FeeOutcome.Calculated(new DeliveryFee(
+                    city,
+                    vehicleType,
+                    zone == null ? baseFee : zone.baseFee(vehicleType, baseFee),
+                    rules.airTemperatureExtraFee(vehicleId, airTemperature),
+                    rules.windSpeedExtraFee(vehicleId, windSpeed),
+                    rules.weatherPhenomenonExtraFee(vehicleId, phenomenonClass),
+                    rules.version(),
+                    zone == null ? null : zone.name()), stale);
+        }
+
+        feeMetrics.recordRules(System.nanoTime() - rulesStart);
+        return outcome;
     }
 
     /**
-     * Calculates the base fee for a specific city and vehicle type.
+     * Returns the calculated fee of an outcome or throws the exception matching its rejection.
      *
-     * @param city        The city where the delivery is to be made.
-     * @param vehicleType The type of vehicle used for the delivery.
-     * @return The base fee.
+     * @param outcome The outcome of a fee evaluation.
+     * @return The calculated fee.
+     */
+    private static DeliveryFee feeOrThrow(FeeOutcome outcome)
+            throws ForbiddenVehicleTypeException, ForbiddenCityException, WeatherDataFetchException {
+        if (outcome instanceof FeeOutcome.Rejected rejected) {
+            switch (rejected.reason()) {
+                case INVALID_CITY, INVALID_LOCATION -> throw new ForbiddenCityException(rejected.message());
+                case WEATHER_DATA_UNAVAILABLE, WEATHER_DATA_STALE -> throw new WeatherDataFetchException(rejected.message());
+                default -> throw new ForbiddenVehicleTypeException(rejected.message());
+            }
+        }
+        return ((FeeOutcome.Calculated) outcome).fee();
+    }
+
+    /**
+     * Key of a weather data lookup within a batch. A null time stands for the latest weather.
      */
-    private double calculateBaseFee(String city, String vehicleType) {
-        return cityBaseFees.get(city).get(vehicleType);
+    private record WeatherKey(String city, LocalDateTime dateTime) {
     }
 }
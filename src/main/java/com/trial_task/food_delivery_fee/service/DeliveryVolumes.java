@@ -0,0 +1,237 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.exception.DeliveryVolumesTooLargeException;
+import com.trial_task.food_delivery_fee.exception.InvalidDeliveryVolumesException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable delivery volumes read from a CSV file with the time of the deliveries in ISO format, the city, the
+ * vehicle type and optionally the number of deliveries, which defaults to one:
+ * <pre>
+ * dateTime,city,vehicleType,deliveries
+ * 2024-03-01T08:00,Tallinn,bike,412
+ * 2024-03-01T08:00,Tartu,car,57
+ * </pre>
+ * The header line is optional. The rows are kept in columns of primitive arrays with the cities and vehicle types
+ * interned as indexes, so that tens of millions of rows fit in memory and can be scanned in parallel.
+ */
+public final class DeliveryVolumes {
+
+    private final long[] epochSeconds;
+    private final int[] cityIndexes;
+    private final int[] vehicleIndexes;
+    private final long[] deliveries;
+    private final int size;
+    private final List<String> cities;
+    private final List<String> vehicleTypes;
+    private final long minEpochSecond;
+    private final long maxEpochSecond;
+
+    private DeliveryVolumes(long[] epochSeconds, int[] cityIndexes, int[] vehicleIndexes, long[] deliveries, int size,
+                            List<String> cities, List<String> vehicleTypes) {
+        this.epochSeconds = epochSeconds;
+        this.cityIndexes = cityIndexes;
+        this.vehicleIndexes = vehicleIndexes;
+        this.deliveries = deliveries;
+        this.size = size;
+        this.cities = List.copyOf(cities);
+        this.vehicleTypes = List.copyOf(vehicleTypes);
+        this.minEpochSecond = Arrays.stream(epochSeconds, 0, size).min().orElse(0);
+        this.maxEpochSecond = Arrays.stream(epochSeconds, 0, size).max().orElse(0);
+    }
+
+    /**
+     * Reads the delivery volumes from a UTF-8 encoded CSV file.
+     *
+     * @param csv The CSV file.
+     * @return The delivery volumes.
+     * @throws InvalidDeliveryVolumesException If the file cannot be read or a row is invalid.
+     */
+    public static DeliveryVolumes parse(InputStream csv) throws InvalidDeliveryVolumesException {
+        try {
+            return parse(csv, Integer.MAX_VALUE);
+        } catch (DeliveryVolumesTooLargeException e) {
+            throw new InvalidDeliveryVolumesException(e.getMessage());
+        }
+    }
+
+    /**
+     * Reads at most the given number of rows of delivery volumes from a UTF-8 encoded CSV file.
+     *
+     * @param csv     The CSV file.
+     * @param maxRows The maximum number of rows.
+     * @return The delivery volumes.
+     * @throws InvalidDeliveryVolumesException  If the file cannot be read or a row is invalid.
+     * @throws DeliveryVolumesTooLargeException If the file has more rows than allowed.
+     */
+    public static DeliveryVolumes parse(InputStream csv, int maxRows)
+            throws InvalidDeliveryVolumesException, DeliveryVolumesTooLargeException {
+        long[] epochSeconds = new long[1024];
+        int[] cityIndexes = new int[1024];
+        int[] vehicleIndexes = new int[1024];
+        long[] deliveries = new long[1024];
+        int size = 0;
+        List<String> cities = new ArrayList<>();
+        List<String> vehicleTypes = new ArrayList<>();
+        Map<String, Integer> cityIndex = new HashMap<>();
+        Map<String, Integer> vehicleIndex = new HashMap<>();
+
+        // Rows are usually grouped by time, so the previous time is reused instead of parsed again
+        String previousDateTime = null;
+        long previousEpochSecond = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && line.startsWith("dateTime"))) {
+                    continue;
+                }
+                if (size == maxRows) {
+                    throw new DeliveryVolumesTooLargeException("More than " + maxRows + " rows of delivery volumes");
+                }
+
+                int first = line.indexOf(',');
+                int second = first < 0 ? -1 : line.indexOf(',', first + 1);
+                if (second < 0) {
+                    throw invalid(lineNumber, "expected dateTime,city,vehicleType[,deliveries]");
+                }
+                int third = line.indexOf(',', second + 1);
+
+                String dateTime = line.substring(0, first).trim();
+                if (!dateTime.equals(previousDateTime)) {
+                    try {
+                        previousEpochSecond = StationHistory.toEpochSecond(LocalDateTime.parse(dateTime));
+                    } catch (DateTimeParseException e) {
+                        throw invalid(lineNumber, "invalid dateTime " + dateTime);
+                    }
+                    previousDateTime = dateTime;
+                }
+
+                long count = 1;
+                if (third >= 0) {
+                    try {
+                        count = Long.parseLong(line.substring(third + 1).trim());
+                    } catch (NumberFormatException e) {
+                        throw invalid(lineNumber, "invalid number of deliveries");
+                    }
+                    if (count < 0) {
+                        throw invalid(lineNumber, "negative number of deliveries");
+                    }
+                }
+
+                if (size == epochSeconds.length) {
+                    int capacity = size * 2;
+                    epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+                    cityIndexes = Arrays.copyOf(cityIndexes, capacity);
+                    vehicleIndexes = Arrays.copyOf(vehicleIndexes, capacity);
+                    deliveries = Arrays.copyOf(deliveries, capacity);
+                }
+                epochSeconds[size] = previousEpochSecond;
+                cityIndexes[size] = intern(line.substring(first + 1, second).trim(), cities, cityIndex);
+                vehicleIndexes[size] = intern(line.substring(second + 1, third < 0 ? line.length() : third).trim(),
+                        vehicleTypes, vehicleIndex);
+                deliveries[size] = count;
+                size++;
+            }
+        } catch (IOException e) {
+            throw new InvalidDeliveryVolumesException("Cannot read delivery volumes: " + e.getMessage());
+        }
+
+        return new DeliveryVolumes(epochSeconds, cityIndexes, vehicleIndexes, deliveries, size, cities, vehicleTypes);
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return The number of rows.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the distinct cities in the order they first appear.
+     *
+     * @return The cities, indexed by {@link #cityIndex(int)}.
+     */
+    public List<String> cities() {
+        return cities;
+    }
+
+    /**
+     * Returns the distinct vehicle types in the order they first appear.
+     *
+     * @return The vehicle types, indexed by {@link #vehicleIndex(int)}.
+     */
+    public List<String> vehicleTypes() {
+        return vehicleTypes;
+    }
+
+    public long epochSecond(int row) {
+        return epochSeconds[row];
+    }
+
+    public int cityIndex(int row) {
+        return cityIndexes[row];
+    }
+
+    public int vehicleIndex(int row) {
+        return vehicleIndexes[row];
+    }
+
+    public long deliveries(int row) {
+        return deliveries[row];
+    }
+
+    /**
+     * Returns the time of the earliest row.
+     *
+     * @return The earliest time, or null if there are no rows.
+     */
+    public LocalDateTime from() {
+        return size == 0 ? null : toLocalDateTime(minEpochSecond);
+    }
+
+    /**
+     * Returns the time of the latest row.
+     *
+     * @return The latest time, or null if there are no rows.
+     */
+    public LocalDateTime to() {
+        return size == 0 ? null : toLocalDateTime(maxEpochSecond);
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochSecond) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault());
+    }
+
+    private static int intern(String name, List<String> names, Map<String, Integer> indexes) {
+        Integer index = indexes.get(name);
+        if (index == null) {
+            index = names.size();
+            names.add(name);
+            indexes.put(name, index);
+        }
+        return index;
+    }
+
+    private static InvalidDeliveryVolumesException invalid(int lineNumber, String reason) {
+        return new InvalidDeliveryVolumesException("Invalid delivery volumes on line " + lineNumber + ": " + reason);
+    }
+}
@@ -0,0 +1,125 @@
+package com.trial_task.food_delivery_fee.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Immutable matrix of precomputed fee outcomes for every city and vehicle type of a {@link FeeRuleTable}.
+ * A cell holds either the calculated fee or the rejection.
+ * <p>
+ * The cells of a city expire once its weather data goes stale, after which lookups miss and the fee is evaluated
+ * with the stale action of the city.
+ */
+public final class FeeMatrix {
+
+    /** Matrix used before the first weather data has been received. */
+    public static final FeeMatrix EMPTY = new FeeMatrix(null, new FeeOutcome[0], new long[0]);
+
+    private final FeeRuleTable rules;
+    private final FeeOutcome[] entries;
+    private final long[] freshUntilMillis;
+
+    /**
+     * A cell of the matrix.
+     *
+     * @param city        The city of the cell.
+     * @param vehicleType The vehicle type of the cell.
+     * @param outcome     The precomputed outcome.
+     */
+    public record Cell(String city, String vehicleType, FeeOutcome outcome) {
+    }
+
+    private FeeMatrix(FeeRuleTable rules, FeeOutcome[] entries, long[] freshUntilMillis) {
+        this.rules = rules;
+        this.entries = entries;
+        this.freshUntilMillis = freshUntilMillis;
+    }
+
+    /**
+     * Computes a matrix by evaluating every city and vehicle type of the rule table.
+     *
+     * @param rules      The rule table defining the cities and vehicle types.
+     * @param evaluator  The evaluation to run for every cell, taking the city and vehicle type.
+     * @param freshUntil The epoch millisecond until which the cells of a city remain valid, taking the city.
+     * @return The computed matrix.
+     */
+    public static FeeMatrix compute(FeeRuleTable rules, BiFunction<String, String, FeeOutcome> evaluator,
+                                    ToLongFunction<String> freshUntil) {
+        FeeOutcome[] entries = new FeeOutcome[rules.cityCount() * rules.vehicleCount()];
+        long[] freshUntilMillis = new long[rules.cityCount()];
+        for (int cityId = 0; cityId < rules.cityCount(); cityId++) {
+            freshUntilMillis[cityId] = freshUntil.applyAsLong(rules.city(cityId));
+            for (int vehicleId = 0; vehicleId < rules.vehicleCount(); vehicleId++) {
+                entries[cityId * rules.vehicleCount() + vehicleId] =
+                        evaluator.apply(rules.city(cityId), rules.vehicleType(vehicleId));
+            }
+        }
+        return new FeeMatrix(rules, entries, freshUntilMillis);
+    }
+
+    /**
+     * Looks up the precomputed outcome for a city and vehicle type.
+     *
+     * @param city        The city where the delivery is to be made.
+     * @param vehicleType The type of vehicle used for the delivery.
+     * @return The precomputed outcome, or null if the matrix has no cell for the city and vehicle type or the cell
+     * has expired.
+     */
+    public FeeOutcome lookup(String city, String vehicleType) {
+        if (rules == null) {
+            return null;
+        }
+
+        int cityId = rules.cityId(city);
+        int vehicleId = rules.vehicleId(vehicleType);
+        if (cityId == FeeRuleTable.UNKNOWN_ID || vehicleId == FeeRuleTable.UNKNOWN_ID
+                || System.currentTimeMillis() > freshUntilMillis[cityId]) {
+            return null;
+        }
+        return entries[cityId * rules.vehicleCount() + vehicleId];
+    }
+
+    /**
+     * Returns every cell of the matrix, whether or not it has expired.
+     *
+     * @return The cells, by city and vehicle type in the order of the rule table.
+     */
+    public List<Cell> cells() {
+        return changedSince(null);
+    }
+
+    /**
+     * Returns the cells whose outcome differs from the same cell of a previous matrix. The matrices can only be
+     * compared cell by cell when they were computed from the same rule table.
+     *
+     * @param previous The previous matrix, or null to return every cell.
+     * @return The changed cells, or every cell if the previous matrix was computed from other rules.
+     */
+    public List<Cell> changedSince(FeeMatrix previous) {
+        if (rules == null) {
+            return List.of();
+        }
+
+        boolean compare = previous != null && previous.rules == rules;
+        List<Cell> cells = new ArrayList<>();
+        for (int i = 0; i < entries.length; i++) {
+            if (!compare || !Objects.equals(entries[i], previous.entries[i])) {
+                cells.add(new Cell(rules.city(i / rules.vehicleCount()), rules.vehicleType(i % rules.vehicleCount()), entries[i]));
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Tells whether the matrix was computed from the same rule table as another matrix.
+     *
+     * @param other The other matrix.
+     * @return True if the cells of both matrices can be compared one by one.
+     */
+    public boolean hasSameRulesAs(FeeMatrix other) {
+        return other != null && rules != null && other.rules == rules;
+    }
+}
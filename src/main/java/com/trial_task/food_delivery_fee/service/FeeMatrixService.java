@@ -0,0 +1,115 @@
+package com.trial_task.food_delivery_fee.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * Service class that keeps a precomputed fee matrix for every city and vehicle type.
+ * <p>
+ * Weather only changes when new observations are ingested, so the matrix is rebuilt after every weather update
+ * and every reload of the fee rules, and requests for the latest fees can be answered without validation, weather lookups or rule evaluation.
+ * The cells of a city expire when its weather data goes stale, so that the stale action of the city applies.
+ * <p>
+ * Every rebuilt matrix is also pushed to the subscribers of {@link #updates()}: the full matrix on subscription,
+ * then only the cells that changed, for example when new weather forbids a vehicle type.
+ */
+@Service
+public class FeeMatrixService {
+    private final DeliveryFeeService deliveryFeeService;
+    private final FeeRuleService feeRuleService;
+
+    private volatile FeeMatrix matrix = FeeMatrix.EMPTY;
+    // Replays the latest matrix to new subscribers, emitted only from the synchronized rebuild
+    private final Sinks.Many<FeeMatrix> matrices = Sinks.many().replay().latest();
+
+    /**
+     * Constructor for the FeeMatrixService class.
+     *
+     * @param deliveryFeeService The service used to evaluate each cell of the matrix.
+     * @param feeRuleService     The service holding the compiled fee rules.
+     */
+    public FeeMatrixService(DeliveryFeeService deliveryFeeService, FeeRuleService feeRuleService) {
+        this.deliveryFeeService = deliveryFeeService;
+        this.feeRuleService = feeRuleService;
+    }
+
+    /**
+     * Looks up the precomputed fee for a city and vehicle type.
+     *
+     * @param city        The city where the delivery is to be made.
+     * @param vehicleType The type of vehicle used for the delivery.
+     * @return The precomputed outcome, or null if there is none and the fee has to be evaluated.
+     */
+    public FeeOutcome lookup(String city, String vehicleType) {
+        return matrix.lookup(city, vehicleType);
+    }
+
+    /**
+     * Streams the updates of the matrix. The first update holds every cell of the current matrix and each following
+     * one the cells that changed since the previous update, or every cell when the fee rules have been reloaded.
+     * <p>
+     * Updates are delivered off the thread that rebuilt the matrix, so a slow subscriber cannot hold up weather
+     * ingestion, and a subscriber that falls behind skips to the latest matrix. No thread is held while idle.
+     *
+     * @return The updates of the matrix, never completing.
+     */
+    public Flux<FeeMatrixUpdate> updates() {
+        return matrices.asFlux()
+                .onBackpressureLatest()
+                .publishOn(Schedulers.boundedElastic(), 1)
+                .transformDeferred(latest -> {
+                    FeeMatrix[] previous = {null};
+                    return latest.<FeeMatrixUpdate>handle((next, sink) -> {
+                        boolean full = !next.hasSameRulesAs(previous[0]);
+                        List<FeeMatrix.Cell> cells = next.changedSince(previous[0]);
+                        previous[0] = next;
+                        if (full || !cells.isEmpty()) {
+                            sink.next(new FeeMatrixUpdate(full, cells));
+                        }
+                    });
+                });
+    }
+
+    /**
+     * Builds the initial matrix from the weather data available at startup.
+     */
+    @PostConstruct
+    public void initializeMatrix() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the matrix after new weather data has been ingested.
+     *
+     * @param event The weather update event.
+     */
+    @EventListener
+    public void onWeatherDataUpdated(WeatherDataUpdatedEvent event) {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the matrix with the new fee rules.
+     *
+     * @param event The fee rules reload event.
+     */
+    @EventListener
+    public void onFeeRulesReloaded(FeeRulesReloadedEvent event) {
+        rebuild();
+    }
+
+    /**
+     * Recomputes every cell of the matrix and swaps the new matrix in.
+     */
+    public synchronized void rebuild() {
+        matrix = FeeMatrix.compute(feeRuleService.getRules(), deliveryFeeService::evaluate,
+                deliveryFeeService::freshUntilMillis);
+        matrices.tryEmitNext(matrix);
+    }
+}
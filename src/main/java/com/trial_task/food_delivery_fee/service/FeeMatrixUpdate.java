@@ -0,0 +1,12 @@
+package com.trial_task.food_delivery_fee.service;
+
+import java.util.List;
+
+/**
+ * Update of the fee matrix pushed to subscribers.
+ *
+ * @param full  Whether the update holds every cell of the matrix, replacing all cells the subscriber knows of.
+ * @param cells The cells of the matrix, or only those that changed since the previous update.
+ */
+public record FeeMatrixUpdate(boolean full, List<FeeMatrix.Cell> cells) {
+}
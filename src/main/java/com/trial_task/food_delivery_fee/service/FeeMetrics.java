@@ -0,0 +1,183 @@
+package com.trial_task.food_delivery_fee.service;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Meters of the delivery fee pipeline.
+ * <p>
+ * Every combination of city, vehicle type and outcome of a rule table is registered up front and kept in an array
+ * indexed by the ids of the rule table, so recording a request neither builds tags nor allocates. Unknown cities
+ * and vehicle types share the "other" tag, which keeps the number of time series bounded. When the rules are
+ * reloaded, the timers are registered for the new rule table and those of cities and vehicle types that are no
+ * longer part of the rules are removed from the registry.
+ * <p>
+ * The stages of an evaluation run several times per request and in every fee matrix rebuild, so they are counted
+ * in plain adders that are read as function timers instead of full timers, which also track a maximum.
+ */
+@Component
+public class FeeMetrics {
+    static final String REQUESTS = "delivery.fee.requests";
+    static final String EVALUATION = "delivery.fee.evaluation";
+    static final String OTHER = "other";
+
+    private static final RejectionReason[] REASONS = RejectionReason.values();
+
+    private final MeterRegistry registry;
+    private final FeeRuleService feeRuleService;
+    private final StageTimer validationTimer = new StageTimer();
+    private final StageTimer weatherLookupTimer = new StageTimer();
+    private final StageTimer rulesTimer = new StageTimer();
+    private volatile RequestTimers requestTimers;
+
+    /**
+     * Constructor for the FeeMetrics class.
+     *
+     * @param registry       The registry the meters are registered in.
+     * @param feeRuleService The service holding the rule table whose cities and vehicle types are tagged.
+     */
+    public FeeMetrics(MeterRegistry registry, FeeRuleService feeRuleService) {
+        this.registry = registry;
+        this.feeRuleService = feeRuleService;
+        registerStage("validation", validationTimer);
+        registerStage("weather_lookup", weatherLookupTimer);
+        registerStage("rules", rulesTimer);
+        this.requestTimers = RequestTimers.register(registry, feeRuleService.getRules());
+    }
+
+    /**
+     * Records a delivery fee request.
+     *
+     * @param city         The requested city.
+     * @param vehicleType  The requested vehicle type.
+     * @param outcome      The outcome of the request.
+     * @param elapsedNanos The time it took to answer the request.
+     */
+    public void recordRequest(String city, String vehicleType, FeeOutcome outcome, long elapsedNanos) {
+        RequestTimers timers = requestTimers;
+        FeeRuleTable rules = feeRuleService.getRules();
+        if (timers.rules() != rules) {
+            timers = replaceRequestTimers(rules);
+        }
+        timers.timer(city, vehicleType, outcome).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the time spent validating the city and vehicle type of an evaluation.
+     *
+     * @param elapsedNanos The elapsed time.
+     */
+    public void recordValidation(long elapsedNanos) {
+        validationTimer.record(elapsedNanos);
+    }
+
+    /**
+     * Records the time spent looking up the weather data of an evaluation.
+     *
+     * @param elapsedNanos The elapsed time.
+     */
+    public void recordWeatherLookup(long elapsedNanos) {
+        weatherLookupTimer.record(elapsedNanos);
+    }
+
+    /**
+     * Records the time spent evaluating the fee rules of an evaluation.
+     *
+     * @param elapsedNanos The elapsed time.
+     */
+    public void recordRules(long elapsedNanos) {
+        rulesTimer.record(elapsedNanos);
+    }
+
+    private synchronized RequestTimers replaceRequestTimers(FeeRuleTable rules) {
+        RequestTimers current = requestTimers;
+        if (current.rules() == rules) {
+            return current;
+        }
+
+        RequestTimers next = RequestTimers.register(registry, rules);
+        Set<Meter.Id> kept = new HashSet<>();
+        for (Timer timer : next.timers()) {
+            kept.add(timer.getId());
+        }
+        for (Timer timer : current.timers()) {
+            if (!kept.contains(timer.getId())) {
+                registry.remove(timer);
+            }
+        }
+        requestTimers = next;
+        return next;
+    }
+
+    private void registerStage(String stage, StageTimer timer) {
+        FunctionTimer.builder(EVALUATION, timer, StageTimer::count, StageTimer::totalNanos, TimeUnit.NANOSECONDS)
+                .description("Time spent in each stage of a delivery fee evaluation")
+                .tag("stage", stage)
+                .register(registry);
+    }
+
+    /**
+     * Count and total time of an evaluation stage.
+     */
+    private static final class StageTimer {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        void record(long elapsedNanos) {
+            count.increment();
+            totalNanos.add(elapsedNanos);
+        }
+
+        long count() {
+            return count.sum();
+        }
+
+        double totalNanos() {
+            return totalNanos.sum();
+        }
+    }
+
+    /**
+     * Request timers of a rule table. Slot 0 of the city and vehicle dimensions holds the unknown values
+     * ({@link FeeRuleTable#UNKNOWN_ID} + 1),
+     * slot 0 of the outcome dimension the calculated fees and the following slots the rejection reasons.
+     */
+    private record RequestTimers(FeeRuleTable rules, Timer[] timers) {
+
+        static RequestTimers register(MeterRegistry registry, FeeRuleTable rules) {
+            int vehicles = rules.vehicleCount() + 1;
+            int outcomes = REASONS.length + 1;
+            Timer[] timers = new Timer[(rules.cityCount() + 1) * vehicles * outcomes];
+            for (int city = 0; city <= rules.cityCount(); city++) {
+                for (int vehicle = 0; vehicle < vehicles; vehicle++) {
+                    for (int outcome = 0; outcome < outcomes; outcome++) {
+                        timers[(city * vehicles + vehicle) * outcomes + outcome] = Timer.builder(REQUESTS)
+                                .description("Delivery fee requests by city, vehicle type and outcome")
+                                .tag("city", city == 0 ? OTHER : rules.city(city - 1))
+                                .tag("vehicle", vehicle == 0 ? OTHER : rules.vehicleType(vehicle - 1))
+                                .tag("outcome", outcome == 0 ? "calculated" : REASONS[outcome - 1].name().toLowerCase(Locale.ROOT))
+                                .register(registry);
+                    }
+                }
+            }
+            return new RequestTimers(rules, timers);
+        }
+
+        Timer timer(String city, String vehicleType, FeeOutcome outcome) {
+            int vehicles = rules.vehicleCount() + 1;
+            int citySlot = rules.cityId(city) + 1;
+            int vehicleSlot = rules.vehicleId(vehicleType) + 1;
+            int outcomeSlot = outcome instanceof FeeOutcome.Rejected rejected ? rejected.reason().ordinal() + 1 : 0;
+            return timers[(citySlot * vehicles + vehicleSlot) * (REASONS.length + 1) + outcomeSlot];
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.model.DeliveryFee;
+
+/**
+ * Outcome of a single fee evaluation: either the calculated fee or a typed rejection.
+ * <p>
+ * Rejections are a normal business result, for example when a storm forbids bike deliveries for hours,
+ * so they are returned as values instead of being thrown.
+ */
+public sealed interface FeeOutcome {
+
+    /** Rejection of a vehicle type forbidden by the weather. It does not depend on the request, so it is shared. */
+    Rejected VEHICLE_FORBIDDEN = new Rejected(RejectionReason.VEHICLE_FORBIDDEN_BY_WEATHER, "Usage of selected vehicle type is forbidden");
+
+    static Rejected invalidCity(String city) {
+        return new Rejected(RejectionReason.INVALID_CITY, "Invalid city: " + city);
+    }
+
+    static Rejected missingCity() {
+        return new Rejected(RejectionReason.INVALID_CITY, "City is missing");
+    }
+
+    static Rejected missingVehicleType() {
+        return new Rejected(RejectionReason.INVALID_VEHICLE_TYPE, "Vehicle type is missing");
+    }
+
+    static Rejected invalidLocation(double latitude, double longitude) {
+        return new Rejected(RejectionReason.INVALID_LOCATION, "No supported city near the location: " + latitude + ", " + longitude);
+    }
+
+    static Rejected invalidVehicleType(String vehicleType) {
+        return new Rejected(RejectionReason.INVALID_VEHICLE_TYPE, "Invalid vehicle type: " + vehicleType);
+    }
+
+    static Rejected weatherDataUnavailable(String city) {
+        return new Rejected(RejectionReason.WEATHER_DATA_UNAVAILABLE, "No weather data available for the city: " + city);
+    }
+
+    static Rejected weatherDataStale(String city) {
+        return new Rejected(RejectionReason.WEATHER_DATA_STALE, "Weather data is out of date for the city: " + city);
+    }
+
+    /**
+     * A successfully calculated fee.
+     *
+     * @param fee   The calculated fee.
+     * @param stale Whether the fee is based on weather data older than the maximum age of the city.
+     */
+    record Calculated(DeliveryFee fee, boolean stale) implements FeeOutcome {
+
+        /**
+         * Creates a fee calculated from fresh weather data.
+         *
+         * @param fee The calculated fee.
+         */
+        public Calculated(DeliveryFee fee) {
+            this(fee, false);
+        }
+    }
+
+    /**
+     * A rejected fee calculation.
+     *
+     * @param reason  The reason the fee was rejected.
+     * @param message The human-readable description of the rejection.
+     */
+    record Rejected(RejectionReason reason, String message) implements FeeOutcome {
+    }
+}
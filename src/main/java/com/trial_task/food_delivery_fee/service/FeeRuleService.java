@@ -0,0 +1,208 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.exception.InvalidFeeRulesException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.core.env.PropertySourcesPropertyResolver;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Properties;
+
+/**
+ * Service class holding the fee rules compiled from the application properties.
+ * <p>
+ * The rules can be overridden by a rules file ({@code fee.rules.file}) holding any of the {@code fee.*} properties.
+ * The file is polled for changes and can be reloaded on demand. A reload compiles a new immutable
+ * {@link FeeRuleTable} and swaps it in atomically, so readers never lock, and publishes a
+ * {@link FeeRulesReloadedEvent} when the version of the rules has changed. Invalid rules are rejected and the
+ * current rules are kept.
+ */
+@Service
+public class FeeRuleService {
+    private static final Logger log = LoggerFactory.getLogger(FeeRuleService.class);
+
+    private final ConfigurableEnvironment environment;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path rulesFile;
+
+    private volatile FeeRuleTable rules;
+    private volatile Instant loadedAt = Instant.now();
+    private FileTime rulesFileModified;
+
+    /**
+     * Compiles the fee rules from the application environment and the rules file, if one is configured.
+     *
+     * @param environment    The environment containing the {@code fee.*} properties.
+     * @param eventPublisher The publisher used to announce reloaded rules.
+     * @throws IllegalStateException If the rules are invalid.
+     */
+    @Autowired
+    public FeeRuleService(ConfigurableEnvironment environment, ApplicationEventPublisher eventPublisher) {
+        this.environment = environment;
+        this.eventPublisher = eventPublisher;
+        String file = environment.getProperty("fee.rules.file", "");
+        this.rulesFile = file.isBlank() ? null : Path.of(file.trim());
+        try {
+            this.rules = compile();
+        } catch (InvalidFeeRulesException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Constructor for using an already compiled rule table, which cannot be reloaded.
+     *
+     * @param rules The compiled fee rules.
+     */
+    public FeeRuleService(FeeRuleTable rules) {
+        this.environment = null;
+        this.eventPublisher = null;
+        this.rulesFile = null;
+        this.rules = rules;
+    }
+
+    /**
+     * Returns the current fee rules.
+     *
+     * @return The compiled fee rules.
+     */
+    public FeeRuleTable getRules() {
+        return rules;
+    }
+
+    /**
+     * Returns the version of the current fee rules, when they were loaded and where they were loaded from.
+     *
+     * @return The status of the fee rules.
+     */
+    public FeeRuleSetStatus getStatus() {
+        return new FeeRuleSetStatus(rules.version(), loadedAt,
+                rulesFile == null ? "application properties" : rulesFile.toString());
+    }
+
+    /**
+     * Recompiles the fee rules and swaps them in if their version has changed.
+     *
+     * @return True if new rules were swapped in, false if the rules are unchanged.
+     * @throws InvalidFeeRulesException If the rules file cannot be read or the rules are invalid.
+     */
+    public synchronized boolean reload() throws InvalidFeeRulesException {
+        if (environment == null) {
+            return false;
+        }
+
+        FeeRuleTable reloaded = compile();
+        FeeRuleTable current = rules;
+        if (reloaded.version().equals(current.version())) {
+            return false;
+        }
+
+        rules = reloaded;
+        loadedAt = Instant.now();
+        log.info("Fee rules version {} replaced version {}", reloaded.version(), current.version());
+        eventPublisher.publishEvent(new FeeRulesReloadedEvent(reloaded));
+        return true;
+    }
+
+    /**
+     * Reloads the fee rules when the rules file has been modified since it was last read.
+     * This method is scheduled to run at the interval specified by {@code fee.rules.pollInterval}.
+     */
+    @Scheduled(fixedDelayString = "${fee.rules.pollInterval:PT10S}", initialDelayString = "${fee.rules.pollInterval:PT10S}")
+    public synchronized void checkRulesFile() {
+        if (rulesFile == null) {
+            return;
+        }
+
+        try {
+            if (Files.getLastModifiedTime(rulesFile).equals(rulesFileModified)) {
+                return;
+            }
+            reload();
+        } catch (IOException | InvalidFeeRulesException e) {
+            log.error("Keeping fee rules version {}: {}", rules.version(), e.getMessage());
+        }
+    }
+
+    /**
+     * Compiles a candidate rule set from the given {@code fee.*} properties, falling back to the rules file and the
+     * environment for the properties it does not hold. The candidate is not swapped in, so it can be evaluated
+     * without affecting the current rules.
+     *
+     * @param overrides The {@code fee.*} properties that differ from the current rules.
+     * @return The compiled candidate rules.
+     * @throws InvalidFeeRulesException If an override is not a fee rule property, the rules file cannot be read or
+     *                                  the candidate rules are invalid.
+     */
+    public FeeRuleTable compileCandidate(Properties overrides) throws InvalidFeeRulesException {
+        for (String name : overrides.stringPropertyNames()) {
+            if (!FeeRuleTable.PROPERTY_NAMES.contains(name)) {
+                throw new InvalidFeeRulesException("Unknown fee rule property " + name);
+            }
+        }
+        if (environment == null) {
+            throw new InvalidFeeRulesException("Fee rules compiled elsewhere cannot be overridden");
+        }
+        return compile(overrides);
+    }
+
+    /**
+     * Compiles the rules from the rules file, falling back to the environment for the properties it does not hold,
+     * and remembers the modification time of the rules file, so an invalid file is only reported once.
+     */
+    private FeeRuleTable compile() throws InvalidFeeRulesException {
+        if (rulesFile != null) {
+            try {
+                rulesFileModified = Files.getLastModifiedTime(rulesFile);
+            } catch (IOException e) {
+                throw new InvalidFeeRulesException("Cannot read fee rules file " + rulesFile + ": " + e.getMessage());
+            }
+        }
+        return compile(new Properties());
+    }
+
+    private FeeRuleTable compile(Properties overrides) throws InvalidFeeRulesException {
+        MutablePropertySources sources = new MutablePropertySources();
+        if (!overrides.isEmpty()) {
+            sources.addLast(new PropertiesPropertySource("feeRuleOverrides", overrides));
+        }
+        if (rulesFile != null) {
+            sources.addLast(new PropertiesPropertySource("feeRulesFile", readRulesFile()));
+        }
+        environment.getPropertySources().forEach(sources::addLast);
+
+        try {
+            return FeeRuleTable.compile(new PropertySourcesPropertyResolver(sources));
+        } catch (RuntimeException e) {
+            throw new InvalidFeeRulesException("Invalid fee rules: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the rules file as UTF-8.
+     */
+    private Properties readRulesFile() throws InvalidFeeRulesException {
+        try {
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(rulesFile, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+            return properties;
+        } catch (IOException e) {
+            throw new InvalidFeeRulesException("Cannot read fee rules file " + rulesFile + ": " + e.getMessage());
+        }
+    }
+}
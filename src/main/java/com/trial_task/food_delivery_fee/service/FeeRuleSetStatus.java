@@ -0,0 +1,13 @@
+package com.trial_task.food_delivery_fee.service;
+
+import java.time.Instant;
+
+/**
+ * Current state of the fee rules.
+ *
+ * @param version  The version of the rules, a hash of the rule properties.
+ * @param loadedAt The time the rules were loaded.
+ * @param source   Where the rules were loaded from.
+ */
+public record FeeRuleSetStatus(String version, Instant loadedAt, String source) {
+}
@@ -0,0 +1,429 @@
+package com.trial_task.food_delivery_fee.service;
+
+import org.springframework.core.env.PropertyResolver;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.SimpleEvaluationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable, precompiled form of the {@code fee.*} rules.
+ * <p>
+ * Cities and vehicle types are mapped to dense integer ids and every rule is stored in primitive arrays,
+ * so evaluating a request is a handful of array reads. Weather phenomena are classified once per distinct
+ * phenomenon text and the result is memoized.
+ * <p>
+ * Every table carries a version that is a hash of the rule properties it was compiled from, so identical rules
+ * always have the same version and any change to a rule yields a new one.
+ */
+public final class FeeRuleTable {
+
+    /** Id returned for a city or vehicle type that is not part of the rules. */
+    public static final int UNKNOWN_ID = -1;
+
+    /** Phenomenon class of a phenomenon that carries no extra fee. */
+    public static final int NO_PHENOMENON = -1;
+
+    /** Phenomenon class of a phenomenon that forbids the applicable vehicle types. */
+    public static final int FORBIDDEN_PHENOMENON = -2;
+
+    private static final int MAX_MEMOIZED_PHENOMENA = 1024;
+
+    private static final ExpressionParser EXPRESSION_PARSER = new SpelExpressionParser();
+    private static final EvaluationContext EVALUATION_CONTEXT = SimpleEvaluationContext.forReadOnlyDataBinding().build();
+
+    /** Names of the properties the rules are compiled from. */
+    static final List<String> PROPERTY_NAMES = List.of(
+            "fee.city.base",
+            "fee.temperature.applicableVehicles",
+            "fee.temperature.thresholds",
+            "fee.temperature.fees",
+            "fee.windSpeed.applicableVehicles",
+            "fee.windSpeed.maxAllowedWindSpeed",
+            "fee.windSpeed.thresholds",
+            "fee.windSpeed.fees",
+            "fee.weatherPhenomenon.applicableVehicles",
+            "fee.weatherPhenomenon.forbiddenTypes",
+            "fee.weatherPhenomenon.types",
+            "fee.weatherPhenomenon.fees");
+
+    private final String version;
+
+    private final String[] cities;
+    private final Map<String, Integer> cityIds;
+    private final String[] vehicleTypes;
+    private final Map<String, Integer> vehicleIds;
+
+    // Indexed by cityId * vehicleTypes.length + vehicleId, NaN when the vehicle type is not offered in the city
+    private final double[] baseFees;
+
+    private final boolean[] temperatureApplicable;
+    private final double[] temperatureThresholds;
+    private final double[] temperatureFees;
+
+    private final boolean[] windSpeedApplicable;
+    private final double maxAllowedWindSpeed;
+    private final double[] windSpeedThresholds;
+    private final double[] windSpeedFees;
+
+    private final boolean[] weatherPhenomenonApplicable;
+    private final String[] forbiddenWeatherPhenomena;
+    private final String[] weatherPhenomenaTypes;
+    private final double[] weatherPhenomenaFees;
+
+    private final Map<String, Integer> phenomenonClasses = new ConcurrentHashMap<>();
+
+    private FeeRuleTable(String version,
+                         Map<String, Map<String, Double>> cityBaseFees,
+                         List<String> temperatureApplicableVehicles,
+                         List<Double> temperatureThresholds,
+                         List<Double> temperatureFees,
+                         List<String> windSpeedApplicableVehicles,
+                         double maxAllowedWindSpeed,
+                         List<Double> windSpeedThresholds,
+                         List<Double> windSpeedFees,
+                         List<String> weatherPhenomenonApplicableVehicles,
+                         List<String> forbiddenWeatherPhenomena,
+                         List<String> weatherPhenomenaTypes,
+                         List<Double> weatherPhenomenaFees) {
+        requireSameSize("fee.temperature", temperatureThresholds, temperatureFees);
+        requireSameSize("fee.windSpeed", windSpeedThresholds, windSpeedFees);
+        requireSameSize("fee.weatherPhenomenon", weatherPhenomenaTypes, weatherPhenomenaFees);
+
+        this.version = version;
+
+        // Assign dense ids to every city and every vehicle type mentioned anywhere in the rules
+        Set<String> vehicleTypeSet = new LinkedHashSet<>();
+        cityBaseFees.values().forEach(fees -> vehicleTypeSet.addAll(fees.keySet()));
+        vehicleTypeSet.addAll(temperatureApplicableVehicles);
+        vehicleTypeSet.addAll(windSpeedApplicableVehicles);
+        vehicleTypeSet.addAll(weatherPhenomenonApplicableVehicles);
+
+        this.cities = cityBaseFees.keySet().toArray(new String[0]);
+        this.cityIds = indexOf(cities);
+        this.vehicleTypes = vehicleTypeSet.toArray(new String[0]);
+        this.vehicleIds = indexOf(vehicleTypes);
+
+        this.baseFees = new double[cities.length * vehicleTypes.length];
+        Arrays.fill(baseFees, Double.NaN);
+        cityBaseFees.forEach((city, fees) -> fees.forEach((vehicleType, fee) ->
+                baseFees[cityIds.get(city) * vehicleTypes.length + vehicleIds.get(vehicleType)] = fee));
+
+        this.temperatureApplicable = applicabilityOf(temperatureApplicableVehicles);
+        this.temperatureThresholds = toArray(temperatureThresholds);
+        this.temperatureFees = toArray(temperatureFees);
+
+        this.windSpeedApplicable = applicabilityOf(windSpeedApplicableVehicles);
+        this.maxAllowedWindSpeed = maxAllowedWindSpeed;
+        this.windSpeedThresholds = toArray(windSpeedThresholds);
+        this.windSpeedFees = toArray(windSpeedFees);
+
+        this.weatherPhenomenonApplicable = applicabilityOf(weatherPhenomenonApplicableVehicles);
+        this.forbiddenWeatherPhenomena = forbiddenWeatherPhenomena.toArray(new String[0]);
+        this.weatherPhenomenaTypes = weatherPhenomenaTypes.toArray(new String[0]);
+        this.weatherPhenomenaFees = toArray(weatherPhenomenaFees);
+    }
+
+    /**
+     * Compiles the fee rules from the {@code fee.*} properties.
+     *
+     * @param properties The properties to read the rules from, e.g. the Spring environment.
+     * @return The compiled rule table.
+     * @throws IllegalStateException If a required property is missing.
+     */
+    public static FeeRuleTable compile(PropertyResolver properties) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String name : PROPERTY_NAMES) {
+            values.put(name, properties.getRequiredProperty(name));
+        }
+
+        return new FeeRuleTable(
+                versionOf(values),
+                parseCityBaseFees(values.get("fee.city.base")),
+                parseStrings(values.get("fee.temperature.applicableVehicles")),
+                parseDoubles(values.get("fee.temperature.thresholds")),
+                parseDoubles(values.get("fee.temperature.fees")),
+                parseStrings(values.get("fee.windSpeed.applicableVehicles")),
+                Double.parseDouble(values.get("fee.windSpeed.maxAllowedWindSpeed").trim()),
+                parseDoubles(values.get("fee.windSpeed.thresholds")),
+                parseDoubles(values.get("fee.windSpeed.fees")),
+                parseStrings(values.get("fee.weatherPhenomenon.applicableVehicles")),
+                parseStrings(values.get("fee.weatherPhenomenon.forbiddenTypes")),
+                parseStrings(values.get("fee.weatherPhenomenon.types")),
+                parseDoubles(values.get("fee.weatherPhenomenon.fees")));
+    }
+
+    /**
+     * Returns the version of the rules.
+     *
+     * @return The first 16 hex digits of the SHA-256 hash of the rule properties.
+     */
+    public String version() {
+        return version;
+    }
+
+    /**
+     * Returns the id of a city.
+     *
+     * @param city The city name.
+     * @return The id of the city, or {@link #UNKNOWN_ID} if the city has no base fees.
+     */
+    public int cityId(String city) {
+        Integer id = city == null ? null : cityIds.get(city);
+        return id == null ? UNKNOWN_ID : id;
+    }
+
+    /**
+     * Returns the id of a vehicle type.
+     *
+     * @param vehicleType The vehicle type.
+     * @return The id of the vehicle type, or {@link #UNKNOWN_ID} if no rule mentions it.
+     */
+    public int vehicleId(String vehicleType) {
+        Integer id = vehicleType == null ? null : vehicleIds.get(vehicleType);
+        return id == null ? UNKNOWN_ID : id;
+    }
+
+    public int cityCount() {
+        return cities.length;
+    }
+
+    public int vehicleCount() {
+        return vehicleTypes.length;
+    }
+
+    public String city(int cityId) {
+        return cities[cityId];
+    }
+
+    public String vehicleType(int vehicleId) {
+        return vehicleTypes[vehicleId];
+    }
+
+    /**
+     * Checks whether a vehicle type is offered in a city.
+     *
+     * @param cityId    The city id.
+     * @param vehicleId The vehicle type id.
+     * @return True if the city has a base fee for the vehicle type.
+     */
+    public boolean isOffered(int cityId, int vehicleId) {
+        return cityId >= 0 && vehicleId >= 0 && !Double.isNaN(baseFees[cityId * vehicleTypes.length + vehicleId]);
+    }
+
+    /**
+     * Returns the regional base fee. Only valid if {@link #isOffered(int, int)} holds.
+     *
+     * @param cityId    The city id.
+     * @param vehicleId The vehicle type id.
+     * @return The regional base fee.
+     */
+    public double baseFee(int cityId, int vehicleId) {
+        return baseFees[cityId * vehicleTypes.length + vehicleId];
+    }
+
+    /**
+     * Calculates the extra fee based on air temperature.
+     *
+     * @param vehicleId      The vehicle type id.
+     * @param airTemperature The air temperature.
+     * @return The extra fee based on air temperature.
+     */
+    public double airTemperatureExtraFee(int vehicleId, double airTemperature) {
+        if (!isApplicable(temperatureApplicable, vehicleId)) {
+            return 0;
+        }
+
+        for (int i = 0; i < temperatureThresholds.length; i++) {
+            if (airTemperature < temperatureThresholds[i]) {
+                return temperatureFees[i];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Checks whether the wind speed forbids the vehicle type.
+     *
+     * @param vehicleId The vehicle type id.
+     * @param windSpeed The wind speed.
+     * @return True if the vehicle type is affected by wind and the wind speed exceeds the allowed maximum.
+     */
+    public boolean isWindSpeedForbidden(int vehicleId, double windSpeed) {
+        return isApplicable(windSpeedApplicable, vehicleId) && windSpeed > maxAllowedWindSpeed;
+    }
+
+    /**
+     * Calculates the extra fee based on wind speed. Does not check whether the wind speed forbids the vehicle type.
+     *
+     * @param vehicleId The vehicle type id.
+     * @param windSpeed The wind speed.
+     * @return The extra fee based on wind speed.
+     */
+    public double windSpeedExtraFee(int vehicleId, double windSpeed) {
+        if (!isApplicable(windSpeedApplicable, vehicleId)) {
+            return 0;
+        }
+
+        for (int i = 0; i < windSpeedThresholds.length; i++) {
+            if (windSpeed > windSpeedThresholds[i]) {
+                return windSpeedFees[i];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Classifies a weather phenomenon. The result is memoized per distinct phenomenon text.
+     *
+     * @param weatherPhenomenon The weather phenomenon as reported by the weather station.
+     * @return {@link #FORBIDDEN_PHENOMENON}, {@link #NO_PHENOMENON} or the index of the matching phenomenon type.
+     */
+    public int classifyPhenomenon(String weatherPhenomenon) {
+        if (weatherPhenomenon == null) {
+            return NO_PHENOMENON;
+        }
+
+        Integer memoized = phenomenonClasses.get(weatherPhenomenon);
+        if (memoized != null) {
+            return memoized;
+        }
+
+        int phenomenonClass = computePhenomenonClass(weatherPhenomenon.toLowerCase());
+        if (phenomenonClasses.size() < MAX_MEMOIZED_PHENOMENA) {
+            phenomenonClasses.putIfAbsent(weatherPhenomenon, phenomenonClass);
+        }
+        return phenomenonClass;
+    }
+
+    /**
+     * Checks whether the weather phenomenon forbids the vehicle type.
+     *
+     * @param vehicleId       The vehicle type id.
+     * @param phenomenonClass The class returned by {@link #classifyPhenomenon(String)}.
+     * @return True if the vehicle type is affected by weather phenomena and the phenomenon is forbidden.
+     */
+    public boolean isPhenomenonForbidden(int vehicleId, int phenomenonClass) {
+        return phenomenonClass == FORBIDDEN_PHENOMENON && isApplicable(weatherPhenomenonApplicable, vehicleId);
+    }
+
+    /**
+     * Calculates the extra fee based on weather phenomenon. Does not check whether the phenomenon forbids the vehicle type.
+     *
+     * @param vehicleId       The vehicle type id.
+     * @param phenomenonClass The class returned by {@link #classifyPhenomenon(String)}.
+     * @return The extra fee based on weather phenomenon.
+     */
+    public double weatherPhenomenonExtraFee(int vehicleId, int phenomenonClass) {
+        if (phenomenonClass < 0 || !isApplicable(weatherPhenomenonApplicable, vehicleId)) {
+            return 0;
+        }
+        return weatherPhenomenaFees[phenomenonClass];
+    }
+
+    private int computePhenomenonClass(String weatherPhenomenon) {
+        for (String forbidden : forbiddenWeatherPhenomena) {
+            if (weatherPhenomenon.contains(forbidden)) {
+                return FORBIDDEN_PHENOMENON;
+            }
+        }
+
+        for (int i = 0; i < weatherPhenomenaTypes.length; i++) {
+            if (weatherPhenomenon.contains(weatherPhenomenaTypes[i])) {
+                return i;
+            }
+        }
+        return NO_PHENOMENON;
+    }
+
+    private static boolean isApplicable(boolean[] applicable, int vehicleId) {
+        return vehicleId >= 0 && applicable[vehicleId];
+    }
+
+    private boolean[] applicabilityOf(List<String> applicableVehicles) {
+        boolean[] applicable = new boolean[vehicleTypes.length];
+        for (String vehicleType : applicableVehicles) {
+            applicable[vehicleIds.get(vehicleType)] = true;
+        }
+        return applicable;
+    }
+
+    private static Map<String, Integer> indexOf(String[] names) {
+        Map<String, Integer> ids = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            ids.put(names[i], i);
+        }
+        return Map.copyOf(ids);
+    }
+
+    private static double[] toArray(List<Double> values) {
+        return values.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    private static String versionOf(Map<String, String> values) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            values.forEach((name, value) -> {
+                digest.update(name.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '=');
+                digest.update(value.trim().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            });
+            return HexFormat.of().formatHex(digest.digest(), 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void requireSameSize(String rule, List<?> thresholds, List<?> fees) {
+        if (thresholds.size() != fees.size()) {
+            throw new IllegalStateException("Mismatched number of thresholds and fees in " + rule);
+        }
+    }
+
+    /**
+     * Parses the base fees as an inline SpEL map. The expression is evaluated in a read-only data binding context
+     * without type references, constructors, method calls or bean references, as candidate rules come from requests.
+     */
+    private static Map<String, Map<String, Double>> parseCityBaseFees(String expression) {
+        Map<?, ?> parsed = EXPRESSION_PARSER.parseExpression(expression).getValue(EVALUATION_CONTEXT, Map.class);
+        if (parsed == null) {
+            throw new IllegalStateException("Invalid fee.city.base: " + expression);
+        }
+
+        Map<String, Map<String, Double>> cityBaseFees = new LinkedHashMap<>();
+        parsed.forEach((city, fees) -> {
+            Map<String, Double> vehicleFees = new LinkedHashMap<>();
+            ((Map<?, ?>) fees).forEach((vehicleType, fee) ->
+                    vehicleFees.put(vehicleType.toString(), ((Number) fee).doubleValue()));
+            cityBaseFees.put(city.toString(), vehicleFees);
+        });
+        return cityBaseFees;
+    }
+
+    private static List<String> parseStrings(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .toList();
+    }
+
+    private static List<Double> parseDoubles(String value) {
+        return parseStrings(value).stream()
+                .map(Double::valueOf)
+                .toList();
+    }
+}
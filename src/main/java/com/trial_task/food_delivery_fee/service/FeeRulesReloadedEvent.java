@@ -0,0 +1,9 @@
+package com.trial_task.food_delivery_fee.service;
+
+/**
+ * Event published by {@link FeeRuleService} after a new version of the fee rules has been swapped in.
+ *
+ * @param rules The new fee rules.
+ */
+public record FeeRulesReloadedEvent(FeeRuleTable rules) {
+}
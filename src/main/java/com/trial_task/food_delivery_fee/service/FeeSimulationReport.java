@@ -0,0 +1,35 @@
+package com.trial_task.food_delivery_fee.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Outcome of replaying delivery volumes against the stored weather history under a set of fee rules.
+ *
+ * @param rulesVersion The version of the simulated fee rules.
+ * @param from         The time of the earliest simulated delivery, or null if there were none.
+ * @param to           The time of the latest simulated delivery, or null if there were none.
+ * @param deliveries   The number of simulated deliveries.
+ * @param totalFees    The sum of the fees of all deliveries that could be made.
+ * @param rows         The outcome per city and vehicle type, ordered as they first appear in the volumes.
+ */
+public record FeeSimulationReport(String rulesVersion, LocalDateTime from, LocalDateTime to, long deliveries,
+                                  double totalFees, List<Row> rows) {
+
+    /**
+     * Outcome of the simulated deliveries of a single city and vehicle type.
+     *
+     * @param city                The city of the deliveries.
+     * @param vehicleType         The vehicle type of the deliveries.
+     * @param deliveries          The number of deliveries.
+     * @param forbiddenDeliveries The number of deliveries the weather forbade.
+     * @param rejectedDeliveries  The number of deliveries rejected because the city or vehicle type is not offered
+     *                            or there was no weather data for them.
+     * @param totalFees           The sum of the fees of the deliveries that could be made.
+     * @param forbiddenHours      The number of hours in the simulated period that start in weather forbidding the
+     *                            vehicle type in the city.
+     */
+    public record Row(String city, String vehicleType, long deliveries, long forbiddenDeliveries,
+                      long rejectedDeliveries, double totalFees, long forbiddenHours) {
+    }
+}
@@ -0,0 +1,198 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.exception.ForbiddenVehicleTypeException;
+import com.trial_task.food_delivery_fee.model.WeatherData;
+import org.springframework.stereotype.Service;
+
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Service class for simulating the revenue impact of fee rules by replaying delivery volumes against the stored
+ * weather history.
+ * <p>
+ * The fee of every vehicle type is evaluated once per observation with the {@link WeatherFeeService} over the
+ * simulated rules, so a delivery costs exactly what a request for its city, vehicle type and time would have cost.
+ * The deliveries are then summed up in parallel, looking up the observation in effect for each row with a binary
+ * search over the columnar {@link StationHistory}. Delivery zones are not simulated, as the volumes are given per city.
+ */
+@Service
+public class FeeSimulationService {
+    private static final long SECONDS_PER_HOUR = 3600;
+
+    private final WeatherDataService weatherDataService;
+
+    /**
+     * Constructor for the FeeSimulationService class.
+     *
+     * @param weatherDataService The service holding the weather history.
+     */
+    public FeeSimulationService(WeatherDataService weatherDataService) {
+        this.weatherDataService = weatherDataService;
+    }
+
+    /**
+     * Replays the delivery volumes against the weather history under the given fee rules.
+     *
+     * @param rules   The fee rules to simulate.
+     * @param volumes The delivery volumes to replay.
+     * @return The fee totals and forbidden hours per city and vehicle type.
+     */
+    public FeeSimulationReport simulate(FeeRuleTable rules, DeliveryVolumes volumes) {
+        List<String> cities = volumes.cities();
+        List<String> vehicleTypes = volumes.vehicleTypes();
+        int vehicleCount = vehicleTypes.size();
+        if (volumes.size() == 0) {
+            return new FeeSimulationReport(rules.version(), null, null, 0, 0, List.of());
+        }
+
+        WeatherFeeService weatherFeeService = new WeatherFeeService(new FeeRuleService(rules));
+        CityFees[] cityFees = new CityFees[cities.size()];
+        for (int city = 0; city < cityFees.length; city++) {
+            cityFees[city] = CityFees.evaluate(rules, weatherFeeService, cities.get(city), vehicleTypes,
+                    weatherDataService.getHistory(cities.get(city), volumes.from()));
+        }
+
+        Totals totals = IntStream.range(0, volumes.size()).parallel().collect(
+                () -> new Totals(cityFees.length * vehicleCount),
+                (partial, row) -> partial.add(cityFees, vehicleCount, volumes, row),
+                Totals::merge);
+
+        long startOfFirstHour = StationHistory.toEpochSecond(volumes.from().truncatedTo(ChronoUnit.HOURS));
+        long endOfPeriod = StationHistory.toEpochSecond(volumes.to());
+        List<FeeSimulationReport.Row> rows = new ArrayList<>();
+        long deliveries = 0;
+        double totalFees = 0;
+        for (int city = 0; city < cityFees.length; city++) {
+            for (int vehicle = 0; vehicle < vehicleCount; vehicle++) {
+                int cell = city * vehicleCount + vehicle;
+                if (totals.deliveries[cell] == 0) {
+                    continue;
+                }
+                deliveries += totals.deliveries[cell];
+                totalFees += totals.fees[cell];
+                rows.add(new FeeSimulationReport.Row(cities.get(city), vehicleTypes.get(vehicle),
+                        totals.deliveries[cell], totals.forbidden[cell], totals.rejected[cell], totals.fees[cell],
+                        cityFees[city].countForbiddenHours(vehicle, startOfFirstHour, endOfPeriod)));
+            }
+        }
+        return new FeeSimulationReport(rules.version(), volumes.from(), volumes.to(), deliveries, totalFees, rows);
+    }
+
+    /**
+     * The fee of every vehicle type of the volumes at every observation of a city, {@code NaN} where the weather
+     * forbids the vehicle type.
+     */
+    private record CityFees(StationHistory history, double[] fees, boolean[] offered, int vehicleCount) {
+
+        static CityFees evaluate(FeeRuleTable rules, WeatherFeeService weatherFeeService, String city,
+                                 List<String> vehicleTypes, StationHistory history) {
+            int cityId = rules.cityId(city);
+            int vehicleCount = vehicleTypes.size();
+            boolean[] offered = new boolean[vehicleCount];
+            for (int vehicle = 0; vehicle < vehicleCount; vehicle++) {
+                offered[vehicle] = cityId != FeeRuleTable.UNKNOWN_ID
+                        && rules.isOffered(cityId, rules.vehicleId(vehicleTypes.get(vehicle)));
+            }
+
+            double[] fees = new double[history.size() * vehicleCount];
+            for (int observation = 0; observation < history.size(); observation++) {
+                WeatherData weatherData = history.get(observation);
+                for (int vehicle = 0; vehicle < vehicleCount; vehicle++) {
+                    if (offered[vehicle]) {
+                        String vehicleType = vehicleTypes.get(vehicle);
+                        fees[observation * vehicleCount + vehicle] = calculateFee(weatherFeeService,
+                                rules.baseFee(cityId, rules.vehicleId(vehicleType)), vehicleType, weatherData);
+                    }
+                }
+            }
+            return new CityFees(history, fees, offered, vehicleCount);
+        }
+
+        private static double calculateFee(WeatherFeeService weatherFeeService, double baseFee, String vehicleType,
+                                           WeatherData weatherData) {
+            try {
+                return baseFee
+                        + weatherFeeService.calculateAirTemperatureExtraFee(vehicleType, weatherData)
+                        + weatherFeeService.calculateWindSpeedExtraFee(vehicleType, weatherData)
+                        + weatherFeeService.calculateWeatherPhenomenonExtraFee(vehicleType, weatherData);
+            } catch (ForbiddenVehicleTypeException e) {
+                return Double.NaN;
+            }
+        }
+
+        int floor(long epochSecond) {
+            return history.floorIndex(epochSecond);
+        }
+
+        double fee(int observation, int vehicle) {
+            return fees[observation * vehicleCount + vehicle];
+        }
+
+        long countForbiddenHours(int vehicle, long startOfFirstHour, long endOfPeriod) {
+            if (!offered[vehicle]) {
+                return 0;
+            }
+
+            long forbiddenHours = 0;
+            int observation = floor(startOfFirstHour);
+            for (long hour = startOfFirstHour; hour <= endOfPeriod; hour += SECONDS_PER_HOUR) {
+                while (observation + 1 < history.size() && history.epochSecond(observation + 1) <= hour) {
+                    observation++;
+                }
+                if (observation >= 0 && Double.isNaN(fee(observation, vehicle))) {
+                    forbiddenHours++;
+                }
+            }
+            return forbiddenHours;
+        }
+    }
+
+    /**
+     * Running totals per city and vehicle type of a part of the rows.
+     */
+    private static final class Totals {
+        final long[] deliveries;
+        final long[] forbidden;
+        final long[] rejected;
+        final double[] fees;
+
+        Totals(int cells) {
+            deliveries = new long[cells];
+            forbidden = new long[cells];
+            rejected = new long[cells];
+            fees = new double[cells];
+        }
+
+        void add(CityFees[] cityFees, int vehicleCount, DeliveryVolumes volumes, int row) {
+            int vehicle = volumes.vehicleIndex(row);
+            CityFees city = cityFees[volumes.cityIndex(row)];
+            int cell = volumes.cityIndex(row) * vehicleCount + vehicle;
+            long count = volumes.deliveries(row);
+            deliveries[cell] += count;
+
+            int observation = city.offered[vehicle] ? city.floor(volumes.epochSecond(row)) : -1;
+            if (observation < 0) {
+                rejected[cell] += count;
+                return;
+            }
+            double fee = city.fee(observation, vehicle);
+            if (Double.isNaN(fee)) {
+                forbidden[cell] += count;
+            } else {
+                fees[cell] += fee * count;
+            }
+        }
+
+        void merge(Totals other) {
+            for (int cell = 0; cell < deliveries.length; cell++) {
+                deliveries[cell] += other.deliveries[cell];
+                forbidden[cell] += other.forbidden[cell];
+                rejected[cell] += other.rejected[cell];
+                fees[cell] += other.fees[cell];
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trial_task.food_delivery_fee.exception.InvalidFeeZonesException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parser for delivery zones in a GeoJSON feature collection. Every feature is a zone with a {@code Polygon} or
+ * {@code MultiPolygon} geometry and the name of the zone, its city and optionally its base fees as properties:
+ * <pre>
+ * {"type": "FeatureCollection",
+ *  "features": [{"type": "Feature",
+ *                "properties": {"name": "Kesklinn", "city": "Tallinn", "baseFees": {"car": 4.5, "bike": 3.5}},
+ *                "geometry": {"type": "Polygon", "coordinates": [[[24.73, 59.43], [24.77, 59.43], ...]]}}]}
+ * </pre>
+ * Vehicle types without a base fee in the zone keep the base fee of the city. Features are indexed in file order, so
+ * where zones overlap the zone listed first wins.
+ */
+public final class FeeZoneGeoJsonParser {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private FeeZoneGeoJsonParser() {
+    }
+
+    /**
+     * Parses the zones and builds their index.
+     *
+     * @param geoJson The GeoJSON feature collection.
+     * @return The index of the zones.
+     * @throws InvalidFeeZonesException If the document is not a valid feature collection of zones.
+     */
+    public static FeeZoneIndex parse(InputStream geoJson) throws InvalidFeeZonesException {
+        JsonNode root;
+        try {
+            root = OBJECT_MAPPER.readTree(geoJson);
+        } catch (IOException e) {
+            throw new InvalidFeeZonesException("Invalid fee zones: " + e.getMessage());
+        }
+        if (root == null || !"FeatureCollection".equals(root.path("type").asText()) || !root.path("features").isArray()) {
+            throw new InvalidFeeZonesException("Invalid fee zones: not a GeoJSON feature collection");
+        }
+
+        List<FeeZoneIndex.Zone> zones = new ArrayList<>();
+        List<double[][]> rings = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (JsonNode feature : root.path("features")) {
+            JsonNode properties = feature.path("properties");
+            String name = properties.path("name").asText("");
+            String city = properties.path("city").asText("");
+            if (name.isBlank() || city.isBlank()) {
+                throw new InvalidFeeZonesException("Invalid fee zones: every zone needs a name and a city");
+            }
+            if (!names.add(name)) {
+                throw new InvalidFeeZonesException("Invalid fee zones: duplicate zone " + name);
+            }
+
+            zones.add(new FeeZoneIndex.Zone(name, city, readBaseFees(name, properties.path("baseFees"))));
+            rings.add(readRings(name, feature.path("geometry")));
+        }
+
+        try {
+            return FeeZoneIndex.of(zones, rings);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidFeeZonesException("Invalid fee zones: " + e.getMessage());
+        }
+    }
+
+    private static Map<String, Double> readBaseFees(String zone, JsonNode baseFees) throws InvalidFeeZonesException {
+        Map<String, Double> fees = new LinkedHashMap<>();
+        if (baseFees.isMissingNode() || baseFees.isNull()) {
+            return fees;
+        }
+        if (!baseFees.isObject()) {
+            throw new InvalidFeeZonesException("Invalid fee zones: base fees of zone " + zone + " must be an object");
+        }
+
+        for (Map.Entry<String, JsonNode> fee : baseFees.properties()) {
+            if (!fee.getValue().isNumber()) {
+                throw new InvalidFeeZonesException("Invalid fee zones: base fee of " + fee.getKey() + " in zone " + zone + " must be a number");
+            }
+            fees.put(fee.getKey(), fee.getValue().doubleValue());
+        }
+        return fees;
+    }
+
+    /**
+     * Reads the rings of all polygons of a geometry, each ring as interleaved longitude and latitude pairs.
+     */
+    private static double[][] readRings(String zone, JsonNode geometry) throws InvalidFeeZonesException {
+        List<JsonNode> polygons = new ArrayList<>();
+        switch (geometry.path("type").asText()) {
+            case "Polygon" -> polygons.add(geometry.path("coordinates"));
+            case "MultiPolygon" -> geometry.path("coordinates").forEach(polygons::add);
+            default -> throw new InvalidFeeZonesException("Invalid fee zones: zone " + zone + " is not a polygon");
+        }
+
+        List<double[]> rings = new ArrayList<>();
+        for (JsonNode polygon : polygons) {
+            for (JsonNode ring : polygon) {
+                double[] points = new double[ring.size() * 2];
+                int i = 0;
+                for (JsonNode position : ring) {
+                    if (position.size() < 2 || !position.get(0).isNumber() || !position.get(1).isNumber()) {
+                        throw new InvalidFeeZonesException("Invalid fee zones: invalid position in zone " + zone);
+                    }
+                    points[i++] = position.get(0).doubleValue();
+                    points[i++] = position.get(1).doubleValue();
+                }
+                rings.add(points);
+            }
+        }
+        return rings.toArray(new double[0][]);
+    }
+}
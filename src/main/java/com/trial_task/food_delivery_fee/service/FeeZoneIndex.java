@@ -0,0 +1,230 @@
+package com.trial_task.food_delivery_fee.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable index of delivery zones defined by polygons, resolving a position to the zone containing it.
+ * <p>
+ * The bounding box of all zones is divided into a grid of equally sized cells, and every cell lists the zones whose
+ * bounding box overlaps it. A lookup computes the cell of the position, so only the few zones listed there are tested
+ * with a point-in-polygon test, however many zones there are. Where zones overlap, the zone listed first wins.
+ * <p>
+ * Coordinates are handled as plane coordinates in degrees, which is precise enough for zones the size of city
+ * districts. A zone may consist of several polygons and polygons may have holes: a position is inside the zone when a
+ * ray from it crosses the rings of the zone an odd number of times.
+ */
+public final class FeeZoneIndex {
+    private static final int CELLS_PER_ZONE = 4;
+    private static final int MAX_GRID_SIZE = 1024;
+    private static final FeeZoneIndex EMPTY = new FeeZoneIndex(List.of(), List.of());
+
+    private final Zone[] zones;
+    // Rings of every zone, each ring as interleaved longitude and latitude pairs
+    private final double[][][] rings;
+    // Bounding box of every zone as minimum longitude, minimum latitude, maximum longitude and maximum latitude
+    private final double[] boxes;
+
+    private final double minLongitude;
+    private final double minLatitude;
+    private final double maxLongitude;
+    private final double maxLatitude;
+    private final int columns;
+    private final int rows;
+    private final double cellWidth;
+    private final double cellHeight;
+    // The zones of cell c are cellZones[cellStart[c]] to cellZones[cellStart[c + 1] - 1], in zone order
+    private final int[] cellStart;
+    private final int[] cellZones;
+
+    /**
+     * A delivery zone and its base fees.
+     *
+     * @param name     The name of the zone.
+     * @param city     The supported city the zone belongs to, whose weather and fee rules apply.
+     * @param baseFees The base fee of every vehicle type priced differently from the city.
+     */
+    public record Zone(String name, String city, Map<String, Double> baseFees) {
+
+        /**
+         * Returns the base fee of a vehicle type in the zone.
+         *
+         * @param vehicleType The vehicle type.
+         * @param cityBaseFee The base fee of the vehicle type in the city of the zone.
+         * @return The base fee of the zone, or the base fee of the city if the zone does not override it.
+         */
+        public double baseFee(String vehicleType, double cityBaseFee) {
+            Double fee = baseFees.get(vehicleType);
+            return fee == null ? cityBaseFee : fee;
+        }
+    }
+
+    private FeeZoneIndex(List<Zone> zones, List<double[][]> rings) {
+        int size = zones.size();
+        this.zones = zones.toArray(new Zone[0]);
+        this.rings = rings.toArray(new double[0][][]);
+        this.boxes = new double[size * 4];
+
+        double minLon = Double.POSITIVE_INFINITY;
+        double minLat = Double.POSITIVE_INFINITY;
+        double maxLon = Double.NEGATIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        for (int zone = 0; zone < size; zone++) {
+            boundingBox(this.rings[zone], boxes, zone * 4);
+            minLon = Math.min(minLon, boxes[zone * 4]);
+            minLat = Math.min(minLat, boxes[zone * 4 + 1]);
+            maxLon = Math.max(maxLon, boxes[zone * 4 + 2]);
+            maxLat = Math.max(maxLat, boxes[zone * 4 + 3]);
+        }
+        this.minLongitude = minLon;
+        this.minLatitude = minLat;
+        this.maxLongitude = maxLon;
+        this.maxLatitude = maxLat;
+
+        // Square cells, about CELLS_PER_ZONE of them per zone
+        double width = Math.max(maxLon - minLon, 1e-9);
+        double height = Math.max(maxLat - minLat, 1e-9);
+        double cellSize = Math.sqrt(width * height / Math.max(1, size * CELLS_PER_ZONE));
+        this.columns = Math.clamp((long) Math.ceil(width / cellSize), 1, MAX_GRID_SIZE);
+        this.rows = Math.clamp((long) Math.ceil(height / cellSize), 1, MAX_GRID_SIZE);
+        this.cellWidth = width / columns;
+        this.cellHeight = height / rows;
+
+        // Count the zones of every cell, then fill them in zone order
+        this.cellStart = new int[columns * rows + 1];
+        for (int zone = 0; zone < size; zone++) {
+            forEachCell(zone, cell -> cellStart[cell + 1]++);
+        }
+        for (int cell = 0; cell < columns * rows; cell++) {
+            cellStart[cell + 1] += cellStart[cell];
+        }
+        this.cellZones = new int[cellStart[columns * rows]];
+        int[] next = cellStart.clone();
+        for (int zone = 0; zone < size; zone++) {
+            int z = zone;
+            forEachCell(zone, cell -> cellZones[next[cell]++] = z);
+        }
+    }
+
+    /**
+     * Builds an index of the given zones.
+     *
+     * @param zones The zones, in order of precedence where they overlap.
+     * @param rings The rings of the polygons of every zone, each ring as interleaved longitude and latitude pairs.
+     * @return The index.
+     * @throws IllegalArgumentException If the number of zones and polygons differ, a zone has no polygons or a
+     *                                  ring has less than 3 points.
+     */
+    public static FeeZoneIndex of(List<Zone> zones, List<double[][]> rings) {
+        if (zones.size() != rings.size()) {
+            throw new IllegalArgumentException("Every zone needs its polygons");
+        }
+        for (int zone = 0; zone < zones.size(); zone++) {
+            if (rings.get(zone).length == 0) {
+                throw new IllegalArgumentException("Zone " + zones.get(zone).name() + " has no polygons");
+            }
+            for (double[] ring : rings.get(zone)) {
+                if (ring.length < 6 || ring.length % 2 != 0) {
+                    throw new IllegalArgumentException("Invalid polygon ring of zone " + zones.get(zone).name());
+                }
+            }
+        }
+        return zones.isEmpty() ? EMPTY : new FeeZoneIndex(zones, rings);
+    }
+
+    /**
+     * Returns an index without zones.
+     *
+     * @return The empty index.
+     */
+    public static FeeZoneIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns the number of indexed zones.
+     *
+     * @return The size of the index.
+     */
+    public int size() {
+        return zones.length;
+    }
+
+    /**
+     * Finds the zone containing a position.
+     *
+     * @param latitude  The latitude in degrees.
+     * @param longitude The longitude in degrees.
+     * @return The first zone containing the position, or null if no zone contains it.
+     */
+    public Zone find(double latitude, double longitude) {
+        if (!(longitude >= minLongitude && longitude <= maxLongitude
+                && latitude >= minLatitude && latitude <= maxLatitude)) {
+            return null;
+        }
+
+        int column = Math.min((int) ((longitude - minLongitude) / cellWidth), columns - 1);
+        int row = Math.min((int) ((latitude - minLatitude) / cellHeight), rows - 1);
+        int cell = row * columns + column;
+        for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+            int zone = cellZones[i];
+            if (longitude >= boxes[zone * 4] && latitude >= boxes[zone * 4 + 1]
+                    && longitude <= boxes[zone * 4 + 2] && latitude <= boxes[zone * 4 + 3]
+                    && contains(rings[zone], longitude, latitude)) {
+                return zones[zone];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Calls the action with every cell overlapped by the bounding box of a zone.
+     */
+    private void forEachCell(int zone, IntConsumer action) {
+        int fromColumn = Math.min((int) ((boxes[zone * 4] - minLongitude) / cellWidth), columns - 1);
+        int fromRow = Math.min((int) ((boxes[zone * 4 + 1] - minLatitude) / cellHeight), rows - 1);
+        int toColumn = Math.min((int) ((boxes[zone * 4 + 2] - minLongitude) / cellWidth), columns - 1);
+        int toRow = Math.min((int) ((boxes[zone * 4 + 3] - minLatitude) / cellHeight), rows - 1);
+        for (int row = fromRow; row <= toRow; row++) {
+            for (int column = fromColumn; column <= toColumn; column++) {
+                action.accept(row * columns + column);
+            }
+        }
+    }
+
+    /**
+     * Tells whether a point is inside the rings by counting the rings crossed by a ray cast from it.
+     */
+    private static boolean contains(double[][] rings, double x, double y) {
+        boolean inside = false;
+        for (double[] ring : rings) {
+            int points = ring.length / 2;
+            for (int i = 0, j = points - 1; i < points; j = i++) {
+                double xi = ring[i * 2];
+                double yi = ring[i * 2 + 1];
+                double xj = ring[j * 2];
+                double yj = ring[j * 2 + 1];
+                if ((yi > y) != (yj > y) && x < (xj - xi) * (y - yi) / (yj - yi) + xi) {
+                    inside = !inside;
+                }
+            }
+        }
+        return inside;
+    }
+
+    private static void boundingBox(double[][] rings, double[] boxes, int offset) {
+        boxes[offset] = Double.POSITIVE_INFINITY;
+        boxes[offset + 1] = Double.POSITIVE_INFINITY;
+        boxes[offset + 2] = Double.NEGATIVE_INFINITY;
+        boxes[offset + 3] = Double.NEGATIVE_INFINITY;
+        for (double[] ring : rings) {
+            for (int i = 0; i < ring.length; i += 2) {
+                boxes[offset] = Math.min(boxes[offset], ring[i]);
+                boxes[offset + 1] = Math.min(boxes[offset + 1], ring[i + 1]);
+                boxes[offset + 2] = Math.max(boxes[offset + 2], ring[i]);
+                boxes[offset + 3] = Math.max(boxes[offset + 3], ring[i + 1]);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.exception.InvalidFeeZonesException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * Service class holding the delivery zones loaded from the zones file ({@code fee.zones.file}), a GeoJSON feature
+ * collection read by the {@link FeeZoneGeoJsonParser}.
+ * <p>
+ * The file is polled for changes like the fee rules file. A reload builds a new immutable {@link FeeZoneIndex} and
+ * swaps it in atomically, so lookups never lock. Invalid zones are rejected and the current zones are kept. Without a
+ * zones file the index is empty.
+ */
+@Service
+public class FeeZoneService {
+    private static final Logger log = LoggerFactory.getLogger(FeeZoneService.class);
+
+    private final Path zonesFile;
+
+    private volatile FeeZoneIndex zones;
+    private FileTime zonesFileModified;
+
+    /**
+     * Loads the zones from the zones file, if one is configured.
+     *
+     * @param zonesFile The path of the zones file, or blank for no zones.
+     * @throws IllegalStateException If the zones file cannot be read or the zones are invalid.
+     */
+    @Autowired
+    public FeeZoneService(@Value("${fee.zones.file:}") String zonesFile) {
+        this.zonesFile = zonesFile.isBlank() ? null : Path.of(zonesFile.trim());
+        this.zones = FeeZoneIndex.empty();
+        try {
+            load();
+        } catch (InvalidFeeZonesException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Constructor for using an already built zone index, which cannot be reloaded.
+     *
+     * @param zones The index of the zones.
+     */
+    public FeeZoneService(FeeZoneIndex zones) {
+        this.zonesFile = null;
+        this.zones = zones;
+    }
+
+    /**
+     * Returns the current zones.
+     *
+     * @return The index of the zones.
+     */
+    public FeeZoneIndex getZones() {
+        return zones;
+    }
+
+    /**
+     * Reads the zones file and swaps in its zones.
+     *
+     * @throws InvalidFeeZonesException If the zones file cannot be read or the zones are invalid.
+     */
+    public synchronized void reload() throws InvalidFeeZonesException {
+        load();
+    }
+
+    private void load() throws InvalidFeeZonesException {
+        if (zonesFile == null) {
+            return;
+        }
+
+        try {
+            zonesFileModified = Files.getLastModifiedTime(zonesFile);
+            try (InputStream in = Files.newInputStream(zonesFile)) {
+                zones = FeeZoneGeoJsonParser.parse(in);
+            }
+        } catch (IOException e) {
+            throw new InvalidFeeZonesException("Cannot read fee zones file " + zonesFile + ": " + e.getMessage());
+        }
+        log.info("Loaded {} fee zones from {}", zones.size(), zonesFile);
+    }
+
+    /**
+     * Reloads the zones when the zones file has been modified since it was last read.
+     * This method is scheduled to run at the interval specified by {@code fee.rules.pollInterval}.
+     */
+    @Scheduled(fixedDelayString = "${fee.rules.pollInterval:PT10S}", initialDelayString = "${fee.rules.pollInterval:PT10S}")
+    public synchronized void checkZonesFile() {
+        if (zonesFile == null) {
+            return;
+        }
+
+        try {
+            if (Files.getLastModifiedTime(zonesFile).equals(zonesFileModified)) {
+                return;
+            }
+            load();
+        } catch (IOException | InvalidFeeZonesException e) {
+            log.error("Keeping {} fee zones: {}", zones.size(), e.getMessage());
+        }
+    }
+}
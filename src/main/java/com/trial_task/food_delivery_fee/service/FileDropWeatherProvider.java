@@ -0,0 +1,89 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.exception.WeatherDataFetchException;
+import com.trial_task.food_delivery_fee.exception.WeatherDataParsingException;
+import com.trial_task.food_delivery_fee.model.WeatherData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Weather provider that reads observation files dropped into a local directory, for tests and local setups.
+ * Files ending in {@code .xml} are read as the observations XML of the weather API and files ending in
+ * {@code .json} as the JSON format of {@link ObservationsJsonParser}. Files that cannot be parsed are skipped.
+ * Enabled by setting {@code weatherdata.fileDrop.dir}.
+ */
+@Service
+@ConditionalOnProperty("weatherdata.fileDrop.dir")
+public class FileDropWeatherProvider implements WeatherProvider {
+    private static final Logger log = LoggerFactory.getLogger(FileDropWeatherProvider.class);
+
+    private final Path directory;
+
+    @Value("#{${weatherdata.cityToStationMap}}")
+    private Map<String, String> cityToStationMap;
+
+    @Value("#{${weatherdata.cityToFallbackStationMap:{:}}}")
+    private Map<String, String> cityToFallbackStationMap = Map.of();
+
+    @Value("${weatherdata.geo.allStations:false}")
+    private boolean allStations;
+
+    /**
+     * Constructor for the FileDropWeatherProvider class.
+     *
+     * @param directory The directory the observation files are dropped into.
+     */
+    public FileDropWeatherProvider(@Value("${weatherdata.fileDrop.dir}") Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public String getName() {
+        return "fileDrop";
+    }
+
+    /**
+     * Reads the observations of the configured stations, including the fallback stations, or of all stations when the
+     * they are used for location lookups, from every file in the directory.
+     *
+     * @return A list of WeatherData objects.
+     * @throws WeatherDataFetchException If the directory cannot be read.
+     */
+    @Override
+    public List<WeatherData> fetchWeatherData() throws WeatherDataFetchException {
+        Set<String> stationNames = new HashSet<>(cityToStationMap.values());
+        stationNames.addAll(cityToFallbackStationMap.values());
+        Predicate<String> keepStation = allStations ? stationName -> true : stationNames::contains;
+
+        List<WeatherData> weatherData = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.{xml,json}")) {
+            for (Path file : files) {
+                try (InputStream in = Files.newInputStream(file)) {
+                    weatherData.addAll(file.toString().endsWith(".json")
+                            ? ObservationsJsonParser.parse(in, keepStation)
+                            : ObservationsXmlParser.parse(in, keepStation));
+                } catch (WeatherDataParsingException | IOException e) {
+                    log.warn("Skipping weather data file {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new WeatherDataFetchException("Error reading weather data directory " + directory);
+        }
+        return weatherData;
+    }
+}
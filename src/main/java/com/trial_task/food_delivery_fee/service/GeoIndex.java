@@ -0,0 +1,252 @@
+package com.trial_task.food_delivery_fee.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Immutable k-d tree of values positioned on the surface of the earth, for nearest neighbour lookups.
+ * <p>
+ * Positions are stored as unit vectors in three dimensions. The straight-line distance between two unit vectors grows
+ * with the great-circle distance between the positions, so the tree is searched with plain Euclidean distances and
+ * only the results are converted to kilometres. The tree is laid out implicitly in arrays: the median of every range
+ * is the node splitting it, on the axis chosen by the depth of the range.
+ *
+ * @param <T> The type of the values.
+ */
+public final class GeoIndex<T> {
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final GeoIndex<?> EMPTY = new GeoIndex<>(List.of(), value -> 0, value -> 0);
+
+    private final double[] coordinates;
+    private final Object[] values;
+
+    /**
+     * A value found by a lookup and its distance from the lookup position.
+     *
+     * @param value      The value.
+     * @param distanceKm The great-circle distance in kilometres.
+     */
+    public record Neighbour<T>(T value, double distanceKm) {
+    }
+
+    private GeoIndex(Collection<T> values, ToDoubleFunction<T> latitude, ToDoubleFunction<T> longitude) {
+        int size = values.size();
+        double[][] points = new double[size][];
+        Object[] items = values.toArray();
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            @SuppressWarnings("unchecked")
+            T value = (T) items[i];
+            points[i] = toUnitVector(latitude.applyAsDouble(value), longitude.applyAsDouble(value));
+            order[i] = i;
+        }
+        build(order, points, 0, size, 0);
+
+        this.coordinates = new double[size * 3];
+        this.values = new Object[size];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(points[order[i]], 0, coordinates, i * 3, 3);
+            this.values[i] = items[order[i]];
+        }
+    }
+
+    /**
+     * Builds an index of the given values.
+     *
+     * @param values    The values to index.
+     * @param latitude  The latitude of a value in degrees.
+     * @param longitude The longitude of a value in degrees.
+     * @return The index.
+     */
+    public static <T> GeoIndex<T> of(Collection<T> values, ToDoubleFunction<T> latitude, ToDoubleFunction<T> longitude) {
+        return values.isEmpty() ? empty() : new GeoIndex<>(values, latitude, longitude);
+    }
+
+    /**
+     * Returns an index without values.
+     *
+     * @return The empty index.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> GeoIndex<T> empty() {
+        return (GeoIndex<T>) EMPTY;
+    }
+
+    /**
+     * Returns the number of indexed values.
+     *
+     * @return The size of the index.
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Finds the value closest to a position.
+     *
+     * @param latitude  The latitude in degrees.
+     * @param longitude The longitude in degrees.
+     * @return The closest value, or null if the index is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public Neighbour<T> nearest(double latitude, double longitude) {
+        if (values.length == 0) {
+            return null;
+        }
+
+        double[] query = toUnitVector(latitude, longitude);
+        int[] best = {0};
+        double[] bestDistance = {Double.POSITIVE_INFINITY};
+        searchNearest(query, 0, values.length, 0, best, bestDistance);
+        return new Neighbour<>((T) values[best[0]], toKilometres(bestDistance[0]));
+    }
+
+    /**
+     * Finds the values closest to a position.
+     *
+     * @param latitude  The latitude in degrees.
+     * @param longitude The longitude in degrees.
+     * @param count     The maximum number of values to find.
+     * @return The closest values, nearest first.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Neighbour<T>> nearest(double latitude, double longitude, int count) {
+        int k = Math.min(count, values.length);
+        if (k <= 0) {
+            return List.of();
+        }
+
+        // Max-heap of the k nearest candidates found so far, the farthest at the root
+        double[] query = toUnitVector(latitude, longitude);
+        int[] heap = new int[k];
+        double[] heapDistances = new double[k];
+        int[] heapSize = {0};
+        searchNearest(query, 0, values.length, 0, heap, heapDistances, heapSize);
+
+        Integer[] order = new Integer[heapSize[0]];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> heapDistances[i]));
+        List<Neighbour<T>> neighbours = new ArrayList<>(order.length);
+        for (int i : order) {
+            neighbours.add(new Neighbour<>((T) values[heap[i]], toKilometres(heapDistances[i])));
+        }
+        return neighbours;
+    }
+
+    private void searchNearest(double[] query, int from, int to, int depth, int[] best, double[] bestDistance) {
+        if (from >= to) {
+            return;
+        }
+
+        int node = (from + to) >>> 1;
+        double distance = squaredDistance(query, node);
+        if (distance < bestDistance[0]) {
+            bestDistance[0] = distance;
+            best[0] = node;
+        }
+
+        double delta = query[depth % 3] - coordinates[node * 3 + depth % 3];
+        int nearFrom = delta < 0 ? from : node + 1;
+        int nearTo = delta < 0 ? node : to;
+        searchNearest(query, nearFrom, nearTo, depth + 1, best, bestDistance);
+        if (delta * delta < bestDistance[0]) {
+            searchNearest(query, delta < 0 ? node + 1 : from, delta < 0 ? to : node, depth + 1, best, bestDistance);
+        }
+    }
+
+    private void searchNearest(double[] query, int from, int to, int depth, int[] heap, double[] heapDistances, int[] heapSize) {
+        if (from >= to) {
+            return;
+        }
+
+        int node = (from + to) >>> 1;
+        offer(heap, heapDistances, heapSize, node, squaredDistance(query, node));
+
+        double delta = query[depth % 3] - coordinates[node * 3 + depth % 3];
+        int nearFrom = delta < 0 ? from : node + 1;
+        int nearTo = delta < 0 ? node : to;
+        searchNearest(query, nearFrom, nearTo, depth + 1, heap, heapDistances, heapSize);
+        if (heapSize[0] < heap.length || delta * delta < heapDistances[0]) {
+            searchNearest(query, delta < 0 ? node + 1 : from, delta < 0 ? to : node, depth + 1, heap, heapDistances, heapSize);
+        }
+    }
+
+    /**
+     * Adds a candidate to the max-heap of the nearest candidates, replacing the farthest one when the heap is full.
+     */
+    private static void offer(int[] heap, double[] heapDistances, int[] heapSize, int node, double distance) {
+        int i;
+        if (heapSize[0] < heap.length) {
+            // Sift the new candidate up from the end
+            i = heapSize[0]++;
+            while (i > 0 && heapDistances[(i - 1) / 2] < distance) {
+                heap[i] = heap[(i - 1) / 2];
+                heapDistances[i] = heapDistances[(i - 1) / 2];
+                i = (i - 1) / 2;
+            }
+        } else if (distance < heapDistances[0]) {
+            // Sift the new candidate down from the root, replacing the farthest one
+            i = 0;
+            int size = heapSize[0];
+            while (2 * i + 1 < size) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && heapDistances[child + 1] > heapDistances[child]) {
+                    child++;
+                }
+                if (heapDistances[child] <= distance) {
+                    break;
+                }
+                heap[i] = heap[child];
+                heapDistances[i] = heapDistances[child];
+                i = child;
+            }
+        } else {
+            return;
+        }
+        heap[i] = node;
+        heapDistances[i] = distance;
+    }
+
+    private double squaredDistance(double[] query, int node) {
+        double dx = query[0] - coordinates[node * 3];
+        double dy = query[1] - coordinates[node * 3 + 1];
+        double dz = query[2] - coordinates[node * 3 + 2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Orders the range so that its median splits it on the axis of its depth, and recursively both halves.
+     */
+    private static void build(Integer[] order, double[][] points, int from, int to, int depth) {
+        if (to - from <= 1) {
+            return;
+        }
+
+        int axis = depth % 3;
+        Arrays.sort(order, from, to, Comparator.comparingDouble(i -> points[i][axis]));
+        int median = (from + to) >>> 1;
+        build(order, points, from, median, depth + 1);
+        build(order, points, median + 1, to, depth + 1);
+    }
+
+    private static double[] toUnitVector(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double cosLat = Math.cos(lat);
+        return new double[]{cosLat * Math.cos(lon), cosLat * Math.sin(lon), Math.sin(lat)};
+    }
+
+    /**
+     * Converts a squared straight-line distance between unit vectors to a great-circle distance.
+     */
+    private static double toKilometres(double squaredDistance) {
+        double chord = Math.sqrt(squaredDistance);
+        return 2 * Math.asin(Math.min(1, chord / 2)) * EARTH_RADIUS_KM;
+    }
+}
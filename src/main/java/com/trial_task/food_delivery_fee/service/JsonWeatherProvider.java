@@ -0,0 +1,101 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.exception.WeatherDataFetchException;
+import com.trial_task.food_delivery_fee.exception.WeatherDataParsingException;
+import com.trial_task.food_delivery_fee.model.WeatherData;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Weather provider for a JSON feed in the format read by {@link ObservationsJsonParser}.
+ * Enabled by setting {@code weatherdata.json.url}.
+ */
+@Service
+@ConditionalOnProperty("weatherdata.json.url")
+public class JsonWeatherProvider implements WeatherProvider {
+    private final RestTemplate restTemplate;
+
+    @Value("#{${weatherdata.cityToStationMap}}")
+    private Map<String, String> cityToStationMap;
+
+    @Value("#{${weatherdata.cityToFallbackStationMap:{:}}}")
+    private Map<String, String> cityToFallbackStationMap = Map.of();
+
+    @Value("${weatherdata.geo.allStations:false}")
+    private boolean allStations;
+
+    @Value("${weatherdata.json.url}")
+    private String url;
+
+    /**
+     * Constructor for the JsonWeatherProvider class.
+     *
+     * @param restTemplate The RestTemplate to be used for API calls.
+     */
+    public JsonWeatherProvider(RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
+
+    @Override
+    public String getName() {
+        return "json";
+    }
+
+    /**
+     * Fetches weather data from the JSON feed. The response body is parsed while it is being read.
+     *
+     * @return A list of WeatherData objects of the configured stations, including the fallback stations, or of all
+     * stations when they are used for location lookups.
+     * @throws WeatherDataParsingException If there is an error parsing the weather data.
+     * @throws WeatherDataFetchException   If there is an error fetching the weather data.
+     */
+    @Override
+    public List<WeatherData> fetchWeatherData() throws WeatherDataParsingException, WeatherDataFetchException {
+        Set<String> stationNames = new HashSet<>(cityToStationMap.values());
+        stationNames.addAll(cityToFallbackStationMap.values());
+        Predicate<String> keepStation = allStations ? stationName -> true : stationNames::contains;
+
+        try {
+            return restTemplate.execute(url, HttpMethod.GET,
+                    request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)),
+                    response -> {
+                        try {
+                            if (response.getStatusCode() != HttpStatus.OK) {
+                                throw new WeatherDataFetchException("Failed to fetch JSON weather data: " + response.getStatusCode());
+                            }
+                            return ObservationsJsonParser.parse(response.getBody(), keepStation);
+                        } catch (WeatherDataParsingException | WeatherDataFetchException e) {
+                            throw new ExtractionException(e);
+                        }
+                    });
+        } catch (ExtractionException e) {
+            if (e.getCause() instanceof WeatherDataParsingException parsingException) {
+                throw parsingException;
+            }
+            throw (WeatherDataFetchException) e.getCause();
+        } catch (RestClientException e) {
+            throw new WeatherDataFetchException("Error fetching JSON weather data");
+        }
+    }
+
+    /**
+     * Carries a checked exception out of the response extractor.
+     */
+    private static class ExtractionException extends RuntimeException {
+        ExtractionException(Exception cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.trial_task.food_delivery_fee.exception.WeatherDataParsingException;
+import com.trial_task.food_delivery_fee.model.WeatherData;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Streaming parser for observations in JSON. The document mirrors the observations XML of the weather API:
+ * <pre>
+ * {"timestamp": 1742731200,
+ *  "stations": [{"name": "Tallinn-Harku", "wmocode": "26038", "airtemperature": -2.1,
+ *                "windspeed": 4.7, "phenomenon": "Light snow shower", "latitude": 59.398, "longitude": 24.603}]}
+ * </pre>
+ * A station may carry its own {@code timestamp}, which takes precedence over the document timestamp. Missing
+ * values are read like empty elements of the XML.
+ */
+public final class ObservationsJsonParser {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private ObservationsJsonParser() {
+    }
+
+    /**
+     * Parses the observations with a streaming parser.
+     *
+     * @param jsonData     The JSON weather data.
+     * @param stationNames The names of the stations to keep.
+     * @return A list of WeatherData objects of the requested stations.
+     * @throws WeatherDataParsingException If there is an error parsing the weather data.
+     */
+    public static List<WeatherData> parse(InputStream jsonData, Set<String> stationNames) throws WeatherDataParsingException {
+        return parse(jsonData, (Predicate<String>) stationNames::contains);
+    }
+
+    /**
+     * Parses the observations with a streaming parser.
+     *
+     * @param jsonData    The JSON weather data.
+     * @param keepStation Tells whether to keep a station by its name.
+     * @return A list of WeatherData objects of the kept stations.
+     * @throws WeatherDataParsingException If there is an error parsing the weather data.
+     */
+    public static List<WeatherData> parse(InputStream jsonData, Predicate<String> keepStation) throws WeatherDataParsingException {
+        List<Station> stations = new ArrayList<>();
+        Long timestamp = null;
+
+        try (JsonParser parser = JSON_FACTORY.createParser(jsonData)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new WeatherDataParsingException("Error parsing weather data");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "timestamp" -> timestamp = parser.getLongValue();
+                    case "stations" -> readStations(parser, keepStation, stations);
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            throw new WeatherDataParsingException("Error parsing weather data");
+        }
+
+        List<WeatherData> weatherDataList = new ArrayList<>(stations.size());
+        for (Station station : stations) {
+            Long observationTimestamp = station.timestamp() != null ? station.timestamp() : timestamp;
+            if (observationTimestamp == null) {
+                throw new WeatherDataParsingException("Error parsing weather data");
+            }
+            WeatherData weatherData = new WeatherData(station.name(), station.wmoCode(), station.airTemperature(),
+                    station.windSpeed(), station.phenomenon(), toObservationTimestamp(observationTimestamp));
+            weatherData.setPosition(station.latitude(), station.longitude());
+            weatherDataList.add(weatherData);
+        }
+        return weatherDataList;
+    }
+
+    /**
+     * Reads the stations array. The parser is positioned on its start and is left on its end.
+     */
+    private static void readStations(JsonParser parser, Predicate<String> keepStation, List<Station> stations) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new IOException("Expected an array of stations");
+        }
+
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            String name = null;
+            String wmoCode = "";
+            double airTemperature = 0;
+            double windSpeed = 0;
+            String phenomenon = "";
+            Long timestamp = null;
+            Double latitude = null;
+            Double longitude = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                boolean isNull = value == JsonToken.VALUE_NULL;
+                switch (field) {
+                    case "name" -> name = parser.getValueAsString();
+                    case "wmocode" -> wmoCode = isNull ? "" : parser.getValueAsString();
+                    case "airtemperature" -> airTemperature = isNull ? 0 : parser.getDoubleValue();
+                    case "windspeed" -> windSpeed = isNull ? 0 : parser.getDoubleValue();
+                    case "phenomenon" -> phenomenon = isNull ? "" : parser.getValueAsString();
+                    case "timestamp" -> timestamp = isNull ? null : parser.getLongValue();
+                    case "latitude" -> latitude = isNull ? null : parser.getDoubleValue();
+                    case "longitude" -> longitude = isNull ? null : parser.getDoubleValue();
+                    default -> parser.skipChildren();
+                }
+            }
+
+            if (name != null && keepStation.test(name)) {
+                stations.add(new Station(name, wmoCode, airTemperature, windSpeed, phenomenon, timestamp, latitude, longitude));
+            }
+        }
+    }
+
+    private static LocalDateTime toObservationTimestamp(long timestamp) {
+        return Instant.ofEpochSecond(timestamp).atZone(ZoneId.systemDefault()).toLocalDateTime();
+    }
+
+    /**
+     * A station read from the document, before the document timestamp is known.
+     */
+    private record Station(String name, String wmoCode, double airTemperature, double windSpeed, String phenomenon,
+                           Long timestamp, Double latitude, Double longitude) {
+    }
+}
@@ -0,0 +1,287 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.exception.WeatherDataParsingException;
+import com.trial_task.food_delivery_fee.model.Observations;
+import com.trial_task.food_delivery_fee.model.WeatherData;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Parser for the observations XML of the weather API.
+ * <p>
+ * The default streaming parser reads the document with a StAX pull parser and skips the stations that are not
+ * requested without building objects for them. The JAXB parser binds the whole document to {@link Observations}
+ * and is kept as a reference implementation for validating the streaming parser.
+ */
+public final class ObservationsXmlParser {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    private ObservationsXmlParser() {
+    }
+
+    /**
+     * Parses the observations with a streaming pull parser.
+     *
+     * @param xmlData      The XML weather data.
+     * @param stationNames The names of the stations to keep.
+     * @return A list of WeatherData objects of the requested stations.
+     * @throws WeatherDataParsingException If there is an error parsing the weather data.
+     */
+    public static List<WeatherData> parse(InputStream xmlData, Set<String> stationNames) throws WeatherDataParsingException {
+        return parse(xmlData, stationNames, stationCount -> {
+        });
+    }
+
+    /**
+     * Parses the observations with a streaming pull parser.
+     *
+     * @param xmlData     The XML weather data.
+     * @param keepStation Tells whether to keep a station by its name.
+     * @return A list of WeatherData objects of the kept stations.
+     * @throws WeatherDataParsingException If there is an error parsing the weather data.
+     */
+    public static List<WeatherData> parse(InputStream xmlData, Predicate<String> keepStation) throws WeatherDataParsingException {
+        return parse(xmlData, keepStation, stationCount -> {
+        });
+    }
+
+    /**
+     * Parses the observations with a streaming pull parser and reports the number of stations in the document.
+     *
+     * @param xmlData      The XML weather data.
+     * @param stationNames The names of the stations to keep.
+     * @param stationCount Receives the number of stations in the document, including those that were not kept.
+     * @return A list of WeatherData objects of the requested stations.
+     * @throws WeatherDataParsingException If there is an error parsing the weather data.
+     */
+    public static List<WeatherData> parse(InputStream xmlData, Set<String> stationNames, IntConsumer stationCount)
+            throws WeatherDataParsingException {
+        return parse(xmlData, (Predicate<String>) stationNames::contains, stationCount);
+    }
+
+    /**
+     * Parses the observations with a streaming pull parser and reports the number of stations in the document.
+     *
+     * @param xmlData      The XML weather data.
+     * @param keepStation  Tells whether to keep a station by its name.
+     * @param stationCount Receives the number of stations in the document, including those that were not kept.
+     * @return A list of WeatherData objects of the kept stations.
+     * @throws WeatherDataParsingException If there is an error parsing the weather data.
+     */
+    public static List<WeatherData> parse(InputStream xmlData, Predicate<String> keepStation, IntConsumer stationCount)
+            throws WeatherDataParsingException {
+        List<WeatherData> weatherDataList = new ArrayList<>();
+        LocalDateTime observationTimestamp = null;
+        int stations = 0;
+
+        try {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(xmlData);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+
+                    switch (reader.getLocalName()) {
+                        case "observations" -> observationTimestamp = toObservationTimestamp(reader.getAttributeValue(null, "timestamp"));
+                        case "station" -> {
+                            stations++;
+                            WeatherData weatherData = readStation(reader, keepStation, observationTimestamp);
+                            if (weatherData != null) {
+                                weatherDataList.add(weatherData);
+                            }
+                        }
+                        default -> {
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException | NumberFormatException e) {
+            throw new WeatherDataParsingException("Error parsing weather data");
+        }
+
+        if (observationTimestamp == null) {
+            throw new WeatherDataParsingException("Error parsing weather data");
+        }
+        stationCount.accept(stations);
+        return weatherDataList;
+    }
+
+    /**
+     * Parses the observations by binding the whole document with JAXB.
+     *
+     * @param xmlData      The XML weather data.
+     * @param stationNames The names of the stations to keep.
+     * @return A list of WeatherData objects of the requested stations.
+     * @throws WeatherDataParsingException If there is an error parsing the weather data.
+     */
+    public static List<WeatherData> parseWithJaxb(InputStream xmlData, Set<String> stationNames) throws WeatherDataParsingException {
+        return parseWithJaxb(xmlData, stationNames, stationCount -> {
+        });
+    }
+
+    /**
+     * Parses the observations by binding the whole document with JAXB and reports the number of stations in the document.
+     *
+     * @param xmlData      The XML weather data.
+     * @param stationNames The names of the stations to keep.
+     * @param stationCount Receives the number of stations in the document, including those that were not kept.
+     * @return A list of WeatherData objects of the requested stations.
+     * @throws WeatherDataParsingException If there is an error parsing the weather data.
+     */
+    public static List<WeatherData> parseWithJaxb(InputStream xmlData, Set<String> stationNames, IntConsumer stationCount)
+            throws WeatherDataParsingException {
+        return parseWithJaxb(xmlData, (Predicate<String>) stationNames::contains, stationCount);
+    }
+
+    /**
+     * Parses the observations by binding the whole document with JAXB and reports the number of stations in the document.
+     *
+     * @param xmlData      The XML weather data.
+     * @param keepStation  Tells whether to keep a station by its name.
+     * @param stationCount Receives the number of stations in the document, including those that were not kept.
+     * @return A list of WeatherData objects of the kept stations.
+     * @throws WeatherDataParsingException If there is an error parsing the weather data.
+     */
+    public static List<WeatherData> parseWithJaxb(InputStream xmlData, Predicate<String> keepStation, IntConsumer stationCount)
+            throws WeatherDataParsingException {
+        List<WeatherData> weatherDataList = new ArrayList<>();
+
+        try {
+            // Unmarshal the XML data into Observations object
+            Observations observations = (Observations) JaxbContextHolder.CONTEXT.createUnmarshaller().unmarshal(xmlData);
+            LocalDateTime observationTimestamp = toObservationTimestamp(observations.getTimestamp());
+
+            if (observations.getStations() == null) {
+                stationCount.accept(0);
+                return weatherDataList;
+            }
+            stationCount.accept(observations.getStations().size());
+
+            // Add observation timestamp to each weather data object and add relevant data to the list
+            for (WeatherData weatherData : observations.getStations()) {
+                if (weatherData.getStationName() != null && keepStation.test(weatherData.getStationName())) {
+                    weatherData.setObservationTimestamp(observationTimestamp);
+                    weatherDataList.add(weatherData);
+                }
+            }
+        } catch (JAXBException | NumberFormatException e) {
+            throw new WeatherDataParsingException("Error parsing weather data");
+        }
+
+        return weatherDataList;
+    }
+
+    /**
+     * Reads a station element. The reader is positioned on the start of the station and is left on its end.
+     *
+     * @return The weather data of the station, or null if the station is not requested.
+     */
+    private static WeatherData readStation(XMLStreamReader reader, Predicate<String> keepStation, LocalDateTime observationTimestamp)
+            throws XMLStreamException {
+        String stationName = null;
+        String wmoCode = null;
+        double airTemperature = 0;
+        double windSpeed = 0;
+        String weatherPhenomenon = null;
+        Double latitude = null;
+        Double longitude = null;
+
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "name" -> {
+                    stationName = reader.getElementText();
+                    if (!keepStation.test(stationName)) {
+                        skipElement(reader);
+                        return null;
+                    }
+                }
+                case "wmocode" -> wmoCode = reader.getElementText();
+                case "airtemperature" -> airTemperature = toDouble(reader.getElementText());
+                case "windspeed" -> windSpeed = toDouble(reader.getElementText());
+                case "phenomenon" -> weatherPhenomenon = reader.getElementText();
+                case "latitude" -> latitude = toCoordinate(reader.getElementText());
+                case "longitude" -> longitude = toCoordinate(reader.getElementText());
+                default -> skipElement(reader);
+            }
+        }
+
+        if (stationName == null || !keepStation.test(stationName)) {
+            return null;
+        }
+        WeatherData weatherData = new WeatherData(stationName, wmoCode, airTemperature, windSpeed, weatherPhenomenon, observationTimestamp);
+        weatherData.setPosition(latitude, longitude);
+        return weatherData;
+    }
+
+    /**
+     * Advances the reader to the end of the element it is currently inside.
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static double toDouble(String text) {
+        return text.isBlank() ? 0 : Double.parseDouble(text.trim());
+    }
+
+    private static Double toCoordinate(String text) {
+        return text.isBlank() ? null : Double.valueOf(text.trim());
+    }
+
+    private static LocalDateTime toObservationTimestamp(String timestamp) {
+        // Convert epoch time to LocalDateTime
+        return Instant
+                .ofEpochSecond(Long.parseLong(timestamp))
+                .atZone(ZoneId.systemDefault())
+                .toLocalDateTime();
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    /**
+     * Creates the JAXB context once, on first use of the JAXB parser.
+     */
+    private static final class JaxbContextHolder {
+        private static final JAXBContext CONTEXT = createContext();
+
+        private static JAXBContext createContext() {
+            try {
+                return JAXBContext.newInstance(Observations.class);
+            } catch (JAXBException e) {
+                throw new IllegalStateException("Error creating JAXB context", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.exception.WeatherDataFetchException;
+import com.trial_task.food_delivery_fee.model.WeatherData;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.List;
+
+/**
+ * Reactive counterpart of {@link WeatherDataFetcher} used on the reactive stack.
+ * <p>
+ * The response body is streamed through a pipe into the parser of {@link WeatherDataFetcher}, so the payload
+ * is parsed while it is being received. Blocking pipe writes and parsing run off the event loop.
+ * Like the blocking fetcher, it sends the validators of the last parsed response, treats 304 as no change
+ * and records its metrics.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWeatherDataFetcher {
+    private static final int PIPE_BUFFER_SIZE = 64 * 1024;
+
+    private final WebClient webClient;
+    private final WeatherDataFetcher weatherDataFetcher;
+
+    @Value("${weatherdata.api.url}")
+    private String url;
+
+    private volatile String entityTag;
+    private volatile String lastModified;
+
+    /**
+     * Constructor for the ReactiveWeatherDataFetcher class.
+     *
+     * @param webClient          The WebClient to be used for API calls.
+     * @param weatherDataFetcher The blocking fetcher whose parser configuration is shared.
+     */
+    public ReactiveWeatherDataFetcher(WebClient webClient, WeatherDataFetcher weatherDataFetcher) {
+        this.webClient = webClient;
+        this.weatherDataFetcher = weatherDataFetcher;
+    }
+
+    /**
+     * Fetches weather data from the API.
+     *
+     * @return A Mono of the WeatherData objects, or of an empty list if the feed has not changed since the last fetch.
+     * It fails with a WeatherDataFetchException or WeatherDataParsingException.
+     */
+    public Mono<List<WeatherData>> fetchWeatherData() {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return webClient.get()
+                    .uri(url)
+                    .headers(this::addConditionalHeaders)
+                    .exchangeToMono(response -> {
+                        weatherDataFetcher.getWeatherMetrics().recordHttp(System.nanoTime() - start);
+                        return extractWeatherData(response);
+                    });
+        })
+                .onErrorMap(WebClientException.class, e -> new WeatherDataFetchException("Error fetching weather data"));
+    }
+
+    /**
+     * Forgets the validators of the last response, so that the next fetch downloads the feed even if it has not
+     * changed.
+     */
+    public void discardValidators() {
+        entityTag = null;
+        lastModified = null;
+    }
+
+    private void addConditionalHeaders(HttpHeaders headers) {
+        if (entityTag != null) {
+            headers.set(HttpHeaders.IF_NONE_MATCH, entityTag);
+        }
+        if (lastModified != null) {
+            headers.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+        }
+    }
+
+    private Mono<List<WeatherData>> extractWeatherData(ClientResponse response) {
+        if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            return response.releaseBody().thenReturn(List.of());
+        }
+        if (!response.statusCode().isSameCodeAs(HttpStatus.OK)) {
+            return response.releaseBody()
+                    .then(Mono.error(new WeatherDataFetchException("Failed to fetch weather data: " + response.statusCode())));
+        }
+
+        String responseEntityTag = response.headers().asHttpHeaders().getFirst(HttpHeaders.ETAG);
+        String responseLastModified = response.headers().asHttpHeaders().getFirst(HttpHeaders.LAST_MODIFIED);
+        return parse(response.bodyToFlux(DataBuffer.class))
+                .doOnNext(weatherData -> {
+                    // Only remember the validators once the response has been parsed successfully
+                    entityTag = responseEntityTag;
+                    lastModified = responseLastModified;
+                });
+    }
+
+    private Mono<List<WeatherData>> parse(Flux<DataBuffer> body) {
+        return Mono.fromCallable(() -> {
+            PipedInputStream in = new PipedInputStream(PIPE_BUFFER_SIZE);
+            PipedOutputStream out = new PipedOutputStream(in);
+            DataBufferUtils.write(body.publishOn(Schedulers.boundedElastic()), out)
+                    .doFinally(signal -> closeQuietly(out))
+                    .subscribe(DataBufferUtils.releaseConsumer(), error -> closeQuietly(out));
+            try (InputStream xmlData = in) {
+                return weatherDataFetcher.parseWeatherData(xmlData);
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static void closeQuietly(OutputStream out) {
+        try {
+            out.close();
+        } catch (IOException ignored) {
+            // The parser sees the end of the stream either way
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.trial_task.food_delivery_fee.service;
+
+/**
+ * Reasons a delivery fee cannot be calculated.
+ */
+public enum RejectionReason {
+    /** The city is not supported. */
+    INVALID_CITY,
+    /** The location is not valid or no supported city is close to it. */
+    INVALID_LOCATION,
+    /** The vehicle type is not offered in the city. */
+    INVALID_VEHICLE_TYPE,
+    /** The current weather forbids the vehicle type. */
+    VEHICLE_FORBIDDEN_BY_WEATHER,
+    /** No weather data is available for the city. */
+    WEATHER_DATA_UNAVAILABLE,
+    /** The latest weather data of the city is older than its maximum age and the city rejects stale data. */
+    WEATHER_DATA_STALE
+}
@@ -0,0 +1,14 @@
+package com.trial_task.food_delivery_fee.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a single weather data retention run.
+ *
+ * @param startedAt       The time the run started.
+ * @param durationMillis  The time the run took in milliseconds.
+ * @param deletedRows     The number of rows deleted for being older than the retention period.
+ * @param downsampledRows The number of rows deleted while downsampling to one row per station per hour.
+ */
+public record RetentionStats(LocalDateTime startedAt, long durationMillis, int deletedRows, int downsampledRows) {
+}
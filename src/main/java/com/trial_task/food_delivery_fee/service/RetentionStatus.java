@@ -0,0 +1,10 @@
+package com.trial_task.food_delivery_fee.service;
+
+/**
+ * Current state of the weather data table with respect to retention.
+ *
+ * @param rowCount  The number of weather data rows currently stored.
+ * @param lastPurge The outcome of the last retention run, or null if none has run yet.
+ */
+public record RetentionStatus(long rowCount, RetentionStats lastPurge) {
+}
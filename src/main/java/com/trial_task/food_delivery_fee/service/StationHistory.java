@@ -0,0 +1,315 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.model.WeatherData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * Immutable, time-ordered observations of a single station, stored in columns of primitive arrays.
+ * <p>
+ * Every observation takes an epoch second in a {@code long[]}, the air temperature and the wind speed in a
+ * {@code double[]} each and its weather phenomenon as a code into a dictionary of at most 255 phenomena in a
+ * {@code byte[]}, so 25 bytes instead of the hundreds of bytes of a {@link WeatherData} entity with its timestamp
+ * and strings. The station name, WMO code and position are kept once per station. The values are kept with full
+ * precision, as in the latest observation, so that fees calculated from the history match the fees calculated at
+ * the time of the observation even for values close to the fee thresholds. A station reporting more than 255
+ * distinct phenomena, e.g. from a broken feed, keeps the observations with further phenomena without a phenomenon.
+ * <p>
+ * The columns are append-only and shared between successive histories: adding observations newer than the newest
+ * one writes them behind the end of the columns, which older histories never read, and dropping old observations
+ * only moves the start. The columns are copied only when they are full or an observation arrives out of order.
+ * The observation in effect at a given time is found with a binary search, and {@link #range} returns a view of
+ * a time range without copying. The history is complete from its oldest observation onwards.
+ */
+public final class StationHistory {
+
+    /** History without observations. */
+    public static final StationHistory EMPTY = new StationHistory(null, null, null, null, new Columns(0), new String[0], 0, 0);
+
+    private static final Logger log = LoggerFactory.getLogger(StationHistory.class);
+    private static final int MAX_PHENOMENA = 255;
+    private static final int NO_PHENOMENON = 255;
+    private static final int MIN_CAPACITY = 16;
+
+    private final String stationName;
+    private final String wmoCode;
+    private final Double latitude;
+    private final Double longitude;
+    private final Columns columns;
+    private final String[] phenomena;
+    private final int start;
+    private final int end;
+
+    private StationHistory(String stationName, String wmoCode, Double latitude, Double longitude, Columns columns,
+                           String[] phenomena, int start, int end) {
+        this.stationName = stationName;
+        this.wmoCode = wmoCode;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.columns = columns;
+        this.phenomena = phenomena;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Returns a new history with the given observations added and all observations older than the cutoff removed.
+     * Observations with a timestamp that is already present, or older than the oldest observation of a non-empty
+     * history, are ignored so that the history stays complete from its oldest observation onwards. The station
+     * name, WMO code and position are taken from the newest added observation.
+     *
+     * @param added              The observations to add.
+     * @param cutoffEpochSeconds The epoch second before which observations are dropped.
+     * @return The new history.
+     */
+    public StationHistory with(Collection<WeatherData> added, long cutoffEpochSeconds) {
+        WeatherData[] sorted = added.stream()
+                .filter(observation -> size() == 0 || toEpochSecond(observation.getObservationTimestamp()) > epochSecond(0))
+                .sorted(Comparator.comparing(WeatherData::getObservationTimestamp))
+                .toArray(WeatherData[]::new);
+        int distinct = 0;
+        for (WeatherData observation : sorted) {
+            if (distinct == 0 || !observation.getObservationTimestamp().equals(sorted[distinct - 1].getObservationTimestamp())) {
+                sorted[distinct++] = observation;
+            }
+        }
+        if (distinct == 0) {
+            return trim(cutoffEpochSeconds);
+        }
+        sorted = Arrays.copyOf(sorted, distinct);
+
+        WeatherData newest = sorted[sorted.length - 1];
+        String[] nextPhenomena = phenomena;
+        for (WeatherData observation : sorted) {
+            if (codeOf(nextPhenomena, observation.getWeatherPhenomenon()) < 0) {
+                if (nextPhenomena.length == MAX_PHENOMENA) {
+                    log.warn("More than {} weather phenomena at station {}, keeping the observation without {}",
+                            MAX_PHENOMENA, newest.getStationName(), observation.getWeatherPhenomenon());
+                    continue;
+                }
+                nextPhenomena = Arrays.copyOf(nextPhenomena, nextPhenomena.length + 1);
+                nextPhenomena[nextPhenomena.length - 1] = observation.getWeatherPhenomenon();
+            }
+        }
+
+        boolean appendOnly = size() == 0
+                || toEpochSecond(sorted[0].getObservationTimestamp()) > columns.epochSeconds[end - 1];
+        Columns nextColumns = appendOnly ? append(sorted, nextPhenomena) : merge(sorted, nextPhenomena);
+        int nextStart = appendOnly && nextColumns == columns ? start : 0;
+        int nextEnd = appendOnly && nextColumns == columns ? end + sorted.length : nextColumns.length;
+
+        boolean hasPosition = newest.hasPosition();
+        return new StationHistory(newest.getStationName(), newest.getWMOCode(),
+                hasPosition ? newest.getLatitude() : latitude, hasPosition ? newest.getLongitude() : longitude,
+                nextColumns, nextPhenomena, nextStart, nextEnd).trim(cutoffEpochSeconds);
+    }
+
+    /**
+     * Returns a view of the observations from the first time on and before the second time, sharing the columns.
+     *
+     * @param fromEpochSecond The epoch second of the first observation to include.
+     * @param toEpochSecond   The epoch second before which observations are included.
+     * @return The observations in the range.
+     */
+    public StationHistory range(long fromEpochSecond, long toEpochSecond) {
+        int from = start + ceilingIndex(fromEpochSecond);
+        int to = Math.max(from, start + ceilingIndex(toEpochSecond));
+        return new StationHistory(stationName, wmoCode, latitude, longitude, columns, phenomena, from, to);
+    }
+
+    /**
+     * Checks whether the history can answer a lookup at the given time without consulting the database.
+     *
+     * @param epochSecond The epoch second to look up.
+     * @return True if the history is not empty and starts at or before the given time.
+     */
+    public boolean covers(long epochSecond) {
+        return size() > 0 && epochSecond(0) <= epochSecond;
+    }
+
+    /**
+     * Returns the observation in effect at the given time, i.e. the latest observation at or before it.
+     *
+     * @param epochSecond The epoch second to look up.
+     * @return The observation, or null if the history has no observation at or before the given time.
+     */
+    public WeatherData floor(long epochSecond) {
+        int index = floorIndex(epochSecond);
+        return index < 0 ? null : get(index);
+    }
+
+    /**
+     * Returns the index of the observation in effect at the given time.
+     *
+     * @param epochSecond The epoch second to look up.
+     * @return The index, or -1 if the history has no observation at or before the given time.
+     */
+    public int floorIndex(long epochSecond) {
+        int index = Arrays.binarySearch(columns.epochSeconds, start, end, epochSecond);
+        return (index >= 0 ? index : -index - 2) - start;
+    }
+
+    public int size() {
+        return end - start;
+    }
+
+    public long epochSecond(int index) {
+        return columns.epochSeconds[start + index];
+    }
+
+    public double airTemperature(int index) {
+        return columns.airTemperatures[start + index];
+    }
+
+    public double windSpeed(int index) {
+        return columns.windSpeeds[start + index];
+    }
+
+    public String weatherPhenomenon(int index) {
+        int code = columns.phenomenonCodes[start + index] & 0xFF;
+        return code == NO_PHENOMENON ? null : phenomena[code];
+    }
+
+    /**
+     * Returns an observation as weather data, without the database ID.
+     *
+     * @param index The index of the observation, from 0 for the oldest one.
+     * @return The weather data of the observation.
+     */
+    public WeatherData get(int index) {
+        WeatherData weatherData = new WeatherData(stationName, wmoCode, airTemperature(index), windSpeed(index),
+                weatherPhenomenon(index),
+                LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond(index)), ZoneId.systemDefault()));
+        weatherData.setPosition(latitude, longitude);
+        return weatherData;
+    }
+
+    /**
+     * Converts an observation timestamp to epoch seconds in the zone the timestamps are recorded in.
+     *
+     * @param timestamp The observation timestamp.
+     * @return The epoch second.
+     */
+    public static long toEpochSecond(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+
+    /**
+     * Writes observations newer than the newest one behind the end of the columns, in place if no other history
+     * has written there yet and they fit, otherwise into new columns holding the observations of this history.
+     */
+    private Columns append(WeatherData[] sorted, String[] nextPhenomena) {
+        synchronized (columns) {
+            if (columns.length == end && end + sorted.length <= columns.epochSeconds.length) {
+                columns.write(end, sorted, nextPhenomena);
+                columns.length = end + sorted.length;
+                return columns;
+            }
+        }
+
+        Columns grown = new Columns(Math.max(MIN_CAPACITY, (size() + sorted.length) * 2));
+        grown.copy(0, columns, start, size());
+        grown.write(size(), sorted, nextPhenomena);
+        grown.length = size() + sorted.length;
+        return grown;
+    }
+
+    /**
+     * Merges observations that arrived out of order into new columns.
+     */
+    private Columns merge(WeatherData[] sorted, String[] nextPhenomena) {
+        Columns merged = new Columns(Math.max(MIN_CAPACITY, (size() + sorted.length) * 2));
+        int index = 0;
+        int length = 0;
+        long previous = Long.MIN_VALUE;
+        for (WeatherData observation : sorted) {
+            long epochSecond = toEpochSecond(observation.getObservationTimestamp());
+            while (index < size() && epochSecond(index) <= epochSecond) {
+                previous = epochSecond(index);
+                merged.copy(length++, columns, start + index++, 1);
+            }
+            if (epochSecond != previous) {
+                merged.write(length++, new WeatherData[]{observation}, nextPhenomena);
+                previous = epochSecond;
+            }
+        }
+        merged.copy(length, columns, start + index, size() - index);
+        merged.length = length + size() - index;
+        return merged;
+    }
+
+    /**
+     * Drops the observations older than the cutoff, always keeping the newest one.
+     */
+    private StationHistory trim(long cutoffEpochSeconds) {
+        int first = start;
+        while (first < end - 1 && columns.epochSeconds[first] < cutoffEpochSeconds) {
+            first++;
+        }
+        return first == start
+                ? this
+                : new StationHistory(stationName, wmoCode, latitude, longitude, columns, phenomena, first, end);
+    }
+
+    /**
+     * Returns the index of the first observation at or after the given time, or the size if there is none.
+     */
+    private int ceilingIndex(long epochSecond) {
+        int index = Arrays.binarySearch(columns.epochSeconds, start, end, epochSecond);
+        return (index >= 0 ? index : -index - 1) - start;
+    }
+
+    private static int codeOf(String[] phenomena, String phenomenon) {
+        for (int code = 0; code < phenomena.length; code++) {
+            if (Objects.equals(phenomena[code], phenomenon)) {
+                return code;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Append-only columns of observations, shared by the histories created from each other. Slots below the
+     * length are never written again; the length is only read and advanced while holding the lock on the columns.
+     */
+    private static final class Columns {
+        final long[] epochSeconds;
+        final double[] airTemperatures;
+        final double[] windSpeeds;
+        final byte[] phenomenonCodes;
+        int length;
+
+        Columns(int capacity) {
+            epochSeconds = new long[capacity];
+            airTemperatures = new double[capacity];
+            windSpeeds = new double[capacity];
+            phenomenonCodes = new byte[capacity];
+        }
+
+        void write(int index, WeatherData[] observations, String[] phenomena) {
+            for (WeatherData observation : observations) {
+                epochSeconds[index] = toEpochSecond(observation.getObservationTimestamp());
+                airTemperatures[index] = observation.getAirTemperature();
+                windSpeeds[index] = observation.getWindSpeed();
+                int code = codeOf(phenomena, observation.getWeatherPhenomenon());
+                phenomenonCodes[index] = (byte) (code < 0 ? NO_PHENOMENON : code);
+                index++;
+            }
+        }
+
+        void copy(int index, Columns source, int sourceIndex, int count) {
+            System.arraycopy(source.epochSeconds, sourceIndex, epochSeconds, index, count);
+            System.arraycopy(source.airTemperatures, sourceIndex, airTemperatures, index, count);
+            System.arraycopy(source.windSpeeds, sourceIndex, windSpeeds, index, count);
+            System.arraycopy(source.phenomenonCodes, sourceIndex, phenomenonCodes, index, count);
+        }
+    }
+}
@@ -2,19 +2,20 @@ package com.trial_task.food_delivery_fee.service;
 
 import com.trial_task.food_delivery_fee.exception.ForbiddenCityException;
 import com.trial_task.food_delivery_fee.exception.ForbiddenVehicleTypeException;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.Map;
-
 @Service
 public class ValidationService {
+    private final FeeRuleService feeRuleService;
 
-    @Value("#{${weatherdata.cityToStationMap}}")
-    private Map<String, String> cityToStationMap;
-
-    @Value("#{${fee.city.base}}")
-    private Map<String, Map<String, Double>> cityBaseFees;
+    /**
+     * Constructor for the ValidationService class.
+     *
+     * @param feeRuleService The service holding the compiled fee rules.
+     */
+    public ValidationService(FeeRuleService feeRuleService) {
+        this.feeRuleService = feeRuleService;
+    }
 
     /**
      * Validates the city and vehicle type.
@@ -25,12 +26,35 @@ public class ValidationService {
      * @throws ForbiddenCityException        If the city is not allowed.
      */
     public void validateCityAndVehicleType(String city, String vehicleType) throws ForbiddenCityException, ForbiddenVehicleTypeException {
-        if (!cityToStationMap.containsKey(city) && !cityBaseFees.containsKey(city)) {
-            throw new ForbiddenCityException("Invalid city: " + city);
+        FeeOutcome.Rejected rejection = check(city, vehicleType);
+        if (rejection == null) {
+            return;
+        }
+
+        if (rejection.reason() == RejectionReason.INVALID_CITY) {
+            throw new ForbiddenCityException(rejection.message());
+        }
+        throw new ForbiddenVehicleTypeException(rejection.message());
+    }
+
+    /**
+     * Checks the city and vehicle type without throwing.
+     *
+     * @param city        The city to check.
+     * @param vehicleType The vehicle type to check.
+     * @return The rejection, or null if the city and vehicle type are valid.
+     */
+    public FeeOutcome.Rejected check(String city, String vehicleType) {
+        FeeRuleTable rules = feeRuleService.getRules();
+        int cityId = rules.cityId(city);
+
+        if (cityId == FeeRuleTable.UNKNOWN_ID) {
+            return FeeOutcome.invalidCity(city);
         }
 
-        if (!cityBaseFees.get(city).containsKey(vehicleType)) {
-            throw new ForbiddenVehicleTypeException("Invalid vehicle type: " + vehicleType);
+        if (!rules.isOffered(cityId, rules.vehicleId(vehicleType))) {
+            return FeeOutcome.invalidVehicleType(vehicleType);
         }
+        return null;
     }
 }
@@ -13,15 +13,15 @@ import org.springframework.stereotype.Service;
 @Service
 public class WeatherDataCronJob {
     private static final Logger log = LoggerFactory.getLogger(WeatherDataCronJob.class);
-    private final WeatherDataService weatherDataService;
+    private final WeatherDataUpdateService weatherDataUpdateService;
 
     /**
      * Constructor for the WeatherDataCronJob class.
      *
-     * @param weatherDataService The service for handling weather data.
+     * @param weatherDataUpdateService The service for fetching and ingesting weather data.
      */
-    public WeatherDataCronJob(WeatherDataService weatherDataService) {
-        this.weatherDataService = weatherDataService;
+    public WeatherDataCronJob(WeatherDataUpdateService weatherDataUpdateService) {
+        this.weatherDataUpdateService = weatherDataUpdateService;
     }
 
     /**
@@ -31,7 +31,7 @@ public class WeatherDataCronJob {
     @Scheduled(cron = "${weatherdata.cron.expression}")
     public void fetchAndStoreWeatherData() {
         try {
-            weatherDataService.updateWeatherData();
+            weatherDataUpdateService.updateWeatherData();
             log.info("Weather data update successful");
         } catch (WeatherDataParsingException | WeatherDataFetchException e) {
             log.error(e.getMessage());
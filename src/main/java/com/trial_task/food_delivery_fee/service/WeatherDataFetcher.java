@@ -2,119 +2,232 @@ package com.trial_task.food_delivery_fee.service;
 
 import com.trial_task.food_delivery_fee.exception.WeatherDataFetchException;
 import com.trial_task.food_delivery_fee.exception.WeatherDataParsingException;
-import com.trial_task.food_delivery_fee.model.Observations;
 import com.trial_task.food_delivery_fee.model.WeatherData;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
-import javax.xml.bind.JAXBContext;
-import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
-import java.io.StringReader;
-import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.util.ArrayList;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
 /**
- * Service class for fetching weather data from an API.
+ * Service class for fetching weather data from the observations XML of the weather API. It is the default
+ * {@link WeatherProvider}.
+ * <p>
+ * The validators of the last successfully parsed response are remembered and sent with the next request,
+ * so an unchanged feed is answered with 304 Not Modified and neither downloaded nor parsed again. They are discarded
+ * when the parsed observations cannot be ingested, so the next fetch downloads them again.
+ * <p>
+ * The request latency, the size of the payload, the parse time and the number of kept and dropped stations
+ * are recorded in {@link WeatherMetrics}.
  */
 @Service
-public class WeatherDataFetcher {
+public class WeatherDataFetcher implements WeatherProvider {
     private final RestTemplate restTemplate;
+    private final WeatherMetrics weatherMetrics;
 
     @Value("#{${weatherdata.cityToStationMap}}")
     private Map<String, String> cityToStationMap;
 
+    @Value("#{${weatherdata.cityToFallbackStationMap:{:}}}")
+    private Map<String, String> cityToFallbackStationMap = Map.of();
+
+    @Value("${weatherdata.geo.allStations:false}")
+    private boolean allStations;
+
     @Value("${weatherdata.api.url}")
     private String url;
 
+    @Value("${weatherdata.parser:stax}")
+    private String parser;
+
+    private volatile String entityTag;
+    private volatile String lastModified;
+
     /**
      * Default constructor that initializes RestTemplate.
      */
     public WeatherDataFetcher() {
-        this.restTemplate = new RestTemplate();
+        this(new RestTemplate());
     }
 
     /**
-     * Constructor for injecting a custom RestTemplate.
+     * Constructor for injecting a custom RestTemplate. Metrics are recorded in the global registry.
      *
      * @param restTemplate The RestTemplate to be used for API calls.
      */
     public WeatherDataFetcher(RestTemplate restTemplate) {
+        this(restTemplate, new WeatherMetrics(Metrics.globalRegistry));
+    }
+
+    /**
+     * Constructor for injecting a custom RestTemplate and the metrics.
+     *
+     * @param restTemplate   The RestTemplate to be used for API calls.
+     * @param weatherMetrics The meters of the weather data ingestion.
+     */
+    @Autowired
+    public WeatherDataFetcher(RestTemplate restTemplate, WeatherMetrics weatherMetrics) {
         this.restTemplate = restTemplate;
+        this.weatherMetrics = weatherMetrics;
     }
 
 
+    @Override
+    public String getName() {
+        return "xml";
+    }
+
     /**
-     * Fetches weather data from the API.
+     * Fetches weather data from the API. The response body is parsed while it is being read.
      *
-     * @return A list of WeatherData objects.
+     * @return A list of WeatherData objects, or an empty list if the feed has not changed since the last fetch.
      * @throws WeatherDataParsingException If there is an error parsing the weather data.
      * @throws WeatherDataFetchException   If there is an error fetching the weather data.
      */
+    @Override
     public List<WeatherData> fetchWeatherData() throws WeatherDataParsingException, WeatherDataFetchException {
+        long start = System.nanoTime();
         try {
-            // Fetch the weather data from the API
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-
-            if (response.getStatusCode() == HttpStatus.OK) {
-                String xmlData = response.getBody();
-
-                // Parse the XML data into WeatherData objects
-                return parseWeatherData(xmlData);
-            } else {
-                throw new WeatherDataFetchException("Failed to fetch weather data: " + response.getStatusCode());
+            // Fetch the weather data from the API and parse the XML data into WeatherData objects
+            return restTemplate.execute(url, HttpMethod.GET, this::addConditionalHeaders, response -> {
+                weatherMetrics.recordHttp(System.nanoTime() - start);
+                return extractWeatherData(response);
+            });
+        } catch (ExtractionException e) {
+            if (e.getCause() instanceof WeatherDataParsingException parsingException) {
+                throw parsingException;
             }
+            throw (WeatherDataFetchException) e.getCause();
         } catch (RestClientException e) {
             throw new WeatherDataFetchException("Error fetching weather data");
         }
     }
 
+    @Override
+    public void discardValidators() {
+        entityTag = null;
+        lastModified = null;
+    }
+
     /**
-     * Parses the XML weather data and converts it into a list of WeatherData objects.
+     * Parses the XML weather data and converts it into a list of WeatherData objects of the configured stations,
+     * including the fallback stations, or of all stations when they are used for location lookups.
      *
      * @param xmlData The XML weather data.
      * @return A list of WeatherData objects.
      * @throws WeatherDataParsingException If there is an error parsing the weather data.
      */
-    private List<WeatherData> parseWeatherData(String xmlData) throws WeatherDataParsingException {
-        List<WeatherData> weatherDataList = new ArrayList<>();
+    List<WeatherData> parseWeatherData(InputStream xmlData) throws WeatherDataParsingException {
+        Set<String> stationNames = new HashSet<>(cityToStationMap.values());
+        stationNames.addAll(cityToFallbackStationMap.values());
+        Predicate<String> keepStation = allStations ? stationName -> true : stationNames::contains;
+        CountingInputStream payload = new CountingInputStream(xmlData);
+        AtomicInteger stationCount = new AtomicInteger();
+
+        long start = System.nanoTime();
+        List<WeatherData> weatherData = "jaxb".equalsIgnoreCase(parser)
+                ? ObservationsXmlParser.parseWithJaxb(payload, keepStation, stationCount::set)
+                : ObservationsXmlParser.parse(payload, keepStation, stationCount::set);
+        weatherMetrics.recordParse(System.nanoTime() - start, payload.count, weatherData.size(), stationCount.get());
+        return weatherData;
+    }
+
+    /**
+     * Returns the meters the fetches are recorded in, which the reactive fetcher shares.
+     *
+     * @return The meters of the weather data ingestion.
+     */
+    WeatherMetrics getWeatherMetrics() {
+        return weatherMetrics;
+    }
 
+    private void addConditionalHeaders(ClientHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        if (entityTag != null) {
+            headers.set(HttpHeaders.IF_NONE_MATCH, entityTag);
+        }
+        if (lastModified != null) {
+            headers.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+        }
+    }
+
+    private List<WeatherData> extractWeatherData(ClientHttpResponse response) throws IOException {
         try {
-            JAXBContext jaxbContext = JAXBContext.newInstance(Observations.class);
-            Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
-            StringReader reader = new StringReader(xmlData);
-
-            // Unmarshal the XML data into Observations object
-            Observations observations = (Observations) unmarshaller.unmarshal(reader);
-
-            // Convert epoch time to LocalDateTime
-            long epochTime = Long.parseLong(observations.getTimestamp());
-            LocalDateTime observationTimestamp = Instant
-                    .ofEpochSecond(epochTime)
-                    .atZone(ZoneId.systemDefault())
-                    .toLocalDateTime();
-
-            // Add observation timestamp to each weather data object and add relevant data to the list
-            for (WeatherData weatherData : observations.getStations()) {
-                String name = weatherData.getStationName();
-                if (cityToStationMap.containsValue(name)) {
-                    weatherData.setObservationTimestamp(observationTimestamp);
-                    weatherDataList.add(weatherData);
-                }
+            if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                return List.of();
+            }
+            if (response.getStatusCode() != HttpStatus.OK) {
+                throw new WeatherDataFetchException("Failed to fetch weather data: " + response.getStatusCode());
+            }
+            List<WeatherData> weatherData = parseWeatherData(response.getBody());
+
+            // Only remember the validators once the response has been parsed successfully
+            entityTag = response.getHeaders().getFirst(HttpHeaders.ETAG);
+            lastModified = response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED);
+            return weatherData;
+        } catch (WeatherDataParsingException | WeatherDataFetchException e) {
+            throw new ExtractionException(e);
+        }
+    }
+
+    /**
+     * Counts the bytes read from the payload.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
 
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
             }
-        } catch (JAXBException e) {
-            throw new WeatherDataParsingException("Error parsing weather data");
+            return n;
         }
 
-        return weatherDataList;
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    /**
+     * Carries a checked exception out of the response extractor.
+     */
+    private static class ExtractionException extends RuntimeException {
+        ExtractionException(Exception cause) {
+            super(cause);
+        }
     }
 }
@@ -0,0 +1,38 @@
+package com.trial_task.food_delivery_fee.service;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Health indicator that reports whether weather data is available for fee calculations.
+ * <p>
+ * It is part of the readiness group, so an instance only receives traffic once its weather snapshot has been
+ * warmed from the database or fetched from the API.
+ */
+@Component
+public class WeatherDataHealthIndicator implements HealthIndicator {
+    private final WeatherDataService weatherDataService;
+
+    /**
+     * Constructor for the WeatherDataHealthIndicator class.
+     *
+     * @param weatherDataService The service holding the weather snapshot.
+     */
+    public WeatherDataHealthIndicator(WeatherDataService weatherDataService) {
+        this.weatherDataService = weatherDataService;
+    }
+
+    /**
+     * Reports UP with the latest observation time of every station once a snapshot exists, otherwise OUT_OF_SERVICE.
+     *
+     * @return The health of the weather data.
+     */
+    @Override
+    public Health health() {
+        if (!weatherDataService.hasSnapshot()) {
+            return Health.outOfService().withDetail("reason", "No weather data available yet").build();
+        }
+        return Health.up().withDetail("latestObservations", weatherDataService.getLatestObservationTimes()).build();
+    }
+}
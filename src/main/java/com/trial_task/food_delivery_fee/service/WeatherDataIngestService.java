@@ -0,0 +1,159 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.model.WeatherData;
+import com.trial_task.food_delivery_fee.repository.WeatherDataRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service class for ingesting fetched observations: saving the new ones to the database, publishing them to the
+ * in-memory snapshot of the {@link WeatherDataService} and writing the snapshot file.
+ * <p>
+ * Ingestion is idempotent: observations that are not newer than the latest known observation of their station are
+ * skipped, and observations that are already stored are not saved again. Observations of stations that are not
+ * configured are only kept in memory for location lookups. Ingestions run one at a time, so observations fetched
+ * from several providers in parallel are never saved twice.
+ */
+@Service
+public class WeatherDataIngestService {
+    private static final Logger log = LoggerFactory.getLogger(WeatherDataIngestService.class);
+    private final WeatherDataService weatherDataService;
+    private final WeatherDataRepository weatherDataRepository;
+    private final WeatherMetrics weatherMetrics;
+    private final ReentrantLock ingestLock = new ReentrantLock();
+
+    private WeatherSnapshotFile snapshotFile;
+
+    /**
+     * Constructor for the WeatherDataIngestService class.
+     *
+     * @param weatherDataService    The service holding the in-memory snapshot.
+     * @param weatherDataRepository The repository for storing weather data.
+     * @param weatherMetrics        The meters of the weather data ingestion.
+     */
+    public WeatherDataIngestService(WeatherDataService weatherDataService,
+                                    WeatherDataRepository weatherDataRepository,
+                                    WeatherMetrics weatherMetrics) {
+        this.weatherDataService = weatherDataService;
+        this.weatherDataRepository = weatherDataRepository;
+        this.weatherMetrics = weatherMetrics;
+    }
+
+    /**
+     * Sets the snapshot file that the latest observations are written to after every ingestion.
+     *
+     * @param snapshotFile The snapshot file.
+     */
+    @Autowired(required = false)
+    public void setSnapshotFile(WeatherSnapshotFile snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    /**
+     * Saves and publishes the observations that are newer than the latest known observation of their station.
+     *
+     * @param observations The fetched observations.
+     * @return The observations that were new.
+     */
+    public List<WeatherData> ingest(Collection<WeatherData> observations) {
+        ingestLock.lock();
+        try {
+            return ingestLocked(observations);
+        } finally {
+            ingestLock.unlock();
+        }
+    }
+
+    private List<WeatherData> ingestLocked(Collection<WeatherData> observations) {
+        Map<String, WeatherData> latest = weatherDataService.getLatestByStation();
+        Set<ObservationKey> seen = new HashSet<>();
+        List<WeatherData> newObservations = new ArrayList<>();
+        for (WeatherData observation : observations) {
+            WeatherData current = latest.get(observation.getStationName());
+            boolean newer = current == null
+                    || observation.getObservationTimestamp().isAfter(current.getObservationTimestamp());
+            if (newer && seen.add(new ObservationKey(observation.getStationName(), observation.getObservationTimestamp()))) {
+                // Stations do not move, so keep the known position when a provider does not report it
+                if (!observation.hasPosition() && current != null && current.hasPosition()) {
+                    observation.setPosition(current.getLatitude(), current.getLongitude());
+                }
+                newObservations.add(observation);
+            }
+        }
+
+        if (!newObservations.isEmpty()) {
+            // Stations that are not configured are only kept in memory for location lookups
+            Set<String> stationNames = weatherDataService.stationNames();
+            List<WeatherData> stored = newObservations.stream()
+                    .filter(observation -> stationNames.contains(observation.getStationName()))
+                    .toList();
+            if (!stored.isEmpty()) {
+                long start = System.nanoTime();
+                persist(stored);
+                weatherMetrics.recordPersist(System.nanoTime() - start, stored.size());
+            }
+            weatherDataService.publish(newObservations);
+            if (snapshotFile != null) {
+                snapshotFile.write(weatherDataService.getLatestByStation().values().stream()
+                        .filter(observation -> stationNames.contains(observation.getStationName()))
+                        .toList());
+            }
+        }
+        return newObservations;
+    }
+
+    /**
+     * Saves the observations in one batch. The database may already hold some of them although the snapshot does
+     * not know them, e.g. when another instance saved them or the snapshot was warmed from an older snapshot file,
+     * in which case the batch is rolled back on the unique constraint and the observations are saved one by one,
+     * skipping those that are already stored. Without this, the same observations would be fetched, rejected and
+     * never published on every update.
+     *
+     * @param observations The observations to save.
+     */
+    private void persist(List<WeatherData> observations) {
+        try {
+            weatherDataRepository.saveAll(observations);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Some of {} observation(s) are already stored, saving them one by one", observations.size());
+            int skipped = 0;
+            for (WeatherData observation : observations) {
+                try {
+                    // The rolled back batch left a database ID on the observation, so save a fresh copy
+                    weatherDataRepository.save(copyOf(observation));
+                } catch (DataIntegrityViolationException duplicate) {
+                    skipped++;
+                }
+            }
+            log.info("Skipped {} observation(s) that were already stored", skipped);
+        }
+    }
+
+    private static WeatherData copyOf(WeatherData observation) {
+        WeatherData copy = new WeatherData(observation.getStationName(), observation.getWMOCode(),
+                observation.getAirTemperature(), observation.getWindSpeed(), observation.getWeatherPhenomenon(),
+                observation.getObservationTimestamp());
+        if (observation.hasPosition()) {
+            copy.setPosition(observation.getLatitude(), observation.getLongitude());
+        }
+        return copy;
+    }
+
+    /**
+     * Natural key of an observation, matching the unique constraint of the weather data table.
+     */
+    private record ObservationKey(String stationName, LocalDateTime observationTimestamp) {
+    }
+}
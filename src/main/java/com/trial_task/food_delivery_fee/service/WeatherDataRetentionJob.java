@@ -0,0 +1,74 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.repository.WeatherDataRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * A service class that keeps the weather data table bounded by purging old observations at regular intervals.
+ * <p>
+ * Observations older than the retention period are deleted in bulk. When downsampling is enabled they are
+ * instead reduced to one row per station per hour, and only deleted once older than the downsampled retention period.
+ */
+@Service
+public class WeatherDataRetentionJob {
+    private static final Logger log = LoggerFactory.getLogger(WeatherDataRetentionJob.class);
+    private final WeatherDataRepository weatherDataRepository;
+
+    @Value("${weatherdata.retention.days:7}")
+    private int retentionDays = 7;
+
+    @Value("${weatherdata.retention.downsample:false}")
+    private boolean downsample;
+
+    @Value("${weatherdata.retention.downsampledDays:365}")
+    private int downsampledRetentionDays = 365;
+
+    private volatile RetentionStats lastPurge;
+
+    /**
+     * Constructor for the WeatherDataRetentionJob class.
+     *
+     * @param weatherDataRepository The repository storing the weather data.
+     */
+    public WeatherDataRetentionJob(WeatherDataRepository weatherDataRepository) {
+        this.weatherDataRepository = weatherDataRepository;
+    }
+
+    /**
+     * Purges old weather data from the database.
+     * This method is scheduled to run at regular intervals specified by the cron expression.
+     */
+    @Scheduled(cron = "${weatherdata.retention.cron.expression}")
+    public void purgeWeatherData() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+
+        int downsampledRows = 0;
+        int deletedRows;
+        if (downsample) {
+            downsampledRows = weatherDataRepository.downsampleHourlyBefore(startedAt.minusDays(retentionDays));
+            deletedRows = weatherDataRepository.deleteObservedBefore(startedAt.minusDays(downsampledRetentionDays));
+        } else {
+            deletedRows = weatherDataRepository.deleteObservedBefore(startedAt.minusDays(retentionDays));
+        }
+
+        long durationMillis = (System.nanoTime() - start) / 1_000_000;
+        lastPurge = new RetentionStats(startedAt, durationMillis, deletedRows, downsampledRows);
+        log.info("Weather data purge removed {} rows and downsampled {} rows in {} ms", deletedRows, downsampledRows, durationMillis);
+    }
+
+    /**
+     * Returns the current row count of the weather data table together with the outcome of the last purge.
+     *
+     * @return The retention status.
+     */
+    public RetentionStatus getStatus() {
+        return new RetentionStatus(weatherDataRepository.count(), lastPurge);
+    }
+}
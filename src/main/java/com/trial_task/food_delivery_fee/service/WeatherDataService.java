@@ -1,76 +1,375 @@
 package com.trial_task.food_delivery_fee.service;
 
-import com.trial_task.food_delivery_fee.exception.WeatherDataFetchException;
-import com.trial_task.food_delivery_fee.exception.WeatherDataParsingException;
 import com.trial_task.food_delivery_fee.model.WeatherData;
 import com.trial_task.food_delivery_fee.repository.WeatherDataRepository;
 import jakarta.annotation.PostConstruct;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Service class for managing weather data.
+ * <p>
+ * The latest observation of every station is kept in an immutable in-memory snapshot that is replaced
+ * atomically after each update, so reads never query the database. The database holds the history, and the
+ * snapshot is warmed at startup with the observations loaded by the {@link WeatherDataWarmupService}. New
+ * observations are fetched by the {@link WeatherDataUpdateService} and published by the
+ * {@link WeatherDataIngestService}.
+ * <p>
+ * The recent history of every station is kept in memory as well, in a columnar {@link StationHistory}, so lookups
+ * at a past time within the retention window are answered without a query. Older lookups fall back to the database.
+ * <p>
+ * The stations with a known position are indexed in a {@link GeoIndex} whenever the snapshot is replaced, so the
+ * weather at any location is looked up from the nearest stations, and a location is assigned the nearest city,
+ * without scanning the stations.
  */
 @Service
 public class WeatherDataService {
-    private static final Logger log = LoggerFactory.getLogger(WeatherDataService.class);
     private final WeatherDataRepository weatherDataRepository;
-    private final WeatherDataFetcher weatherDataFetcher;
+    private final WeatherDataWarmupService weatherDataWarmupService;
+    private final WeatherMetrics weatherMetrics;
 
     @Value("#{${weatherdata.cityToStationMap}}")
     private Map<String, String> cityToStationMap;
 
+    @Value("#{${weatherdata.cityToFallbackStationMap:{:}}}")
+    private Map<String, String> cityToFallbackStationMap = Map.of();
+
+    @Value("${weatherdata.history.retention:P2D}")
+    private Duration historyRetention = Duration.ofDays(2);
+
+    @Value("${weatherdata.geo.maxDistanceKm:50}")
+    private double geoMaxDistanceKm = 50;
+
+    @Value("${weatherdata.geo.neighbours:1}")
+    private int geoNeighbours = 1;
+
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private volatile Map<String, WeatherData> latestByStation = Map.of();
+    private volatile Map<String, StationHistory> historyByStation = Map.of();
+    private volatile GeoIndex<WeatherData> stationIndex = GeoIndex.empty();
+    private volatile GeoIndex<String> cityIndex = GeoIndex.empty();
+
     /**
      * Constructor for the WeatherDataService class.
      *
-     * @param weatherDataRepository The repository for storing weather data.
-     * @param weatherDataFetcher    The service for fetching weather data.
+     * @param weatherDataRepository    The repository holding the weather history.
+     * @param weatherDataWarmupService The service loading the observations that warm the snapshot at startup.
+     * @param weatherMetrics           The meters of the weather data ingestion.
      */
     public WeatherDataService(WeatherDataRepository weatherDataRepository,
-                              WeatherDataFetcher weatherDataFetcher) {
+                              WeatherDataWarmupService weatherDataWarmupService,
+                              WeatherMetrics weatherMetrics) {
         this.weatherDataRepository = weatherDataRepository;
-        this.weatherDataFetcher = weatherDataFetcher;
+        this.weatherDataWarmupService = weatherDataWarmupService;
+        this.weatherMetrics = weatherMetrics;
     }
 
     /**
-     * Fetches the latest weather data for a specific city from the database.
+     * Returns the latest weather data for a specific city from the in-memory snapshot.
      *
      * @param city The city for which to fetch the latest weather data.
-     * @return The latest weather data for the city, or null if there is no data for the city.
+     * @return The latest weather data for the city, or an empty Optional if there is no data for the city.
      */
     public Optional<WeatherData> getLatest(String city) {
         String stationName = cityToStationMap.get(city);
-        return weatherDataRepository.findFirstByStationNameOrderByObservationTimestampDesc(stationName);
+        if (stationName == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(latestByStation.get(stationName));
+    }
+
+    /**
+     * Returns the latest weather data of the fallback station of a city from the in-memory snapshot.
+     *
+     * @param city The city for which to fetch the latest weather data of the fallback station.
+     * @return The latest weather data of the fallback station, or an empty Optional if the city has no fallback
+     * station or there is no data for it.
+     */
+    public Optional<WeatherData> getLatestFromFallback(String city) {
+        String stationName = cityToFallbackStationMap.get(city);
+        if (stationName == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(latestByStation.get(stationName));
+    }
+
+    /**
+     * Returns the latest weather data at a location from the nearest stations within the maximum distance. With a
+     * single neighbour, it is the latest observation of the nearest station. With more, the air temperature and wind
+     * speed are interpolated from the neighbours weighted by their inverse squared distance, while the weather
+     * phenomenon is that of the nearest station and the observation time that of the oldest neighbour.
+     *
+     * @param latitude  The latitude of the location in degrees.
+     * @param longitude The longitude of the location in degrees.
+     * @return The latest weather data at the location, or an empty Optional if no station is close enough.
+     */
+    public Optional<WeatherData> getLatestAt(double latitude, double longitude) {
+        GeoIndex<WeatherData> index = stationIndex;
+        if (geoNeighbours <= 1) {
+            GeoIndex.Neighbour<WeatherData> nearest = index.nearest(latitude, longitude);
+            if (nearest == null || nearest.distanceKm() > geoMaxDistanceKm) {
+                return Optional.empty();
+            }
+            return Optional.of(nearest.value());
+        }
+
+        List<GeoIndex.Neighbour<WeatherData>> neighbours = new ArrayList<>(geoNeighbours);
+        for (GeoIndex.Neighbour<WeatherData> neighbour : index.nearest(latitude, longitude, geoNeighbours)) {
+            if (neighbour.distanceKm() <= geoMaxDistanceKm) {
+                neighbours.add(neighbour);
+            }
+        }
+        if (neighbours.isEmpty()) {
+            return Optional.empty();
+        }
+        if (neighbours.size() == 1 || neighbours.getFirst().distanceKm() < 0.001) {
+            return Optional.of(neighbours.getFirst().value());
+        }
+        return Optional.of(interpolate(neighbours));
+    }
+
+    /**
+     * Returns the supported city whose station is nearest to a location within the maximum distance.
+     *
+     * @param latitude  The latitude of the location in degrees.
+     * @param longitude The longitude of the location in degrees.
+     * @return The nearest city, or an empty Optional if no city is close enough or the positions are not known yet.
+     */
+    public Optional<String> getNearestCity(double latitude, double longitude) {
+        GeoIndex.Neighbour<String> nearest = cityIndex.nearest(latitude, longitude);
+        if (nearest == null || nearest.distanceKm() > geoMaxDistanceKm) {
+            return Optional.empty();
+        }
+        return Optional.of(nearest.value());
+    }
+
+    /**
+     * Returns the weather data for a specific city that was in effect at the given time, i.e. the latest
+     * observation at or before it. Recent history is served from memory, older history from the database.
+     *
+     * @param city     The city for which to fetch the weather data.
+     * @param dateTime The time of interest.
+     * @return The weather data in effect for the city, or an empty Optional if there is no such data.
+     */
+    public Optional<WeatherData> getAt(String city, LocalDateTime dateTime) {
+        String stationName = cityToStationMap.get(city);
+        if (stationName == null) {
+            return Optional.empty();
+        }
+
+        long epochSecond = StationHistory.toEpochSecond(dateTime);
+        StationHistory history = historyByStation.getOrDefault(stationName, StationHistory.EMPTY);
+        if (history.covers(epochSecond)) {
+            return Optional.ofNullable(history.floor(epochSecond));
+        }
+        return weatherDataRepository
+                .findFirstByStationNameAndObservationTimestampLessThanEqualOrderByObservationTimestampDesc(stationName, dateTime);
+    }
+
+    /**
+     * Returns the stored weather history of a specific city from the given time on: the observation in effect at
+     * that time followed by every later observation. The history is read from the database, which holds every
+     * observation that has not been removed by retention, into a columnar {@link StationHistory}.
+     *
+     * @param city The city for which to fetch the weather history.
+     * @param from The earliest time of interest.
+     * @return The observations of the city, or an empty history if there is no such data.
+     */
+    public StationHistory getHistory(String city, LocalDateTime from) {
+        String stationName = cityToStationMap.get(city);
+        if (stationName == null) {
+            return StationHistory.EMPTY;
+        }
+
+        List<WeatherData> observations = new ArrayList<>();
+        weatherDataRepository
+                .findFirstByStationNameAndObservationTimestampLessThanEqualOrderByObservationTimestampDesc(stationName, from)
+                .ifPresent(observations::add);
+        observations.addAll(weatherDataRepository
+                .findByStationNameAndObservationTimestampGreaterThanEqualOrderByObservationTimestampAsc(stationName, from));
+        return StationHistory.EMPTY.with(observations, Long.MIN_VALUE);
     }
 
     /**
-     * Updates the weather data by fetching new data from the API and saving it to the database.
+     * Tells whether the in-memory snapshot holds weather data, either warmed from the database or fetched from the API.
      *
-     * @throws WeatherDataParsingException If there is an error parsing the weather data.
-     * @throws WeatherDataFetchException   If there is an error fetching the weather data.
+     * @return True if the latest observation of at least one station is known.
      */
-    public void updateWeatherData() throws WeatherDataParsingException, WeatherDataFetchException {
-        List<WeatherData> weatherDataList = weatherDataFetcher.fetchWeatherData();
-        weatherDataRepository.saveAll(weatherDataList);
+    public boolean hasSnapshot() {
+        return !latestByStation.isEmpty();
     }
 
     /**
-     * Initializes the weather data by fetching it once at startup.
+     * Returns the observation time of the latest observation of every station in the snapshot.
+     *
+     * @return The observation times by station name.
+     */
+    public Map<String, LocalDateTime> getLatestObservationTimes() {
+        Map<String, LocalDateTime> observationTimes = new HashMap<>();
+        latestByStation.forEach((stationName, weatherData) ->
+                observationTimes.put(stationName, weatherData.getObservationTimestamp()));
+        return observationTimes;
+    }
+
+    /**
+     * Initializes the weather data by warming the snapshot with the observations in the snapshot file and the
+     * database, so that fees can be served before the first fetch from the API completes.
      */
     @PostConstruct
     public void initializeWeatherData() {
-        log.info("Fetching initial weather data...");
+        publish(weatherDataWarmupService.load(stationNames(), LocalDateTime.now().minus(historyRetention)));
+        for (String stationName : stationNames()) {
+            weatherMetrics.registerDataAge(stationName, () -> ageSeconds(stationName));
+        }
+    }
+
+    /**
+     * Returns the latest observation of every station in the snapshot.
+     *
+     * @return The latest observations by station name.
+     */
+    Map<String, WeatherData> getLatestByStation() {
+        return latestByStation;
+    }
+
+    /**
+     * Merges the given observations into new snapshots and swaps them in. Older observations never replace newer ones
+     * as the latest observation, and history older than the retention window is dropped.
+     *
+     * @param observations The observations to publish.
+     */
+    void publish(Collection<WeatherData> observations) {
+        if (observations.isEmpty()) {
+            return;
+        }
+
+        updateLock.lock();
         try {
-            updateWeatherData();
-            log.info("Initial weather data fetch successful");
-        } catch (WeatherDataParsingException | WeatherDataFetchException e) {
-            log.error(e.getMessage());
+            publishLocked(observations);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private void publishLocked(Collection<WeatherData> observations) {
+        Map<String, WeatherData> nextLatest = new HashMap<>(latestByStation);
+        Map<String, List<WeatherData>> addedByStation = new HashMap<>();
+        for (WeatherData observation : observations) {
+            nextLatest.merge(observation.getStationName(), observation,
+                    (current, candidate) -> candidate.getObservationTimestamp().isBefore(current.getObservationTimestamp())
+                            ? current
+                            : candidate);
+            addedByStation.computeIfAbsent(observation.getStationName(), stationName -> new ArrayList<>()).add(observation);
         }
+
+        Set<String> stationNames = stationNames();
+        Map<String, StationHistory> nextHistory = new HashMap<>(historyByStation);
+        addedByStation.forEach((stationName, added) -> {
+            if (!stationNames.contains(stationName)) {
+                return;
+            }
+            long cutoff = StationHistory.toEpochSecond(nextLatest.get(stationName).getObservationTimestamp())
+                    - historyRetention.toSeconds();
+            nextHistory.put(stationName,
+                    nextHistory.getOrDefault(stationName, StationHistory.EMPTY).with(added, cutoff));
+        });
+
+        latestByStation = Map.copyOf(nextLatest);
+        historyByStation = Map.copyOf(nextHistory);
+        indexPositions(latestByStation);
     }
+
+    /**
+     * Rebuilds the indexes of the positions of the stations and the cities from the latest observations.
+     *
+     * @param latest The latest observation of every station.
+     */
+    private void indexPositions(Map<String, WeatherData> latest) {
+        List<WeatherData> stations = new ArrayList<>(latest.size());
+        for (WeatherData observation : latest.values()) {
+            if (observation.hasPosition()) {
+                stations.add(observation);
+            }
+        }
+
+        Map<String, WeatherData> stationByCity = new HashMap<>();
+        cityToStationMap.forEach((city, stationName) -> {
+            WeatherData observation = latest.get(stationName);
+            if (observation != null && observation.hasPosition()) {
+                stationByCity.put(city, observation);
+            }
+        });
+
+        stationIndex = GeoIndex.of(stations, WeatherData::getLatitude, WeatherData::getLongitude);
+        cityIndex = GeoIndex.of(stationByCity.keySet(),
+                city -> stationByCity.get(city).getLatitude(), city -> stationByCity.get(city).getLongitude());
+    }
+
+    /**
+     * Interpolates the weather at a location from its nearest stations, nearest first.
+     *
+     * @param neighbours The nearest stations and their distances from the location.
+     * @return The interpolated weather data, attributed to the nearest station.
+     */
+    private static WeatherData interpolate(List<GeoIndex.Neighbour<WeatherData>> neighbours) {
+        double totalWeight = 0;
+        double airTemperature = 0;
+        double windSpeed = 0;
+        LocalDateTime observationTimestamp = null;
+        for (GeoIndex.Neighbour<WeatherData> neighbour : neighbours) {
+            double weight = 1 / (neighbour.distanceKm() * neighbour.distanceKm());
+            WeatherData observation = neighbour.value();
+            totalWeight += weight;
+            airTemperature += weight * observation.getAirTemperature();
+            windSpeed += weight * observation.getWindSpeed();
+            if (observationTimestamp == null || observation.getObservationTimestamp().isBefore(observationTimestamp)) {
+                observationTimestamp = observation.getObservationTimestamp();
+            }
+        }
+
+        WeatherData nearest = neighbours.getFirst().value();
+        WeatherData interpolated = new WeatherData(nearest.getStationName(), nearest.getWMOCode(),
+                airTemperature / totalWeight, windSpeed / totalWeight, nearest.getWeatherPhenomenon(), observationTimestamp);
+        interpolated.setPosition(nearest.getLatitude(), nearest.getLongitude());
+        return interpolated;
+    }
+
+    /**
+     * Returns the names of the configured stations, including the fallback stations.
+     *
+     * @return The station names.
+     */
+    Set<String> stationNames() {
+        Set<String> stationNames = new HashSet<>(cityToStationMap.values());
+        stationNames.addAll(cityToFallbackStationMap.values());
+        return stationNames;
+    }
+
+    /**
+     * Returns the age of the latest observation of a station.
+     *
+     * @param stationName The name of the station.
+     * @return The age in seconds, or NaN if the station has no observation.
+     */
+    private double ageSeconds(String stationName) {
+        WeatherData latest = latestByStation.get(stationName);
+        if (latest == null) {
+            return Double.NaN;
+        }
+        return Instant.now().getEpochSecond() - StationHistory.toEpochSecond(latest.getObservationTimestamp());
+    }
+
 }
@@ -0,0 +1,301 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.exception.WeatherDataFetchException;
+import com.trial_task.food_delivery_fee.exception.WeatherDataParsingException;
+import com.trial_task.food_delivery_fee.model.WeatherData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import reactor.core.Exceptions;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Service class for fetching weather data from the {@link WeatherProvider}s and handing it to the
+ * {@link WeatherDataIngestService}.
+ * <p>
+ * The first fetch from the API runs in the background once the application is ready and is retried with exponential
+ * backoff, so a slow or failing upstream never delays startup.
+ * <p>
+ * When several providers are configured, they are fetched in parallel, each under its own timeout. The observations
+ * of every provider are ingested as soon as they arrive, keeping the freshest observation of every station, so a slow
+ * provider delays neither the others nor the snapshot swap.
+ */
+@Service
+public class WeatherDataUpdateService {
+    private static final Logger log = LoggerFactory.getLogger(WeatherDataUpdateService.class);
+    private final WeatherDataIngestService weatherDataIngestService;
+    private final WeatherDataFetcher weatherDataFetcher;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WeatherMetrics weatherMetrics;
+
+    @Value("${weatherdata.initialFetch.maxAttempts:5}")
+    private int initialFetchMaxAttempts = 5;
+
+    @Value("${weatherdata.initialFetch.backoff:PT2S}")
+    private Duration initialFetchBackoff = Duration.ofSeconds(2);
+
+    @Value("${weatherdata.initialFetch.maxBackoff:PT1M}")
+    private Duration initialFetchMaxBackoff = Duration.ofMinutes(1);
+
+    @Value("${weatherdata.provider.timeout:PT30S}")
+    private Duration providerTimeout = Duration.ofSeconds(30);
+
+    private List<WeatherProvider> weatherProviders;
+    private Executor taskExecutor = Runnable::run;
+    private TaskScheduler retryScheduler;
+    private ReactiveWeatherDataFetcher reactiveWeatherDataFetcher;
+    private volatile boolean updated;
+
+    /**
+     * Constructor for the WeatherDataUpdateService class.
+     *
+     * @param weatherDataIngestService The service ingesting the fetched observations.
+     * @param weatherDataFetcher       The service for fetching weather data.
+     * @param eventPublisher           The publisher used to announce weather updates.
+     * @param weatherMetrics           The meters of the weather data ingestion.
+     */
+    public WeatherDataUpdateService(WeatherDataIngestService weatherDataIngestService,
+                                    WeatherDataFetcher weatherDataFetcher,
+                                    ApplicationEventPublisher eventPublisher,
+                                    WeatherMetrics weatherMetrics) {
+        this.weatherDataIngestService = weatherDataIngestService;
+        this.weatherDataFetcher = weatherDataFetcher;
+        this.eventPublisher = eventPublisher;
+        this.weatherMetrics = weatherMetrics;
+        this.weatherProviders = Collections.singletonList(weatherDataFetcher);
+        weatherMetrics.registerProviders(Collections.singletonList(weatherDataFetcher.getName()));
+    }
+
+    /**
+     * Sets the executor that runs the attempts of the initial fetch and the parallel fetches of the weather providers.
+     *
+     * @param applicationTaskExecutor The application task executor, which runs tasks on virtual threads when they are enabled.
+     */
+    @Autowired
+    public void setTaskExecutor(
+            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) TaskExecutor applicationTaskExecutor) {
+        this.taskExecutor = applicationTaskExecutor;
+    }
+
+    /**
+     * Sets the weather providers to fetch from, which include the weather API.
+     *
+     * @param weatherProviders The weather providers.
+     */
+    @Autowired
+    public void setWeatherProviders(List<WeatherProvider> weatherProviders) {
+        this.weatherProviders = List.copyOf(weatherProviders);
+        weatherMetrics.registerProviders(weatherProviders.stream().map(WeatherProvider::getName).toList());
+    }
+
+    /**
+     * Sets the scheduler that delays the retries of a failed initial fetch.
+     *
+     * @param taskScheduler The scheduler. Without one, a failed initial fetch is not retried.
+     */
+    @Autowired
+    public void setRetryScheduler(TaskScheduler taskScheduler) {
+        this.retryScheduler = taskScheduler;
+    }
+
+    /**
+     * Sets the WebClient based fetcher, which replaces the blocking fetcher on the reactive stack.
+     *
+     * @param reactiveWeatherDataFetcher The reactive fetcher.
+     */
+    @Autowired(required = false)
+    public void setReactiveWeatherDataFetcher(ReactiveWeatherDataFetcher reactiveWeatherDataFetcher) {
+        this.reactiveWeatherDataFetcher = reactiveWeatherDataFetcher;
+    }
+
+    /**
+     * Updates the weather data by fetching new data from the weather providers and ingesting the new observations.
+     * A {@link WeatherDataUpdatedEvent} is published after the observations of each provider have been ingested,
+     * unless the payload contained no new observations.
+     *
+     * @throws WeatherDataParsingException If there is an error parsing the weather data of every provider.
+     * @throws WeatherDataFetchException   If there is an error fetching the weather data of every provider.
+     */
+    public void updateWeatherData() throws WeatherDataParsingException, WeatherDataFetchException {
+        List<WeatherData> newObservations = weatherProviders.size() == 1
+                ? fetchAndIngest(weatherProviders.getFirst())
+                : fetchAndIngestInParallel();
+        if (newObservations.isEmpty()) {
+            log.info("Weather data unchanged since the last update");
+        }
+    }
+
+    /**
+     * Starts the initial fetch from the API in the background once the application is ready to serve traffic.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void fetchInitialWeatherData() {
+        log.info("Fetching initial weather data...");
+        taskExecutor.execute(() -> attemptInitialFetch(1));
+    }
+
+    /**
+     * Fetches the weather data of a provider, ingests it and publishes the new observations.
+     *
+     * @param provider The weather provider.
+     * @return The observations that were new.
+     */
+    private List<WeatherData> fetchAndIngest(WeatherProvider provider) throws WeatherDataParsingException, WeatherDataFetchException {
+        long start = System.nanoTime();
+        List<WeatherData> weatherDataList;
+        try {
+            weatherDataList = fetch(provider);
+        } catch (WeatherDataParsingException | WeatherDataFetchException | RuntimeException e) {
+            weatherMetrics.recordProviderFetch(provider.getName(), System.nanoTime() - start, false);
+            throw e;
+        }
+        weatherMetrics.recordProviderFetch(provider.getName(), System.nanoTime() - start, true);
+
+        List<WeatherData> newObservations;
+        try {
+            newObservations = weatherDataIngestService.ingest(weatherDataList);
+        } catch (RuntimeException e) {
+            // Otherwise the next fetch would be told that nothing has changed and the observations would be lost
+            discardValidators(provider);
+            throw e;
+        }
+        updated = true;
+        if (!newObservations.isEmpty()) {
+            eventPublisher.publishEvent(new WeatherDataUpdatedEvent(newObservations));
+        }
+        return newObservations;
+    }
+
+    private void discardValidators(WeatherProvider provider) {
+        provider.discardValidators();
+        if (provider == weatherDataFetcher && reactiveWeatherDataFetcher != null) {
+            reactiveWeatherDataFetcher.discardValidators();
+        }
+    }
+
+    /**
+     * Fetches and ingests the weather data of every provider in parallel. Providers that fail or exceed the timeout
+     * are logged and skipped; a provider that exceeds the timeout is no longer waited for, but its observations are
+     * still ingested if they arrive later.
+     *
+     * @return The observations that were new.
+     * @throws WeatherDataParsingException If the first provider failed with a parsing error and all providers failed.
+     * @throws WeatherDataFetchException   If all providers failed otherwise.
+     */
+    private List<WeatherData> fetchAndIngestInParallel() throws WeatherDataParsingException, WeatherDataFetchException {
+        Map<WeatherProvider, CompletableFuture<List<WeatherData>>> fetches = new LinkedHashMap<>();
+        for (WeatherProvider provider : weatherProviders) {
+            CompletableFuture<List<WeatherData>> fetch = new CompletableFuture<>();
+            taskExecutor.execute(() -> {
+                try {
+                    fetch.complete(fetchAndIngest(provider));
+                } catch (Exception e) {
+                    fetch.completeExceptionally(e);
+                }
+            });
+            fetches.put(provider, fetch.orTimeout(providerTimeout.toMillis(), TimeUnit.MILLISECONDS));
+        }
+
+        List<WeatherData> newObservations = new ArrayList<>();
+        Throwable firstFailure = null;
+        int failures = 0;
+        for (Map.Entry<WeatherProvider, CompletableFuture<List<WeatherData>>> fetch : fetches.entrySet()) {
+            try {
+                newObservations.addAll(fetch.getValue().join());
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                log.warn("Weather provider {} failed: {}", fetch.getKey().getName(),
+                        cause instanceof TimeoutException ? "no response within " + providerTimeout : cause.getMessage());
+                if (firstFailure == null) {
+                    firstFailure = cause;
+                }
+                failures++;
+            }
+        }
+
+        if (failures < fetches.size()) {
+            return newObservations;
+        }
+        if (firstFailure instanceof WeatherDataParsingException parsingException) {
+            throw parsingException;
+        }
+        if (firstFailure instanceof WeatherDataFetchException fetchException) {
+            throw fetchException;
+        }
+        throw new WeatherDataFetchException("Error fetching weather data: " + firstFailure.getMessage());
+    }
+
+    /**
+     * Fetches the weather data of a provider. The weather API is fetched with the reactive fetcher if there is one.
+     * Updates never run on an event loop, so waiting for the reactive fetch is safe.
+     */
+    private List<WeatherData> fetch(WeatherProvider provider) throws WeatherDataParsingException, WeatherDataFetchException {
+        if (provider != weatherDataFetcher || reactiveWeatherDataFetcher == null) {
+            return provider.fetchWeatherData();
+        }
+
+        try {
+            return reactiveWeatherDataFetcher.fetchWeatherData().block();
+        } catch (RuntimeException e) {
+            Throwable cause = Exceptions.unwrap(e);
+            if (cause instanceof WeatherDataParsingException parsingException) {
+                throw parsingException;
+            }
+            if (cause instanceof WeatherDataFetchException fetchException) {
+                throw fetchException;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Makes one attempt of the initial fetch and schedules the next one with exponential backoff if it fails.
+     * Retries stop once the attempts are used up or an update has succeeded in the meantime.
+     *
+     * @param attempt The number of the attempt, starting at 1.
+     */
+    private void attemptInitialFetch(int attempt) {
+        if (attempt > 1 && updated) {
+            return;
+        }
+
+        try {
+            updateWeatherData();
+            log.info("Initial weather data fetch successful");
+        } catch (WeatherDataParsingException | WeatherDataFetchException | RuntimeException e) {
+            if (attempt >= initialFetchMaxAttempts || retryScheduler == null) {
+                log.error("Initial weather data fetch failed after {} attempt(s): {}", attempt, e.getMessage());
+                return;
+            }
+
+            Duration backoff = initialFetchBackoff.multipliedBy(1L << Math.min(attempt - 1, 30));
+            if (backoff.compareTo(initialFetchMaxBackoff) > 0) {
+                backoff = initialFetchMaxBackoff;
+            }
+            log.warn("Initial weather data fetch attempt {} failed, retrying in {}: {}", attempt, backoff, e.getMessage());
+            retryScheduler.schedule(() -> taskExecutor.execute(() -> attemptInitialFetch(attempt + 1)),
+                    Instant.now().plus(backoff));
+        }
+    }
+}
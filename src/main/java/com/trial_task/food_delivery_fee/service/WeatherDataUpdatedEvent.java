@@ -0,0 +1,13 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.model.WeatherData;
+
+import java.util.List;
+
+/**
+ * Event published by {@link WeatherDataUpdateService} after new observations have been swapped into the latest snapshot.
+ *
+ * @param observations The observations that were added to the snapshot.
+ */
+public record WeatherDataUpdatedEvent(List<WeatherData> observations) {
+}
@@ -0,0 +1,86 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.model.WeatherData;
+import com.trial_task.food_delivery_fee.repository.WeatherDataRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service class for loading the observations that warm the in-memory snapshot of the {@link WeatherDataService} at
+ * startup, so that fees can be served before the first fetch from the API completes.
+ * <p>
+ * The persisted history within the retention window is read from the database and completed with the latest
+ * observation from the snapshot file, if one is configured, when it is newer than that history.
+ */
+@Service
+public class WeatherDataWarmupService {
+    private static final Logger log = LoggerFactory.getLogger(WeatherDataWarmupService.class);
+    private final WeatherDataRepository weatherDataRepository;
+
+    private WeatherSnapshotFile snapshotFile;
+
+    /**
+     * Constructor for the WeatherDataWarmupService class.
+     *
+     * @param weatherDataRepository The repository holding the persisted history.
+     */
+    public WeatherDataWarmupService(WeatherDataRepository weatherDataRepository) {
+        this.weatherDataRepository = weatherDataRepository;
+    }
+
+    /**
+     * Sets the snapshot file that the latest observations are read from at startup.
+     *
+     * @param snapshotFile The snapshot file.
+     */
+    @Autowired(required = false)
+    public void setSnapshotFile(WeatherSnapshotFile snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    /**
+     * Loads the persisted history of every station from the given time on, together with the latest observation from
+     * the snapshot file when it is newer than that history. Stations without either are warmed with their latest
+     * persisted observation. Stations in the snapshot file that are not given are ignored.
+     *
+     * @param stationNames The names of the configured stations.
+     * @param from         The start of the retention window.
+     * @return The observations to publish.
+     */
+    public List<WeatherData> load(Collection<String> stationNames, LocalDateTime from) {
+        Map<String, WeatherData> saved = new HashMap<>();
+        if (snapshotFile != null) {
+            for (WeatherData observation : snapshotFile.read()) {
+                saved.put(observation.getStationName(), observation);
+            }
+            log.info("Read {} observation(s) from the weather snapshot file", saved.size());
+        }
+
+        List<WeatherData> persisted = new ArrayList<>();
+        for (String stationName : stationNames) {
+            List<WeatherData> recent = weatherDataRepository
+                    .findByStationNameAndObservationTimestampGreaterThanEqualOrderByObservationTimestampAsc(stationName, from);
+            persisted.addAll(recent);
+
+            WeatherData latest = saved.get(stationName);
+            if (latest != null) {
+                if (recent.isEmpty() || latest.getObservationTimestamp().isAfter(recent.getLast().getObservationTimestamp())) {
+                    persisted.add(latest);
+                }
+            } else if (recent.isEmpty()) {
+                weatherDataRepository.findFirstByStationNameOrderByObservationTimestampDesc(stationName)
+                        .ifPresent(persisted::add);
+            }
+        }
+        return persisted;
+    }
+}
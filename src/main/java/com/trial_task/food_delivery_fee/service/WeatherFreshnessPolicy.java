@@ -0,0 +1,104 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.model.WeatherData;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Service class holding the maximum age of the latest weather data of every city and what to do when it is exceeded.
+ * <p>
+ * The check compares the observation time of the in-memory latest observation with the current time, so it costs
+ * no query. Cities without their own settings use the defaults.
+ */
+@Service
+public class WeatherFreshnessPolicy {
+
+    /**
+     * What to do when the latest weather data of a city is older than its maximum age.
+     */
+    public enum StaleAction {
+        /** Calculate the fee from the stale data and flag the response as stale. */
+        SERVE_STALE,
+        /** Calculate the fee from the fallback station of the city if its data is fresh, otherwise reject. */
+        FALLBACK_STATION,
+        /** Reject the request with 503 Service Unavailable. */
+        REJECT
+    }
+
+    private final long defaultMaxAgeSeconds;
+    private final StaleAction defaultAction;
+    private final Map<String, Long> maxAgeSecondsByCity = new HashMap<>();
+    private final Map<String, StaleAction> actionByCity = new HashMap<>();
+
+    /**
+     * Constructor for the WeatherFreshnessPolicy class.
+     *
+     * @param maxAge       The default maximum age of the latest weather data.
+     * @param action       The default action when the maximum age is exceeded.
+     * @param maxAgeByCity The maximum age of the cities that override the default, as ISO-8601 durations.
+     * @param actionByCity The action of the cities that override the default.
+     */
+    @Autowired
+    public WeatherFreshnessPolicy(@Value("${weatherdata.staleness.maxAge:PT3H}") Duration maxAge,
+                                  @Value("${weatherdata.staleness.action:SERVE_STALE}") String action,
+                                  @Value("#{${weatherdata.staleness.maxAgeByCity:{:}}}") Map<String, String> maxAgeByCity,
+                                  @Value("#{${weatherdata.staleness.actionByCity:{:}}}") Map<String, String> actionByCity) {
+        this.defaultMaxAgeSeconds = maxAge.toSeconds();
+        this.defaultAction = parseAction(action);
+        maxAgeByCity.forEach((city, cityMaxAge) -> maxAgeSecondsByCity.put(city, Duration.parse(cityMaxAge.trim()).toSeconds()));
+        actionByCity.forEach((city, cityAction) -> this.actionByCity.put(city, parseAction(cityAction)));
+    }
+
+    /**
+     * Constructor for a policy that applies the same settings to every city.
+     *
+     * @param maxAge The maximum age of the latest weather data.
+     * @param action The action when the maximum age is exceeded.
+     */
+    public WeatherFreshnessPolicy(Duration maxAge, StaleAction action) {
+        this(maxAge, action.name(), Map.of(), Map.of());
+    }
+
+    /**
+     * Returns the action of a city when its latest weather data is older than the maximum age.
+     *
+     * @param city The city.
+     * @return The stale action of the city.
+     */
+    public StaleAction staleAction(String city) {
+        return actionByCity.getOrDefault(city, defaultAction);
+    }
+
+    /**
+     * Returns the time until which weather data remains fresh for a city.
+     *
+     * @param city        The city.
+     * @param weatherData The weather data.
+     * @return The epoch second after which the weather data is stale.
+     */
+    public long freshUntil(String city, WeatherData weatherData) {
+        return StationHistory.toEpochSecond(weatherData.getObservationTimestamp())
+                + maxAgeSecondsByCity.getOrDefault(city, defaultMaxAgeSeconds);
+    }
+
+    /**
+     * Tells whether weather data is recent enough to calculate the fees of a city.
+     *
+     * @param city        The city.
+     * @param weatherData The weather data.
+     * @return True if the weather data is not older than the maximum age of the city.
+     */
+    public boolean isFresh(String city, WeatherData weatherData) {
+        return System.currentTimeMillis() / 1000 <= freshUntil(city, weatherData);
+    }
+
+    private static StaleAction parseAction(String action) {
+        return StaleAction.valueOf(action.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,163 @@
+package com.trial_task.food_delivery_fee.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters of the weather data ingestion: fetching and parsing the feed, the fetches of every weather provider,
+ * persisting new observations and the age of the latest observation of every station.
+ * <p>
+ * The fetch timers of the weather providers are registered when the providers are, so recording a fetch only looks
+ * its timer up.
+ */
+@Component
+public class WeatherMetrics {
+    static final String PROVIDER_FETCH = "weather.provider.fetch";
+
+    private final MeterRegistry registry;
+    private final Timer httpTimer;
+    private final DistributionSummary payloadSummary;
+    private final Timer parseTimer;
+    private final Counter keptStations;
+    private final Counter droppedStations;
+    private final Timer persistTimer;
+    private final Counter rowsWritten;
+    private final Map<String, ProviderTimers> providerTimers = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for the WeatherMetrics class.
+     *
+     * @param registry The registry the meters are registered in.
+     */
+    public WeatherMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.httpTimer = Timer.builder("weather.fetch.http")
+                .description("Time until the response headers of the weather feed are received")
+                .register(registry);
+        this.payloadSummary = DistributionSummary.builder("weather.fetch.payload")
+                .description("Size of the decoded weather feed")
+                .baseUnit("bytes")
+                .register(registry);
+        this.parseTimer = Timer.builder("weather.fetch.parse")
+                .description("Time spent reading and parsing the weather feed")
+                .register(registry);
+        this.keptStations = stationCounter("kept");
+        this.droppedStations = stationCounter("dropped");
+        this.persistTimer = Timer.builder("weather.update.persist")
+                .description("Time spent saving new observations")
+                .register(registry);
+        this.rowsWritten = Counter.builder("weather.update.rows")
+                .description("Observations written to the database")
+                .register(registry);
+    }
+
+    /**
+     * Records the latency of a request to the weather feed.
+     *
+     * @param elapsedNanos The time until the response headers were received.
+     */
+    public void recordHttp(long elapsedNanos) {
+        httpTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a parsed weather feed.
+     *
+     * @param elapsedNanos  The time spent reading and parsing the feed.
+     * @param payloadBytes  The size of the decoded feed.
+     * @param keptStations  The number of stations that are configured and were kept.
+     * @param totalStations The number of stations in the feed.
+     */
+    public void recordParse(long elapsedNanos, long payloadBytes, int keptStations, int totalStations) {
+        parseTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        payloadSummary.record(payloadBytes);
+        this.keptStations.increment(keptStations);
+        droppedStations.increment(Math.max(totalStations - keptStations, 0));
+    }
+
+    /**
+     * Registers the fetch timers of the weather providers.
+     *
+     * @param providers The names of the providers.
+     */
+    public void registerProviders(Collection<String> providers) {
+        for (String provider : providers) {
+            providerTimers.computeIfAbsent(provider, this::registerProvider);
+        }
+    }
+
+    /**
+     * Records a fetch from a weather provider.
+     *
+     * @param provider     The name of the provider.
+     * @param elapsedNanos The time spent fetching.
+     * @param success      Whether the fetch succeeded.
+     */
+    public void recordProviderFetch(String provider, long elapsedNanos, boolean success) {
+        ProviderTimers timers = providerTimers.get(provider);
+        if (timers == null) {
+            timers = providerTimers.computeIfAbsent(provider, this::registerProvider);
+        }
+        (success ? timers.success() : timers.failure()).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records that new observations were saved.
+     *
+     * @param elapsedNanos The time spent saving them.
+     * @param rows         The number of observations saved.
+     */
+    public void recordPersist(long elapsedNanos, int rows) {
+        persistTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        rowsWritten.increment(rows);
+    }
+
+    /**
+     * Registers the gauge of the age of the latest observation of a station.
+     *
+     * @param stationName The name of the station.
+     * @param ageSeconds  The supplier of the age in seconds, or NaN while the station has no observation.
+     */
+    public void registerDataAge(String stationName, Supplier<Number> ageSeconds) {
+        Gauge.builder("weather.data.age", ageSeconds)
+                .description("Age of the latest observation of a station")
+                .baseUnit("seconds")
+                .tag("station", stationName)
+                .register(registry);
+    }
+
+    private ProviderTimers registerProvider(String provider) {
+        return new ProviderTimers(providerTimer(provider, "success"), providerTimer(provider, "failure"));
+    }
+
+    private Timer providerTimer(String provider, String result) {
+        return Timer.builder(PROVIDER_FETCH)
+                .description("Time spent fetching from a weather provider")
+                .tag("provider", provider)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private Counter stationCounter(String result) {
+        return Counter.builder("weather.fetch.stations")
+                .description("Stations in the weather feed that were kept or dropped")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * Fetch timers of a weather provider by result.
+     */
+    private record ProviderTimers(Timer success, Timer failure) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.exception.WeatherDataFetchException;
+import com.trial_task.food_delivery_fee.exception.WeatherDataParsingException;
+import com.trial_task.food_delivery_fee.model.WeatherData;
+
+import java.util.List;
+
+/**
+ * Source of weather observations. {@link WeatherDataUpdateService} fetches all providers in parallel and merges their
+ * observations per station, keeping the freshest.
+ */
+public interface WeatherProvider {
+
+    /**
+     * Returns the name of the provider, used in logs and metrics.
+     *
+     * @return The provider name.
+     */
+    String getName();
+
+    /**
+     * Fetches the current observations of the configured stations.
+     *
+     * @return A list of WeatherData objects, or an empty list if the source has not changed since the last fetch.
+     * @throws WeatherDataParsingException If there is an error parsing the weather data.
+     * @throws WeatherDataFetchException   If there is an error fetching the weather data.
+     */
+    List<WeatherData> fetchWeatherData() throws WeatherDataParsingException, WeatherDataFetchException;
+
+    /**
+     * Forgets the validators of the last response, so that the next fetch returns the current observations even if
+     * the source has not changed. Called when the fetched observations could not be ingested.
+     */
+    default void discardValidators() {
+    }
+}
@@ -0,0 +1,169 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.model.WeatherData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary snapshot of the latest observation of every station, used to warm the in-memory snapshot at
+ * startup without the network.
+ * <p>
+ * The file is replaced atomically after every update and memory-mapped when it is read. It consists of a magic
+ * number, the number of observations, the observations and a CRC32 checksum of everything before it.
+ * Each observation holds the station name, WMO code, air temperature, wind speed, weather phenomenon, station
+ * position and observation time. Strings are stored as a length prefixed UTF-8 sequence, with a length of -1 for
+ * null, and an unknown position as NaN. Files of an earlier format are ignored.
+ */
+@Component
+@ConditionalOnProperty("weatherdata.snapshot.file")
+public class WeatherSnapshotFile {
+    private static final Logger log = LoggerFactory.getLogger(WeatherSnapshotFile.class);
+    private static final int MAGIC = 0x57445332;
+
+    private final Path path;
+
+    /**
+     * Constructor for the WeatherSnapshotFile class.
+     *
+     * @param path The location of the snapshot file.
+     */
+    public WeatherSnapshotFile(@Value("${weatherdata.snapshot.file}") Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Replaces the snapshot file with the given observations. The file is written to a temporary file next to it
+     * first and moved into place, so readers never see a partially written snapshot. Failures are logged, since
+     * the snapshot is only an optimization of startup.
+     *
+     * @param observations The latest observation of every station.
+     */
+    public void write(Collection<WeatherData> observations) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * (observations.size() + 1));
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(observations.size());
+            for (WeatherData observation : observations) {
+                writeString(out, observation.getStationName());
+                writeString(out, observation.getWMOCode());
+                out.writeDouble(observation.getAirTemperature());
+                out.writeDouble(observation.getWindSpeed());
+                writeString(out, observation.getWeatherPhenomenon());
+                out.writeDouble(observation.hasPosition() ? observation.getLatitude() : Double.NaN);
+                out.writeDouble(observation.hasPosition() ? observation.getLongitude() : Double.NaN);
+                out.writeLong(observation.getObservationTimestamp().toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(observation.getObservationTimestamp().getNano());
+            }
+            CRC32 checksum = new CRC32();
+            checksum.update(bytes.toByteArray());
+            out.writeLong(checksum.getValue());
+
+            Path directory = path.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(bytes.toByteArray()));
+                channel.force(true);
+                Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to write the weather snapshot file {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the snapshot file by memory-mapping it.
+     *
+     * @return The observations in the snapshot, or an empty list if there is no snapshot or it is not valid.
+     */
+    public List<WeatherData> read() {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return parse(buffer);
+        } catch (NoSuchFileException e) {
+            return List.of();
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            log.warn("Ignoring the unreadable weather snapshot file {}: {}", path, e.toString());
+            return List.of();
+        }
+    }
+
+    private static List<WeatherData> parse(ByteBuffer buffer) {
+        if (buffer.remaining() < Long.BYTES || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a weather snapshot file");
+        }
+
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.slice(0, buffer.limit() - Long.BYTES));
+        if (checksum.getValue() != buffer.getLong(buffer.limit() - Long.BYTES)) {
+            throw new IllegalArgumentException("Checksum mismatch");
+        }
+
+        int count = buffer.getInt();
+        List<WeatherData> observations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String stationName = readString(buffer);
+            String wmoCode = readString(buffer);
+            double airTemperature = buffer.getDouble();
+            double windSpeed = buffer.getDouble();
+            String weatherPhenomenon = readString(buffer);
+            double latitude = buffer.getDouble();
+            double longitude = buffer.getDouble();
+            LocalDateTime observationTimestamp =
+                    LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+            WeatherData observation = new WeatherData(stationName, wmoCode, airTemperature, windSpeed,
+                    weatherPhenomenon, observationTimestamp);
+            if (!Double.isNaN(latitude) && !Double.isNaN(longitude)) {
+                observation.setPosition(latitude, longitude);
+            }
+            observations.add(observation);
+        }
+        return observations;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
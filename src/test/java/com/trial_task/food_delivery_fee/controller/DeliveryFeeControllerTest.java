@@ -1,19 +1,36 @@
 package com.trial_task.food_delivery_fee.controller;
 
-import com.trial_task.food_delivery_fee.exception.ForbiddenCityException;
-import com.trial_task.food_delivery_fee.exception.ForbiddenVehicleTypeException;
-import com.trial_task.food_delivery_fee.exception.WeatherDataFetchException;
 import com.trial_task.food_delivery_fee.model.DeliveryFee;
 import com.trial_task.food_delivery_fee.service.DeliveryFeeService;
+import com.trial_task.food_delivery_fee.service.FeeMatrix;
+import com.trial_task.food_delivery_fee.service.FeeMatrixService;
+import com.trial_task.food_delivery_fee.service.FeeMatrixUpdate;
+import com.trial_task.food_delivery_fee.service.FeeOutcome;
+import com.trial_task.food_delivery_fee.service.RejectionReason;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
 
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
@@ -26,13 +43,16 @@ public class DeliveryFeeControllerTest {
     @MockBean
     private DeliveryFeeService deliveryFeeService;
 
+    @MockBean
+    private FeeMatrixService feeMatrixService;
+
     @Test
     void testCalculateDeliveryFee_ShouldReturnOkResponse() throws Exception {
         String city = "Tallinn";
         String vehicleType = "car";
 
         DeliveryFee deliveryFee = new DeliveryFee(city, vehicleType, 4.0, 0.5, 1.0, 0.3);
-        when(deliveryFeeService.calculateFee(city, vehicleType)).thenReturn(deliveryFee);
+        when(deliveryFeeService.evaluate(city, vehicleType, null)).thenReturn(new FeeOutcome.Calculated(deliveryFee));
 
         mockMvc.perform(get("/deliveryFee")
                         .param("city", city)
@@ -45,7 +65,8 @@ public class DeliveryFeeControllerTest {
                 .andExpect(jsonPath("$.deliveryFee.airTemperatureExtraFee").value(0.5))
                 .andExpect(jsonPath("$.deliveryFee.windSpeedExtraFee").value(1.0))
                 .andExpect(jsonPath("$.deliveryFee.weatherPhenomenonExtraFee").value(0.3))
-                .andExpect(jsonPath("$.deliveryFee.totalFee").value(5.8));
+                .andExpect(jsonPath("$.deliveryFee.totalFee").value(5.8))
+                .andExpect(jsonPath("$.stale").doesNotExist());
     }
 
     @Test
@@ -53,8 +74,8 @@ public class DeliveryFeeControllerTest {
         String city = "Tallinn";
         String vehicleType = "unknownVehicle";
 
-        when(deliveryFeeService.calculateFee(city, vehicleType))
-                .thenThrow(new ForbiddenVehicleTypeException("Vehicle type not supported"));
+        when(deliveryFeeService.evaluate(city, vehicleType, null))
+                .thenReturn(new FeeOutcome.Rejected(RejectionReason.INVALID_VEHICLE_TYPE, "Vehicle type not supported"));
 
         mockMvc.perform(get("/deliveryFee")
                         .param("city", city)
@@ -68,8 +89,8 @@ public class DeliveryFeeControllerTest {
         String city = "UnknownCity";
         String vehicleType = "car";
 
-        when(deliveryFeeService.calculateFee(city, vehicleType))
-                .thenThrow(new ForbiddenCityException("City not supported"));
+        when(deliveryFeeService.evaluate(city, vehicleType, null))
+                .thenReturn(new FeeOutcome.Rejected(RejectionReason.INVALID_CITY, "City not supported"));
 
         mockMvc.perform(get("/deliveryFee")
                         .param("city", city)
@@ -83,8 +104,8 @@ public class DeliveryFeeControllerTest {
         String city = "Tallinn";
         String vehicleType = "car";
 
-        when(deliveryFeeService.calculateFee(city, vehicleType))
-                .thenThrow(new WeatherDataFetchException("No weather data available"));
+        when(deliveryFeeService.evaluate(city, vehicleType, null))
+                .thenReturn(new FeeOutcome.Rejected(RejectionReason.WEATHER_DATA_UNAVAILABLE, "No weather data available"));
 
         mockMvc.perform(get("/deliveryFee")
                         .param("city", city)
@@ -93,4 +114,216 @@ public class DeliveryFeeControllerTest {
                 .andExpect(jsonPath("$.status").value("ERROR - No weather data available"));
     }
 
+    @Test
+    void testCalculateDeliveryFee_ShouldFlagStaleFee() throws Exception {
+        String city = "Tallinn";
+        String vehicleType = "car";
+
+        DeliveryFee deliveryFee = new DeliveryFee(city, vehicleType, 4.0, 0.0, 0.0, 0.0);
+        when(deliveryFeeService.evaluate(city, vehicleType, null)).thenReturn(new FeeOutcome.Calculated(deliveryFee, true));
+
+        mockMvc.perform(get("/deliveryFee")
+                        .param("city", city)
+                        .param("vehicleType", vehicleType))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("OK"))
+                .andExpect(jsonPath("$.stale").value(true));
+    }
+
+    @Test
+    void testCalculateDeliveryFee_ShouldReturnServiceUnavailable_WhenWeatherDataStale() throws Exception {
+        String city = "Tallinn";
+        String vehicleType = "car";
+
+        when(deliveryFeeService.evaluate(city, vehicleType, null))
+                .thenReturn(new FeeOutcome.Rejected(RejectionReason.WEATHER_DATA_STALE, "Weather data is out of date for the city: Tallinn"));
+
+        mockMvc.perform(get("/deliveryFee")
+                        .param("city", city)
+                        .param("vehicleType", vehicleType))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.status").value("ERROR - Weather data is out of date for the city: Tallinn"));
+    }
+
+    @Test
+    void testCalculateDeliveryFee_ShouldServePrecomputedFee() throws Exception {
+        String city = "Tartu";
+        String vehicleType = "bike";
+
+        DeliveryFee deliveryFee = new DeliveryFee(city, vehicleType, 2.5, 0.5, 0.0, 1.0);
+        when(feeMatrixService.lookup(city, vehicleType)).thenReturn(new FeeOutcome.Calculated(deliveryFee));
+
+        mockMvc.perform(get("/deliveryFee")
+                        .param("city", city)
+                        .param("vehicleType", vehicleType))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("OK"))
+                .andExpect(jsonPath("$.deliveryFee.totalFee").value(4.0));
+
+        verify(deliveryFeeService, never()).evaluate(anyString(), anyString(), any());
+    }
+
+    @Test
+    void testCalculateDeliveryFee_ShouldSetEntityTagAndCacheControl() throws Exception {
+        String city = "Tallinn";
+        String vehicleType = "car";
+
+        DeliveryFee deliveryFee = new DeliveryFee(city, vehicleType, 4.0, 0.0, 0.0, 0.0);
+        when(deliveryFeeService.latestInputsVersion(city, vehicleType)).thenReturn("0123abcd");
+        when(feeMatrixService.lookup(city, vehicleType)).thenReturn(new FeeOutcome.Calculated(deliveryFee));
+        when(deliveryFeeService.freshUntilMillis(city)).thenReturn(Long.MAX_VALUE);
+
+        mockMvc.perform(get("/deliveryFee")
+                        .param("city", city)
+                        .param("vehicleType", vehicleType))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0123abcd\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, public"));
+    }
+
+    @Test
+    void testCalculateDeliveryFee_ShouldReturnNotModified_WhenEntityTagMatches() throws Exception {
+        String city = "Tallinn";
+        String vehicleType = "car";
+
+        when(deliveryFeeService.latestInputsVersion(city, vehicleType)).thenReturn("0123abcd");
+        when(deliveryFeeService.freshUntilMillis(city)).thenReturn(Long.MAX_VALUE);
+
+        mockMvc.perform(get("/deliveryFee")
+                        .param("city", city)
+                        .param("vehicleType", vehicleType)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0123abcd\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0123abcd\""))
+                .andExpect(content().string(""));
+
+        verify(feeMatrixService, never()).lookup(anyString(), anyString());
+        verify(deliveryFeeService, never()).evaluate(anyString(), anyString(), any());
+    }
+
+    @Test
+    void testCalculateDeliveryFee_ShouldNotCacheRejections() throws Exception {
+        String city = "Tallinn";
+        String vehicleType = "bike";
+
+        when(deliveryFeeService.latestInputsVersion(city, vehicleType)).thenReturn("0123abcd");
+        when(feeMatrixService.lookup(city, vehicleType)).thenReturn(FeeOutcome.VEHICLE_FORBIDDEN);
+
+        mockMvc.perform(get("/deliveryFee")
+                        .param("city", city)
+                        .param("vehicleType", vehicleType))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void testCalculateDeliveryFee_ShouldServePrecomputedRejection() throws Exception {
+        String city = "Tartu";
+        String vehicleType = "bike";
+
+        when(feeMatrixService.lookup(city, vehicleType))
+                .thenReturn(FeeOutcome.VEHICLE_FORBIDDEN);
+
+        mockMvc.perform(get("/deliveryFee")
+                        .param("city", city)
+                        .param("vehicleType", vehicleType))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value("ERROR - Usage of selected vehicle type is forbidden"));
+    }
+
+    @Test
+    void testCalculateDeliveryFee_ShouldCalculateAtGivenTime() throws Exception {
+        String city = "Tallinn";
+        String vehicleType = "bike";
+        LocalDateTime dateTime = LocalDateTime.of(2025, 3, 23, 12, 0);
+
+        DeliveryFee deliveryFee = new DeliveryFee(city, vehicleType, 3.0, 1.0, 0.0, 0.0);
+        when(deliveryFeeService.evaluate(city, vehicleType, dateTime)).thenReturn(new FeeOutcome.Calculated(deliveryFee));
+
+        mockMvc.perform(get("/deliveryFee")
+                        .param("city", city)
+                        .param("vehicleType", vehicleType)
+                        .param("dateTime", "2025-03-23T12:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deliveryFee.totalFee").value(4.0));
+
+        verify(feeMatrixService, never()).lookup(anyString(), anyString());
+    }
+
+    @Test
+    void testCalculateDeliveryFees_ShouldReturnResultPerItem() throws Exception {
+        DeliveryFee deliveryFee = new DeliveryFee("Tallinn", "car", 4.0, 0.0, 0.0, 0.0);
+        when(deliveryFeeService.calculateFees(anyList())).thenReturn(List.of(
+                new FeeOutcome.Calculated(deliveryFee),
+                FeeOutcome.invalidCity("UnknownCity"),
+                FeeOutcome.weatherDataUnavailable("Tartu")));
+
+        mockMvc.perform(post("/deliveryFee/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [{"city":"Tallinn","vehicleType":"car"},
+                                 {"city":"UnknownCity","vehicleType":"car"},
+                                 {"city":"Tartu","vehicleType":"bike"}]"""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].status").value("OK"))
+                .andExpect(jsonPath("$[0].deliveryFee.totalFee").value(4.0))
+                .andExpect(jsonPath("$[1].status").value("ERROR - Invalid city: UnknownCity"))
+                .andExpect(jsonPath("$[2].status").value("ERROR - No weather data available for the city: Tartu"));
+    }
+
+    @Test
+    void testCalculateDeliveryFeeAt_ShouldReturnFeeOfNearestCity() throws Exception {
+        DeliveryFee deliveryFee = new DeliveryFee("Tallinn", "scooter", 3.5, 0.5, 0.0, 0.0);
+        when(deliveryFeeService.evaluateAt(59.437, 24.754, "scooter")).thenReturn(new FeeOutcome.Calculated(deliveryFee));
+
+        mockMvc.perform(get("/deliveryFee/location")
+                        .param("latitude", "59.437")
+                        .param("longitude", "24.754")
+                        .param("vehicleType", "scooter"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deliveryFee.city").value("Tallinn"))
+                .andExpect(jsonPath("$.deliveryFee.totalFee").value(4.0));
+    }
+
+    @Test
+    void testCalculateDeliveryFeeAt_ShouldReturnBadRequest_WhenNoCityNearby() throws Exception {
+        when(deliveryFeeService.evaluateAt(52.52, 13.4, "car")).thenReturn(FeeOutcome.invalidLocation(52.52, 13.4));
+
+        mockMvc.perform(get("/deliveryFee/location")
+                        .param("latitude", "52.52")
+                        .param("longitude", "13.4")
+                        .param("vehicleType", "car"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value("ERROR - No supported city near the location: 52.52, 13.4"));
+    }
+
+    @Test
+    void testStreamFeeMatrix_ShouldSendMatrixAsEvents() throws Exception {
+        DeliveryFee deliveryFee = new DeliveryFee("Tartu", "bike", 2.5, 0.5, 0.0, 1.0);
+        when(feeMatrixService.updates()).thenReturn(Flux.just(
+                new FeeMatrixUpdate(true, List.of(new FeeMatrix.Cell("Tartu", "bike", new FeeOutcome.Calculated(deliveryFee)))),
+                new FeeMatrixUpdate(false, List.of(new FeeMatrix.Cell("Tartu", "bike", FeeOutcome.VEHICLE_FORBIDDEN)))));
+
+        MvcResult result = mockMvc.perform(get("/deliveryFee/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String events = result.getResponse().getContentAsString();
+        assertTrue(events.contains("event:matrix\ndata:[{\"city\":\"Tartu\",\"vehicleType\":\"bike\",\"response\":{\"status\":\"OK\""), events);
+        assertTrue(events.contains("event:changes\ndata:[{\"city\":\"Tartu\",\"vehicleType\":\"bike\",\"response\":{\"status\":\"ERROR - Usage of selected vehicle type is forbidden\""), events);
+    }
+
+    @Test
+    void testCalculateDeliveryFees_ShouldRejectOversizedBatch() throws Exception {
+        String item = "{\"city\":\"Tallinn\",\"vehicleType\":\"car\"}";
+        String body = "[" + String.join(",", Collections.nCopies(101, item)) + "]";
+
+        mockMvc.perform(post("/deliveryFee/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isPayloadTooLarge());
+
+        verify(deliveryFeeService, never()).calculateFees(anyList());
+    }
 }
@@ -0,0 +1,51 @@
+package com.trial_task.food_delivery_fee.controller;
+
+import com.trial_task.food_delivery_fee.service.FeeRuleService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "admin.token=secret")
+@AutoConfigureMockMvc
+public class FeeRuleAdminControllerTest {
+
+    private static final String AUTHORIZATION = "Bearer secret";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FeeRuleService feeRuleService;
+
+    @Test
+    void testGetStatus_ShouldReturnRuleSetVersion() throws Exception {
+        mockMvc.perform(get("/admin/feeRules").header(HttpHeaders.AUTHORIZATION, AUTHORIZATION))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(feeRuleService.getRules().version()))
+                .andExpect(jsonPath("$.source").value("application properties"));
+    }
+
+    @Test
+    void testReload_ShouldKeepVersion_WhenRulesUnchanged() throws Exception {
+        String version = feeRuleService.getRules().version();
+
+        mockMvc.perform(post("/admin/feeRules/reload").header(HttpHeaders.AUTHORIZATION, AUTHORIZATION))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(version));
+    }
+
+    @Test
+    void testReload_ShouldReturnUnauthorized_WithoutAdminToken() throws Exception {
+        mockMvc.perform(post("/admin/feeRules/reload"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/admin/feeRules").header(HttpHeaders.AUTHORIZATION, "Bearer guess"))
+                .andExpect(status().isUnauthorized());
+    }
+}
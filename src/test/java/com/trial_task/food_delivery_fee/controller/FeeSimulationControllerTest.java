@@ -0,0 +1,115 @@
+package com.trial_task.food_delivery_fee.controller;
+
+import com.trial_task.food_delivery_fee.service.FeeRuleService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {"admin.token=secret", "fee.simulation.maxBodySize=1KB", "fee.simulation.maxRows=2"})
+@AutoConfigureMockMvc
+public class FeeSimulationControllerTest {
+
+    private static final String VOLUMES = """
+            dateTime,city,vehicleType,deliveries
+            2024-03-01T08:00,Tallinn,bike,2
+            2024-03-01T09:00,Tartu,car,1
+            """;
+
+    private static final String AUTHORIZATION = "Bearer secret";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FeeRuleService feeRuleService;
+
+    @Test
+    void testSimulate_ShouldReportCurrentAndCandidateRules() throws Exception {
+        String version = feeRuleService.getRules().version();
+
+        mockMvc.perform(post("/admin/feeRules/simulation")
+                        .header(HttpHeaders.AUTHORIZATION, AUTHORIZATION)
+                        .param("fee.windSpeed.maxAllowedWindSpeed", "15.0")
+                        .contentType("text/csv")
+                        .content(VOLUMES))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.current.rulesVersion").value(version))
+                .andExpect(jsonPath("$.current.deliveries").value(3))
+                .andExpect(jsonPath("$.current.rows[0].city").value("Tallinn"))
+                .andExpect(jsonPath("$.current.rows[0].vehicleType").value("bike"))
+                .andExpect(jsonPath("$.candidate.rulesVersion").value(not(version)))
+                .andExpect(jsonPath("$.candidate.deliveries").value(3));
+    }
+
+    @Test
+    void testSimulate_ShouldReturnBadRequest_WhenCandidateRulesOrVolumesInvalid() throws Exception {
+        mockMvc.perform(post("/admin/feeRules/simulation")
+                        .header(HttpHeaders.AUTHORIZATION, AUTHORIZATION)
+                        .param("fee.windSpeed.maxAllowedWindSpeed", "fast")
+                        .contentType("text/csv")
+                        .content(VOLUMES))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/admin/feeRules/simulation")
+                        .header(HttpHeaders.AUTHORIZATION, AUTHORIZATION)
+                        .contentType("text/csv")
+                        .content("2024-03-01T08:00,Tallinn\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value("ERROR - Invalid delivery volumes on line 1: expected dateTime,city,vehicleType[,deliveries]"));
+    }
+
+    @Test
+    void testSimulate_ShouldReturnBadRequest_WhenCityBaseFeesContainCode() throws Exception {
+        mockMvc.perform(post("/admin/feeRules/simulation")
+                        .header(HttpHeaders.AUTHORIZATION, AUTHORIZATION)
+                        .param("fee.city.base", "T(java.lang.Runtime).getRuntime().exec('true')")
+                        .contentType("text/csv")
+                        .content(VOLUMES))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/admin/feeRules/simulation")
+                        .header(HttpHeaders.AUTHORIZATION, AUTHORIZATION)
+                        .param("fee.city.base", "{'Tallinn':{'car':'4.0'.length()}}")
+                        .contentType("text/csv")
+                        .content(VOLUMES))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testSimulate_ShouldReturnUnauthorized_WithoutAdminToken() throws Exception {
+        mockMvc.perform(post("/admin/feeRules/simulation")
+                        .contentType("text/csv")
+                        .content(VOLUMES))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer"));
+
+        mockMvc.perform(post("/admin/feeRules/simulation")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer guess")
+                        .contentType("text/csv")
+                        .content(VOLUMES))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testSimulate_ShouldReturnPayloadTooLarge_WhenVolumesExceedLimits() throws Exception {
+        mockMvc.perform(post("/admin/feeRules/simulation")
+                        .header(HttpHeaders.AUTHORIZATION, AUTHORIZATION)
+                        .contentType("text/csv")
+                        .content(VOLUMES + "2024-03-01T10:00,Tartu,car,1\n"))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.status").value("ERROR - More than 2 rows of delivery volumes"));
+
+        mockMvc.perform(post("/admin/feeRules/simulation")
+                        .header(HttpHeaders.AUTHORIZATION, AUTHORIZATION)
+                        .contentType("text/csv")
+                        .content(VOLUMES.repeat(20)))
+                .andExpect(status().isPayloadTooLarge());
+    }
+}
@@ -0,0 +1,156 @@
+package com.trial_task.food_delivery_fee.controller;
+
+import com.trial_task.food_delivery_fee.model.DeliveryFee;
+import com.trial_task.food_delivery_fee.service.DeliveryFeeService;
+import com.trial_task.food_delivery_fee.service.FeeMatrix;
+import com.trial_task.food_delivery_fee.service.FeeMatrixService;
+import com.trial_task.food_delivery_fee.service.FeeMatrixUpdate;
+import com.trial_task.food_delivery_fee.service.FeeOutcome;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {"spring.main.web-application-type=reactive", "admin.token=secret"})
+@AutoConfigureWebTestClient
+public class ReactiveDeliveryFeeControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private DeliveryFeeService deliveryFeeService;
+
+    @MockBean
+    private FeeMatrixService feeMatrixService;
+
+    @Test
+    void testCalculateDeliveryFee_ShouldServePrecomputedFee() {
+        DeliveryFee deliveryFee = new DeliveryFee("Tartu", "bike", 2.5, 0.5, 0.0, 1.0);
+        when(feeMatrixService.lookup("Tartu", "bike")).thenReturn(new FeeOutcome.Calculated(deliveryFee));
+
+        webTestClient.get().uri("/deliveryFee?city=Tartu&vehicleType=bike")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("OK")
+                .jsonPath("$.deliveryFee.totalFee").isEqualTo(4.0);
+
+        verify(deliveryFeeService, never()).evaluate(anyString(), anyString());
+    }
+
+    @Test
+    void testCalculateDeliveryFee_ShouldReturnServiceUnavailable_WhenWeatherDataUnavailable() {
+        when(deliveryFeeService.evaluate("Tallinn", "car")).thenReturn(FeeOutcome.weatherDataUnavailable("Tallinn"));
+
+        webTestClient.get().uri("/deliveryFee?city=Tallinn&vehicleType=car")
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("ERROR - No weather data available for the city: Tallinn");
+    }
+
+    @Test
+    void testCalculateDeliveryFee_ShouldCalculateAtGivenTime() {
+        LocalDateTime dateTime = LocalDateTime.of(2025, 3, 23, 12, 0);
+        when(deliveryFeeService.evaluate("Tallinn", "bike", dateTime)).thenReturn(FeeOutcome.VEHICLE_FORBIDDEN);
+
+        webTestClient.get().uri("/deliveryFee?city=Tallinn&vehicleType=bike&dateTime=2025-03-23T12:00:00")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("ERROR - Usage of selected vehicle type is forbidden");
+
+        verify(feeMatrixService, never()).lookup(anyString(), anyString());
+    }
+
+    @Test
+    void testStreamFeeMatrix_ShouldSendMatrixAsEvents() {
+        DeliveryFee deliveryFee = new DeliveryFee("Tartu", "bike", 2.5, 0.5, 0.0, 1.0);
+        when(feeMatrixService.updates()).thenReturn(Flux.concat(
+                Flux.just(new FeeMatrixUpdate(true, List.of(new FeeMatrix.Cell("Tartu", "bike", new FeeOutcome.Calculated(deliveryFee))))),
+                Flux.never()));
+
+        Flux<ServerSentEvent<String>> events = webTestClient.get().uri("/deliveryFee/stream")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<String>>() {
+                })
+                .getResponseBody();
+
+        StepVerifier.create(events)
+                .assertNext(event -> {
+                    assertEquals("matrix", event.event());
+                    assertTrue(event.data().contains("\"totalFee\":4.0"), event.data());
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testCalculateDeliveryFee_ShouldReturnEntityTag_AndNotModified_WhenEntityTagMatches() {
+        DeliveryFee deliveryFee = new DeliveryFee("Tallinn", "car", 4.0, 0.0, 0.0, 0.0);
+        when(deliveryFeeService.latestInputsVersion("Tallinn", "car")).thenReturn("0123abcd");
+        when(feeMatrixService.lookup("Tallinn", "car")).thenReturn(new FeeOutcome.Calculated(deliveryFee));
+
+        webTestClient.get().uri("/deliveryFee?city=Tallinn&vehicleType=car")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0123abcd\"")
+                .expectHeader().valueEquals(HttpHeaders.CACHE_CONTROL, "no-cache, public");
+
+        webTestClient.get().uri("/deliveryFee?city=Tallinn&vehicleType=car")
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"0123abcd\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0123abcd\"")
+                .expectBody().isEmpty();
+
+        verify(feeMatrixService, times(1)).lookup("Tallinn", "car");
+    }
+
+    @Test
+    void testCalculateDeliveryFee_ShouldNotCacheRejections() {
+        when(deliveryFeeService.latestInputsVersion("Tallinn", "bike")).thenReturn("0123abcd");
+        when(feeMatrixService.lookup("Tallinn", "bike")).thenReturn(FeeOutcome.VEHICLE_FORBIDDEN);
+
+        webTestClient.get().uri("/deliveryFee?city=Tallinn&vehicleType=bike")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().doesNotExist(HttpHeaders.ETAG);
+    }
+
+    @Test
+    void testAdminOperation_ShouldRequireAdminToken() {
+        webTestClient.post().uri("/admin/feeRules/reload")
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectHeader().valueEquals(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+
+        webTestClient.get().uri("/admin/feeRules")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer secret")
+                .exchange()
+                .expectStatus().isOk();
+    }
+}
@@ -0,0 +1,49 @@
+package com.trial_task.food_delivery_fee.controller;
+
+import com.trial_task.food_delivery_fee.service.RetentionStats;
+import com.trial_task.food_delivery_fee.service.RetentionStatus;
+import com.trial_task.food_delivery_fee.service.WeatherDataRetentionJob;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "admin.token=secret")
+@AutoConfigureMockMvc
+public class WeatherDataAdminControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private WeatherDataRetentionJob weatherDataRetentionJob;
+
+    @Test
+    void testGetRetentionStatus_ShouldReturnRowCountAndLastPurge() throws Exception {
+        RetentionStats lastPurge = new RetentionStats(LocalDateTime.of(2025, 3, 23, 3, 45), 42, 120, 0);
+        when(weatherDataRetentionJob.getStatus()).thenReturn(new RetentionStatus(504, lastPurge));
+
+        mockMvc.perform(get("/admin/weatherData/retention").header(HttpHeaders.AUTHORIZATION, "Bearer secret"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowCount").value(504))
+                .andExpect(jsonPath("$.lastPurge.durationMillis").value(42))
+                .andExpect(jsonPath("$.lastPurge.deletedRows").value(120));
+    }
+
+    @Test
+    void testGetRetentionStatus_ShouldReturnUnauthorized_WithoutAdminToken() throws Exception {
+        mockMvc.perform(get("/admin/weatherData/retention"))
+                .andExpect(status().isUnauthorized());
+
+        verify(weatherDataRetentionJob, never()).getStatus();
+    }
+}
@@ -4,12 +4,14 @@ import com.trial_task.food_delivery_fee.model.WeatherData;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
@@ -40,4 +42,70 @@ public class WeatherDataRepositoryTest {
 
         assertTrue(result.isEmpty());
     }
+
+    @Test
+    void testFindFirstAtOrBefore_ShouldReturnObservationInEffect() {
+        LocalDateTime fixedTime = LocalDateTime.of(2025, 3, 23, 18, 15, 0);
+        WeatherData earlier = new WeatherData("Tallinn-Harku", "26038", 2.1, 3.2, "Overcast", fixedTime.minusHours(1));
+        WeatherData later = new WeatherData("Tallinn-Harku", "26038", 4.7, 1.8, "Overcast", fixedTime);
+        WeatherData otherStation = new WeatherData("Pärnu", "41803", 1.0, 1.0, "Clear", fixedTime.minusMinutes(30));
+
+        weatherDataRepository.saveAll(List.of(later, earlier, otherStation));
+
+        Optional<WeatherData> between = weatherDataRepository
+                .findFirstByStationNameAndObservationTimestampLessThanEqualOrderByObservationTimestampDesc("Tallinn-Harku", fixedTime.minusMinutes(1));
+        Optional<WeatherData> exact = weatherDataRepository
+                .findFirstByStationNameAndObservationTimestampLessThanEqualOrderByObservationTimestampDesc("Tallinn-Harku", fixedTime);
+        Optional<WeatherData> before = weatherDataRepository
+                .findFirstByStationNameAndObservationTimestampLessThanEqualOrderByObservationTimestampDesc("Tallinn-Harku", fixedTime.minusHours(2));
+
+        assertEquals(earlier.getObservationTimestamp(), between.orElseThrow().getObservationTimestamp());
+        assertEquals(later.getObservationTimestamp(), exact.orElseThrow().getObservationTimestamp());
+        assertTrue(before.isEmpty());
+    }
+
+    @Test
+    void testDeleteObservedBefore_ShouldDeleteOnlyOlderRows() {
+        LocalDateTime fixedTime = LocalDateTime.of(2025, 3, 23, 18, 15, 0);
+        WeatherData old = new WeatherData("Tallinn-Harku", "26038", 2.1, 3.2, "Overcast", fixedTime.minusDays(8));
+        WeatherData recent = new WeatherData("Tallinn-Harku", "26038", 4.7, 1.8, "Overcast", fixedTime);
+
+        weatherDataRepository.saveAll(List.of(old, recent));
+
+        int deleted = weatherDataRepository.deleteObservedBefore(fixedTime.minusDays(7));
+
+        assertEquals(1, deleted);
+        assertEquals(1, weatherDataRepository.count());
+    }
+
+    @Test
+    void testDownsampleHourlyBefore_ShouldKeepLatestRowPerStationPerHour() {
+        LocalDateTime hour = LocalDateTime.of(2025, 3, 1, 10, 0, 0);
+        WeatherData first = new WeatherData("Tallinn-Harku", "26038", 1.0, 1.0, "Clear", hour.plusMinutes(5));
+        WeatherData last = new WeatherData("Tallinn-Harku", "26038", 2.0, 1.0, "Clear", hour.plusMinutes(45));
+        WeatherData nextHour = new WeatherData("Tallinn-Harku", "26038", 3.0, 1.0, "Clear", hour.plusHours(1));
+        WeatherData otherStation = new WeatherData("Pärnu", "41803", 4.0, 1.0, "Clear", hour.plusMinutes(15));
+        WeatherData recent = new WeatherData("Tallinn-Harku", "26038", 5.0, 1.0, "Clear", hour.plusDays(10));
+        WeatherData recentSameHour = new WeatherData("Tallinn-Harku", "26038", 6.0, 1.0, "Clear", hour.plusDays(10).plusMinutes(30));
+
+        weatherDataRepository.saveAll(List.of(first, last, nextHour, otherStation, recent, recentSameHour));
+
+        int deleted = weatherDataRepository.downsampleHourlyBefore(hour.plusDays(5));
+
+        assertEquals(1, deleted);
+        assertEquals(5, weatherDataRepository.count());
+        assertTrue(weatherDataRepository
+                .findFirstByStationNameAndObservationTimestampLessThanEqualOrderByObservationTimestampDesc("Tallinn-Harku", hour.plusMinutes(30))
+                .isEmpty());
+    }
+
+    @Test
+    void testSave_ShouldRejectDuplicateStationAndTimestamp() {
+        LocalDateTime fixedTime = LocalDateTime.of(2025, 3, 23, 18, 15, 0);
+        weatherDataRepository.saveAndFlush(new WeatherData("Tallinn-Harku", "26038", 2.1, 3.2, "Overcast", fixedTime));
+
+        WeatherData duplicate = new WeatherData("Tallinn-Harku", "26038", 2.1, 3.2, "Overcast", fixedTime);
+
+        assertThrows(DataIntegrityViolationException.class, () -> weatherDataRepository.saveAndFlush(duplicate));
+    }
 }
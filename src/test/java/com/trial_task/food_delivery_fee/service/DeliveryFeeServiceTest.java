@@ -1,20 +1,28 @@
 package com.trial_task.food_delivery_fee.service;
 
+import com.trial_task.food_delivery_fee.exception.ForbiddenCityException;
+import com.trial_task.food_delivery_fee.exception.ForbiddenVehicleTypeException;
 import com.trial_task.food_delivery_fee.exception.WeatherDataFetchException;
 import com.trial_task.food_delivery_fee.model.DeliveryFee;
+import com.trial_task.food_delivery_fee.model.DeliveryFeeRequest;
 import com.trial_task.food_delivery_fee.model.WeatherData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
@@ -23,41 +31,42 @@ public class DeliveryFeeServiceTest {
     @Mock
     private WeatherDataService weatherDataService;
 
-    @Mock
-    private ValidationService validationService;
-
-    @Mock
-    private WeatherFeeService weatherFeeService;
-
-    @InjectMocks
     private DeliveryFeeService deliveryFeeService;
 
     @BeforeEach
     public void setUp() {
-        ReflectionTestUtils.setField(deliveryFeeService, "cityBaseFees",
-                Map.of("Tallinn", Map.of("car", 4.0, "scooter", 3.5, "bike", 3.0),
-                        "Tartu", Map.of("car", 3.5, "scooter", 3.0, "bike", 2.5)));
+        deliveryFeeService = serviceWithStaleAction(WeatherFreshnessPolicy.StaleAction.SERVE_STALE);
     }
 
     @Test
     void testCalculateFee_ShouldReturnCorrectFee() throws Exception {
         String city = "Tallinn";
-        String vehicleType = "car";
-
-        WeatherData mockWeatherData = new WeatherData();
+        String vehicleType = "bike";
 
-        when(weatherDataService.getLatest(city)).thenReturn(Optional.of(mockWeatherData));
-        when(weatherFeeService.calculateAirTemperatureExtraFee(vehicleType, mockWeatherData)).thenReturn(0.5);
-        when(weatherFeeService.calculateWindSpeedExtraFee(vehicleType, mockWeatherData)).thenReturn(0.7);
-        when(weatherFeeService.calculateWeatherPhenomenonExtraFee(vehicleType, mockWeatherData)).thenReturn(1.0);
+        WeatherData weatherData = new WeatherData("Tallinn-Harku", "26038", -5.0, 12.0, "Light snow shower", LocalDateTime.now());
+        when(weatherDataService.getLatest(city)).thenReturn(Optional.of(weatherData));
 
         DeliveryFee result = deliveryFeeService.calculateFee(city, vehicleType);
 
-        assertEquals(4.0, result.getRegionalBaseFee());
+        assertEquals(3.0, result.getRegionalBaseFee());
         assertEquals(0.5, result.getAirTemperatureExtraFee());
-        assertEquals(0.7, result.getWindSpeedExtraFee());
+        assertEquals(0.5, result.getWindSpeedExtraFee());
         assertEquals(1.0, result.getWeatherPhenomenonExtraFee());
-        assertEquals(6.2, result.getTotalFee());
+        assertEquals(5.0, result.getTotalFee());
+        assertEquals(TestFeeRules.compile().version(), result.getRuleSetVersion());
+    }
+
+    @Test
+    void testCalculateFee_ShouldNotApplyWeatherFeesToCar() throws Exception {
+        String city = "Tartu";
+        String vehicleType = "car";
+
+        WeatherData weatherData = new WeatherData("Tartu-Tõravere", "26242", -15.0, 25.0, "Glaze", LocalDateTime.now());
+        when(weatherDataService.getLatest(city)).thenReturn(Optional.of(weatherData));
+
+        DeliveryFee result = deliveryFeeService.calculateFee(city, vehicleType);
+
+        assertEquals(3.5, result.getTotalFee());
     }
 
     @Test
@@ -69,4 +78,249 @@ public class DeliveryFeeServiceTest {
 
         assertThrows(WeatherDataFetchException.class, () -> deliveryFeeService.calculateFee(city, vehicleType));
     }
+
+    @Test
+    void testCalculateFee_ShouldThrowForbiddenCityException_WhenCityUnknown() {
+        assertThrows(ForbiddenCityException.class, () -> deliveryFeeService.calculateFee("UnknownCity", "car"));
+    }
+
+    @Test
+    void testCalculateFee_ShouldThrowForbiddenVehicleTypeException_WhenVehicleUnknown() {
+        assertThrows(ForbiddenVehicleTypeException.class, () -> deliveryFeeService.calculateFee("Tallinn", "unknownVehicle"));
+    }
+
+    @Test
+    void testCalculateFee_ShouldThrowForbiddenVehicleTypeException_WhenWeatherForbidsVehicle() {
+        String city = "Tallinn";
+
+        WeatherData weatherData = new WeatherData("Tallinn-Harku", "26038", 5.0, 21.0, "Clear", LocalDateTime.now());
+        when(weatherDataService.getLatest(city)).thenReturn(Optional.of(weatherData));
+
+        assertThrows(ForbiddenVehicleTypeException.class, () -> deliveryFeeService.calculateFee(city, "bike"));
+    }
+
+    @Test
+    void testEvaluateAt_ShouldUseNearestCityAndStation() {
+        WeatherData weatherData = new WeatherData("Kunda", "26045", -5.0, 12.0, "Light snow shower", LocalDateTime.now());
+        when(weatherDataService.getNearestCity(59.35, 26.36)).thenReturn(Optional.of("Tallinn"));
+        when(weatherDataService.getLatestAt(59.35, 26.36)).thenReturn(Optional.of(weatherData));
+
+        FeeOutcome outcome = deliveryFeeService.evaluateAt(59.35, 26.36, "bike");
+
+        DeliveryFee fee = assertInstanceOf(FeeOutcome.Calculated.class, outcome).fee();
+        assertEquals("Tallinn", fee.getCity());
+        assertEquals(5.0, fee.getTotalFee());
+        verify(weatherDataService, never()).getLatest("Tallinn");
+    }
+
+    @Test
+    void testEvaluateAt_ShouldRejectLocationsWithoutCity() {
+        when(weatherDataService.getNearestCity(52.52, 13.40)).thenReturn(Optional.empty());
+
+        assertEquals(RejectionReason.INVALID_LOCATION, rejectionReason(deliveryFeeService.evaluateAt(52.52, 13.40, "car")));
+        assertEquals(RejectionReason.INVALID_LOCATION, rejectionReason(deliveryFeeService.evaluateAt(91, 24, "car")));
+        assertEquals(RejectionReason.INVALID_LOCATION, rejectionReason(deliveryFeeService.evaluateAt(Double.NaN, 24, "car")));
+    }
+
+    @Test
+    void testEvaluateAt_ShouldUseBaseFeeOfZone() {
+        FeeZoneIndex zones = FeeZoneIndex.of(
+                List.of(new FeeZoneIndex.Zone("Kesklinn", "Tallinn", Map.of("car", 4.5))),
+                List.<double[][]>of(new double[][]{{24.70, 59.42, 24.80, 59.42, 24.80, 59.45, 24.70, 59.45}}));
+        deliveryFeeService = service(WeatherFreshnessPolicy.StaleAction.SERVE_STALE, zones);
+        WeatherData weatherData = new WeatherData("Tallinn-Harku", "26038", 5.0, 2.0, "Clear", LocalDateTime.now());
+        when(weatherDataService.getLatestAt(59.437, 24.754)).thenReturn(Optional.of(weatherData));
+        when(weatherDataService.getLatestAt(59.40, 24.754)).thenReturn(Optional.of(weatherData));
+        when(weatherDataService.getNearestCity(59.40, 24.754)).thenReturn(Optional.of("Tallinn"));
+
+        DeliveryFee inZone = assertInstanceOf(FeeOutcome.Calculated.class, deliveryFeeService.evaluateAt(59.437, 24.754, "car")).fee();
+        DeliveryFee scooterInZone = assertInstanceOf(FeeOutcome.Calculated.class, deliveryFeeService.evaluateAt(59.437, 24.754, "scooter")).fee();
+        DeliveryFee outsideZone = assertInstanceOf(FeeOutcome.Calculated.class, deliveryFeeService.evaluateAt(59.40, 24.754, "car")).fee();
+
+        assertEquals(4.5, inZone.getRegionalBaseFee());
+        assertEquals("Kesklinn", inZone.getZone());
+        assertEquals(3.5, scooterInZone.getRegionalBaseFee());
+        assertEquals(4.0, outsideZone.getRegionalBaseFee());
+        assertNull(outsideZone.getZone());
+        verify(weatherDataService, never()).getNearestCity(59.437, 24.754);
+    }
+
+    @Test
+    void testCalculateFees_ShouldLookUpWeatherOncePerCity() {
+        WeatherData weatherData = new WeatherData("Tallinn-Harku", "26038", 5.0, 2.0, "Clear", LocalDateTime.now());
+        when(weatherDataService.getLatest("Tallinn")).thenReturn(Optional.of(weatherData));
+
+        List<FeeOutcome> results = deliveryFeeService.calculateFees(List.of(
+                new DeliveryFeeRequest("Tallinn", "car"),
+                new DeliveryFeeRequest("Tallinn", "scooter"),
+                new DeliveryFeeRequest("UnknownCity", "car"),
+                new DeliveryFeeRequest("Tallinn", "bike")));
+
+        assertEquals(4, results.size());
+        assertEquals(4.0, totalFee(results.get(0)));
+        assertEquals(3.5, totalFee(results.get(1)));
+        assertEquals(RejectionReason.INVALID_CITY, assertInstanceOf(FeeOutcome.Rejected.class, results.get(2)).reason());
+        assertEquals(3.0, totalFee(results.get(3)));
+        verify(weatherDataService, times(1)).getLatest("Tallinn");
+    }
+
+    @Test
+    void testCalculateFees_ShouldRejectIncompleteRequestsPerItem() {
+        WeatherData weatherData = new WeatherData("Tallinn-Harku", "26038", 5.0, 2.0, "Clear", LocalDateTime.now());
+        when(weatherDataService.getLatest("Tallinn")).thenReturn(Optional.of(weatherData));
+
+        List<FeeOutcome> results = deliveryFeeService.calculateFees(Arrays.asList(
+                null,
+                new DeliveryFeeRequest(null, "car"),
+                new DeliveryFeeRequest("Tallinn", null),
+                new DeliveryFeeRequest("Tallinn", "car")));
+
+        assertEquals(FeeOutcome.missingCity(), results.get(0));
+        assertEquals(FeeOutcome.missingCity(), results.get(1));
+        assertEquals(FeeOutcome.missingVehicleType(), results.get(2));
+        assertEquals(4.0, totalFee(results.get(3)));
+    }
+
+    @Test
+    void testCalculateFee_ShouldUseWeatherInEffectAtGivenTime() throws Exception {
+        LocalDateTime dateTime = LocalDateTime.of(2025, 3, 23, 12, 0);
+        WeatherData weatherData = new WeatherData("Tallinn-Harku", "26038", -5.0, 2.0, "Light snow", dateTime.minusMinutes(45));
+        when(weatherDataService.getAt("Tallinn", dateTime)).thenReturn(Optional.of(weatherData));
+
+        DeliveryFee result = deliveryFeeService.calculateFee("Tallinn", "bike", dateTime);
+
+        assertEquals(4.5, result.getTotalFee());
+        verify(weatherDataService, never()).getLatest("Tallinn");
+    }
+
+    @Test
+    void testCalculateFees_ShouldLookUpWeatherOncePerCityAndTime() {
+        LocalDateTime dateTime = LocalDateTime.of(2025, 3, 23, 12, 0);
+        WeatherData past = new WeatherData("Tallinn-Harku", "26038", -5.0, 2.0, "Clear", dateTime);
+        WeatherData latest = new WeatherData("Tallinn-Harku", "26038", 5.0, 2.0, "Clear", LocalDateTime.now());
+        when(weatherDataService.getAt("Tallinn", dateTime)).thenReturn(Optional.of(past));
+        when(weatherDataService.getLatest("Tallinn")).thenReturn(Optional.of(latest));
+
+        List<FeeOutcome> results = deliveryFeeService.calculateFees(List.of(
+                new DeliveryFeeRequest("Tallinn", "bike", dateTime),
+                new DeliveryFeeRequest("Tallinn", "scooter", dateTime),
+                new DeliveryFeeRequest("Tallinn", "bike")));
+
+        assertEquals(3.5, totalFee(results.get(0)));
+        assertEquals(4.0, totalFee(results.get(1)));
+        assertEquals(3.0, totalFee(results.get(2)));
+        verify(weatherDataService, times(1)).getAt("Tallinn", dateTime);
+        verify(weatherDataService, times(1)).getLatest("Tallinn");
+    }
+
+    @Test
+    void testEvaluate_ShouldRejectWithoutThrowing() {
+        WeatherData weatherData = new WeatherData("Tallinn-Harku", "26038", 5.0, 25.0, "Hail", LocalDateTime.now());
+        when(weatherDataService.getLatest("Tallinn")).thenReturn(Optional.of(weatherData));
+        when(weatherDataService.getLatest("Tartu")).thenReturn(Optional.empty());
+
+        assertEquals(FeeOutcome.VEHICLE_FORBIDDEN, deliveryFeeService.evaluate("Tallinn", "bike"));
+        assertEquals(RejectionReason.INVALID_CITY, rejectionReason(deliveryFeeService.evaluate("UnknownCity", "car")));
+        assertEquals(RejectionReason.INVALID_VEHICLE_TYPE, rejectionReason(deliveryFeeService.evaluate("Tallinn", "truck")));
+        assertEquals(RejectionReason.WEATHER_DATA_UNAVAILABLE, rejectionReason(deliveryFeeService.evaluate("Tartu", "car")));
+        assertEquals(4.0, totalFee(deliveryFeeService.evaluate("Tallinn", "car")));
+    }
+
+    @Test
+    void testEvaluate_ShouldFlagStaleFee_WhenServingStaleData() {
+        WeatherData weatherData = new WeatherData("Tallinn-Harku", "26038", 5.0, 2.0, "Clear", LocalDateTime.now().minusHours(2));
+        when(weatherDataService.getLatest("Tallinn")).thenReturn(Optional.of(weatherData));
+
+        FeeOutcome.Calculated calculated = assertInstanceOf(FeeOutcome.Calculated.class, deliveryFeeService.evaluate("Tallinn", "car"));
+
+        assertEquals(4.0, calculated.fee().getTotalFee());
+        assertTrue(calculated.stale());
+    }
+
+    @Test
+    void testEvaluate_ShouldRejectStaleData_WhenStaleActionIsReject() {
+        DeliveryFeeService rejectingService = serviceWithStaleAction(WeatherFreshnessPolicy.StaleAction.REJECT);
+        WeatherData stale = new WeatherData("Tallinn-Harku", "26038", 5.0, 2.0, "Clear", LocalDateTime.now().minusHours(2));
+        WeatherData fresh = new WeatherData("Tallinn-Harku", "26038", 5.0, 2.0, "Clear", LocalDateTime.now().minusMinutes(30));
+
+        when(weatherDataService.getLatest("Tallinn")).thenReturn(Optional.of(stale));
+        assertEquals(RejectionReason.WEATHER_DATA_STALE, rejectionReason(rejectingService.evaluate("Tallinn", "car")));
+        assertThrows(WeatherDataFetchException.class, () -> rejectingService.calculateFee("Tallinn", "car"));
+
+        when(weatherDataService.getLatest("Tallinn")).thenReturn(Optional.of(fresh));
+        assertFalse(assertInstanceOf(FeeOutcome.Calculated.class, rejectingService.evaluate("Tallinn", "car")).stale());
+    }
+
+    @Test
+    void testEvaluate_ShouldUseFallbackStation_WhenLatestDataIsStale() {
+        DeliveryFeeService fallbackService = serviceWithStaleAction(WeatherFreshnessPolicy.StaleAction.FALLBACK_STATION);
+        WeatherData stale = new WeatherData("Tallinn-Harku", "26038", 5.0, 2.0, "Clear", LocalDateTime.now().minusHours(2));
+        WeatherData fallback = new WeatherData("Tallinn-Kesklinna", "26040", -5.0, 2.0, "Clear", LocalDateTime.now().minusMinutes(10));
+        when(weatherDataService.getLatest("Tallinn")).thenReturn(Optional.of(stale));
+        when(weatherDataService.getLatestFromFallback("Tallinn")).thenReturn(Optional.of(fallback));
+
+        FeeOutcome.Calculated calculated = assertInstanceOf(FeeOutcome.Calculated.class, fallbackService.evaluate("Tallinn", "bike"));
+
+        assertEquals(3.0 + 0.5, calculated.fee().getTotalFee());
+        assertFalse(calculated.stale());
+    }
+
+    @Test
+    void testEvaluate_ShouldRejectStaleData_WhenFallbackStationIsStaleToo() {
+        DeliveryFeeService fallbackService = serviceWithStaleAction(WeatherFreshnessPolicy.StaleAction.FALLBACK_STATION);
+        WeatherData stale = new WeatherData("Tallinn-Harku", "26038", 5.0, 2.0, "Clear", LocalDateTime.now().minusHours(2));
+        WeatherData staleFallback = new WeatherData("Tallinn-Kesklinna", "26040", 5.0, 2.0, "Clear", LocalDateTime.now().minusHours(3));
+        when(weatherDataService.getLatest("Tallinn")).thenReturn(Optional.of(stale));
+        when(weatherDataService.getLatestFromFallback("Tallinn")).thenReturn(Optional.of(staleFallback));
+
+        assertEquals(RejectionReason.WEATHER_DATA_STALE, rejectionReason(fallbackService.evaluate("Tallinn", "car")));
+    }
+
+    @Test
+    void testFreshUntilMillis_ShouldExpireWithLatestData() {
+        LocalDateTime observationTime = LocalDateTime.now().minusMinutes(30).withNano(0);
+        WeatherData weatherData = new WeatherData("Tallinn-Harku", "26038", 5.0, 2.0, "Clear", observationTime);
+        when(weatherDataService.getLatest("Tallinn")).thenReturn(Optional.of(weatherData));
+        when(weatherDataService.getLatest("Tartu")).thenReturn(Optional.empty());
+
+        assertEquals((StationHistory.toEpochSecond(observationTime) + 3600) * 1000, deliveryFeeService.freshUntilMillis("Tallinn"));
+        assertEquals(Long.MAX_VALUE, deliveryFeeService.freshUntilMillis("Tartu"));
+    }
+
+    @Test
+    void testLatestInputsVersion_ShouldChangeWithWeatherData() {
+        LocalDateTime observationTime = LocalDateTime.now().minusMinutes(30);
+        WeatherData weatherData = new WeatherData("Tallinn-Harku", "26038", 5.0, 2.0, "Clear", observationTime);
+        WeatherData newer = new WeatherData("Tallinn-Harku", "26038", 5.0, 2.0, "Clear", observationTime.plusMinutes(15));
+        when(weatherDataService.getLatest("Tallinn")).thenReturn(Optional.of(weatherData));
+        when(weatherDataService.getLatest("Tartu")).thenReturn(Optional.empty());
+
+        String version = deliveryFeeService.latestInputsVersion("Tallinn", "car");
+        assertEquals(version, deliveryFeeService.latestInputsVersion("Tallinn", "car"));
+        assertNotEquals(version, deliveryFeeService.latestInputsVersion("Tallinn", "bike"));
+        assertNull(deliveryFeeService.latestInputsVersion("Tartu", "car"));
+
+        when(weatherDataService.getLatest("Tallinn")).thenReturn(Optional.of(newer));
+        assertNotEquals(version, deliveryFeeService.latestInputsVersion("Tallinn", "car"));
+    }
+
+    private DeliveryFeeService serviceWithStaleAction(WeatherFreshnessPolicy.StaleAction staleAction) {
+        return service(staleAction, FeeZoneIndex.empty());
+    }
+
+    private DeliveryFeeService service(WeatherFreshnessPolicy.StaleAction staleAction, FeeZoneIndex zones) {
+        FeeRuleService feeRuleService = TestFeeRules.service();
+        return new DeliveryFeeService(weatherDataService, feeRuleService,
+                new FeeMetrics(new SimpleMeterRegistry(), feeRuleService),
+                new WeatherFreshnessPolicy(Duration.ofHours(1), staleAction),
+                new FeeZoneService(zones));
+    }
+
+    private static double totalFee(FeeOutcome outcome) {
+        return assertInstanceOf(FeeOutcome.Calculated.class, outcome).fee().getTotalFee();
+    }
+
+    private static RejectionReason rejectionReason(FeeOutcome outcome) {
+        return assertInstanceOf(FeeOutcome.Rejected.class, outcome).reason();
+    }
 }
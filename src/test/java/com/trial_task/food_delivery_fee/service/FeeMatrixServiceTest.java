@@ -0,0 +1,133 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.model.WeatherData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+public class FeeMatrixServiceTest {
+
+    @Mock
+    private WeatherDataService weatherDataService;
+
+    private FeeMatrixService feeMatrixService;
+
+    @BeforeEach
+    public void setUp() {
+        FeeRuleService feeRuleService = TestFeeRules.service();
+        FeeMetrics feeMetrics = new FeeMetrics(new SimpleMeterRegistry(), feeRuleService);
+        WeatherFreshnessPolicy freshnessPolicy = new WeatherFreshnessPolicy(Duration.ofHours(1), WeatherFreshnessPolicy.StaleAction.REJECT);
+        feeMatrixService = new FeeMatrixService(
+                new DeliveryFeeService(weatherDataService, feeRuleService, feeMetrics, freshnessPolicy,
+                        new FeeZoneService(FeeZoneIndex.empty())), feeRuleService);
+    }
+
+    @Test
+    void testLookup_ShouldReturnNull_WhenCityOrVehicleUnknown() {
+        feeMatrixService.rebuild();
+
+        assertNull(feeMatrixService.lookup("UnknownCity", "car"));
+        assertNull(feeMatrixService.lookup("Tallinn", "unknownVehicle"));
+    }
+
+    @Test
+    void testLookup_ShouldReturnPrecomputedFees() {
+        WeatherData weatherData = new WeatherData("Tallinn-Harku", "26038", -5.0, 25.0, "Light rain", LocalDateTime.now());
+        when(weatherDataService.getLatest("Tallinn")).thenReturn(Optional.of(weatherData));
+
+        feeMatrixService.rebuild();
+
+        assertEquals(4.0, totalFee(feeMatrixService.lookup("Tallinn", "car")));
+        assertEquals(3.5 + 0.5 + 0.5, totalFee(feeMatrixService.lookup("Tallinn", "scooter")));
+
+        FeeOutcome bike = feeMatrixService.lookup("Tallinn", "bike");
+        assertEquals(RejectionReason.VEHICLE_FORBIDDEN_BY_WEATHER, assertInstanceOf(FeeOutcome.Rejected.class, bike).reason());
+
+        FeeOutcome tartu = feeMatrixService.lookup("Tartu", "car");
+        assertEquals(RejectionReason.WEATHER_DATA_UNAVAILABLE, assertInstanceOf(FeeOutcome.Rejected.class, tartu).reason());
+    }
+
+    @Test
+    void testOnWeatherDataUpdated_ShouldRebuildMatrix() {
+        when(weatherDataService.getLatest(anyString())).thenReturn(Optional.empty());
+        feeMatrixService.rebuild();
+        assertInstanceOf(FeeOutcome.Rejected.class, feeMatrixService.lookup("Tallinn", "car"));
+
+        WeatherData weatherData = new WeatherData("Tallinn-Harku", "26038", 5.0, 2.0, "Clear", LocalDateTime.now());
+        when(weatherDataService.getLatest("Tallinn")).thenReturn(Optional.of(weatherData));
+        feeMatrixService.onWeatherDataUpdated(new WeatherDataUpdatedEvent(List.of(weatherData)));
+
+        assertEquals(4.0, totalFee(feeMatrixService.lookup("Tallinn", "car")));
+    }
+
+    @Test
+    void testUpdates_ShouldPushFullMatrixThenChangedCells() {
+        FeeRuleTable rules = TestFeeRules.service().getRules();
+        WeatherData calm = new WeatherData("Tallinn-Harku", "26038", 5.0, 2.0, "Clear", LocalDateTime.now());
+        WeatherData storm = new WeatherData("Tallinn-Harku", "26038", 5.0, 25.0, "Clear", LocalDateTime.now());
+        when(weatherDataService.getLatest(anyString())).thenReturn(Optional.empty());
+        when(weatherDataService.getLatest("Tallinn")).thenReturn(Optional.of(calm));
+        feeMatrixService.rebuild();
+
+        StepVerifier.create(feeMatrixService.updates())
+                .assertNext(update -> {
+                    assertTrue(update.full());
+                    assertEquals(rules.cityCount() * rules.vehicleCount(), update.cells().size());
+                })
+                .then(() -> {
+                    feeMatrixService.rebuild();
+                    when(weatherDataService.getLatest("Tallinn")).thenReturn(Optional.of(storm));
+                    feeMatrixService.rebuild();
+                })
+                .assertNext(update -> {
+                    assertFalse(update.full());
+                    assertEquals(1, update.cells().size());
+                    FeeMatrix.Cell bike = update.cells().getFirst();
+                    assertEquals("Tallinn", bike.city());
+                    assertEquals("bike", bike.vehicleType());
+                    assertEquals(FeeOutcome.VEHICLE_FORBIDDEN, bike.outcome());
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testLookup_ShouldMiss_WhenCellsHaveExpired() {
+        FeeRuleTable rules = TestFeeRules.service().getRules();
+        FeeOutcome outcome = new FeeOutcome.Calculated(null);
+
+        FeeMatrix expired = FeeMatrix.compute(rules, (city, vehicleType) -> outcome, city -> System.currentTimeMillis() - 1);
+        FeeMatrix fresh = FeeMatrix.compute(rules, (city, vehicleType) -> outcome, city -> Long.MAX_VALUE);
+
+        assertNull(expired.lookup("Tallinn", "car"));
+        assertSame(outcome, fresh.lookup("Tallinn", "car"));
+    }
+
+    @Test
+    void testLookup_ShouldKeepStaleRejection_UntilNewWeatherData() {
+        WeatherData weatherData = new WeatherData("Tallinn-Harku", "26038", 5.0, 2.0, "Clear", LocalDateTime.now().minusHours(2));
+        when(weatherDataService.getLatest("Tallinn")).thenReturn(Optional.of(weatherData));
+
+        feeMatrixService.rebuild();
+
+        FeeOutcome tallinn = feeMatrixService.lookup("Tallinn", "car");
+        assertEquals(RejectionReason.WEATHER_DATA_STALE, assertInstanceOf(FeeOutcome.Rejected.class, tallinn).reason());
+    }
+
+    private static double totalFee(FeeOutcome outcome) {
+        return assertInstanceOf(FeeOutcome.Calculated.class, outcome).fee().getTotalFee();
+    }
+}
@@ -0,0 +1,82 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.model.DeliveryFee;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+public class FeeMetricsTest {
+
+    private SimpleMeterRegistry registry;
+
+    private FeeMetrics feeMetrics;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        feeMetrics = new FeeMetrics(registry, TestFeeRules.service());
+    }
+
+    @Test
+    public void testRecordRequest_ShouldTagCityVehicleAndOutcome() {
+        FeeOutcome calculated = new FeeOutcome.Calculated(new DeliveryFee("Tallinn", "car", 4.0, 0, 0, 0));
+
+        feeMetrics.recordRequest("Tallinn", "car", calculated, TimeUnit.MILLISECONDS.toNanos(3));
+        feeMetrics.recordRequest("Tallinn", "bike", FeeOutcome.VEHICLE_FORBIDDEN, TimeUnit.MILLISECONDS.toNanos(1));
+
+        assertEquals(3.0, registry.get(FeeMetrics.REQUESTS)
+                .tags("city", "Tallinn", "vehicle", "car", "outcome", "calculated")
+                .timer().totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(1, registry.get(FeeMetrics.REQUESTS)
+                .tags("city", "Tallinn", "vehicle", "bike", "outcome", "vehicle_forbidden_by_weather")
+                .timer().count());
+    }
+
+    @Test
+    public void testRecordRequest_ShouldTagUnknownValuesAsOther() {
+        feeMetrics.recordRequest("Atlantis", "rocket", FeeOutcome.invalidCity("Atlantis"), 1000);
+
+        assertEquals(1, registry.get(FeeMetrics.REQUESTS)
+                .tags("city", FeeMetrics.OTHER, "vehicle", FeeMetrics.OTHER, "outcome", "invalid_city")
+                .timer().count());
+    }
+
+    @Test
+    public void testRecordRequest_ShouldRemoveTimersOfDroppedCities_WhenRulesAreReloaded() {
+        FeeRuleService feeRuleService = mock(FeeRuleService.class);
+        when(feeRuleService.getRules()).thenReturn(TestFeeRules.compile(), FeeRuleTable.compile(TestFeeRules.properties()
+                .withProperty("fee.city.base", "{\"Tallinn\":{\"car\":4.0, \"bike\":3.0}}")));
+        registry = new SimpleMeterRegistry();
+        feeMetrics = new FeeMetrics(registry, feeRuleService);
+        assertNotNull(registry.find(FeeMetrics.REQUESTS).tags("city", "Tartu").timer());
+
+        feeMetrics.recordRequest("Tallinn", "car", FeeOutcome.invalidCity("Tartu"), 1000);
+
+        assertNull(registry.find(FeeMetrics.REQUESTS).tags("city", "Tartu").timer());
+        assertEquals(1, registry.get(FeeMetrics.REQUESTS)
+                .tags("city", "Tallinn", "vehicle", "car", "outcome", "invalid_city")
+                .timer().count());
+    }
+
+    @Test
+    public void testRecordEvaluationStages() {
+        feeMetrics.recordValidation(100);
+        feeMetrics.recordWeatherLookup(200);
+        feeMetrics.recordRules(300);
+
+        assertEquals(1, registry.get(FeeMetrics.EVALUATION).tag("stage", "validation").functionTimer().count());
+        assertEquals(200, registry.get(FeeMetrics.EVALUATION).tag("stage", "weather_lookup").functionTimer()
+                .totalTime(TimeUnit.NANOSECONDS));
+        assertEquals(1, registry.get(FeeMetrics.EVALUATION).tag("stage", "rules").functionTimer().count());
+    }
+}
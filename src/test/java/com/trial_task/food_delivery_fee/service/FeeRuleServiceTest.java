@@ -0,0 +1,102 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.exception.InvalidFeeRulesException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeeRuleServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path rulesFile;
+    private final List<Object> events = new ArrayList<>();
+    private FeeRuleService feeRuleService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        rulesFile = tempDir.resolve("fee-rules.properties");
+        Files.writeString(rulesFile, "fee.windSpeed.fees=0.5\n");
+        feeRuleService = new FeeRuleService(
+                TestFeeRules.properties().withProperty("fee.rules.file", rulesFile.toString()), events::add);
+    }
+
+    @Test
+    void testReload_ShouldSwapInChangedRulesAndPublishEvent() throws Exception {
+        FeeRuleTable initial = feeRuleService.getRules();
+        int bike = initial.vehicleId("bike");
+        assertEquals(0.5, initial.windSpeedExtraFee(bike, 15.0));
+
+        Files.writeString(rulesFile, "fee.windSpeed.fees=0.75\n");
+
+        assertTrue(feeRuleService.reload());
+        FeeRuleTable reloaded = feeRuleService.getRules();
+        assertEquals(0.75, reloaded.windSpeedExtraFee(bike, 15.0));
+        assertNotEquals(initial.version(), reloaded.version());
+        assertEquals(reloaded.version(), feeRuleService.getStatus().version());
+        assertEquals(List.of(new FeeRulesReloadedEvent(reloaded)), events);
+    }
+
+    @Test
+    void testReload_ShouldKeepRules_WhenUnchanged() throws Exception {
+        FeeRuleTable initial = feeRuleService.getRules();
+
+        assertFalse(feeRuleService.reload());
+        assertSame(initial, feeRuleService.getRules());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void testCompileCandidate_ShouldOverrideRulesWithoutSwappingThemIn() throws Exception {
+        FeeRuleTable initial = feeRuleService.getRules();
+        Properties overrides = new Properties();
+        overrides.setProperty("fee.windSpeed.maxAllowedWindSpeed", "15.0");
+
+        FeeRuleTable candidate = feeRuleService.compileCandidate(overrides);
+        int bike = candidate.vehicleId("bike");
+        assertTrue(candidate.isWindSpeedForbidden(bike, 16.0));
+        assertFalse(initial.isWindSpeedForbidden(bike, 16.0));
+        assertEquals(0.5, candidate.windSpeedExtraFee(bike, 12.0));
+        assertNotEquals(initial.version(), candidate.version());
+        assertSame(initial, feeRuleService.getRules());
+        assertTrue(events.isEmpty());
+
+        overrides.setProperty("fee.windspeed.fees", "1.0");
+        assertThrows(InvalidFeeRulesException.class, () -> feeRuleService.compileCandidate(overrides));
+    }
+
+    @Test
+    void testReload_ShouldKeepRules_WhenInvalid() throws Exception {
+        FeeRuleTable initial = feeRuleService.getRules();
+
+        Files.writeString(rulesFile, "fee.windSpeed.fees=0.5,1.0\n");
+
+        assertThrows(InvalidFeeRulesException.class, () -> feeRuleService.reload());
+        assertSame(initial, feeRuleService.getRules());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void testCheckRulesFile_ShouldReloadModifiedFile() throws Exception {
+        feeRuleService.checkRulesFile();
+        assertTrue(events.isEmpty());
+
+        Files.writeString(rulesFile, "fee.windSpeed.fees=1.0\n");
+        Files.setLastModifiedTime(rulesFile, FileTime.from(Instant.now().plusSeconds(5)));
+        feeRuleService.checkRulesFile();
+
+        assertEquals(1, events.size());
+        assertEquals(1.0, feeRuleService.getRules().windSpeedExtraFee(feeRuleService.getRules().vehicleId("bike"), 15.0));
+    }
+}
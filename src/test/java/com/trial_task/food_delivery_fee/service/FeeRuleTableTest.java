@@ -0,0 +1,90 @@
+package com.trial_task.food_delivery_fee.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeeRuleTableTest {
+
+    private FeeRuleTable rules;
+
+    @BeforeEach
+    void setUp() {
+        rules = TestFeeRules.compile();
+    }
+
+    @Test
+    void testCompile_ShouldAssignIdsToCitiesAndVehicles() {
+        assertEquals(3, rules.cityCount());
+        assertEquals(3, rules.vehicleCount());
+        assertEquals("Tartu", rules.city(rules.cityId("Tartu")));
+        assertEquals("bike", rules.vehicleType(rules.vehicleId("bike")));
+        assertEquals(FeeRuleTable.UNKNOWN_ID, rules.cityId("UnknownCity"));
+        assertEquals(FeeRuleTable.UNKNOWN_ID, rules.vehicleId("unknownVehicle"));
+        assertEquals(FeeRuleTable.UNKNOWN_ID, rules.cityId(null));
+    }
+
+    @Test
+    void testVersion_ShouldOnlyChangeWithRules() {
+        assertEquals(rules.version(), TestFeeRules.compile().version());
+        assertEquals(16, rules.version().length());
+
+        FeeRuleTable changed = FeeRuleTable.compile(TestFeeRules.properties().withProperty("fee.windSpeed.fees", "0.75"));
+        assertNotEquals(rules.version(), changed.version());
+    }
+
+    @Test
+    void testBaseFee_ShouldReturnConfiguredFee() {
+        int cityId = rules.cityId("Pärnu");
+        int vehicleId = rules.vehicleId("scooter");
+
+        assertTrue(rules.isOffered(cityId, vehicleId));
+        assertEquals(2.5, rules.baseFee(cityId, vehicleId));
+        assertFalse(rules.isOffered(cityId, FeeRuleTable.UNKNOWN_ID));
+    }
+
+    @Test
+    void testClassifyPhenomenon_ShouldBeCaseInsensitive() {
+        assertEquals(FeeRuleTable.FORBIDDEN_PHENOMENON, rules.classifyPhenomenon("Thunderstorm"));
+        assertEquals(0, rules.classifyPhenomenon("Light snow shower"));
+        assertEquals(2, rules.classifyPhenomenon("Moderate rain"));
+        assertEquals(FeeRuleTable.NO_PHENOMENON, rules.classifyPhenomenon("Clear"));
+        assertEquals(FeeRuleTable.NO_PHENOMENON, rules.classifyPhenomenon(null));
+    }
+
+    @Test
+    void testWindSpeed_ShouldOnlyForbidApplicableVehicles() {
+        assertTrue(rules.isWindSpeedForbidden(rules.vehicleId("bike"), 20.5));
+        assertFalse(rules.isWindSpeedForbidden(rules.vehicleId("bike"), 20.0));
+        assertFalse(rules.isWindSpeedForbidden(rules.vehicleId("car"), 25.0));
+        assertEquals(0.5, rules.windSpeedExtraFee(rules.vehicleId("bike"), 15.0));
+        assertEquals(0, rules.windSpeedExtraFee(rules.vehicleId("bike"), 10.0));
+    }
+
+    @Test
+    void testAirTemperatureExtraFee_ShouldUseFirstMatchingThreshold() {
+        int bike = rules.vehicleId("bike");
+
+        assertEquals(1.0, rules.airTemperatureExtraFee(bike, -10.5));
+        assertEquals(0.5, rules.airTemperatureExtraFee(bike, -10.0));
+        assertEquals(0, rules.airTemperatureExtraFee(bike, 0.0));
+        assertEquals(0, rules.airTemperatureExtraFee(rules.vehicleId("car"), -20.0));
+    }
+
+    @Test
+    void testCompile_ShouldRejectMismatchedThresholds() {
+        assertThrows(IllegalStateException.class, () -> FeeRuleTable.compile(
+                TestFeeRules.properties().withProperty("fee.temperature.fees", "1.0")));
+    }
+
+    @Test
+    void testCompile_ShouldRejectCodeInCityBaseFees() {
+        assertThrows(RuntimeException.class, () -> FeeRuleTable.compile(TestFeeRules.properties()
+                .withProperty("fee.city.base", "T(java.lang.System).exit(1)")));
+        assertThrows(RuntimeException.class, () -> FeeRuleTable.compile(TestFeeRules.properties()
+                .withProperty("fee.city.base", "{'Tallinn':{'car':'4.0'.length()}}")));
+        assertThrows(RuntimeException.class, () -> FeeRuleTable.compile(TestFeeRules.properties()
+                .withProperty("fee.city.base", "new java.lang.ProcessBuilder('true').start()")));
+    }
+}
@@ -0,0 +1,142 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.exception.ForbiddenVehicleTypeException;
+import com.trial_task.food_delivery_fee.exception.InvalidDeliveryVolumesException;
+import com.trial_task.food_delivery_fee.model.WeatherData;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+public class FeeSimulationServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 7, 0);
+
+    @Mock
+    private WeatherDataService weatherDataService;
+
+    @InjectMocks
+    private FeeSimulationService feeSimulationService;
+
+    @Test
+    public void testSimulate_ShouldSumFeesAndCountForbiddenHoursPerCityAndVehicle() throws Exception {
+        when(weatherDataService.getHistory(anyString(), any(LocalDateTime.class))).thenReturn(StationHistory.EMPTY);
+        when(weatherDataService.getHistory(eq("Tallinn"), any(LocalDateTime.class))).thenReturn(history(List.of(
+                weather(-5.0, 12.0, "Light snow shower", START.plusMinutes(50)),
+                weather(2.0, 24.0, "", START.plusMinutes(110)),
+                weather(5.0, 3.0, "", START.plusMinutes(200)))));
+        DeliveryVolumes volumes = volumes("""
+                dateTime,city,vehicleType,deliveries
+                2024-03-01T07:00,Tallinn,bike,5
+                2024-03-01T08:00,Tallinn,bike,10
+                2024-03-01T09:00,Tallinn,bike,4
+                2024-03-01T09:30,Tallinn,car,2
+                2024-03-01T11:00,Tallinn,bike
+                2024-03-01T11:00,Narva,car,3
+                2024-03-01T11:00,Tartu,plane,2
+                """);
+
+        FeeSimulationReport report = feeSimulationService.simulate(TestFeeRules.compile(), volumes);
+
+        assertEquals(START, report.from());
+        assertEquals(START.plusHours(4), report.to());
+        assertEquals(27, report.deliveries());
+        assertEquals(61.0, report.totalFees());
+        assertEquals(List.of(
+                new FeeSimulationReport.Row("Tallinn", "bike", 20, 4, 5, 53.0, 2),
+                new FeeSimulationReport.Row("Tallinn", "car", 2, 0, 0, 8.0, 0),
+                new FeeSimulationReport.Row("Narva", "car", 3, 0, 3, 0.0, 0),
+                new FeeSimulationReport.Row("Tartu", "plane", 2, 0, 2, 0.0, 0)), report.rows());
+
+        FeeRuleTable candidate = FeeRuleTable.compile(TestFeeRules.properties()
+                .withProperty("fee.windSpeed.maxAllowedWindSpeed", "10.0"));
+        FeeSimulationReport.Row bike = feeSimulationService.simulate(candidate, volumes).rows().get(0);
+
+        assertEquals(new FeeSimulationReport.Row("Tallinn", "bike", 20, 14, 5, 3.0, 3), bike);
+    }
+
+    @Test
+    public void testSimulate_ShouldMatchWeatherFeeServicePerDelivery() throws Exception {
+        Random random = new Random(42);
+        String[] phenomena = {"", "Light snow shower", "Moderate rain", "Glaze", "Sleet", "Thunder"};
+        TreeMap<LocalDateTime, WeatherData> history = new TreeMap<>();
+        for (int i = 0; i < 500; i++) {
+            LocalDateTime observedAt = START.plusMinutes(15 * i);
+            history.put(observedAt, weather(Math.round(random.nextDouble() * 300 - 150) / 10.0,
+                    Math.round(random.nextDouble() * 250) / 10.0,
+                    phenomena[random.nextInt(phenomena.length)], observedAt));
+        }
+        when(weatherDataService.getHistory(eq("Tallinn"), any(LocalDateTime.class)))
+                .thenReturn(history(history.values()));
+
+        String[] vehicleTypes = {"car", "scooter", "bike"};
+        FeeRuleTable rules = TestFeeRules.compile();
+        WeatherFeeService weatherFeeService = new WeatherFeeService(new FeeRuleService(rules));
+        StringBuilder csv = new StringBuilder();
+        Map<String, Double> expectedFees = new TreeMap<>();
+        Map<String, Long> expectedForbidden = new TreeMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            LocalDateTime dateTime = START.plusSeconds(random.nextInt(500 * 15 * 60));
+            String vehicleType = vehicleTypes[random.nextInt(vehicleTypes.length)];
+            int deliveries = 1 + random.nextInt(5);
+            csv.append(dateTime).append(",Tallinn,").append(vehicleType).append(',').append(deliveries).append('\n');
+
+            WeatherData weatherData = history.floorEntry(dateTime).getValue();
+            try {
+                double fee = rules.baseFee(rules.cityId("Tallinn"), rules.vehicleId(vehicleType))
+                        + weatherFeeService.calculateAirTemperatureExtraFee(vehicleType, weatherData)
+                        + weatherFeeService.calculateWindSpeedExtraFee(vehicleType, weatherData)
+                        + weatherFeeService.calculateWeatherPhenomenonExtraFee(vehicleType, weatherData);
+                expectedFees.merge(vehicleType, fee * deliveries, Double::sum);
+            } catch (ForbiddenVehicleTypeException e) {
+                expectedForbidden.merge(vehicleType, (long) deliveries, Long::sum);
+            }
+        }
+
+        FeeSimulationReport report = feeSimulationService.simulate(rules, volumes(csv.toString()));
+
+        for (FeeSimulationReport.Row row : report.rows()) {
+            assertEquals(expectedFees.getOrDefault(row.vehicleType(), 0.0), row.totalFees(), 1e-6);
+            assertEquals(expectedForbidden.getOrDefault(row.vehicleType(), 0L), row.forbiddenDeliveries());
+            assertEquals(0, row.rejectedDeliveries());
+        }
+        assertEquals(3, report.rows().size());
+    }
+
+    @Test
+    public void testParse_ShouldRejectInvalidVolumes() {
+        assertThrows(InvalidDeliveryVolumesException.class, () -> volumes("2024-03-01T07:00,Tallinn\n"));
+        assertThrows(InvalidDeliveryVolumesException.class, () -> volumes("yesterday,Tallinn,car,1\n"));
+        assertThrows(InvalidDeliveryVolumesException.class, () -> volumes("2024-03-01T07:00,Tallinn,car,many\n"));
+        assertThrows(InvalidDeliveryVolumesException.class, () -> volumes("2024-03-01T07:00,Tallinn,car,-1\n"));
+    }
+
+    private static StationHistory history(Collection<WeatherData> observations) {
+        return StationHistory.EMPTY.with(observations, Long.MIN_VALUE);
+    }
+
+    private static DeliveryVolumes volumes(String csv) throws InvalidDeliveryVolumesException {
+        return DeliveryVolumes.parse(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static WeatherData weather(double airTemperature, double windSpeed, String phenomenon,
+                                       LocalDateTime observedAt) {
+        return new WeatherData("Tallinn-Harku", "26038", airTemperature, windSpeed, phenomenon, observedAt);
+    }
+}
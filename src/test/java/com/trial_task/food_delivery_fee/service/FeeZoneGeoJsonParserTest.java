@@ -0,0 +1,62 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.exception.InvalidFeeZonesException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeeZoneGeoJsonParserTest {
+
+    private static final String ZONES = """
+            {"type": "FeatureCollection",
+             "features": [
+              {"type": "Feature",
+               "properties": {"name": "Kesklinn", "city": "Tallinn", "baseFees": {"car": 4.5, "bike": 3.5}},
+               "geometry": {"type": "Polygon",
+                            "coordinates": [[[24.70, 59.42], [24.80, 59.42], [24.80, 59.45], [24.70, 59.45], [24.70, 59.42]]]}},
+              {"type": "Feature",
+               "properties": {"name": "Rannarajoon", "city": "Pärnu"},
+               "geometry": {"type": "MultiPolygon",
+                            "coordinates": [[[[24.45, 58.36], [24.50, 58.36], [24.50, 58.38], [24.45, 58.36]]],
+                                            [[[24.55, 58.36], [24.60, 58.36], [24.60, 58.38], [24.55, 58.36]]]]}}
+             ]}""";
+
+    @Test
+    void testParse_ShouldReadZonesAndBaseFees() throws InvalidFeeZonesException {
+        FeeZoneIndex index = FeeZoneGeoJsonParser.parse(stream(ZONES));
+
+        assertEquals(2, index.size());
+        FeeZoneIndex.Zone centre = index.find(59.437, 24.754);
+        assertEquals("Kesklinn", centre.name());
+        assertEquals("Tallinn", centre.city());
+        assertEquals(Map.of("car", 4.5, "bike", 3.5), centre.baseFees());
+
+        FeeZoneIndex.Zone beach = index.find(58.365, 24.59);
+        assertEquals("Rannarajoon", beach.name());
+        assertTrue(beach.baseFees().isEmpty());
+        assertNull(index.find(58.365, 24.52));
+    }
+
+    @Test
+    void testParse_ShouldThrow_WhenZonesInvalid() {
+        assertThrows(InvalidFeeZonesException.class, () -> FeeZoneGeoJsonParser.parse(stream("{\"type\": \"Feature\"}")));
+        assertThrows(InvalidFeeZonesException.class, () -> FeeZoneGeoJsonParser.parse(stream("{\"type\": ")));
+        assertThrows(InvalidFeeZonesException.class, () -> FeeZoneGeoJsonParser.parse(stream(
+                ZONES.replace("\"Rannarajoon\"", "\"Kesklinn\""))));
+        assertThrows(InvalidFeeZonesException.class, () -> FeeZoneGeoJsonParser.parse(stream(
+                ZONES.replace("\"city\": \"Pärnu\"", "\"town\": \"Pärnu\""))));
+        assertThrows(InvalidFeeZonesException.class, () -> FeeZoneGeoJsonParser.parse(stream(
+                ZONES.replace("\"car\": 4.5", "\"car\": \"cheap\""))));
+        assertThrows(InvalidFeeZonesException.class, () -> FeeZoneGeoJsonParser.parse(stream(
+                ZONES.replace("\"Polygon\"", "\"Point\""))));
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,118 @@
+package com.trial_task.food_delivery_fee.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.geom.Path2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeeZoneIndexTest {
+
+    private static final FeeZoneIndex.Zone OLD_TOWN = new FeeZoneIndex.Zone("Vanalinn", "Tallinn", Map.of("car", 5.0));
+    private static final FeeZoneIndex.Zone CENTRE = new FeeZoneIndex.Zone("Kesklinn", "Tallinn", Map.of("car", 4.5));
+    private static final FeeZoneIndex.Zone ISLANDS = new FeeZoneIndex.Zone("Saared", "Pärnu", Map.of());
+
+    @Test
+    void testFind_ShouldReturnFirstZoneContainingPosition() {
+        FeeZoneIndex index = FeeZoneIndex.of(List.of(OLD_TOWN, CENTRE),
+                List.of(rings(square(24.74, 59.435, 24.755, 59.44)), rings(square(24.70, 59.42, 24.80, 59.45))));
+
+        assertEquals(OLD_TOWN, index.find(59.437, 24.745));
+        assertEquals(CENTRE, index.find(59.43, 24.77));
+        assertNull(index.find(59.46, 24.77));
+        assertNull(index.find(Double.NaN, 24.77));
+        assertEquals(4.5, CENTRE.baseFee("car", 4.0));
+        assertEquals(3.5, CENTRE.baseFee("scooter", 3.5));
+    }
+
+    @Test
+    void testFind_ShouldHandleHolesAndSeveralPolygons() {
+        FeeZoneIndex index = FeeZoneIndex.of(List.of(ISLANDS), List.<double[][]>of(rings(
+                square(24.0, 58.0, 24.2, 58.2),
+                square(24.05, 58.05, 24.15, 58.15),
+                square(24.5, 58.0, 24.6, 58.1))));
+
+        assertEquals(ISLANDS, index.find(58.02, 24.02));
+        assertNull(index.find(58.1, 24.1));
+        assertEquals(ISLANDS, index.find(58.05, 24.55));
+        assertNull(index.find(58.05, 24.35));
+    }
+
+    @Test
+    void testFind_ShouldMatchLinearScan() {
+        Random random = new Random(42);
+        List<FeeZoneIndex.Zone> zones = new ArrayList<>();
+        List<double[][]> rings = new ArrayList<>();
+        List<Path2D> shapes = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            double[] ring = randomPolygon(random, 57.5 + random.nextDouble() * 2.2, 21.5 + random.nextDouble() * 6.5,
+                    0.01 + random.nextDouble() * 0.2);
+            zones.add(new FeeZoneIndex.Zone("zone" + i, "Tallinn", Map.of()));
+            rings.add(rings(ring));
+            shapes.add(toPath(ring));
+        }
+        FeeZoneIndex index = FeeZoneIndex.of(zones, rings);
+
+        for (int i = 0; i < 5000; i++) {
+            double latitude = 57.4 + random.nextDouble() * 2.4;
+            double longitude = 21.4 + random.nextDouble() * 6.7;
+            FeeZoneIndex.Zone expected = null;
+            for (int zone = 0; zone < shapes.size(); zone++) {
+                if (shapes.get(zone).contains(longitude, latitude)) {
+                    expected = zones.get(zone);
+                    break;
+                }
+            }
+
+            assertEquals(expected, index.find(latitude, longitude));
+        }
+    }
+
+    @Test
+    void testOf_ShouldRejectInvalidPolygons() {
+        assertThrows(IllegalArgumentException.class, () -> FeeZoneIndex.of(List.of(CENTRE), List.of()));
+        assertThrows(IllegalArgumentException.class, () -> FeeZoneIndex.of(List.of(CENTRE), List.<double[][]>of(rings())));
+        assertThrows(IllegalArgumentException.class,
+                () -> FeeZoneIndex.of(List.of(CENTRE), List.<double[][]>of(rings(new double[]{24.7, 59.4, 24.8, 59.4}))));
+        assertEquals(0, FeeZoneIndex.of(List.of(), List.of()).size());
+        assertNull(FeeZoneIndex.empty().find(59.43, 24.75));
+    }
+
+    private static double[][] rings(double[]... rings) {
+        return rings;
+    }
+
+    private static double[] square(double minLongitude, double minLatitude, double maxLongitude, double maxLatitude) {
+        return new double[]{minLongitude, minLatitude, maxLongitude, minLatitude, maxLongitude, maxLatitude,
+                minLongitude, maxLatitude, minLongitude, minLatitude};
+    }
+
+    /**
+     * Creates a star-shaped polygon around a centre, so that it is simple but usually not convex.
+     */
+    private static double[] randomPolygon(Random random, double latitude, double longitude, double radius) {
+        int points = 3 + random.nextInt(10);
+        double[] ring = new double[points * 2];
+        for (int i = 0; i < points; i++) {
+            double angle = 2 * Math.PI * i / points;
+            double distance = radius * (0.3 + random.nextDouble() * 0.7);
+            ring[i * 2] = longitude + Math.cos(angle) * distance;
+            ring[i * 2 + 1] = latitude + Math.sin(angle) * distance;
+        }
+        return ring;
+    }
+
+    private static Path2D toPath(double[] ring) {
+        Path2D path = new Path2D.Double(Path2D.WIND_EVEN_ODD);
+        path.moveTo(ring[0], ring[1]);
+        for (int i = 2; i < ring.length; i += 2) {
+            path.lineTo(ring[i], ring[i + 1]);
+        }
+        path.closePath();
+        return path;
+    }
+}
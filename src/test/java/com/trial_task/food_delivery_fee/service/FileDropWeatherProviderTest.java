@@ -0,0 +1,70 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.exception.WeatherDataFetchException;
+import com.trial_task.food_delivery_fee.model.WeatherData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileDropWeatherProviderTest {
+
+    @TempDir
+    private Path directory;
+
+    private FileDropWeatherProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        provider = new FileDropWeatherProvider(directory);
+        ReflectionTestUtils.setField(provider, "cityToStationMap", Map.of("Tallinn", "Tallinn-Harku", "Pärnu", "Pärnu"));
+    }
+
+    @Test
+    void testFetchWeatherData_ShouldReadXmlAndJsonFiles() throws IOException, WeatherDataFetchException {
+        Files.writeString(directory.resolve("harku.xml"), """
+                <observations timestamp="1711285872"><station><name>Tallinn-Harku</name><wmocode>26038</wmocode>\
+                <airtemperature>-2.1</airtemperature><windspeed>4.7</windspeed></station></observations>""");
+        Files.writeString(directory.resolve("parnu.json"), """
+                {"timestamp": 1711289472, "stations": [{"name": "Pärnu", "airtemperature": 1.0}]}""");
+        Files.writeString(directory.resolve("notes.txt"), "not an observation file");
+
+        List<WeatherData> result = provider.fetchWeatherData().stream()
+                .sorted(Comparator.comparing(WeatherData::getStationName))
+                .toList();
+
+        assertEquals(2, result.size());
+        assertEquals("Pärnu", result.get(0).getStationName());
+        assertEquals("Tallinn-Harku", result.get(1).getStationName());
+        assertEquals(4.7, result.get(1).getWindSpeed());
+    }
+
+    @Test
+    void testFetchWeatherData_ShouldSkipInvalidFiles() throws IOException, WeatherDataFetchException {
+        Files.writeString(directory.resolve("broken.json"), "{\"stations\": [");
+        Files.writeString(directory.resolve("parnu.json"), """
+                {"timestamp": 1711289472, "stations": [{"name": "Pärnu", "airtemperature": 1.0}]}""");
+
+        List<WeatherData> result = provider.fetchWeatherData();
+
+        assertEquals(1, result.size());
+        assertEquals("Pärnu", result.getFirst().getStationName());
+    }
+
+    @Test
+    void testFetchWeatherData_ShouldThrow_WhenDirectoryMissing() {
+        FileDropWeatherProvider missing = new FileDropWeatherProvider(directory.resolve("missing"));
+        ReflectionTestUtils.setField(missing, "cityToStationMap", Map.of("Tallinn", "Tallinn-Harku"));
+
+        assertThrows(WeatherDataFetchException.class, missing::fetchWeatherData);
+    }
+}
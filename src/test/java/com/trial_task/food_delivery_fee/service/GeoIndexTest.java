@@ -0,0 +1,76 @@
+package com.trial_task.food_delivery_fee.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoIndexTest {
+
+    private record Station(String name, double latitude, double longitude) {
+    }
+
+    private static final Station HARKU = new Station("Tallinn-Harku", 59.398, 24.603);
+    private static final Station TORAVERE = new Station("Tartu-Tõravere", 58.264, 26.461);
+    private static final Station PARNU = new Station("Pärnu", 58.384, 24.485);
+
+    @Test
+    void testNearest_ShouldReturnClosestStationAndDistance() {
+        GeoIndex<Station> index = GeoIndex.of(List.of(HARKU, TORAVERE, PARNU), Station::latitude, Station::longitude);
+
+        GeoIndex.Neighbour<Station> nearest = index.nearest(59.437, 24.754);
+
+        assertEquals(HARKU, nearest.value());
+        assertEquals(9.6, nearest.distanceKm(), 0.5);
+        List<GeoIndex.Neighbour<Station>> fromHarku = index.nearest(HARKU.latitude(), HARKU.longitude(), 2);
+        assertEquals(HARKU, fromHarku.get(0).value());
+        assertEquals(PARNU, fromHarku.get(1).value());
+        assertEquals(113, fromHarku.get(1).distanceKm(), 1);
+    }
+
+    @Test
+    void testNearest_ShouldMatchLinearScan() {
+        Random random = new Random(42);
+        List<Station> stations = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            stations.add(new Station("s" + i, 57.5 + random.nextDouble() * 2.2, 21.5 + random.nextDouble() * 6.5));
+        }
+        GeoIndex<Station> index = GeoIndex.of(stations, Station::latitude, Station::longitude);
+
+        for (int i = 0; i < 200; i++) {
+            double latitude = 57 + random.nextDouble() * 3;
+            double longitude = 21 + random.nextDouble() * 7.5;
+            List<Station> expected = stations.stream()
+                    .sorted(Comparator.comparingDouble(station -> squaredChord(station, latitude, longitude)))
+                    .limit(5)
+                    .toList();
+
+            assertEquals(expected.getFirst(), index.nearest(latitude, longitude).value());
+            assertEquals(expected, index.nearest(latitude, longitude, 5).stream().map(GeoIndex.Neighbour::value).toList());
+        }
+    }
+
+    @Test
+    void testNearest_ShouldHandleEmptyAndSmallIndexes() {
+        GeoIndex<Station> empty = GeoIndex.of(List.of(), Station::latitude, Station::longitude);
+        GeoIndex<Station> single = GeoIndex.of(List.of(PARNU), Station::latitude, Station::longitude);
+
+        assertNull(empty.nearest(59, 24));
+        assertTrue(empty.nearest(59, 24, 3).isEmpty());
+        assertEquals(PARNU, single.nearest(59, 24).value());
+        assertEquals(1, single.nearest(59, 24, 3).size());
+    }
+
+    private static double squaredChord(Station station, double latitude, double longitude) {
+        double lat1 = Math.toRadians(station.latitude());
+        double lat2 = Math.toRadians(latitude);
+        double dx = Math.cos(lat1) * Math.cos(Math.toRadians(station.longitude())) - Math.cos(lat2) * Math.cos(Math.toRadians(longitude));
+        double dy = Math.cos(lat1) * Math.sin(Math.toRadians(station.longitude())) - Math.cos(lat2) * Math.sin(Math.toRadians(longitude));
+        double dz = Math.sin(lat1) - Math.sin(lat2);
+        return dx * dx + dy * dy + dz * dz;
+    }
+}
@@ -0,0 +1,82 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.exception.WeatherDataParsingException;
+import com.trial_task.food_delivery_fee.model.WeatherData;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObservationsJsonParserTest {
+
+    private static final Set<String> STATIONS = Set.of("Tallinn-Harku", "Tartu-Tõravere", "Pärnu");
+
+    private static final String OBSERVATIONS = """
+            {"timestamp": 1711285872,
+             "stations": [
+              {"name": "Kuressaare linn", "airtemperature": 7.3},
+              {"name": "Tartu-Tõravere", "wmocode": "26242", "longitude": 26.46, "latitude": 58.26,
+               "phenomenon": "Light snow shower", "airtemperature": -2.1, "windspeed": 4.5},
+              {"name": "Pärnu", "wmocode": "41803", "phenomenon": null, "airtemperature": 1.0, "windspeed": null,
+               "timestamp": 1711289472}
+             ]}""";
+
+    @Test
+    void testParse_ShouldKeepOnlyRequestedStations() throws WeatherDataParsingException {
+        List<WeatherData> result = ObservationsJsonParser.parse(stream(OBSERVATIONS), STATIONS);
+
+        assertEquals(2, result.size());
+        WeatherData tartu = result.getFirst();
+        assertEquals("Tartu-Tõravere", tartu.getStationName());
+        assertEquals("26242", tartu.getWMOCode());
+        assertEquals(-2.1, tartu.getAirTemperature());
+        assertEquals(4.5, tartu.getWindSpeed());
+        assertEquals("Light snow shower", tartu.getWeatherPhenomenon());
+        assertEquals(at(1711285872), tartu.getObservationTimestamp());
+        assertEquals(58.26, tartu.getLatitude());
+        assertEquals(26.46, tartu.getLongitude());
+
+        WeatherData parnu = result.get(1);
+        assertEquals(0.0, parnu.getWindSpeed());
+        assertEquals("", parnu.getWeatherPhenomenon());
+    }
+
+    @Test
+    void testParse_ShouldPreferStationTimestamp() throws WeatherDataParsingException {
+        List<WeatherData> result = ObservationsJsonParser.parse(stream(OBSERVATIONS), Set.of("Pärnu"));
+
+        assertEquals(at(1711289472), result.getFirst().getObservationTimestamp());
+    }
+
+    @Test
+    void testParse_ShouldThrow_WhenTimestampMissing() {
+        String json = "{\"stations\": [{\"name\": \"Pärnu\"}]}";
+
+        assertThrows(WeatherDataParsingException.class, () -> ObservationsJsonParser.parse(stream(json), STATIONS));
+    }
+
+    @Test
+    void testParse_ShouldThrow_WhenDocumentInvalid() {
+        assertThrows(WeatherDataParsingException.class, () -> ObservationsJsonParser.parse(stream("[]"), STATIONS));
+        assertThrows(WeatherDataParsingException.class,
+                () -> ObservationsJsonParser.parse(stream("{\"timestamp\": 1711285872, \"stations\": [{\"name\": "), STATIONS));
+        assertThrows(WeatherDataParsingException.class,
+                () -> ObservationsJsonParser.parse(stream("{\"stations\": [{\"name\": \"Pärnu\", \"airtemperature\": \"warm\"}]}"), STATIONS));
+    }
+
+    private static LocalDateTime at(long epochSecond) {
+        return Instant.ofEpochSecond(epochSecond).atZone(ZoneId.systemDefault()).toLocalDateTime();
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
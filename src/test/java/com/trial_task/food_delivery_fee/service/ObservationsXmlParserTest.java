@@ -0,0 +1,109 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.exception.WeatherDataParsingException;
+import com.trial_task.food_delivery_fee.model.WeatherData;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObservationsXmlParserTest {
+
+    private static final Set<String> STATIONS = Set.of("Tallinn-Harku", "Tartu-Tõravere", "Pärnu");
+
+    private static final String OBSERVATIONS = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <observations timestamp="1711285872">
+            <station>
+            <name>Kuressaare linn</name>
+            <wmocode/>
+            <phenomenon/>
+            <airtemperature>7.3</airtemperature>
+            <windspeed/>
+            </station>
+            <station>
+            <name>Tartu-Tõravere</name>
+            <wmocode>26242</wmocode>
+            <longitude>26.46130555576</longitude>
+            <latitude>58.264072222483</latitude>
+            <phenomenon>Light snow shower</phenomenon>
+            <airtemperature>-2.1</airtemperature>
+            <windspeed>4.5</windspeed>
+            <windspeedmax>7.1</windspeedmax>
+            </station>
+            <station>
+            <name>Pärnu</name>
+            <wmocode>41803</wmocode>
+            <phenomenon/>
+            <airtemperature>1.0</airtemperature>
+            <windspeed/>
+            </station>
+            </observations>""";
+
+    @Test
+    void testParse_ShouldKeepOnlyRequestedStations() throws WeatherDataParsingException {
+        List<WeatherData> result = ObservationsXmlParser.parse(stream(OBSERVATIONS), STATIONS);
+
+        assertEquals(2, result.size());
+        WeatherData tartu = result.getFirst();
+        assertEquals("Tartu-Tõravere", tartu.getStationName());
+        assertEquals(-2.1, tartu.getAirTemperature());
+        assertEquals(4.5, tartu.getWindSpeed());
+        assertEquals("Light snow shower", tartu.getWeatherPhenomenon());
+        assertEquals(58.264072222483, tartu.getLatitude());
+        assertEquals(26.46130555576, tartu.getLongitude());
+
+        WeatherData parnu = result.get(1);
+        assertEquals(0.0, parnu.getWindSpeed());
+        assertEquals("", parnu.getWeatherPhenomenon());
+        assertFalse(parnu.hasPosition());
+    }
+
+    @Test
+    void testParse_ShouldKeepAllStations_WhenPredicateAcceptsAll() throws WeatherDataParsingException {
+        List<WeatherData> streamed = ObservationsXmlParser.parse(stream(OBSERVATIONS), stationName -> true);
+        List<WeatherData> bound = ObservationsXmlParser.parseWithJaxb(stream(OBSERVATIONS), stationName -> true, stationCount -> {
+        });
+
+        assertEquals(3, streamed.size());
+        assertEquals("Kuressaare linn", streamed.getFirst().getStationName());
+        assertEquals(bound.toString(), streamed.toString());
+    }
+
+    @Test
+    void testParse_ShouldMatchJaxbParser() throws WeatherDataParsingException {
+        List<WeatherData> streamed = ObservationsXmlParser.parse(stream(OBSERVATIONS), STATIONS);
+        List<WeatherData> bound = ObservationsXmlParser.parseWithJaxb(stream(OBSERVATIONS), STATIONS);
+
+        assertEquals(bound.size(), streamed.size());
+        for (int i = 0; i < bound.size(); i++) {
+            assertEquals(bound.get(i).toString(), streamed.get(i).toString());
+        }
+    }
+
+    @Test
+    void testParse_ShouldThrow_WhenTimestampMissing() {
+        String xml = "<observations><station><name>Pärnu</name></station></observations>";
+
+        assertThrows(WeatherDataParsingException.class, () -> ObservationsXmlParser.parse(stream(xml), STATIONS));
+        assertThrows(WeatherDataParsingException.class, () -> ObservationsXmlParser.parseWithJaxb(stream(xml), STATIONS));
+    }
+
+    @Test
+    void testParse_ShouldThrow_WhenNumberInvalid() {
+        String xml = """
+                <observations timestamp="1711285872"><station><name>Pärnu</name>\
+                <airtemperature>warm</airtemperature></station></observations>""";
+
+        assertThrows(WeatherDataParsingException.class, () -> ObservationsXmlParser.parse(stream(xml), STATIONS));
+    }
+
+    private static InputStream stream(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+}
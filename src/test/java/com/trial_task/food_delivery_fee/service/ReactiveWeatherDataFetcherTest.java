@@ -0,0 +1,111 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.sun.net.httpserver.HttpServer;
+import com.trial_task.food_delivery_fee.exception.WeatherDataFetchException;
+import com.trial_task.food_delivery_fee.exception.WeatherDataParsingException;
+import com.trial_task.food_delivery_fee.model.WeatherData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ReactiveWeatherDataFetcherTest {
+
+    private HttpServer stub;
+    private final List<String> ifNoneMatchHeaders = new CopyOnWriteArrayList<>();
+    private volatile String body;
+    private volatile int status;
+
+    private ReactiveWeatherDataFetcher reactiveWeatherDataFetcher;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.createContext("/observations.php", exchange -> {
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            ifNoneMatchHeaders.add(String.valueOf(ifNoneMatch));
+            if ("\"v1\"".equals(ifNoneMatch)) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("ETag", "\"v1\"");
+            exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(bytes);
+            }
+        });
+        stub.start();
+
+        WeatherDataFetcher weatherDataFetcher = new WeatherDataFetcher();
+        ReflectionTestUtils.setField(weatherDataFetcher, "cityToStationMap", Map.of("Tallinn", "Tallinn-Harku"));
+        ReflectionTestUtils.setField(weatherDataFetcher, "parser", "stax");
+        reactiveWeatherDataFetcher = new ReactiveWeatherDataFetcher(WebClient.create(), weatherDataFetcher);
+        ReflectionTestUtils.setField(reactiveWeatherDataFetcher, "url",
+                "http://localhost:" + stub.getAddress().getPort() + "/observations.php");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        stub.stop(0);
+    }
+
+    @Test
+    public void testFetchWeatherData_ShouldStreamBodyIntoParser_AndSkip_WhenNotModified() {
+        status = 200;
+        body = """
+                <observations timestamp="1711285872">
+                <station><name>Kuressaare linn</name><airtemperature>7.3</airtemperature></station>
+                <station><name>Tallinn-Harku</name><wmocode>26038</wmocode><phenomenon>Variable clouds</phenomenon>
+                <airtemperature>3.8</airtemperature><windspeed>2.8</windspeed></station>
+                </observations>""";
+
+        StepVerifier.create(reactiveWeatherDataFetcher.fetchWeatherData())
+                .assertNext(weatherData -> {
+                    assertEquals(1, weatherData.size());
+                    WeatherData tallinn = weatherData.getFirst();
+                    assertEquals("Tallinn-Harku", tallinn.getStationName());
+                    assertEquals(3.8, tallinn.getAirTemperature());
+                })
+                .verifyComplete();
+
+        StepVerifier.create(reactiveWeatherDataFetcher.fetchWeatherData())
+                .assertNext(weatherData -> assertEquals(0, weatherData.size()))
+                .verifyComplete();
+
+        assertEquals(List.of("null", "\"v1\""), ifNoneMatchHeaders);
+    }
+
+    @Test
+    public void testFetchWeatherData_ShouldFail_WhenStatusNotOk() {
+        status = 500;
+        body = "";
+
+        StepVerifier.create(reactiveWeatherDataFetcher.fetchWeatherData())
+                .expectError(WeatherDataFetchException.class)
+                .verify();
+    }
+
+    @Test
+    public void testFetchWeatherData_ShouldFail_WhenBodyInvalid() {
+        status = 200;
+        body = "<invalidXml>";
+
+        StepVerifier.create(reactiveWeatherDataFetcher.fetchWeatherData())
+                .expectError(WeatherDataParsingException.class)
+                .verify();
+    }
+}
@@ -0,0 +1,154 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.model.WeatherData;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StationHistoryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 7, 0);
+
+    @Test
+    void testFloor_ShouldReturnObservationInEffect() {
+        StationHistory history = StationHistory.EMPTY.with(List.of(
+                weather(10.1, 20.0, "Light snow shower", 60),
+                weather(-10.0, 9.9, null, 0),
+                weather(0.3, 4.0, "Light snow shower", 120)), Long.MIN_VALUE);
+
+        assertEquals(3, history.size());
+        assertNull(history.floor(epochSecond(-1)));
+        assertEquals(-1, history.floorIndex(epochSecond(-1)));
+        assertFalse(history.covers(epochSecond(-1)));
+        assertTrue(history.covers(epochSecond(0)));
+
+        WeatherData observation = history.floor(epochSecond(90));
+        assertEquals("Tallinn-Harku", observation.getStationName());
+        assertEquals("26038", observation.getWMOCode());
+        assertEquals(10.1, observation.getAirTemperature());
+        assertEquals(20.0, observation.getWindSpeed());
+        assertEquals("Light snow shower", observation.getWeatherPhenomenon());
+        assertEquals(START.plusMinutes(60), observation.getObservationTimestamp());
+        assertEquals(59.398, observation.getLatitude());
+
+        assertEquals(-10.0, history.airTemperature(0));
+        assertEquals(9.9, history.windSpeed(0));
+        assertNull(history.weatherPhenomenon(0));
+        assertEquals(0.3, history.floor(epochSecond(500)).getAirTemperature());
+    }
+
+    @Test
+    void testGet_ShouldReturnReportedValuesExactly() {
+        List<WeatherData> observations = new ArrayList<>();
+        for (int tenths = -500; tenths <= 500; tenths++) {
+            observations.add(weather(tenths / 10.0, (tenths + 500) / 10.0, "Clear", tenths + 500));
+        }
+        StationHistory history = StationHistory.EMPTY.with(observations, Long.MIN_VALUE);
+
+        for (int index = 0; index < observations.size(); index++) {
+            assertEquals(observations.get(index).getAirTemperature(), history.airTemperature(index));
+            assertEquals(observations.get(index).getWindSpeed(), history.get(index).getWindSpeed());
+        }
+    }
+
+    @Test
+    void testGet_ShouldKeepFullPrecision() {
+        StationHistory history = StationHistory.EMPTY.with(List.of(
+                weather(-10.04, 10.04, "Clear", 0),
+                weather(-2.0 / 3, 14.999, "Clear", 60)), Long.MIN_VALUE);
+
+        assertEquals(-10.04, history.airTemperature(0));
+        assertEquals(10.04, history.windSpeed(0));
+        assertEquals(-2.0 / 3, history.get(1).getAirTemperature());
+        assertEquals(14.999, history.get(1).getWindSpeed());
+    }
+
+    @Test
+    void testWith_ShouldKeepObservationsWithoutPhenomenon_WhenTooManyPhenomena() {
+        List<WeatherData> observations = new ArrayList<>();
+        for (int minute = 0; minute < 300; minute++) {
+            observations.add(weather(1.0, 1.0, "Phenomenon " + minute, minute));
+        }
+        StationHistory history = StationHistory.EMPTY.with(observations, Long.MIN_VALUE)
+                .with(List.of(weather(2.0, 2.0, "Phenomenon 0", 300)), Long.MIN_VALUE);
+
+        assertEquals(301, history.size());
+        assertEquals("Phenomenon 254", history.weatherPhenomenon(254));
+        assertNull(history.weatherPhenomenon(255));
+        assertNull(history.get(299).getWeatherPhenomenon());
+        assertEquals(1.0, history.get(299).getAirTemperature());
+        assertEquals("Phenomenon 0", history.weatherPhenomenon(300));
+    }
+
+    @Test
+    void testWith_ShouldShareColumnsWithoutExposingLaterAppends() {
+        StationHistory first = StationHistory.EMPTY.with(List.of(weather(1.0, 1.0, "Clear", 0)), Long.MIN_VALUE);
+        StationHistory second = first.with(List.of(weather(2.0, 2.0, "Clear", 60)), Long.MIN_VALUE);
+        StationHistory branch = first.with(List.of(weather(3.0, 3.0, "Rain", 60)), Long.MIN_VALUE);
+
+        assertEquals(1, first.size());
+        assertEquals(1.0, first.floor(epochSecond(600)).getAirTemperature());
+        assertEquals(2.0, second.floor(epochSecond(600)).getAirTemperature());
+        assertEquals("Clear", second.weatherPhenomenon(1));
+        assertEquals(3.0, branch.floor(epochSecond(600)).getAirTemperature());
+        assertEquals("Rain", branch.weatherPhenomenon(1));
+    }
+
+    @Test
+    void testWith_ShouldMergeOutOfOrderAndDropOldObservations() {
+        List<WeatherData> hourly = new ArrayList<>();
+        for (int hour = 0; hour < 100; hour += 2) {
+            hourly.add(weather(hour, 1.0, "Clear", hour * 60));
+        }
+        StationHistory history = StationHistory.EMPTY;
+        for (WeatherData observation : hourly) {
+            history = history.with(List.of(observation), epochSecond(observation.getObservationTimestamp()) - 48 * 3600);
+        }
+        assertEquals(25, history.size());
+        assertEquals(50.0, history.airTemperature(0));
+
+        history = history.with(List.of(weather(-1.0, 1.0, "Clear", 61 * 60), weather(5.0, 1.0, "Clear", 62 * 60),
+                weather(-2.0, 1.0, "Clear", 10 * 60)), Long.MIN_VALUE);
+
+        assertEquals(26, history.size());
+        assertEquals(-1.0, history.floor(epochSecond(61 * 60 + 30)).getAirTemperature());
+        assertEquals(62.0, history.floor(epochSecond(62 * 60)).getAirTemperature());
+        assertEquals(50.0, history.airTemperature(0));
+    }
+
+    @Test
+    void testRange_ShouldReturnObservationsInRange() {
+        List<WeatherData> observations = new ArrayList<>();
+        for (int minute = 0; minute < 600; minute += 10) {
+            observations.add(weather(minute / 10.0, 1.0, "Clear", minute));
+        }
+        StationHistory history = StationHistory.EMPTY.with(observations, Long.MIN_VALUE);
+
+        StationHistory range = history.range(epochSecond(95), epochSecond(200));
+        assertEquals(10, range.size());
+        assertEquals(epochSecond(100), range.epochSecond(0));
+        assertEquals(19.0, range.airTemperature(9));
+        assertEquals(10.0, range.floor(epochSecond(105)).getAirTemperature());
+        assertEquals(0, history.range(epochSecond(700), epochSecond(800)).size());
+        assertEquals(0, history.range(epochSecond(200), epochSecond(100)).size());
+    }
+
+    private static long epochSecond(int minutes) {
+        return epochSecond(START.plusMinutes(minutes));
+    }
+
+    private static long epochSecond(LocalDateTime dateTime) {
+        return StationHistory.toEpochSecond(dateTime);
+    }
+
+    private static WeatherData weather(double airTemperature, double windSpeed, String phenomenon, int minutes) {
+        WeatherData weatherData = new WeatherData("Tallinn-Harku", "26038", airTemperature, windSpeed, phenomenon,
+                START.plusMinutes(minutes));
+        weatherData.setPosition(59.398, 24.603);
+        return weatherData;
+    }
+}
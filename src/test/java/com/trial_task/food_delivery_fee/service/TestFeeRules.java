@@ -0,0 +1,39 @@
+package com.trial_task.food_delivery_fee.service;
+
+import org.springframework.mock.env.MockEnvironment;
+
+/**
+ * Fee rules shared by the service tests. Mirrors the rules in application.properties.
+ */
+final class TestFeeRules {
+
+    private TestFeeRules() {
+    }
+
+    static MockEnvironment properties() {
+        return new MockEnvironment()
+                .withProperty("fee.city.base", """
+                        {"Tallinn":{"car":4.0, "scooter":3.5, "bike":3.0}, \
+                        "Tartu":{"car":3.5, "scooter":3.0, "bike":2.5}, \
+                        "Pärnu":{"car":3.0, "scooter":2.5, "bike":2.0}}""")
+                .withProperty("fee.temperature.applicableVehicles", "bike,scooter")
+                .withProperty("fee.temperature.thresholds", "-10.0,0.0")
+                .withProperty("fee.temperature.fees", "1.0,0.5")
+                .withProperty("fee.windSpeed.applicableVehicles", "bike")
+                .withProperty("fee.windSpeed.maxAllowedWindSpeed", "20.0")
+                .withProperty("fee.windSpeed.thresholds", "10.0")
+                .withProperty("fee.windSpeed.fees", "0.5")
+                .withProperty("fee.weatherPhenomenon.applicableVehicles", "bike,scooter")
+                .withProperty("fee.weatherPhenomenon.forbiddenTypes", "glaze,hail,thunder")
+                .withProperty("fee.weatherPhenomenon.types", "snow,sleet,rain,shower")
+                .withProperty("fee.weatherPhenomenon.fees", "1.0,1.0,0.5,0.5");
+    }
+
+    static FeeRuleTable compile() {
+        return FeeRuleTable.compile(properties());
+    }
+
+    static FeeRuleService service() {
+        return new FeeRuleService(compile());
+    }
+}
@@ -4,11 +4,10 @@ import com.trial_task.food_delivery_fee.exception.ForbiddenCityException;
 import com.trial_task.food_delivery_fee.exception.ForbiddenVehicleTypeException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.test.util.ReflectionTestUtils;
-
-import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class ValidationServiceTest {
@@ -17,14 +16,7 @@ public class ValidationServiceTest {
 
     @BeforeEach
     public void setUp() {
-        validationService = new ValidationService();
-        ReflectionTestUtils.setField(validationService, "cityBaseFees",
-                Map.of("Tallinn", Map.of("car", 4.0, "scooter", 3.5, "bike", 3.0),
-                        "Tartu", Map.of("car", 3.5, "scooter", 3.0, "bike", 2.5)));
-        ReflectionTestUtils.setField(validationService, "cityToStationMap",
-                Map.of("Tallinn", "Tallinn-Harku",
-                        "Tartu", "Tartu-Tõravere",
-                        "Pärnu", "Pärnu"));
+        validationService = new ValidationService(TestFeeRules.service());
     }
 
     @Test
@@ -48,4 +40,11 @@ public class ValidationServiceTest {
 
         assertThrows(ForbiddenVehicleTypeException.class, () -> validationService.validateCityAndVehicleType(city, vehicleType));
     }
+
+    @Test
+    void testCheck_ShouldReturnRejectionWithoutThrowing() {
+        assertNull(validationService.check("Tallinn", "car"));
+        assertEquals(RejectionReason.INVALID_CITY, validationService.check("UnknownCity", "car").reason());
+        assertEquals(RejectionReason.INVALID_VEHICLE_TYPE, validationService.check("Tallinn", "unknownVehicle").reason());
+    }
 }
@@ -1,47 +1,67 @@
 package com.trial_task.food_delivery_fee.service;
 
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.trial_task.food_delivery_fee.config.WeatherClientConfig;
 import com.trial_task.food_delivery_fee.exception.WeatherDataFetchException;
 import com.trial_task.food_delivery_fee.exception.WeatherDataParsingException;
 import com.trial_task.food_delivery_fee.model.WeatherData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.MediaType;
 import org.springframework.test.util.ReflectionTestUtils;
-import org.springframework.web.client.RestClientException;
+import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
 
 
 @SpringBootTest
 public class WeatherDataFetcherTest {
 
-    @Mock
-    private RestTemplate restTemplate;
+    private static final String URL = "https://www.ilmateenistus.ee/ilma_andmed/xml/observations.php";
+
+    private MockRestServiceServer server;
 
-    @InjectMocks
     private WeatherDataFetcher weatherDataFetcher;
 
+    private SimpleMeterRegistry meterRegistry;
+
     @BeforeEach
     public void setup() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        meterRegistry = new SimpleMeterRegistry();
+        weatherDataFetcher = new WeatherDataFetcher(restTemplate, new WeatherMetrics(meterRegistry));
         ReflectionTestUtils.setField(weatherDataFetcher, "cityToStationMap", Map.of("Tallinn", "Tallinn-Harku"));
-        ReflectionTestUtils.setField(weatherDataFetcher, "url", "https://www.ilmateenistus.ee/ilma_andmed/xml/observations.php");
+        ReflectionTestUtils.setField(weatherDataFetcher, "url", URL);
     }
 
-    @Test
-    public void testFetchWeatherData_Success() throws WeatherDataParsingException, WeatherDataFetchException {
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(getXmlResponse(), HttpStatus.OK));
+    @ParameterizedTest
+    @ValueSource(strings = {"stax", "jaxb"})
+    public void testFetchWeatherData_Success(String parser) throws WeatherDataParsingException, WeatherDataFetchException {
+        ReflectionTestUtils.setField(weatherDataFetcher, "parser", parser);
+        server.expect(requestTo(URL)).andRespond(withSuccess(getXmlResponse(), MediaType.TEXT_XML));
 
         List<WeatherData> fetchedData = weatherDataFetcher.fetchWeatherData();
 
@@ -57,9 +77,31 @@ public class WeatherDataFetcherTest {
         assertEquals(Instant.ofEpochSecond(1711285872).atZone(ZoneId.systemDefault()).toLocalDateTime(), fetchedWeatherData.getObservationTimestamp());
     }
 
+    @Test
+    public void testFetchWeatherData_ShouldRecordMetrics() throws WeatherDataParsingException, WeatherDataFetchException {
+        String xml = getXmlResponse();
+        server.expect(requestTo(URL)).andRespond(withSuccess(xml, MediaType.TEXT_XML));
+
+        weatherDataFetcher.fetchWeatherData();
+
+        assertEquals(1, meterRegistry.get("weather.fetch.http").timer().count());
+        assertEquals(1, meterRegistry.get("weather.fetch.parse").timer().count());
+        assertEquals(xml.getBytes(StandardCharsets.UTF_8).length,
+                meterRegistry.get("weather.fetch.payload").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("weather.fetch.stations").tag("result", "kept").counter().count());
+        assertEquals(1, meterRegistry.get("weather.fetch.stations").tag("result", "dropped").counter().count());
+    }
+
     @Test
     public void testFetchWeatherData_FetchException() {
-        when(restTemplate.getForEntity(anyString(), eq(String.class))).thenThrow(new RestClientException("API request failed"));
+        server.expect(requestTo(URL)).andRespond(withServerError());
+
+        assertThrows(WeatherDataFetchException.class, () -> weatherDataFetcher.fetchWeatherData());
+    }
+
+    @Test
+    public void testFetchWeatherData_FetchException_WhenStatusNotOk() {
+        server.expect(requestTo(URL)).andRespond(withStatus(HttpStatus.NO_CONTENT));
 
         assertThrows(WeatherDataFetchException.class, () -> weatherDataFetcher.fetchWeatherData());
     }
@@ -67,12 +109,71 @@ public class WeatherDataFetcherTest {
     @Test
     public void testParseWeatherData_ParsingException() {
         String invalidXmlData = "<invalidXml>";
-        ResponseEntity<String> responseEntity = new ResponseEntity<>(invalidXmlData, HttpStatus.OK);
-        when(restTemplate.getForEntity(anyString(), eq(String.class))).thenReturn(responseEntity);
+        server.expect(requestTo(URL)).andRespond(withSuccess(invalidXmlData, MediaType.TEXT_XML));
 
         assertThrows(WeatherDataParsingException.class, () -> weatherDataFetcher.fetchWeatherData());
     }
 
+    @Test
+    public void testFetchWeatherData_ShouldSkipParse_WhenNotModified() throws Exception {
+        List<String> requestHeaders = new CopyOnWriteArrayList<>();
+        HttpServer stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.createContext("/observations.php", exchange -> {
+            requestHeaders.add(exchange.getRequestHeaders().getFirst("Accept-Encoding") + "|"
+                    + exchange.getRequestHeaders().getFirst("If-None-Match") + "|"
+                    + exchange.getRequestHeaders().getFirst("If-Modified-Since"));
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().set("ETag", "\"v1\"");
+            exchange.getResponseHeaders().set("Last-Modified", "Sun, 24 Mar 2024 13:11:12 GMT");
+            exchange.getResponseHeaders().set("Content-Type", "text/xml");
+            sendGzipped(exchange, getXmlResponse());
+        });
+        stub.start();
+
+        try {
+            WeatherClientConfig config = new WeatherClientConfig();
+            RestTemplate pooledRestTemplate = config.weatherRestTemplate(
+                    config.weatherHttpClient(Duration.ofSeconds(1), Duration.ofSeconds(5), 2));
+            WeatherDataFetcher fetcher = new WeatherDataFetcher(pooledRestTemplate);
+            ReflectionTestUtils.setField(fetcher, "cityToStationMap", Map.of("Tallinn", "Tallinn-Harku"));
+            ReflectionTestUtils.setField(fetcher, "url",
+                    "http://localhost:" + stub.getAddress().getPort() + "/observations.php");
+            ReflectionTestUtils.setField(fetcher, "parser", "stax");
+
+            assertEquals(1, fetcher.fetchWeatherData().size());
+            assertTrue(fetcher.fetchWeatherData().isEmpty());
+
+            assertEquals(2, requestHeaders.size());
+            assertTrue(requestHeaders.get(0).startsWith("gzip"));
+            assertTrue(requestHeaders.get(0).endsWith("|null|null"));
+            assertTrue(requestHeaders.get(1).endsWith("|\"v1\"|Sun, 24 Mar 2024 13:11:12 GMT"));
+        } finally {
+            stub.stop(0);
+        }
+    }
+
+    @Test
+    public void testFetchWeatherData_ShouldReturnEmpty_WhenNotModified() throws WeatherDataParsingException, WeatherDataFetchException {
+        server.expect(requestTo(URL)).andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+
+        assertTrue(weatherDataFetcher.fetchWeatherData().isEmpty());
+    }
+
+    private static void sendGzipped(HttpExchange exchange, String body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        exchange.sendResponseHeaders(200, compressed.size());
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            compressed.writeTo(responseBody);
+        }
+    }
 
     private String getXmlResponse() {
         return """
@@ -0,0 +1,43 @@
+package com.trial_task.food_delivery_fee.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+public class WeatherDataHealthIndicatorTest {
+
+    @Mock
+    private WeatherDataService weatherDataService;
+
+    @InjectMocks
+    private WeatherDataHealthIndicator weatherDataHealthIndicator;
+
+    @Test
+    public void testHealth_ShouldBeOutOfService_WithoutSnapshot() {
+        when(weatherDataService.hasSnapshot()).thenReturn(false);
+
+        assertEquals(Status.OUT_OF_SERVICE, weatherDataHealthIndicator.health().getStatus());
+    }
+
+    @Test
+    public void testHealth_ShouldBeUp_WithSnapshot() {
+        LocalDateTime observed = LocalDateTime.now();
+        when(weatherDataService.hasSnapshot()).thenReturn(true);
+        when(weatherDataService.getLatestObservationTimes()).thenReturn(Map.of("Tallinn-Harku", observed));
+
+        Health health = weatherDataHealthIndicator.health();
+
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(Map.of("Tallinn-Harku", observed), health.getDetails().get("latestObservations"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.repository.WeatherDataRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+public class WeatherDataRetentionJobTest {
+
+    @Mock
+    private WeatherDataRepository weatherDataRepository;
+
+    @InjectMocks
+    private WeatherDataRetentionJob weatherDataRetentionJob;
+
+    @Test
+    public void testPurgeWeatherData_ShouldDeleteRowsOlderThanRetention() {
+        when(weatherDataRepository.deleteObservedBefore(any(LocalDateTime.class))).thenReturn(12);
+        when(weatherDataRepository.count()).thenReturn(30L);
+
+        weatherDataRetentionJob.purgeWeatherData();
+        RetentionStatus status = weatherDataRetentionJob.getStatus();
+
+        verify(weatherDataRepository, never()).downsampleHourlyBefore(any());
+        assertEquals(30L, status.rowCount());
+        assertEquals(12, status.lastPurge().deletedRows());
+        assertEquals(0, status.lastPurge().downsampledRows());
+    }
+
+    @Test
+    public void testPurgeWeatherData_ShouldDownsampleBeforeDeleting_WhenEnabled() {
+        ReflectionTestUtils.setField(weatherDataRetentionJob, "downsample", true);
+        when(weatherDataRepository.downsampleHourlyBefore(any(LocalDateTime.class))).thenReturn(5);
+        when(weatherDataRepository.deleteObservedBefore(any(LocalDateTime.class))).thenReturn(2);
+
+        weatherDataRetentionJob.purgeWeatherData();
+        RetentionStats stats = weatherDataRetentionJob.getStatus().lastPurge();
+
+        LocalDateTime startedAt = stats.startedAt();
+        verify(weatherDataRepository).downsampleHourlyBefore(startedAt.minusDays(7));
+        verify(weatherDataRepository).deleteObservedBefore(startedAt.minusDays(365));
+        assertEquals(2, stats.deletedRows());
+        assertEquals(5, stats.downsampledRows());
+    }
+
+    @Test
+    public void testGetStatus_ShouldHaveNoPurge_BeforeFirstRun() {
+        assertNull(weatherDataRetentionJob.getStatus().lastPurge());
+    }
+}
@@ -4,18 +4,35 @@ import com.trial_task.food_delivery_fee.exception.WeatherDataFetchException;
 import com.trial_task.food_delivery_fee.exception.WeatherDataParsingException;
 import com.trial_task.food_delivery_fee.model.WeatherData;
 import com.trial_task.food_delivery_fee.repository.WeatherDataRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.headerDoesNotExist;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
 
 @SpringBootTest
 public class WeatherDataServiceTest {
@@ -26,24 +43,191 @@ public class WeatherDataServiceTest {
     @Mock
     private WeatherDataFetcher weatherDataFetcher;
 
-    @InjectMocks
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private WeatherMetrics weatherMetrics;
+
+    private WeatherDataWarmupService weatherDataWarmupService;
+
     private WeatherDataService weatherDataService;
 
+    private WeatherDataIngestService weatherDataIngestService;
+
+    private WeatherDataUpdateService weatherDataUpdateService;
+
     @BeforeEach
     public void setUp() {
+        weatherDataWarmupService = new WeatherDataWarmupService(weatherDataRepository);
+        weatherDataService = new WeatherDataService(weatherDataRepository, weatherDataWarmupService, weatherMetrics);
+        weatherDataIngestService = new WeatherDataIngestService(weatherDataService, weatherDataRepository, weatherMetrics);
+        weatherDataUpdateService = new WeatherDataUpdateService(weatherDataIngestService, weatherDataFetcher,
+                eventPublisher, weatherMetrics);
         ReflectionTestUtils.setField(weatherDataService, "cityToStationMap", Map.of("Tallinn", "Tallinn-Harku"));
     }
 
     @Test
-    public void testGetLatest() {
+    public void testGetLatest() throws WeatherDataParsingException, WeatherDataFetchException {
         WeatherData weatherData = new WeatherData("Tallinn-Harku", "26038", 2.1, 3.2, "Overcast", LocalDateTime.now());
-        when(weatherDataRepository.findFirstByStationNameOrderByObservationTimestampDesc("Tallinn-Harku"))
-                .thenReturn(Optional.of(weatherData));
+        when(weatherDataFetcher.fetchWeatherData()).thenReturn(List.of(weatherData));
 
+        weatherDataUpdateService.updateWeatherData();
         Optional<WeatherData> result = weatherDataService.getLatest("Tallinn");
 
         assertTrue(result.isPresent());
         assertEquals(result.get(), weatherData);
+        verify(weatherDataRepository, never()).findFirstByStationNameOrderByObservationTimestampDesc(anyString());
+    }
+
+    @Test
+    public void testGetLatest_ShouldReturnEmpty_WhenNoData() {
+        assertTrue(weatherDataService.getLatest("Tallinn").isEmpty());
+        assertTrue(weatherDataService.getLatest("UnknownCity").isEmpty());
+    }
+
+    @Test
+    public void testGetLatest_ShouldKeepNewestObservation() throws WeatherDataParsingException, WeatherDataFetchException {
+        LocalDateTime now = LocalDateTime.now();
+        WeatherData newer = new WeatherData("Tallinn-Harku", "26038", 2.1, 3.2, "Overcast", now);
+        WeatherData older = new WeatherData("Tallinn-Harku", "26038", 5.0, 1.0, "Clear", now.minusHours(1));
+        when(weatherDataFetcher.fetchWeatherData()).thenReturn(List.of(newer)).thenReturn(List.of(older));
+
+        weatherDataUpdateService.updateWeatherData();
+        weatherDataUpdateService.updateWeatherData();
+
+        assertEquals(newer, weatherDataService.getLatest("Tallinn").orElseThrow());
+    }
+
+    @Test
+    public void testInitializeWeatherData_ShouldWarmSnapshotFromDatabase() throws WeatherDataParsingException, WeatherDataFetchException {
+        WeatherData persisted = new WeatherData("Tallinn-Harku", "26038", 2.1, 3.2, "Overcast", LocalDateTime.now());
+        when(weatherDataRepository.findFirstByStationNameOrderByObservationTimestampDesc("Tallinn-Harku"))
+                .thenReturn(Optional.of(persisted));
+        when(weatherDataFetcher.fetchWeatherData()).thenThrow(WeatherDataFetchException.class);
+
+        weatherDataService.initializeWeatherData();
+        weatherDataUpdateService.fetchInitialWeatherData();
+
+        assertEquals(persisted, weatherDataService.getLatest("Tallinn").orElseThrow());
+        assertTrue(weatherDataService.hasSnapshot());
+    }
+
+    @Test
+    public void testInitializeWeatherData_ShouldWarmSnapshotFromSnapshotFile() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        WeatherData persisted = new WeatherData("Tallinn-Harku", "26038", 2.1, 3.2, "Overcast", now.minusHours(1));
+        WeatherData saved = new WeatherData("Tallinn-Harku", "26038", 1.0, 5.0, "Clear", now);
+        WeatherSnapshotFile snapshotFile = mock(WeatherSnapshotFile.class);
+        when(snapshotFile.read()).thenReturn(List.of(saved));
+        when(weatherDataRepository.findByStationNameAndObservationTimestampGreaterThanEqualOrderByObservationTimestampAsc(
+                eq("Tallinn-Harku"), any())).thenReturn(List.of(persisted));
+        setSnapshotFile(snapshotFile);
+
+        weatherDataService.initializeWeatherData();
+
+        assertEquals(saved, weatherDataService.getLatest("Tallinn").orElseThrow());
+        assertObservation(persisted, weatherDataService.getAt("Tallinn", now.minusMinutes(30)).orElseThrow());
+        verify(weatherDataRepository, never()).findFirstByStationNameOrderByObservationTimestampDesc(anyString());
+    }
+
+    @Test
+    public void testUpdateWeatherData_ShouldWriteSnapshotFile() throws WeatherDataParsingException, WeatherDataFetchException {
+        WeatherData weatherData = new WeatherData("Tallinn-Harku", "26038", 2.1, 3.2, "Overcast", LocalDateTime.now());
+        when(weatherDataFetcher.fetchWeatherData()).thenReturn(List.of(weatherData)).thenReturn(List.of(weatherData));
+        WeatherSnapshotFile snapshotFile = mock(WeatherSnapshotFile.class);
+        setSnapshotFile(snapshotFile);
+
+        weatherDataUpdateService.updateWeatherData();
+        weatherDataUpdateService.updateWeatherData();
+
+        verify(snapshotFile, times(1)).write(argThat(observations -> List.copyOf(observations).equals(List.of(weatherData))));
+    }
+
+    @Test
+    public void testGetAt_ShouldServeRecentHistoryFromMemory() throws WeatherDataParsingException, WeatherDataFetchException {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        WeatherData older = new WeatherData("Tallinn-Harku", "26038", 5.0, 1.0, "Clear", now.minusHours(1));
+        WeatherData newer = new WeatherData("Tallinn-Harku", "26038", 2.1, 3.2, "Overcast", now);
+        when(weatherDataFetcher.fetchWeatherData()).thenReturn(List.of(older)).thenReturn(List.of(newer));
+
+        weatherDataUpdateService.updateWeatherData();
+        weatherDataUpdateService.updateWeatherData();
+
+        assertObservation(older, weatherDataService.getAt("Tallinn", now.minusMinutes(30)).orElseThrow());
+        assertObservation(newer, weatherDataService.getAt("Tallinn", now).orElseThrow());
+        assertObservation(newer, weatherDataService.getAt("Tallinn", now.plusHours(1)).orElseThrow());
+        verify(weatherDataRepository, never())
+                .findFirstByStationNameAndObservationTimestampLessThanEqualOrderByObservationTimestampDesc(anyString(), any());
+    }
+
+    @Test
+    public void testGetAt_ShouldFallBackToDatabase_BeforeHistoryInMemory() throws WeatherDataParsingException, WeatherDataFetchException {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        WeatherData recent = new WeatherData("Tallinn-Harku", "26038", 2.1, 3.2, "Overcast", now);
+        WeatherData persisted = new WeatherData("Tallinn-Harku", "26038", -5.0, 1.0, "Light snow", now.minusDays(10));
+        when(weatherDataFetcher.fetchWeatherData()).thenReturn(List.of(recent));
+        when(weatherDataRepository.findFirstByStationNameAndObservationTimestampLessThanEqualOrderByObservationTimestampDesc(
+                "Tallinn-Harku", now.minusDays(9))).thenReturn(Optional.of(persisted));
+
+        weatherDataUpdateService.updateWeatherData();
+
+        assertEquals(persisted, weatherDataService.getAt("Tallinn", now.minusDays(9)).orElseThrow());
+        assertTrue(weatherDataService.getAt("UnknownCity", now).isEmpty());
+    }
+
+    @Test
+    public void testFetchInitialWeatherData_ShouldFetchOnExecutor() throws WeatherDataParsingException, WeatherDataFetchException {
+        WeatherData weatherData = new WeatherData("Tallinn-Harku", "26038", 2.1, 3.2, "Overcast", LocalDateTime.now());
+        when(weatherDataFetcher.fetchWeatherData()).thenReturn(List.of(weatherData));
+        List<Runnable> tasks = new ArrayList<>();
+        weatherDataUpdateService.setTaskExecutor(tasks::add);
+
+        weatherDataService.initializeWeatherData();
+        weatherDataUpdateService.fetchInitialWeatherData();
+
+        assertFalse(weatherDataService.hasSnapshot());
+        assertEquals(1, tasks.size());
+
+        tasks.getFirst().run();
+
+        assertEquals(weatherData, weatherDataService.getLatest("Tallinn").orElseThrow());
+    }
+
+    @Test
+    public void testFetchInitialWeatherData_ShouldRetryWithBackoff_UntilSuccess() throws WeatherDataParsingException, WeatherDataFetchException {
+        WeatherData weatherData = new WeatherData("Tallinn-Harku", "26038", 2.1, 3.2, "Overcast", LocalDateTime.now());
+        when(weatherDataFetcher.fetchWeatherData())
+                .thenThrow(WeatherDataFetchException.class)
+                .thenThrow(WeatherDataFetchException.class)
+                .thenReturn(List.of(weatherData));
+        TaskScheduler scheduler = mock(TaskScheduler.class);
+        weatherDataUpdateService.setRetryScheduler(scheduler);
+
+        weatherDataUpdateService.fetchInitialWeatherData();
+        runScheduledRetry(scheduler, Duration.ofSeconds(2));
+        runScheduledRetry(scheduler, Duration.ofSeconds(4));
+
+        assertEquals(weatherData, weatherDataService.getLatest("Tallinn").orElseThrow());
+        verify(weatherDataFetcher, times(3)).fetchWeatherData();
+        verifyNoMoreInteractions(scheduler);
+    }
+
+    @Test
+    public void testFetchInitialWeatherData_ShouldGiveUp_AfterMaxAttempts() throws WeatherDataParsingException, WeatherDataFetchException {
+        when(weatherDataFetcher.fetchWeatherData()).thenThrow(WeatherDataFetchException.class);
+        TaskScheduler scheduler = mock(TaskScheduler.class);
+        weatherDataUpdateService.setRetryScheduler(scheduler);
+        ReflectionTestUtils.setField(weatherDataUpdateService, "initialFetchMaxAttempts", 3);
+        ReflectionTestUtils.setField(weatherDataUpdateService, "initialFetchMaxBackoff", Duration.ofSeconds(3));
+
+        weatherDataUpdateService.fetchInitialWeatherData();
+        runScheduledRetry(scheduler, Duration.ofSeconds(2));
+        runScheduledRetry(scheduler, Duration.ofSeconds(3));
+
+        verify(weatherDataFetcher, times(3)).fetchWeatherData();
+        verifyNoMoreInteractions(scheduler);
+        assertFalse(weatherDataService.hasSnapshot());
     }
 
     @Test
@@ -51,15 +235,283 @@ public class WeatherDataServiceTest {
         WeatherData weatherData = new WeatherData("Tallinn-Harku", "26038", 2.1, 3.2, "Overcast", LocalDateTime.now());
         when(weatherDataFetcher.fetchWeatherData()).thenReturn(List.of(weatherData));
 
-        weatherDataService.updateWeatherData();
+        weatherDataUpdateService.updateWeatherData();
+
+        verify(weatherDataRepository, times(1)).saveAll(anyList());
+        verify(eventPublisher, times(1)).publishEvent(any(WeatherDataUpdatedEvent.class));
+    }
+
+    @Test
+    public void testUpdateWeatherData_ShouldSkipWrite_WhenTimestampUnchanged() throws WeatherDataParsingException, WeatherDataFetchException {
+        LocalDateTime now = LocalDateTime.now();
+        WeatherData weatherData = new WeatherData("Tallinn-Harku", "26038", 2.1, 3.2, "Overcast", now);
+        WeatherData republished = new WeatherData("Tallinn-Harku", "26038", 2.1, 3.2, "Overcast", now);
+        when(weatherDataFetcher.fetchWeatherData()).thenReturn(List.of(weatherData)).thenReturn(List.of(republished));
+
+        weatherDataUpdateService.updateWeatherData();
+        weatherDataUpdateService.updateWeatherData();
+
+        verify(weatherDataRepository, times(1)).saveAll(anyList());
+        verify(eventPublisher, times(1)).publishEvent(any(WeatherDataUpdatedEvent.class));
+    }
+
+    @Test
+    public void testUpdateWeatherData_ShouldSaveOnlyNewObservations() throws WeatherDataParsingException, WeatherDataFetchException {
+        LocalDateTime now = LocalDateTime.now();
+        WeatherData persisted = new WeatherData("Tallinn-Harku", "26038", 2.1, 3.2, "Overcast", now);
+        WeatherData unchanged = new WeatherData("Tallinn-Harku", "26038", 2.1, 3.2, "Overcast", now);
+        WeatherData added = new WeatherData("Tartu-Tõravere", "26242", 1.0, 2.0, "Clear", now);
+        ReflectionTestUtils.setField(weatherDataService, "cityToStationMap",
+                Map.of("Tallinn", "Tallinn-Harku", "Tartu", "Tartu-Tõravere"));
+        when(weatherDataRepository.findFirstByStationNameOrderByObservationTimestampDesc("Tallinn-Harku"))
+                .thenReturn(Optional.of(persisted));
+        when(weatherDataFetcher.fetchWeatherData()).thenReturn(List.of(unchanged, added));
+
+        weatherDataService.initializeWeatherData();
+        weatherDataUpdateService.fetchInitialWeatherData();
+
+        verify(weatherDataRepository).saveAll(List.of(added));
+    }
+
+    @Test
+    public void testUpdateWeatherData_ShouldSkipObservationsAlreadyStored() throws WeatherDataParsingException, WeatherDataFetchException {
+        LocalDateTime now = LocalDateTime.now();
+        WeatherData stored = new WeatherData("Tallinn-Harku", "26038", 2.1, 3.2, "Overcast", now);
+        WeatherData added = new WeatherData("Tartu-Tõravere", "26242", 1.0, 2.0, "Clear", now);
+        ReflectionTestUtils.setField(weatherDataService, "cityToStationMap",
+                Map.of("Tallinn", "Tallinn-Harku", "Tartu", "Tartu-Tõravere"));
+        when(weatherDataRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("uk_weather_data_station_timestamp"));
+        when(weatherDataRepository.save(argThat(observation -> observation.getStationName().equals("Tallinn-Harku"))))
+                .thenThrow(new DataIntegrityViolationException("uk_weather_data_station_timestamp"));
+        when(weatherDataFetcher.fetchWeatherData()).thenReturn(List.of(stored, added));
 
+        weatherDataUpdateService.updateWeatherData();
+        weatherDataUpdateService.updateWeatherData();
+
+        assertEquals(stored, weatherDataService.getLatest("Tallinn").orElseThrow());
+        assertEquals(added, weatherDataService.getLatest("Tartu").orElseThrow());
         verify(weatherDataRepository, times(1)).saveAll(anyList());
+        verify(weatherDataRepository).save(argThat(observation -> observation.getStationName().equals("Tartu-Tõravere")));
+        verify(eventPublisher, times(1)).publishEvent(any(WeatherDataUpdatedEvent.class));
+    }
+
+    @Test
+    public void testGetLatestAt_ShouldUseNearestStationWithinMaxDistance() throws WeatherDataParsingException, WeatherDataFetchException {
+        LocalDateTime now = LocalDateTime.now();
+        WeatherData harku = positioned(new WeatherData("Tallinn-Harku", "26038", 2.1, 3.2, "Overcast", now), 59.398, 24.603);
+        WeatherData kunda = positioned(new WeatherData("Kunda", "26045", 1.0, 6.0, "Light snow shower", now), 59.521, 26.541);
+        WeatherData unpositioned = new WeatherData("Ruhnu", "26231", 0.0, 9.0, "Clear", now);
+        when(weatherDataFetcher.fetchWeatherData()).thenReturn(List.of(harku, kunda, unpositioned));
+
+        weatherDataUpdateService.updateWeatherData();
+
+        assertEquals(harku, weatherDataService.getLatestAt(59.437, 24.754).orElseThrow());
+        assertEquals(kunda, weatherDataService.getLatestAt(59.35, 26.36).orElseThrow());
+        assertTrue(weatherDataService.getLatestAt(52.52, 13.40).isEmpty());
+        assertEquals("Tallinn", weatherDataService.getNearestCity(59.437, 24.754).orElseThrow());
+        assertTrue(weatherDataService.getNearestCity(59.35, 26.36).isEmpty());
+        assertTrue(weatherDataService.getNearestCity(58.38, 24.50).isEmpty());
+    }
+
+    @Test
+    public void testUpdateWeatherData_ShouldOnlyStoreConfiguredStations() throws WeatherDataParsingException, WeatherDataFetchException {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        WeatherData harku = positioned(new WeatherData("Tallinn-Harku", "26038", 2.1, 3.2, "Overcast", now), 59.398, 24.603);
+        WeatherData kunda = positioned(new WeatherData("Kunda", "26045", 1.0, 6.0, "Light snow shower", now), 59.521, 26.541);
+        when(weatherDataFetcher.fetchWeatherData()).thenReturn(List.of(harku, kunda));
+        WeatherSnapshotFile snapshotFile = mock(WeatherSnapshotFile.class);
+        setSnapshotFile(snapshotFile);
+
+        weatherDataUpdateService.updateWeatherData();
+
+        assertEquals(kunda, weatherDataService.getLatestAt(59.35, 26.36).orElseThrow());
+        verify(weatherDataRepository).saveAll(List.of(harku));
+        verify(snapshotFile).write(argThat(observations -> List.copyOf(observations).equals(List.of(harku))));
+    }
+
+    @Test
+    public void testGetLatestAt_ShouldInterpolateByInverseDistance() throws WeatherDataParsingException, WeatherDataFetchException {
+        LocalDateTime now = LocalDateTime.now();
+        WeatherData west = positioned(new WeatherData("West", "1", 0.0, 10.0, "Clear", now), 59.0, 24.0);
+        WeatherData east = positioned(new WeatherData("East", "2", 4.0, 2.0, "Light rain", now.minusMinutes(20)), 59.0, 24.2);
+        when(weatherDataFetcher.fetchWeatherData()).thenReturn(List.of(west, east));
+        ReflectionTestUtils.setField(weatherDataService, "geoNeighbours", 2);
+
+        weatherDataUpdateService.updateWeatherData();
+        WeatherData midway = weatherDataService.getLatestAt(59.0, 24.1).orElseThrow();
+        WeatherData atWest = weatherDataService.getLatestAt(59.0, 24.0).orElseThrow();
+
+        assertEquals(2.0, midway.getAirTemperature(), 1e-6);
+        assertEquals(6.0, midway.getWindSpeed(), 1e-6);
+        assertEquals(now.minusMinutes(20), midway.getObservationTimestamp());
+        assertSame(west, atWest);
+    }
+
+    @Test
+    public void testUpdateWeatherData_ShouldKeepKnownPosition() throws WeatherDataParsingException, WeatherDataFetchException {
+        LocalDateTime now = LocalDateTime.now();
+        WeatherData positioned = positioned(new WeatherData("Tallinn-Harku", "26038", 2.1, 3.2, "Overcast", now.minusHours(1)), 59.398, 24.603);
+        WeatherData unpositioned = new WeatherData("Tallinn-Harku", "26038", 1.0, 4.0, "Clear", now);
+        when(weatherDataFetcher.fetchWeatherData()).thenReturn(List.of(positioned)).thenReturn(List.of(unpositioned));
+
+        weatherDataUpdateService.updateWeatherData();
+        weatherDataUpdateService.updateWeatherData();
+
+        assertEquals(unpositioned, weatherDataService.getLatestAt(59.398, 24.603).orElseThrow());
+        assertEquals(59.398, unpositioned.getLatitude());
     }
 
     @Test
     public void testUpdateWeatherData_Failure() throws WeatherDataParsingException, WeatherDataFetchException {
         when(weatherDataFetcher.fetchWeatherData()).thenThrow(WeatherDataFetchException.class);
 
-        assertThrows(WeatherDataFetchException.class, () -> weatherDataService.updateWeatherData());
+        assertThrows(WeatherDataFetchException.class, () -> weatherDataUpdateService.updateWeatherData());
+    }
+
+    @Test
+    public void testUpdateWeatherData_ShouldFetchUnconditionally_AfterIngestFailed() throws WeatherDataParsingException, WeatherDataFetchException {
+        String url = "https://www.ilmateenistus.ee/ilma_andmed/xml/observations.php";
+        RestTemplate restTemplate = new RestTemplate();
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        WeatherDataFetcher fetcher = new WeatherDataFetcher(restTemplate, new WeatherMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(fetcher, "cityToStationMap", Map.of("Tallinn", "Tallinn-Harku"));
+        ReflectionTestUtils.setField(fetcher, "url", url);
+        weatherDataUpdateService = new WeatherDataUpdateService(weatherDataIngestService, fetcher, eventPublisher, weatherMetrics);
+        HttpHeaders validators = new HttpHeaders();
+        validators.setETag("\"v1\"");
+        String xml = """
+                <observations timestamp="1711285872">
+                <station>
+                <name>Tallinn-Harku</name>
+                <wmocode>26038</wmocode>
+                <phenomenon>Variable clouds</phenomenon>
+                <airtemperature>3.8</airtemperature>
+                <windspeed>2.8</windspeed>
+                </station>
+                </observations>
+                """;
+        server.expect(requestTo(url)).andExpect(headerDoesNotExist(HttpHeaders.IF_NONE_MATCH))
+                .andRespond(withSuccess(xml, MediaType.TEXT_XML).headers(validators));
+        server.expect(requestTo(url)).andExpect(headerDoesNotExist(HttpHeaders.IF_NONE_MATCH))
+                .andRespond(withSuccess(xml, MediaType.TEXT_XML).headers(validators));
+        when(weatherDataRepository.saveAll(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("database unavailable"))
+                .thenReturn(List.of());
+
+        assertThrows(DataAccessResourceFailureException.class, () -> weatherDataUpdateService.updateWeatherData());
+        weatherDataUpdateService.updateWeatherData();
+
+        server.verify();
+        assertEquals("Variable clouds", weatherDataService.getLatest("Tallinn").orElseThrow().getWeatherPhenomenon());
+    }
+
+    @Test
+    public void testUpdateWeatherData_ShouldKeepFreshestObservation_AcrossProviders() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        WeatherData older = new WeatherData("Tallinn-Harku", "26038", 5.0, 1.0, "Clear", now.minusMinutes(30));
+        WeatherData newer = new WeatherData("Tallinn-Harku", "26038", 2.1, 3.2, "Overcast", now);
+        when(weatherDataFetcher.fetchWeatherData()).thenReturn(List.of(older));
+        WeatherProvider fileDrop = provider("fileDrop");
+        when(fileDrop.fetchWeatherData()).thenReturn(List.of(newer));
+        weatherDataUpdateService.setWeatherProviders(List.of(weatherDataFetcher, fileDrop));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            weatherDataUpdateService.setTaskExecutor(executor::execute);
+            weatherDataUpdateService.updateWeatherData();
+        }
+
+        assertEquals(newer, weatherDataService.getLatest("Tallinn").orElseThrow());
+        verify(weatherMetrics).recordProviderFetch(eq("fileDrop"), anyLong(), eq(true));
+    }
+
+    @Test
+    public void testUpdateWeatherData_ShouldIngestOtherProviders_WhenOneFails() throws Exception {
+        WeatherData weatherData = new WeatherData("Tallinn-Harku", "26038", 2.1, 3.2, "Overcast", LocalDateTime.now());
+        when(weatherDataFetcher.getName()).thenReturn("xml");
+        when(weatherDataFetcher.fetchWeatherData()).thenThrow(WeatherDataFetchException.class);
+        WeatherProvider fileDrop = provider("fileDrop");
+        when(fileDrop.fetchWeatherData()).thenReturn(List.of(weatherData));
+        weatherDataUpdateService.setWeatherProviders(List.of(weatherDataFetcher, fileDrop));
+
+        weatherDataUpdateService.updateWeatherData();
+
+        assertEquals(weatherData, weatherDataService.getLatest("Tallinn").orElseThrow());
+        verify(weatherMetrics).recordProviderFetch(eq("xml"), anyLong(), eq(false));
+    }
+
+    @Test
+    public void testUpdateWeatherData_ShouldThrow_WhenAllProvidersFail() throws Exception {
+        when(weatherDataFetcher.fetchWeatherData()).thenThrow(WeatherDataParsingException.class);
+        WeatherProvider fileDrop = provider("fileDrop");
+        when(fileDrop.fetchWeatherData()).thenThrow(WeatherDataFetchException.class);
+        weatherDataUpdateService.setWeatherProviders(List.of(weatherDataFetcher, fileDrop));
+
+        assertThrows(WeatherDataParsingException.class, () -> weatherDataUpdateService.updateWeatherData());
+    }
+
+    @Test
+    public void testUpdateWeatherData_ShouldNotWaitForSlowProvider() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        WeatherData fast = new WeatherData("Tallinn-Harku", "26038", 2.1, 3.2, "Overcast", now.minusMinutes(30));
+        WeatherData late = new WeatherData("Tallinn-Harku", "26038", 5.0, 1.0, "Clear", now);
+        when(weatherDataFetcher.fetchWeatherData()).thenReturn(List.of(fast));
+        CountDownLatch release = new CountDownLatch(1);
+        WeatherProvider slow = provider("json");
+        when(slow.fetchWeatherData()).thenAnswer(invocation -> {
+            release.await();
+            return List.of(late);
+        });
+        weatherDataUpdateService.setWeatherProviders(List.of(weatherDataFetcher, slow));
+        ReflectionTestUtils.setField(weatherDataUpdateService, "providerTimeout", Duration.ofMillis(200));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            weatherDataUpdateService.setTaskExecutor(executor::execute);
+            weatherDataUpdateService.updateWeatherData();
+
+            assertEquals(fast, weatherDataService.getLatest("Tallinn").orElseThrow());
+            release.countDown();
+        }
+
+        assertEquals(late, weatherDataService.getLatest("Tallinn").orElseThrow());
+    }
+
+    private void setSnapshotFile(WeatherSnapshotFile snapshotFile) {
+        weatherDataWarmupService.setSnapshotFile(snapshotFile);
+        weatherDataIngestService.setSnapshotFile(snapshotFile);
+    }
+
+    private static WeatherData positioned(WeatherData weatherData, double latitude, double longitude) {
+        weatherData.setPosition(latitude, longitude);
+        return weatherData;
+    }
+
+    private static WeatherProvider provider(String name) {
+        WeatherProvider provider = mock(WeatherProvider.class);
+        when(provider.getName()).thenReturn(name);
+        return provider;
+    }
+
+    private static void runScheduledRetry(TaskScheduler scheduler, Duration expectedBackoff) {
+        ArgumentCaptor<Runnable> retry = ArgumentCaptor.forClass(Runnable.class);
+        ArgumentCaptor<Instant> startTime = ArgumentCaptor.forClass(Instant.class);
+        Instant before = Instant.now();
+        verify(scheduler, atLeastOnce()).schedule(retry.capture(), startTime.capture());
+        clearInvocations(scheduler);
+
+        Duration backoff = Duration.between(before, startTime.getValue());
+        assertTrue(backoff.compareTo(expectedBackoff) <= 0 && backoff.compareTo(expectedBackoff.minusSeconds(1)) > 0);
+        retry.getValue().run();
+    }
+
+    /**
+     * Asserts that the history served an observation equal to the expected one, as it keeps a columnar copy.
+     */
+    private static void assertObservation(WeatherData expected, WeatherData actual) {
+        assertEquals(expected.getStationName(), actual.getStationName());
+        assertEquals(expected.getWMOCode(), actual.getWMOCode());
+        assertEquals(expected.getAirTemperature(), actual.getAirTemperature());
+        assertEquals(expected.getWindSpeed(), actual.getWindSpeed());
+        assertEquals(expected.getWeatherPhenomenon(), actual.getWeatherPhenomenon());
+        assertEquals(expected.getObservationTimestamp(), actual.getObservationTimestamp());
     }
 }
@@ -4,22 +4,19 @@ import com.trial_task.food_delivery_fee.exception.ForbiddenVehicleTypeException;
 import com.trial_task.food_delivery_fee.model.WeatherData;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.test.util.ReflectionTestUtils;
-
-import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
 
 @SpringBootTest
 class WeatherFeeServiceTest {
 
-    @InjectMocks
     private WeatherFeeService weatherFeeService;
 
     @Mock
@@ -27,19 +24,7 @@ class WeatherFeeServiceTest {
 
     @BeforeEach
     void setUp() {
-        ReflectionTestUtils.setField(weatherFeeService, "temperatureApplicableVehicles", List.of("bike", "scooter"));
-        ReflectionTestUtils.setField(weatherFeeService, "temperatureThresholds", List.of(-10.0, 0.0));
-        ReflectionTestUtils.setField(weatherFeeService, "temperatureFees", List.of(1.0, 0.5));
-
-        ReflectionTestUtils.setField(weatherFeeService, "windSpeedApplicableVehicles", List.of("bike"));
-        ReflectionTestUtils.setField(weatherFeeService, "maxAllowedWindSpeed", 20.0);
-        ReflectionTestUtils.setField(weatherFeeService, "windSpeedThresholds", List.of(10.0));
-        ReflectionTestUtils.setField(weatherFeeService, "windSpeedFees", List.of(0.5));
-
-        ReflectionTestUtils.setField(weatherFeeService, "weatherPhenomenonApplicableVehicles", List.of("bike", "scooter"));
-        ReflectionTestUtils.setField(weatherFeeService, "forbiddenWeatherPhenomena", List.of("glaze", "hail", "thunder"));
-        ReflectionTestUtils.setField(weatherFeeService, "weatherPhenomenaTypes", List.of("snow","sleet","rain","shower"));
-        ReflectionTestUtils.setField(weatherFeeService, "weatherPhenomenaFees", List.of(1.0, 1.0, 0.5, 0.5));
+        weatherFeeService = new WeatherFeeService(TestFeeRules.service());
     }
 
     @Test
@@ -95,4 +80,13 @@ class WeatherFeeServiceTest {
         when(weatherData.getWeatherPhenomenon()).thenReturn("Glaze");
         assertThrows(ForbiddenVehicleTypeException.class, () -> weatherFeeService.calculateWeatherPhenomenonExtraFee("bike", weatherData));
     }
+
+    @Test
+    void testIsVehicleForbidden_ShouldReportForbiddenWeatherWithoutThrowing() {
+        when(weatherData.getWindSpeed()).thenReturn(5.0);
+        when(weatherData.getWeatherPhenomenon()).thenReturn("Thunderstorm");
+
+        assertTrue(weatherFeeService.isVehicleForbidden("bike", weatherData));
+        assertFalse(weatherFeeService.isVehicleForbidden("car", weatherData));
+    }
 }
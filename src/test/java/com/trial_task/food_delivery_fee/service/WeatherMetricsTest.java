@@ -0,0 +1,50 @@
+package com.trial_task.food_delivery_fee.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+public class WeatherMetricsTest {
+
+    private SimpleMeterRegistry registry;
+
+    private WeatherMetrics weatherMetrics;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        weatherMetrics = new WeatherMetrics(registry);
+    }
+
+    @Test
+    public void testRegisterProviders_ShouldRegisterFetchTimersUpFront() {
+        weatherMetrics.registerProviders(List.of("xml", "fileDrop"));
+
+        assertEquals(4, registry.get(WeatherMetrics.PROVIDER_FETCH).timers().size());
+        Timer success = registry.get(WeatherMetrics.PROVIDER_FETCH).tags("provider", "xml", "result", "success").timer();
+
+        weatherMetrics.recordProviderFetch("xml", TimeUnit.MILLISECONDS.toNanos(3), true);
+        weatherMetrics.recordProviderFetch("xml", TimeUnit.MILLISECONDS.toNanos(1), false);
+
+        assertEquals(3.0, success.totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(1, registry.get(WeatherMetrics.PROVIDER_FETCH)
+                .tags("provider", "xml", "result", "failure").timer().count());
+        assertEquals(4, registry.get(WeatherMetrics.PROVIDER_FETCH).timers().size());
+    }
+
+    @Test
+    public void testRecordProviderFetch_ShouldRegisterTimers_WhenProviderUnknown() {
+        weatherMetrics.recordProviderFetch("json", TimeUnit.MILLISECONDS.toNanos(2), true);
+
+        assertEquals(1, registry.get(WeatherMetrics.PROVIDER_FETCH)
+                .tags("provider", "json", "result", "success").timer().count());
+    }
+}
@@ -0,0 +1,72 @@
+package com.trial_task.food_delivery_fee.service;
+
+import com.trial_task.food_delivery_fee.model.WeatherData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class WeatherSnapshotFileTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void testRead_ShouldReturnWrittenObservations() {
+        LocalDateTime observed = LocalDateTime.of(2024, 3, 1, 12, 15, 30, 500);
+        WeatherSnapshotFile snapshotFile = new WeatherSnapshotFile(directory.resolve("snapshots/weather.bin"));
+
+        WeatherData harku = new WeatherData("Tallinn-Harku", "26038", -2.5, 4.1, "Light snow shower", observed);
+        harku.setPosition(59.398, 24.603);
+
+        snapshotFile.write(List.of(
+                harku,
+                new WeatherData("Tartu-Tõravere", null, 1.0, 0.0, null, observed.minusHours(1))));
+        List<WeatherData> observations = snapshotFile.read();
+
+        assertEquals(2, observations.size());
+        WeatherData tallinn = observations.get(0);
+        assertEquals("Tallinn-Harku", tallinn.getStationName());
+        assertEquals("26038", tallinn.getWMOCode());
+        assertEquals(-2.5, tallinn.getAirTemperature());
+        assertEquals(4.1, tallinn.getWindSpeed());
+        assertEquals("Light snow shower", tallinn.getWeatherPhenomenon());
+        assertEquals(observed, tallinn.getObservationTimestamp());
+        assertEquals(59.398, tallinn.getLatitude());
+        assertEquals(24.603, tallinn.getLongitude());
+        WeatherData tartu = observations.get(1);
+        assertEquals("Tartu-Tõravere", tartu.getStationName());
+        assertNull(tartu.getWMOCode());
+        assertNull(tartu.getWeatherPhenomenon());
+        assertFalse(tartu.hasPosition());
+    }
+
+    @Test
+    public void testRead_ShouldReturnEmpty_WhenFileIsMissing() {
+        assertTrue(new WeatherSnapshotFile(directory.resolve("missing.bin")).read().isEmpty());
+    }
+
+    @Test
+    public void testRead_ShouldReturnEmpty_WhenFileIsCorrupted() throws IOException {
+        Path path = directory.resolve("weather.bin");
+        WeatherSnapshotFile snapshotFile = new WeatherSnapshotFile(path);
+        snapshotFile.write(List.of(new WeatherData("Pärnu", "41803", 3.0, 2.0, "Clear", LocalDateTime.now())));
+
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[10] ^= 1;
+        Files.write(path, bytes);
+
+        assertTrue(snapshotFile.read().isEmpty());
+    }
+}